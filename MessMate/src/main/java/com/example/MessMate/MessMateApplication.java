@@ -1,16 +1,22 @@
 package com.example.MessMate;
 
 import com.example.MessMate.service.UserService;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MessMateApplication implements CommandLineRunner {
 
-	@Autowired
-	private UserService userService;
+	// Absent in test slices (e.g. @DataJpaTest) that do not load the service layer
+	private final ObjectProvider<UserService> userService;
+
+	public MessMateApplication(ObjectProvider<UserService> userService) {
+		this.userService = userService;
+	}
 
 	public static void main(String[] args) {
 		SpringApplication.run(MessMateApplication.class, args);
@@ -19,7 +25,7 @@ public class MessMateApplication implements CommandLineRunner {
 	@Override
 	public void run(String... args) throws Exception {
 		// Initialize default admin user on application startup
-		userService.initializeDefaultAdmin();
+		userService.ifAvailable(UserService::initializeDefaultAdmin);
 		System.out.println("=== MessMate Application Started Successfully ===");
 		System.out.println("Server running on: http://localhost:8080");
 		System.out.println("Database: PostgreSQL (messmate_db_chit)");
@@ -1,26 +1,46 @@
 package com.example.MessMate.config;
 
+import com.example.MessMate.service.PasswordHashingService;
+import com.example.MessMate.service.SessionTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
     
+    /**
+     * BCrypt on a bounded pool of its own; a cost of 0 means calibrate to the target latency at startup.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordHashingService passwordEncoder(MeterRegistry meterRegistry,
+                                                  @Value("${app.passwords.threads:2}") int threads,
+                                                  @Value("${app.passwords.queue-capacity:64}") int queueCapacity,
+                                                  @Value("${app.passwords.bcrypt-cost:0}") int bcryptCost,
+                                                  @Value("${app.passwords.target-ms:250}") long targetMs,
+                                                  @Value("${app.passwords.min-cost:10}") int minCost,
+                                                  @Value("${app.passwords.max-cost:14}") int maxCost,
+                                                  @Value("${app.passwords.wait-timeout-ms:5000}") long waitTimeoutMs) {
+        return new PasswordHashingService(meterRegistry, threads, queueCapacity, bcryptCost,
+                targetMs, minCost, maxCost, waitTimeoutMs);
     }
     
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, SessionTokenService sessionTokenService,
+                                           ObjectMapper objectMapper) throws Exception {
+        // Identity comes from the signed session token on each request, never from a server session
         http
             .csrf(csrf -> csrf.disable())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilterBefore(new SessionTokenFilter(sessionTokenService, objectMapper), UsernamePasswordAuthenticationFilter.class)
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/api/**").permitAll()
                 .requestMatchers("/**").permitAll()
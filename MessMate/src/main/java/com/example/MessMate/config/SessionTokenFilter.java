@@ -0,0 +1,63 @@
+package com.example.MessMate.config;
+
+import com.example.MessMate.dto.ApiResponse;
+import com.example.MessMate.dto.SessionPrincipal;
+import com.example.MessMate.service.SessionTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Authenticates requests carrying {@code Authorization: Bearer <session token>} from the token
+ * alone. The principal becomes a {@link SessionPrincipal} with authority {@code ROLE_<role>}.
+ * Requests without the header pass through unauthenticated; a bad, expired or revoked token is
+ * answered with 401 so the client knows to log in again.
+ */
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final SessionTokenService sessionTokenService;
+    private final ObjectMapper objectMapper;
+
+    public SessionTokenFilter(SessionTokenService sessionTokenService, ObjectMapper objectMapper) {
+        this.sessionTokenService = sessionTokenService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<SessionPrincipal> principal = sessionTokenService.verify(header.substring(BEARER.length()).trim());
+        if (principal.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), ApiResponse.error("Session expired or invalid, please log in again"));
+            return;
+        }
+
+        SessionPrincipal session = principal.get();
+        UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                session, null, List.of(new SimpleGrantedAuthority("ROLE_" + session.role())));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        chain.doFilter(request, response);
+    }
+}
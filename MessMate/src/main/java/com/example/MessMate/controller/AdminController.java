@@ -1,8 +1,10 @@
 package com.example.MessMate.controller;
 
 import com.example.MessMate.dto.ApiResponse;
+import com.example.MessMate.dto.DashboardCounts;
 import com.example.MessMate.entity.User;
 import com.example.MessMate.repository.UserRepository;
+import com.example.MessMate.service.DashboardCounters;
 import com.example.MessMate.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +23,16 @@ public class AdminController {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserService userService;
+    private final DashboardCounters dashboardCounters;
+    
+    /**
+     * Every dashboard count in one response, served from memory.
+     */
+    @GetMapping("/dashboard/counts")
+    public ResponseEntity<ApiResponse> getDashboardCounts() {
+        DashboardCounts counts = dashboardCounters.snapshot();
+        return ResponseEntity.ok(ApiResponse.success("Dashboard counts retrieved successfully", counts));
+    }
     
     @PostMapping("/change-password")
     public ResponseEntity<ApiResponse> changePassword(@RequestBody Map<String, String> request) {
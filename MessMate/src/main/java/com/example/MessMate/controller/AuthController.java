@@ -2,11 +2,17 @@ package com.example.MessMate.controller;
 
 import com.example.MessMate.dto.ApiResponse;
 import com.example.MessMate.dto.LoginRequest;
+import com.example.MessMate.dto.SessionPrincipal;
 import com.example.MessMate.dto.SignupRequest;
 import com.example.MessMate.dto.UserResponse;
+import com.example.MessMate.service.PasswordHashingService;
+import com.example.MessMate.service.SessionTokenService;
 import com.example.MessMate.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -16,12 +22,17 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
     
     private final UserService userService;
+    private final SessionTokenService sessionTokenService;
     
     @PostMapping("/signup")
     public ResponseEntity<ApiResponse> signup(@RequestBody SignupRequest request) {
         try {
             UserResponse user = userService.signup(request);
             return ResponseEntity.ok(ApiResponse.success("User registered successfully", user));
+        } catch (PasswordHashingService.BusyException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -31,12 +42,39 @@ public class AuthController {
     public ResponseEntity<ApiResponse> login(@RequestBody LoginRequest request) {
         try {
             UserResponse user = userService.login(request);
+            user.setSessionToken(sessionTokenService.issue(
+                    SessionPrincipal.SubjectType.USER, user.getId(), user.getEmail(), user.getUserType()));
             return ResponseEntity.ok(ApiResponse.success("Login successful", user));
+        } catch (PasswordHashingService.BusyException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
     }
     
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("No session token supplied"));
+        }
+        try {
+            sessionTokenService.revoke(authorization.substring(7).trim());
+            return ResponseEntity.ok(ApiResponse.success("Logged out"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/session")
+    public ResponseEntity<ApiResponse> getSession(@AuthenticationPrincipal SessionPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error("Not logged in"));
+        }
+        return ResponseEntity.ok(ApiResponse.success("Session is valid", principal));
+    }
+    
     @GetMapping("/user/{email}")
     public ResponseEntity<ApiResponse> getUserByEmail(@PathVariable String email) {
         return userService.getUserByEmail(email)
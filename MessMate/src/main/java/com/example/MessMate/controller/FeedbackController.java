@@ -1,17 +1,28 @@
 package com.example.MessMate.controller;
 
 import com.example.MessMate.dto.ApiResponse;
+import com.example.MessMate.dto.BulkFeedbackRequest;
+import com.example.MessMate.dto.BulkFeedbackResult;
+import com.example.MessMate.dto.FeedbackAnalytics;
+import com.example.MessMate.dto.FeedbackPage;
 import com.example.MessMate.dto.FeedbackResponseDTO;
+import com.example.MessMate.dto.FeedbackSearchResult;
 import com.example.MessMate.entity.Feedback;
+import com.example.MessMate.service.FeedbackIngestionService;
 import com.example.MessMate.service.FeedbackService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/feedback")
@@ -20,6 +31,7 @@ import java.util.stream.Collectors;
 public class FeedbackController {
     
     private final FeedbackService feedbackService;
+    private final FeedbackIngestionService feedbackIngestionService;
     
     @PostMapping("/submit")
     public ResponseEntity<ApiResponse> submitFeedback(@RequestBody Map<String, Object> request) {
@@ -43,7 +55,8 @@ public class FeedbackController {
             
             Feedback.FeedbackType feedbackType = Feedback.FeedbackType.valueOf(feedbackTypeStr.toUpperCase());
             
-            Feedback feedback = feedbackService.submitFeedback(studentEmail, feedbackType, rating, message);
+            Feedback feedback = feedbackService.submitFeedback(studentEmail, feedbackType, rating, message, null,
+                    dailyMenuId(request), menuItemIds(request));
             FeedbackResponseDTO responseDTO = FeedbackResponseDTO.fromEntity(feedback);
             
             return ResponseEntity.ok(ApiResponse.success("Feedback submitted successfully", responseDTO));
@@ -57,44 +70,108 @@ public class FeedbackController {
         }
     }
     
-    @GetMapping("/all")
-    public ResponseEntity<ApiResponse> getAllFeedback() {
+    /**
+     * Buffered variant of /submit for bursts: answers 202 with a submission key once the
+     * feedback is queued, or 429 when the buffer is full. The stored feedback can be fetched
+     * from /submission/{key} as soon as it has been written.
+     */
+    @PostMapping("/submit/async")
+    public ResponseEntity<ApiResponse> submitFeedbackAsync(@RequestBody Map<String, Object> request) {
+        try {
+            String studentEmail = (String) request.get("studentEmail");
+            String feedbackTypeStr = (String) request.get("feedbackType");
+            Integer rating = (Integer) request.get("rating");
+            String message = (String) request.get("message");
+            
+            if (studentEmail == null || feedbackTypeStr == null || rating == null || message == null) {
+                return ResponseEntity.badRequest().body(
+                    ApiResponse.error("Missing required fields: studentEmail, feedbackType, rating, message")
+                );
+            }
+            
+            if (rating < 1 || rating > 5) {
+                return ResponseEntity.badRequest().body(
+                    ApiResponse.error("Rating must be between 1 and 5")
+                );
+            }
+            
+            Feedback.FeedbackType feedbackType = Feedback.FeedbackType.valueOf(feedbackTypeStr.toUpperCase());
+            
+            String submissionKey = feedbackIngestionService.submit(studentEmail, feedbackType, rating, message,
+                    dailyMenuId(request), menuItemIds(request));
+            if (submissionKey == null) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(ApiResponse.error("Feedback is arriving faster than it can be stored, please retry shortly"));
+            }
+            
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+                ApiResponse.success("Feedback accepted", Map.of("submissionKey", submissionKey))
+            );
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Invalid feedback type: " + e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to submit feedback"));
+        }
+    }
+    
+    @GetMapping("/submission/{submissionKey}")
+    public ResponseEntity<ApiResponse> getFeedbackBySubmissionKey(@PathVariable String submissionKey) {
         try {
-            List<Feedback> feedbackList = feedbackService.getAllFeedback();
-            List<FeedbackResponseDTO> responseDTOs = feedbackList.stream()
-                .map(FeedbackResponseDTO::fromEntity)
-                .collect(Collectors.toList());
+            Optional<FeedbackResponseDTO> feedbackOpt = feedbackService.getFeedbackResponseBySubmissionKey(submissionKey);
+            if (feedbackOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
             
-            return ResponseEntity.ok(ApiResponse.success("Feedback retrieved successfully", responseDTOs));
+            return ResponseEntity.ok(ApiResponse.success("Feedback retrieved successfully", feedbackOpt.get()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to retrieve feedback"));
+        }
+    }
+    
+    @GetMapping("/all")
+    public ResponseEntity<ApiResponse> getAllFeedback(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId) {
+        try {
+            return listFeedback("Feedback retrieved successfully", null, null, null, null, null,
+                    page, size, beforeCreatedAt, beforeId);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to retrieve feedback"));
         }
     }
     
     @GetMapping("/student/{email}")
-    public ResponseEntity<ApiResponse> getFeedbackByStudent(@PathVariable String email) {
+    public ResponseEntity<ApiResponse> getFeedbackByStudent(
+            @PathVariable String email,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId) {
         try {
-            List<Feedback> feedbackList = feedbackService.getFeedbackByStudent(email);
-            List<FeedbackResponseDTO> responseDTOs = feedbackList.stream()
-                .map(FeedbackResponseDTO::fromEntity)
-                .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(ApiResponse.success("Student feedback retrieved successfully", responseDTOs));
+            return listFeedback("Student feedback retrieved successfully", null, null, null, email, null,
+                    page, size, beforeCreatedAt, beforeId);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to retrieve student feedback"));
         }
     }
     
     @GetMapping("/status/{status}")
-    public ResponseEntity<ApiResponse> getFeedbackByStatus(@PathVariable String status) {
+    public ResponseEntity<ApiResponse> getFeedbackByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId) {
         try {
             Feedback.FeedbackStatus feedbackStatus = Feedback.FeedbackStatus.valueOf(status.toUpperCase());
-            List<Feedback> feedbackList = feedbackService.getFeedbackByStatus(feedbackStatus);
-            List<FeedbackResponseDTO> responseDTOs = feedbackList.stream()
-                .map(FeedbackResponseDTO::fromEntity)
-                .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(ApiResponse.success("Feedback by status retrieved successfully", responseDTOs));
+            return listFeedback("Feedback by status retrieved successfully", feedbackStatus, null, null, null, null,
+                    page, size, beforeCreatedAt, beforeId);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(ApiResponse.error("Invalid status: " + status));
         } catch (Exception e) {
@@ -103,15 +180,16 @@ public class FeedbackController {
     }
     
     @GetMapping("/type/{type}")
-    public ResponseEntity<ApiResponse> getFeedbackByType(@PathVariable String type) {
+    public ResponseEntity<ApiResponse> getFeedbackByType(
+            @PathVariable String type,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId) {
         try {
             Feedback.FeedbackType feedbackType = Feedback.FeedbackType.valueOf(type.toUpperCase());
-            List<Feedback> feedbackList = feedbackService.getFeedbackByType(feedbackType);
-            List<FeedbackResponseDTO> responseDTOs = feedbackList.stream()
-                .map(FeedbackResponseDTO::fromEntity)
-                .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(ApiResponse.success("Feedback by type retrieved successfully", responseDTOs));
+            return listFeedback("Feedback by type retrieved successfully", null, feedbackType, null, null, null,
+                    page, size, beforeCreatedAt, beforeId);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(ApiResponse.error("Invalid feedback type: " + type));
         } catch (Exception e) {
@@ -120,33 +198,56 @@ public class FeedbackController {
     }
     
     @GetMapping("/rating/{rating}")
-    public ResponseEntity<ApiResponse> getFeedbackByRating(@PathVariable Integer rating) {
+    public ResponseEntity<ApiResponse> getFeedbackByRating(
+            @PathVariable Integer rating,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId) {
         try {
             if (rating < 1 || rating > 5) {
                 return ResponseEntity.badRequest().body(ApiResponse.error("Rating must be between 1 and 5"));
             }
             
-            List<Feedback> feedbackList = feedbackService.getFeedbackByRating(rating);
-            List<FeedbackResponseDTO> responseDTOs = feedbackList.stream()
-                .map(FeedbackResponseDTO::fromEntity)
-                .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(ApiResponse.success("Feedback by rating retrieved successfully", responseDTOs));
+            return listFeedback("Feedback by rating retrieved successfully", null, null, rating, null, null,
+                    page, size, beforeCreatedAt, beforeId);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to retrieve feedback by rating"));
         }
     }
     
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse> searchFeedback(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer rating,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            Feedback.FeedbackType feedbackType = type == null ? null : Feedback.FeedbackType.valueOf(type.toUpperCase());
+            Feedback.FeedbackStatus feedbackStatus = status == null ? null : Feedback.FeedbackStatus.valueOf(status.toUpperCase());
+            if (rating != null && (rating < 1 || rating > 5)) {
+                return ResponseEntity.badRequest().body(ApiResponse.error("Rating must be between 1 and 5"));
+            }
+            
+            FeedbackSearchResult result = feedbackService.searchFeedback(q, feedbackType, feedbackStatus, rating, limit);
+            return ResponseEntity.ok(ApiResponse.success("Feedback search completed successfully", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Invalid search filter: " + e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to search feedback"));
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse> getFeedbackById(@PathVariable Long id) {
         try {
-            Optional<Feedback> feedbackOpt = feedbackService.getFeedbackById(id);
+            Optional<FeedbackResponseDTO> feedbackOpt = feedbackService.getFeedbackResponseById(id);
             if (feedbackOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
             
-            FeedbackResponseDTO responseDTO = FeedbackResponseDTO.fromEntity(feedbackOpt.get());
-            return ResponseEntity.ok(ApiResponse.success("Feedback retrieved successfully", responseDTO));
+            return ResponseEntity.ok(ApiResponse.success("Feedback retrieved successfully", feedbackOpt.get()));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to retrieve feedback"));
         }
@@ -195,6 +296,31 @@ public class FeedbackController {
         }
     }
     
+    // Bulk moderation: ids or a filter (feedbackType, currentStatus, minRating, maxRating, olderThanDays)
+    @PutMapping("/bulk/status")
+    public ResponseEntity<ApiResponse> bulkUpdateStatus(@RequestBody BulkFeedbackRequest request) {
+        try {
+            BulkFeedbackResult result = feedbackService.bulkUpdateStatus(request);
+            return ResponseEntity.ok(ApiResponse.success("Feedback status updated for " + result.getUpdated() + " items", result));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to update feedback status"));
+        }
+    }
+    
+    @PostMapping("/bulk/reply")
+    public ResponseEntity<ApiResponse> bulkReply(@RequestBody BulkFeedbackRequest request) {
+        try {
+            BulkFeedbackResult result = feedbackService.bulkReply(request);
+            return ResponseEntity.ok(ApiResponse.success("Reply added to " + result.getUpdated() + " items", result));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to add reply"));
+        }
+    }
+    
     @GetMapping("/stats/pending-count")
     public ResponseEntity<ApiResponse> getPendingFeedbackCount() {
         try {
@@ -205,15 +331,32 @@ public class FeedbackController {
         }
     }
     
+    @GetMapping("/stats/analytics")
+    public ResponseEntity<ApiResponse> getFeedbackAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            LocalDate end = to == null ? LocalDate.now() : to;
+            LocalDate start = from == null ? end.minusDays(29) : from;
+            FeedbackAnalytics analytics = feedbackService.getAnalytics(start, end);
+            return ResponseEntity.ok(ApiResponse.success("Feedback analytics retrieved successfully", analytics));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to retrieve feedback analytics"));
+        }
+    }
+    
     @GetMapping("/stats/recent/{days}")
-    public ResponseEntity<ApiResponse> getRecentFeedback(@PathVariable int days) {
+    public ResponseEntity<ApiResponse> getRecentFeedback(
+            @PathVariable int days,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId) {
         try {
-            List<Feedback> feedbackList = feedbackService.getRecentFeedback(days);
-            List<FeedbackResponseDTO> responseDTOs = feedbackList.stream()
-                .map(FeedbackResponseDTO::fromEntity)
-                .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(ApiResponse.success("Recent feedback retrieved successfully", responseDTOs));
+            return listFeedback("Recent feedback retrieved successfully", null, null, null, null,
+                    LocalDateTime.now().minusDays(days), page, size, beforeCreatedAt, beforeId);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to retrieve recent feedback"));
         }
@@ -230,4 +373,29 @@ public class FeedbackController {
             return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to delete feedback"));
         }
     }
-}
\ No newline at end of file
+    
+    // Without paging parameters the data is the plain list, as before; with them it is a FeedbackPage
+    private ResponseEntity<ApiResponse> listFeedback(String message, Feedback.FeedbackStatus status, Feedback.FeedbackType type,
+                                                     Integer rating, String studentEmail, LocalDateTime since,
+                                                     Integer page, Integer size, LocalDateTime beforeCreatedAt, Long beforeId) {
+        FeedbackPage result = feedbackService.findFeedback(status, type, rating, studentEmail, since,
+                page, size, beforeCreatedAt, beforeId);
+        boolean paged = page != null || size != null || beforeCreatedAt != null;
+        return ResponseEntity.ok(ApiResponse.success(message, paged ? result : result.getItems()));
+    }
+    
+    private static Long dailyMenuId(Map<String, Object> request) {
+        return request.get("dailyMenuId") == null ? null : ((Number) request.get("dailyMenuId")).longValue();
+    }
+    
+    private static List<Long> menuItemIds(Map<String, Object> request) {
+        if (!(request.get("menuItemIds") instanceof List<?> ids)) {
+            return null;
+        }
+        List<Long> menuItemIds = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            menuItemIds.add(((Number) id).longValue());
+        }
+        return menuItemIds;
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.MessMate.controller;
 
 import com.example.MessMate.dto.ApiResponse;
+import com.example.MessMate.dto.MenuItemRatingSummary;
 import com.example.MessMate.entity.DailyMenu;
 import com.example.MessMate.entity.MealBooking;
+import com.example.MessMate.entity.MealConsumption;
 import com.example.MessMate.entity.MenuItem;
+import com.example.MessMate.service.ConsumptionJournal;
+import com.example.MessMate.service.MenuItemRatingService;
 import com.example.MessMate.service.MenuService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -12,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/menu")
@@ -20,6 +25,7 @@ import java.util.List;
 public class MenuController {
     
     private final MenuService menuService;
+    private final MenuItemRatingService menuItemRatingService;
     
     // MenuItem endpoints
     @GetMapping("/items")
@@ -147,6 +153,15 @@ public class MenuController {
                 return ResponseEntity.badRequest().body(ApiResponse.error("Invalid booking request"));
             }
             
+            if (menuService.isJournalEnabled()) {
+                ConsumptionJournal.Position position = menuService.journalMealBooking(request);
+                return ResponseEntity.ok(ApiResponse.success("Meal booked successfully", Map.of(
+                    "dailyMenuId", request.getDailyMenuId(),
+                    "quantity", request.getQuantity(),
+                    "journalPosition", position.segment() + ":" + position.offset()
+                )));
+            }
+            
             // Create actual meal booking in database
             MealBooking booking = menuService.createMealBooking(request);
             return ResponseEntity.ok(ApiResponse.success("Meal booked successfully", booking));
@@ -155,6 +170,60 @@ public class MenuController {
         }
     }
     
+    // Meal swipe endpoint used at the serving counter
+    @PostMapping("/consume")
+    public ResponseEntity<ApiResponse> consumeMeal(@RequestBody ConsumeMealRequest request) {
+        try {
+            if (request.getMessPassId() == null || request.getDailyMenuId() == null) {
+                return ResponseEntity.badRequest().body(ApiResponse.error("Invalid consumption request"));
+            }
+            int quantity = request.getQuantity() == null ? 1 : request.getQuantity();
+            if (quantity <= 0) {
+                return ResponseEntity.badRequest().body(ApiResponse.error("Invalid consumption request"));
+            }
+            
+            if (menuService.isJournalEnabled()) {
+                ConsumptionJournal.Position position = menuService.journalMealConsumption(
+                    request.getMessPassId(), request.getDailyMenuId(), quantity);
+                return ResponseEntity.ok(ApiResponse.success("Meal consumption recorded", Map.of(
+                    "messPassId", request.getMessPassId(),
+                    "dailyMenuId", request.getDailyMenuId(),
+                    "journalPosition", position.segment() + ":" + position.offset()
+                )));
+            }
+            
+            MealConsumption consumption = menuService.recordMealConsumption(
+                request.getMessPassId(), request.getDailyMenuId(), quantity);
+            return ResponseEntity.ok(ApiResponse.success("Meal consumption recorded", Map.of(
+                "id", consumption.getId(),
+                "messPassId", request.getMessPassId(),
+                "dailyMenuId", request.getDailyMenuId()
+            )));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    // Best or worst rated dishes from the per-item rating aggregates; window=recent ranks each item's last ratings
+    @GetMapping("/items/ratings/ranking")
+    public ResponseEntity<ApiResponse> getMenuItemRanking(
+            @RequestParam(defaultValue = "BEST") MenuItemRatingService.Order order,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String window,
+            @RequestParam(defaultValue = "3") int minCount,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            int max = Math.max(1, Math.min(limit, 100));
+            List<MenuItemRatingSummary> ranking = "recent".equalsIgnoreCase(window)
+                    ? menuItemRatingService.rankRecent(order, minCount, max)
+                    : menuItemRatingService.rank(from, to, order, minCount, max);
+            return ResponseEntity.ok(ApiResponse.success("Menu item ranking retrieved successfully", ranking));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     // Get booking statistics for admin dashboard
     @GetMapping("/bookings/stats")
     public ResponseEntity<ApiResponse> getBookingStats() {
@@ -214,4 +283,18 @@ public class MenuController {
         public String getSpecialInstructions() { return specialInstructions; }
         public void setSpecialInstructions(String specialInstructions) { this.specialInstructions = specialInstructions; }
     }
+    
+    // DTO for meal swipes
+    public static class ConsumeMealRequest {
+        private Long messPassId;
+        private Long dailyMenuId;
+        private Integer quantity;
+        
+        public Long getMessPassId() { return messPassId; }
+        public void setMessPassId(Long messPassId) { this.messPassId = messPassId; }
+        public Long getDailyMenuId() { return dailyMenuId; }
+        public void setDailyMenuId(Long dailyMenuId) { this.dailyMenuId = dailyMenuId; }
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    }
 }
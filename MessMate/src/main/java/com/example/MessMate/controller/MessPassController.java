@@ -1,17 +1,26 @@
 package com.example.MessMate.controller;
 
 import com.example.MessMate.dto.ApiResponse;
+import com.example.MessMate.dto.PassRenewalRequest;
+import com.example.MessMate.dto.UserPrincipal;
 import com.example.MessMate.entity.MessPass;
+import com.example.MessMate.entity.Money;
 import com.example.MessMate.entity.User;
+import com.example.MessMate.service.JobLeaseService;
+import com.example.MessMate.service.MessPassJobService;
 import com.example.MessMate.service.MessPassService;
-import com.example.MessMate.service.UserService;
+import com.example.MessMate.service.PaymentService;
+import com.example.MessMate.service.UserPrincipalCache;
+import com.example.MessMate.service.WalletReconciliationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -21,7 +30,11 @@ import java.util.Optional;
 public class MessPassController {
     
     private final MessPassService messPassService;
-    private final UserService userService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final MessPassJobService messPassJobService;
+    private final JobLeaseService jobLeaseService;
+    private final WalletReconciliationService walletReconciliationService;
+    private final PaymentService paymentService;
     
     @PostMapping("/create")
     public ResponseEntity<ApiResponse> createMessPass(
@@ -30,13 +43,7 @@ public class MessPassController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate validFrom,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate validUntil) {
         try {
-            Optional<User> userOptional = userService.getUserByEmail(userEmail)
-                    .map(userResponse -> {
-                        User user = new User();
-                        user.setId(userResponse.getId());
-                        user.setEmail(userResponse.getEmail());
-                        return user;
-                    });
+            Optional<User> userOptional = userPrincipalCache.resolve(userEmail).map(UserPrincipal::toUserReference);
             
             if (userOptional.isEmpty()) {
                 return ResponseEntity.badRequest().body(ApiResponse.error("User not found"));
@@ -52,13 +59,7 @@ public class MessPassController {
     @GetMapping("/user/{email}")
     public ResponseEntity<ApiResponse> getUserMessPass(@PathVariable String email) {
         try {
-            Optional<User> userOptional = userService.getUserByEmail(email)
-                    .map(userResponse -> {
-                        User user = new User();
-                        user.setId(userResponse.getId());
-                        user.setEmail(userResponse.getEmail());
-                        return user;
-                    });
+            Optional<User> userOptional = userPrincipalCache.resolve(email).map(UserPrincipal::toUserReference);
             
             if (userOptional.isEmpty()) {
                 return ResponseEntity.badRequest().body(ApiResponse.error("User not found"));
@@ -79,10 +80,11 @@ public class MessPassController {
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    // Counter recharge; recorded as a completed recharge payment like any other
     @PutMapping("/{id}/recharge")
-    public ResponseEntity<ApiResponse> rechargePass(@PathVariable Long id, @RequestParam BigDecimal amount) {
+    public ResponseEntity<ApiResponse> rechargePass(@PathVariable Long id, @RequestParam Money amount) {
         try {
-            MessPass updated = messPassService.rechargePass(id, amount);
+            MessPass updated = paymentService.rechargeMessPass(id, amount).getMessPass();
             return ResponseEntity.ok(ApiResponse.success("Mess pass recharged successfully", updated));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -90,9 +92,9 @@ public class MessPassController {
     }
     
     @PutMapping("/{id}/deduct")
-    public ResponseEntity<ApiResponse> deductBalance(@PathVariable Long id, @RequestParam BigDecimal amount) {
+    public ResponseEntity<ApiResponse> deductBalance(@PathVariable Long id, @RequestParam Money amount) {
         try {
-            MessPass updated = messPassService.deductBalance(id, amount);
+            MessPass updated = paymentService.processMealPayment(id, amount, "Meal charge at the counter").getMessPass();
             return ResponseEntity.ok(ApiResponse.success("Balance deducted successfully", updated));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -114,4 +116,46 @@ public class MessPassController {
         return ResponseEntity.ok(ApiResponse.success("Expired passes retrieved successfully", 
                 messPassService.getExpiredPasses()));
     }
+    
+    @PostMapping("/jobs/expire")
+    public ResponseEntity<ApiResponse> startExpiryJob() {
+        if (!messPassJobService.startExpiry()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error("Expiry job is already running"));
+        }
+        return ResponseEntity.accepted().body(ApiResponse.success("Expiry job started", MessPassJobService.EXPIRY_JOB));
+    }
+    
+    @PostMapping("/jobs/renew")
+    public ResponseEntity<ApiResponse> startRenewalJob(@RequestBody PassRenewalRequest request) {
+        try {
+            if (!messPassJobService.startRenewal(request)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error("Renewal job is already running"));
+            }
+            return ResponseEntity.accepted().body(ApiResponse.success("Renewal job started", MessPassJobService.RENEWAL_JOB));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/jobs/reconcile")
+    public ResponseEntity<ApiResponse> startReconciliation(@RequestParam(defaultValue = "false") boolean resume) {
+        return walletReconciliationService.start(resume)
+                .map(runId -> ResponseEntity.accepted().body(ApiResponse.success("Reconciliation started", runId)))
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error("Reconciliation is already running")));
+    }
+    
+    @GetMapping("/reconciliation/{runId}")
+    public ResponseEntity<ApiResponse> getReconciliationReport(@PathVariable String runId) {
+        Map<String, Object> report = new HashMap<>();
+        report.put("partitions", walletReconciliationService.getPartitions(runId));
+        report.put("mismatches", walletReconciliationService.getMismatches(runId));
+        return ResponseEntity.ok(ApiResponse.success("Reconciliation report retrieved successfully", report));
+    }
+    
+    @GetMapping("/jobs/{name}")
+    public ResponseEntity<ApiResponse> getJobProgress(@PathVariable String name) {
+        return jobLeaseService.getJob(name)
+                .map(job -> ResponseEntity.ok(ApiResponse.success("Job progress retrieved successfully", job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
@@ -2,15 +2,18 @@ package com.example.MessMate.controller;
 
 import com.example.MessMate.dto.ApiResponse;
 import com.example.MessMate.dto.OrderRequest;
+import com.example.MessMate.dto.UserPrincipal;
 import com.example.MessMate.entity.MealOrder;
 import com.example.MessMate.entity.MenuItem;
 import com.example.MessMate.entity.User;
 import com.example.MessMate.service.OrderService;
-import com.example.MessMate.service.UserService;
+import com.example.MessMate.service.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,7 +24,7 @@ import java.util.Optional;
 public class OrderController {
     
     private final OrderService orderService;
-    private final UserService userService;
+    private final UserPrincipalCache userPrincipalCache;
     
     @PostMapping
     public ResponseEntity<ApiResponse> createOrder(@RequestBody MealOrder order) {
@@ -46,13 +49,7 @@ public class OrderController {
     @GetMapping("/user/{email}")
     public ResponseEntity<ApiResponse> getUserOrders(@PathVariable String email) {
         try {
-            Optional<User> userOptional = userService.getUserByEmail(email)
-                    .map(userResponse -> {
-                        User user = new User();
-                        user.setId(userResponse.getId());
-                        user.setEmail(userResponse.getEmail());
-                        return user;
-                    });
+            Optional<User> userOptional = userPrincipalCache.resolve(email).map(UserPrincipal::toUserReference);
             
             if (userOptional.isEmpty()) {
                 return ResponseEntity.badRequest().body(ApiResponse.error("User not found"));
@@ -103,4 +100,16 @@ public class OrderController {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
     }
+    
+    @PutMapping("/cancel-meal")
+    public ResponseEntity<ApiResponse> cancelMealOrders(
+            @RequestParam MenuItem.MealType mealType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            int cancelled = orderService.cancelMealOrders(mealType, date);
+            return ResponseEntity.ok(ApiResponse.success("Cancelled " + cancelled + " orders, refunds queued", cancelled));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
 }
@@ -1,18 +1,30 @@
 package com.example.MessMate.controller;
 
 import com.example.MessMate.dto.ApiResponse;
+import com.example.MessMate.dto.PaymentRollupEntry;
+import com.example.MessMate.dto.UserPrincipal;
 import com.example.MessMate.entity.MessPass;
+import com.example.MessMate.entity.Money;
 import com.example.MessMate.entity.Payment;
 import com.example.MessMate.entity.User;
+import com.example.MessMate.service.GatewayWebhookService;
+import com.example.MessMate.service.JobLeaseService;
 import com.example.MessMate.service.MessPassService;
+import com.example.MessMate.service.PaymentReportService;
+import com.example.MessMate.service.PaymentRollupService;
 import com.example.MessMate.service.PaymentService;
-import com.example.MessMate.service.UserService;
+import com.example.MessMate.service.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -24,8 +36,12 @@ import java.util.Optional;
 public class PaymentController {
     
     private final PaymentService paymentService;
-    private final UserService userService;
+    private final UserPrincipalCache userPrincipalCache;
     private final MessPassService messPassService;
+    private final GatewayWebhookService gatewayWebhookService;
+    private final PaymentReportService paymentReportService;
+    private final PaymentRollupService paymentRollupService;
+    private final JobLeaseService jobLeaseService;
     
     @PostMapping
     public ResponseEntity<ApiResponse> createPayment(@RequestBody Payment payment) {
@@ -45,16 +61,10 @@ public class PaymentController {
     @PostMapping("/recharge")
     public ResponseEntity<ApiResponse> processMessPassRecharge(
             @RequestParam String userEmail,
-            @RequestParam BigDecimal amount) {
+            @RequestParam Money amount,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            Optional<User> userOptional = userService.getUserByEmail(userEmail)
-                    .map(userResponse -> {
-                        User user = new User();
-                        user.setId(userResponse.getId());
-                        user.setEmail(userResponse.getEmail());
-                        return user;
-                    });
-            
+            Optional<User> userOptional = findUser(userEmail);
             if (userOptional.isEmpty()) {
                 return ResponseEntity.badRequest().body(ApiResponse.error("User not found"));
             }
@@ -64,23 +74,60 @@ public class PaymentController {
                 return ResponseEntity.badRequest().body(ApiResponse.error("Mess pass not found"));
             }
             
-            Payment payment = paymentService.processMessPassRecharge(userOptional.get(), messPassOptional.get(), amount);
+            Payment payment = paymentService.processMessPassRecharge(
+                    userOptional.get(), messPassOptional.get(), amount, idempotencyKey);
             return ResponseEntity.ok(ApiResponse.success("Mess pass recharged successfully", payment));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
     }
     
+    @PostMapping("/recharge/initiate")
+    public ResponseEntity<ApiResponse> initiateMessPassRecharge(
+            @RequestParam String userEmail,
+            @RequestParam Money amount,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        try {
+            Optional<User> userOptional = findUser(userEmail);
+            if (userOptional.isEmpty()) {
+                return ResponseEntity.badRequest().body(ApiResponse.error("User not found"));
+            }
+            
+            Optional<MessPass> messPassOptional = messPassService.getUserMessPass(userOptional.get());
+            if (messPassOptional.isEmpty()) {
+                return ResponseEntity.badRequest().body(ApiResponse.error("Mess pass not found"));
+            }
+            
+            Payment payment = paymentService.initiateMessPassRecharge(
+                    userOptional.get(), messPassOptional.get(), amount, idempotencyKey);
+            return ResponseEntity.ok(ApiResponse.success("Recharge initiated, awaiting gateway confirmation", payment));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    // Takes the raw body because the signature is computed over the exact bytes the gateway sent
+    @PostMapping("/webhooks/gateway")
+    public ResponseEntity<ApiResponse> receiveGatewayWebhook(
+            @RequestBody String payload,
+            @RequestHeader(value = "X-Gateway-Signature", required = false) String signature) {
+        try {
+            GatewayWebhookService.IngestResult result = gatewayWebhookService.ingest(payload, signature);
+            if (result == GatewayWebhookService.IngestResult.DUPLICATE) {
+                return ResponseEntity.ok(ApiResponse.success("Event already received", null));
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Event accepted", null));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/user/{email}")
     public ResponseEntity<ApiResponse> getUserPayments(@PathVariable String email) {
         try {
-            Optional<User> userOptional = userService.getUserByEmail(email)
-                    .map(userResponse -> {
-                        User user = new User();
-                        user.setId(userResponse.getId());
-                        user.setEmail(userResponse.getEmail());
-                        return user;
-                    });
+            Optional<User> userOptional = userPrincipalCache.resolve(email).map(UserPrincipal::toUserReference);
             
             if (userOptional.isEmpty()) {
                 return ResponseEntity.badRequest().body(ApiResponse.error("User not found"));
@@ -116,12 +163,65 @@ public class PaymentController {
         }
     }
     
+    /**
+     * Streams the report as NDJSON (default) or CSV; rows are written as they are read.
+     */
     @GetMapping("/report")
-    public ResponseEntity<ApiResponse> getPaymentReport(
+    public ResponseEntity<StreamingResponseBody> getPaymentReport(
             @RequestParam Payment.PaymentType paymentType,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<Payment> payments = paymentService.getPaymentsByTypeAndDateRange(paymentType, startDate, endDate);
-        return ResponseEntity.ok(ApiResponse.success("Payment report retrieved successfully", payments));
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "NDJSON") PaymentReportService.Format format) {
+        StreamingResponseBody body = out -> paymentReportService.writeReport(paymentType, startDate, endDate, format, out);
+        
+        if (format == PaymentReportService.Format.CSV) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"payments-" + paymentType.name().toLowerCase() + ".csv\"")
+                    .body(body);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+    
+    @GetMapping("/rollup")
+    public ResponseEntity<ApiResponse> getRollupSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") PaymentRollupService.Granularity granularity,
+            @RequestParam(required = false) Payment.PaymentType paymentType) {
+        try {
+            List<PaymentRollupEntry> summary = paymentRollupService.summarize(from, to, granularity, paymentType);
+            return ResponseEntity.ok(ApiResponse.success("Payment summary retrieved successfully", summary));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/rollup/backfill")
+    public ResponseEntity<ApiResponse> startRollupBackfill(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            if (!paymentRollupService.startBackfill(from, to)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error("Rollup backfill is already running"));
+            }
+            return ResponseEntity.accepted().body(ApiResponse.success("Rollup backfill started", PaymentRollupService.BACKFILL_JOB));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/rollup/backfill")
+    public ResponseEntity<ApiResponse> getRollupBackfillProgress() {
+        return jobLeaseService.getJob(PaymentRollupService.BACKFILL_JOB)
+                .map(job -> ResponseEntity.ok(ApiResponse.success("Job progress retrieved successfully", job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    private Optional<User> findUser(String email) {
+        return userPrincipalCache.resolve(email).map(UserPrincipal::toUserReference);
     }
 }
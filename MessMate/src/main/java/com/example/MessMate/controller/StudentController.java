@@ -1,15 +1,28 @@
 package com.example.MessMate.controller;
 
 import com.example.MessMate.dto.ApiResponse;
+import com.example.MessMate.dto.HostelSummary;
+import com.example.MessMate.dto.ImportResult;
+import com.example.MessMate.dto.SearchPage;
+import com.example.MessMate.dto.SessionPrincipal;
 import com.example.MessMate.dto.StudentLoginRequest;
 import com.example.MessMate.dto.StudentSignupRequest;
 import com.example.MessMate.dto.StudentResponse;
+import com.example.MessMate.service.IdentityBackfillService;
+import com.example.MessMate.service.JobLeaseService;
+import com.example.MessMate.service.PasswordHashingService;
+import com.example.MessMate.service.SessionTokenService;
+import com.example.MessMate.service.StudentImportService;
 import com.example.MessMate.service.StudentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/students")
@@ -18,22 +31,76 @@ import java.util.List;
 public class StudentController {
     
     private final StudentService studentService;
+    private final SessionTokenService sessionTokenService;
+    private final StudentImportService studentImportService;
+    private final IdentityBackfillService identityBackfillService;
+    private final JobLeaseService jobLeaseService;
     
     @PostMapping("/signup")
     public ResponseEntity<ApiResponse> signup(@RequestBody StudentSignupRequest request) {
         try {
             StudentResponse student = studentService.signup(request);
             return ResponseEntity.ok(ApiResponse.success("Student registered successfully", student));
+        } catch (PasswordHashingService.BusyException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
     }
     
+    /**
+     * Bulk onboarding: the request body is a CSV file with a header row, or a JSON array of
+     * signup objects when sent as application/json. Rows become student accounts, or with
+     * {@code into=users} accounts of each row's userType. Failing rows are reported and skipped.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ApiResponse> importStudents(
+            InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(defaultValue = "students") String into) {
+        try {
+            StudentImportService.Format format = contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json")
+                    ? StudentImportService.Format.JSON : StudentImportService.Format.CSV;
+            StudentImportService.Target target = StudentImportService.Target.valueOf(into.toUpperCase(Locale.ROOT));
+            ImportResult result = studentImportService.importStudents(body, format, target);
+            return ResponseEntity.ok(ApiResponse.success(
+                    "Imported " + result.getImported() + " of " + result.getTotal() + " rows", result));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Starts (or resumes) copying legacy students rows into users. Progress is at GET on the same path.
+     */
+    @PostMapping("/jobs/backfill")
+    public ResponseEntity<ApiResponse> startIdentityBackfill() {
+        if (!identityBackfillService.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error("Identity backfill is already running"));
+        }
+        return ResponseEntity.accepted().body(ApiResponse.success("Identity backfill started", IdentityBackfillService.BACKFILL_JOB));
+    }
+    
+    @GetMapping("/jobs/backfill")
+    public ResponseEntity<ApiResponse> getIdentityBackfillProgress() {
+        return jobLeaseService.getJob(IdentityBackfillService.BACKFILL_JOB)
+                .map(job -> ResponseEntity.ok(ApiResponse.success("Job progress retrieved successfully", job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     @PostMapping("/login")
     public ResponseEntity<ApiResponse> login(@RequestBody StudentLoginRequest request) {
         try {
             StudentResponse student = studentService.login(request);
+            student.setSessionToken(sessionTokenService.issue(
+                    SessionPrincipal.SubjectType.STUDENT, student.getId(), student.getEmail(), "STUDENT"));
             return ResponseEntity.ok(ApiResponse.success("Login successful", student));
+        } catch (PasswordHashingService.BusyException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -65,10 +132,50 @@ public class StudentController {
         return ResponseEntity.ok(ApiResponse.success("Students retrieved successfully", students));
     }
     
+    /**
+     * Every hostel with its total and active students and occupied rooms, served from memory.
+     */
+    @GetMapping("/hostels")
+    public ResponseEntity<ApiResponse> getHostelSummaries() {
+        List<HostelSummary> hostels = studentService.getHostelSummaries();
+        return ResponseEntity.ok(ApiResponse.success("Hostel summaries retrieved successfully", hostels));
+    }
+    
+    @GetMapping("/hostels/{hostel}")
+    public ResponseEntity<ApiResponse> getHostelSummary(@PathVariable String hostel) {
+        return studentService.getHostelSummary(hostel)
+                .map(summary -> ResponseEntity.ok(ApiResponse.success("Hostel summary retrieved successfully", summary)))
+                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("No students in hostel: " + hostel)));
+    }
+    
+    /**
+     * Active students of one hostel ordered by room, a page at a time.
+     */
+    @GetMapping("/hostels/{hostel}/roster")
+    public ResponseEntity<ApiResponse> getHostelRoster(@PathVariable String hostel,
+                                                       @RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(defaultValue = "50") int size) {
+        try {
+            SearchPage<StudentResponse> roster = studentService.getHostelRoster(hostel, page, size);
+            return ResponseEntity.ok(ApiResponse.success("Hostel roster retrieved successfully", roster));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Paged search by name, email or roll number, best match first.
+     */
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse> searchStudentsByName(@RequestParam String name) {
-        List<StudentResponse> students = studentService.searchStudentsByName(name);
-        return ResponseEntity.ok(ApiResponse.success("Students found", students));
+    public ResponseEntity<ApiResponse> searchStudentsByName(@RequestParam String name,
+                                                            @RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        try {
+            SearchPage<StudentResponse> students = studentService.searchStudents(name, page, size);
+            return ResponseEntity.ok(ApiResponse.success("Students found", students));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
     }
     
     @GetMapping("/count")
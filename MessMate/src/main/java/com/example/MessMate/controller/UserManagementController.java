@@ -1,11 +1,17 @@
 package com.example.MessMate.controller;
 
 import com.example.MessMate.dto.ApiResponse;
+import com.example.MessMate.dto.SearchPage;
 import com.example.MessMate.entity.User;
 import com.example.MessMate.repository.UserRepository;
+import com.example.MessMate.service.DashboardCounters;
+import com.example.MessMate.service.UserListingService;
+import com.example.MessMate.service.UserSearchService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -19,46 +25,26 @@ import java.util.stream.Collectors;
 public class UserManagementController {
     
     private final UserRepository userRepository;
+    private final UserSearchService userSearchService;
+    private final UserListingService userListingService;
+    private final DashboardCounters dashboardCounters;
     
+    /**
+     * Every user, streamed in id order. Pass {@code limit} (and then {@code nextAfterId} as {@code afterId}) to page.
+     */
     @GetMapping("/all")
-    public ResponseEntity<ApiResponse> getAllUsers() {
-        try {
-            System.out.println("📋 Getting all users from database...");
-            List<User> users = userRepository.findAll();
-            System.out.println("📋 Found " + users.size() + " total users");
-            
-            // Log each user
-            users.forEach(user -> 
-                System.out.println("   - " + user.getName() + " (" + user.getEmail() + ") - " + user.getUserType())
-            );
-            
-            // Convert users to DTOs (without passwords)
-            List<Map<String, Object>> userDTOs = users.stream()
-                .map(this::convertToUserDTO)
-                .collect(Collectors.toList());
-            
-            System.out.println("📋 Returning " + userDTOs.size() + " user DTOs");
-            
-            return ResponseEntity.ok(
-                ApiResponse.success("Users retrieved successfully", userDTOs)
-            );
-            
-        } catch (Exception e) {
-            System.err.println("❌ Error retrieving all users: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().body(
-                ApiResponse.error("Failed to retrieve users: " + e.getMessage())
-            );
-        }
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) Long afterId,
+                                        @RequestParam(required = false) Integer limit) {
+        return streamUsers(null, afterId, limit);
     }
     
     @GetMapping("/stats")
     public ResponseEntity<ApiResponse> getUserStats() {
         try {
-            long totalUsers = userRepository.count();
-            long studentCount = userRepository.countByUserType(User.UserType.STUDENT);
-            long staffCount = userRepository.countByUserType(User.UserType.STAFF);
-            long adminCount = userRepository.countByUserType(User.UserType.ADMIN);
+            long totalUsers = dashboardCounters.totalUsers();
+            long studentCount = dashboardCounters.userCount(User.UserType.STUDENT);
+            long staffCount = dashboardCounters.userCount(User.UserType.STAFF);
+            long adminCount = dashboardCounters.userCount(User.UserType.ADMIN);
             
             Map<String, Object> stats = Map.of(
                 "total", totalUsers,
@@ -79,43 +65,19 @@ public class UserManagementController {
     }
     
     @GetMapping("/by-type/{userType}")
-    public ResponseEntity<ApiResponse> getUsersByType(@PathVariable String userType) {
+    public ResponseEntity<?> getUsersByType(@PathVariable String userType,
+                                            @RequestParam(required = false) Long afterId,
+                                            @RequestParam(required = false) Integer limit) {
+        User.UserType type;
         try {
-            System.out.println("🔍 Filter request received for userType: " + userType);
-            
-            User.UserType type = User.UserType.valueOf(userType.toUpperCase());
-            System.out.println("🔍 Converted to enum: " + type);
-            
-            List<User> users = userRepository.findByUserType(type);
-            System.out.println("🔍 Found " + users.size() + " users of type " + type);
-            
-            // Log each user found
-            users.forEach(user -> 
-                System.out.println("   - " + user.getName() + " (" + user.getEmail() + ") - " + user.getUserType())
-            );
-            
-            List<Map<String, Object>> userDTOs = users.stream()
-                .map(this::convertToUserDTO)
-                .collect(Collectors.toList());
-            
-            System.out.println("🔍 Returning " + userDTOs.size() + " user DTOs");
-            
-            return ResponseEntity.ok(
-                ApiResponse.success("Users retrieved successfully", userDTOs)
-            );
-            
+            type = User.UserType.valueOf(userType.toUpperCase());
         } catch (IllegalArgumentException e) {
             System.err.println("❌ Invalid user type: " + userType + " - " + e.getMessage());
             return ResponseEntity.badRequest().body(
                 ApiResponse.error("Invalid user type: " + userType)
             );
-        } catch (Exception e) {
-            System.err.println("❌ Error retrieving users by type: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().body(
-                ApiResponse.error("Failed to retrieve users: " + e.getMessage())
-            );
         }
+        return streamUsers(type, afterId, limit);
     }
     
     @GetMapping("/{id}")
@@ -134,19 +96,28 @@ public class UserManagementController {
         }
     }
     
+    /**
+     * Paged search by name, email or roll number, best match first. {@code userType} narrows it to one type.
+     */
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse> searchUsers(@RequestParam String query) {
+    public ResponseEntity<ApiResponse> searchUsers(@RequestParam String query,
+                                                   @RequestParam(required = false) User.UserType userType,
+                                                   @RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "20") int size) {
         try {
-            List<User> users = userRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(query, query);
+            SearchPage<User> users = userSearchService.search(query, userType, page, size);
             
-            List<Map<String, Object>> userDTOs = users.stream()
+            List<Map<String, Object>> userDTOs = users.getItems().stream()
                 .map(this::convertToUserDTO)
                 .collect(Collectors.toList());
             
             return ResponseEntity.ok(
-                ApiResponse.success("Search completed successfully", userDTOs)
+                ApiResponse.success("Search completed successfully",
+                    new SearchPage<>(userDTOs, users.getPage(), users.getSize(), users.isHasNext()))
             );
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(
                 ApiResponse.error("Search failed: " + e.getMessage())
@@ -154,6 +125,18 @@ public class UserManagementController {
         }
     }
     
+    private ResponseEntity<?> streamUsers(User.UserType type, Long afterId, Integer limit) {
+        try {
+            UserListingService.validatePage(afterId, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+        StreamingResponseBody body = out -> userListingService.writeUsers(type, afterId, limit, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+    
     private Map<String, Object> convertToUserDTO(User user) {
         Map<String, Object> dto = new HashMap<>();
         dto.put("id", user.getId());
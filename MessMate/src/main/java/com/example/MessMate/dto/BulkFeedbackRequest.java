@@ -0,0 +1,28 @@
+package com.example.MessMate.dto;
+
+import com.example.MessMate.entity.Feedback;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Targets either an explicit id list or every feedback matching the filter fields.
+ */
+@Data
+public class BulkFeedbackRequest {
+    private List<Long> ids;
+    
+    // Filter, used when ids is empty; null fields are ignored
+    private Feedback.FeedbackType feedbackType;
+    private Feedback.FeedbackStatus currentStatus;
+    private Integer minRating;
+    private Integer maxRating;
+    private Integer olderThanDays;
+    
+    // Status change
+    private Feedback.FeedbackStatus status;
+    
+    // Reply
+    private String staffEmail;
+    private String reply;
+}
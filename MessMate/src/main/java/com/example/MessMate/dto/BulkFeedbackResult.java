@@ -0,0 +1,20 @@
+package com.example.MessMate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk moderation request. {@code hasMore} is set when the filter matched more
+ * feedback than one request may change; repeating the request handles the next batch.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkFeedbackResult {
+    private int updated;
+    private List<Long> ids;
+    private boolean hasMore;
+}
@@ -0,0 +1,22 @@
+package com.example.MessMate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumptionEvent {
+    
+    private EventType type;
+    private Long dailyMenuId;
+    private Long messPassId; // only set for CONSUMPTION events
+    private Integer quantity;
+    private String specialInstructions;
+    private Long occurredAtMillis;
+    
+    public enum EventType {
+        BOOKING, CONSUMPTION
+    }
+}
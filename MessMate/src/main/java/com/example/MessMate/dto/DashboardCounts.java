@@ -0,0 +1,22 @@
+package com.example.MessMate.dto;
+
+import com.example.MessMate.entity.Feedback;
+import com.example.MessMate.entity.MealOrder;
+import com.example.MessMate.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class DashboardCounts {
+    private long totalUsers;
+    private Map<User.UserType, Long> usersByType;
+    private long activeStudents;
+    private Map<Feedback.FeedbackStatus, Long> feedbackByStatus;
+    private Map<MealOrder.OrderStatus, Long> ordersByStatus;
+    // When the counts were last checked against the database
+    private LocalDateTime reconciledAt;
+}
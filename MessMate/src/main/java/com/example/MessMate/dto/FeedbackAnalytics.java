@@ -0,0 +1,45 @@
+package com.example.MessMate.dto;
+
+import com.example.MessMate.entity.Feedback;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard figures for feedback created between {@code from} and {@code to} (both inclusive).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedbackAnalytics {
+    private LocalDate from;
+    private LocalDate to;
+    private long totalCount;
+    private Double averageRating;
+    private Map<Feedback.FeedbackType, TypeStats> byType;
+    private Map<Feedback.FeedbackStatus, Long> statusCounts;
+    private List<DailyTrend> daily;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TypeStats {
+        private long count;
+        private Double averageRating;
+        // ratingHistogram[0] counts 1-star feedback, ratingHistogram[4] 5-star
+        private long[] ratingHistogram;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailyTrend {
+        private LocalDate date;
+        private long count;
+        private Double averageRating;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.MessMate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of feedback, newest first. Pass nextBeforeCreatedAt/nextBeforeId back as
+ * beforeCreatedAt/beforeId to fetch the following page by keyset.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedbackPage {
+    private List<FeedbackResponseDTO> items;
+    private boolean hasNext;
+    private LocalDateTime nextBeforeCreatedAt;
+    private Long nextBeforeId;
+}
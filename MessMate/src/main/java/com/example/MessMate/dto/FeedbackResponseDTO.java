@@ -25,6 +25,14 @@ public class FeedbackResponseDTO {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    // Used by the constructor projections in FeedbackRepository
+    public FeedbackResponseDTO(Long id, String studentName, String studentEmail, Feedback.FeedbackType feedbackType,
+                               Integer rating, String message, Feedback.FeedbackStatus status, String staffReply,
+                               String repliedBy, LocalDateTime repliedAt, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, studentName, studentEmail, feedbackType.name(), rating, message, status.name(), staffReply,
+                repliedBy, repliedAt, createdAt, updatedAt);
+    }
+    
     public static FeedbackResponseDTO fromEntity(Feedback feedback) {
         FeedbackResponseDTO dto = new FeedbackResponseDTO();
         dto.setId(feedback.getId());
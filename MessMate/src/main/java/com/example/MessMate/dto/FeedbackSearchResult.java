@@ -0,0 +1,18 @@
+package com.example.MessMate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Newest matching feedback, plus how many matched in total before the limit was applied.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedbackSearchResult {
+    private int total;
+    private List<FeedbackResponseDTO> items;
+}
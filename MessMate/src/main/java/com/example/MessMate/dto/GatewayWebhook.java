@@ -0,0 +1,13 @@
+package com.example.MessMate.dto;
+
+import com.example.MessMate.entity.Money;
+import lombok.Data;
+
+@Data
+public class GatewayWebhook {
+    private String eventId;
+    private String transactionId;
+    private String gatewayReference;
+    private String status; // SUCCESS or FAILED
+    private Money amount;
+}
@@ -0,0 +1,19 @@
+package com.example.MessMate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HostelSummary {
+    private String hostel;
+    private long totalStudents;
+    private long activeStudents;
+    private int occupiedRooms;
+    // Active students per room, in room order; only filled in for a single-hostel request
+    private Map<String, Integer> activeByRoom;
+}
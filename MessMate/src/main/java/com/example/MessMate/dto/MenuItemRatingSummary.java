@@ -0,0 +1,16 @@
+package com.example.MessMate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemRatingSummary {
+    private Long menuItemId;
+    private String name;
+    private long ratingCount;
+    private Double averageRating;
+    private Double standardDeviation;
+}
@@ -0,0 +1,17 @@
+package com.example.MessMate.dto;
+
+import com.example.MessMate.entity.MessPass;
+import com.example.MessMate.entity.Money;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class PassRenewalRequest {
+    private MessPass.PassType passType;
+    private LocalDate expiringOnOrAfter; // start of the term being rolled over
+    private LocalDate expiringOnOrBefore;
+    private LocalDate newValidFrom;
+    private LocalDate newValidUntil;
+    private Money maxCarryOverBalance; // null keeps the full balance
+}
@@ -0,0 +1,20 @@
+package com.example.MessMate.dto;
+
+import com.example.MessMate.entity.Money;
+import com.example.MessMate.entity.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentRollupEntry {
+    private LocalDate periodStart;
+    private Payment.PaymentType paymentType;
+    private Payment.PaymentStatus status;
+    private long count;
+    private Money amount;
+}
@@ -0,0 +1,12 @@
+package com.example.MessMate.dto;
+
+/**
+ * Who a session token was issued to. Everything here comes from the verified token itself,
+ * so reading it costs no database access.
+ */
+public record SessionPrincipal(SubjectType subjectType, Long id, String email, String role,
+                               String tokenId, long issuedAt, long expiresAt) {
+
+    /** Which table the id refers to: users log in through /api/auth, students through /api/students. */
+    public enum SubjectType { USER, STUDENT }
+}
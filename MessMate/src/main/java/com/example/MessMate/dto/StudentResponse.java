@@ -1,6 +1,6 @@
 package com.example.MessMate.dto;
 
-import com.example.MessMate.entity.Student;
+import com.example.MessMate.entity.User;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -21,19 +21,22 @@ public class StudentResponse {
     private Boolean isActive;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Set on login only
+    private String sessionToken;
     
-    public static StudentResponse fromStudent(Student student) {
+    public static StudentResponse fromUser(User user) {
         return new StudentResponse(
-            student.getId(),
-            student.getName(),
-            student.getEmail(),
-            student.getRollNumber(),
-            student.getHostel(),
-            student.getRoom(),
-            student.getPhone(),
-            student.getIsActive(),
-            student.getCreatedAt(),
-            student.getUpdatedAt()
+            user.getId(),
+            user.getName(),
+            user.getEmail(),
+            user.getRollNumber(),
+            user.getHostel(),
+            user.getRoom(),
+            user.getPhone(),
+            !Boolean.FALSE.equals(user.getActive()),
+            user.getCreatedAt(),
+            user.getUpdatedAt(),
+            null
         );
     }
 }
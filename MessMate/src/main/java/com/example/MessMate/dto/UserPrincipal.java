@@ -0,0 +1,22 @@
+package com.example.MessMate.dto;
+
+import com.example.MessMate.entity.User;
+
+/**
+ * The few user fields request handling needs to act for a user, without loading the entity.
+ */
+public record UserPrincipal(Long id, String email, User.UserType userType, String hostel) {
+
+    /**
+     * Detached {@link User} carrying only the id, for passing to services that link
+     * records to a user.
+     */
+    public User toUserReference() {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setUserType(userType);
+        user.setHostel(hostel);
+        return user;
+    }
+}
@@ -13,6 +13,8 @@ public class UserResponse {
     private String hostel;
     private String room;
     private String phone;
+    // Set on login only
+    private String sessionToken;
     
     public static UserResponse fromUser(User user) {
         UserResponse response = new UserResponse();
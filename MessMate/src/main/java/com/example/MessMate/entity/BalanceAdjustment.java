@@ -0,0 +1,44 @@
+package com.example.MessMate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change to a mess pass balance that is not a payment, such as the balance forfeited when a
+ * semester renewal caps the carry-over. Wallet reconciliation adds these to the payments.
+ */
+@Entity
+@Table(name = "balance_adjustments", indexes = {
+    @Index(name = "idx_balance_adjustments_mess_pass", columnList = "mess_pass_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceAdjustment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long messPassId;
+
+    // Signed change to the balance; negative for a forfeit
+    @Column(nullable = false)
+    private Money amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Reason reason;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum Reason {
+        CARRY_OVER_CAP
+    }
+}
@@ -5,9 +5,13 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Entity
-@Table(name = "feedback")
+@Table(name = "feedback", indexes = {
+    // Newest-first listing and keyset cursors
+    @Index(name = "idx_feedback_created_at_id", columnList = "created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -51,6 +55,23 @@ public class Feedback {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // What was served, when the student says which meal or dishes the feedback is about
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "daily_menu_id")
+    private DailyMenu dailyMenu;
+    
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(
+        name = "feedback_menu_items",
+        joinColumns = @JoinColumn(name = "feedback_id"),
+        inverseJoinColumns = @JoinColumn(name = "menu_item_id")
+    )
+    private List<MenuItem> menuItems;
+    
+    // Key handed back when the feedback was accepted through the ingestion buffer
+    @Column(name = "submission_key", unique = true, length = 32)
+    private String submissionKey;
+    
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
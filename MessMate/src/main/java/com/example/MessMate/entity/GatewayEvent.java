@@ -0,0 +1,38 @@
+package com.example.MessMate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A payment gateway callback, recorded once per gateway event id.
+ * The primary key is what deduplicates retried webhooks.
+ */
+@Entity
+@Table(name = "gateway_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GatewayEvent {
+    
+    @Id
+    private String eventId;
+    
+    @Column(nullable = false)
+    private String transactionId;
+    
+    @Column(nullable = false)
+    private String status;
+    
+    private Money amount;
+    
+    @Column(nullable = false)
+    private LocalDateTime receivedAt;
+    
+    private LocalDateTime processedAt;
+    
+    private String outcome;
+}
@@ -0,0 +1,45 @@
+package com.example.MessMate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per background job. Holding an unexpired lease is what lets a node run the job,
+ * so the same job can be scheduled on every node; the row also carries its progress.
+ */
+@Entity
+@Table(name = "job_leases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLease {
+    
+    @Id
+    private String name;
+    
+    private String owner;
+    
+    private LocalDateTime leaseUntil;
+    
+    @Enumerated(EnumType.STRING)
+    private JobStatus status;
+    
+    private Long processed;
+    
+    private Long total;
+    
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime finishedAt;
+    
+    @Column(columnDefinition = "TEXT")
+    private String message;
+    
+    public enum JobStatus {
+        RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.MessMate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last journal position whose events have been committed to the database.
+ * Written in the same transaction as the drained rows so replay never double-applies.
+ * Journals are node-local files, so {@code name} is the journal name qualified by the node
+ * that owns them ({@code consumption@node-a}).
+ */
+@Entity
+@Table(name = "journal_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalCheckpoint {
+    
+    @Id
+    private String name;
+    
+    @Column(nullable = false)
+    private Long segmentId;
+    
+    @Column(nullable = false)
+    private Integer segmentOffset;
+    
+    private LocalDateTime updatedAt;
+}
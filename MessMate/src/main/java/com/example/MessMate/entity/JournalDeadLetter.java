@@ -0,0 +1,41 @@
+package com.example.MessMate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A journal record the drainer skipped because it failed its checksum or could not be decoded.
+ * The raw payload is kept (Base64) so the event can be inspected and re-applied by hand.
+ */
+@Entity
+@Table(name = "journal_dead_letters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalDeadLetter {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String journal;
+    
+    @Column(nullable = false)
+    private Long segmentId;
+    
+    @Column(nullable = false)
+    private Integer segmentOffset;
+    
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+    
+    @Column(columnDefinition = "TEXT")
+    private String reason;
+    
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,39 @@
+package com.example.MessMate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "meal_consumptions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealConsumption {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "mess_pass_id", nullable = false)
+    private MessPass messPass;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "daily_menu_id", nullable = false)
+    private DailyMenu dailyMenu;
+    
+    @Column(nullable = false)
+    private Integer quantity = 1;
+    
+    // When the swipe happened at the counter, not when the journal drained it
+    @Column(nullable = false)
+    private LocalDateTime consumedAt;
+    
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
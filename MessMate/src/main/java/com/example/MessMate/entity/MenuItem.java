@@ -7,7 +7,6 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -28,7 +27,7 @@ public class MenuItem {
     private String description;
     
     @Column(nullable = false)
-    private BigDecimal price;
+    private Money price;
     
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
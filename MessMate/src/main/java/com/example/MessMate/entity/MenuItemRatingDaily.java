@@ -0,0 +1,43 @@
+package com.example.MessMate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Count, sum and sum of squares of the ratings a menu item received for one menu day.
+ * Maintained incrementally by {@code MenuItemRatingService}.
+ */
+@Entity
+@Table(name = "menu_item_rating_daily", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_menu_item_rating_item_day", columnNames = {"menu_item_id", "rating_date"})
+}, indexes = {
+    @Index(name = "idx_menu_item_rating_date", columnList = "rating_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemRatingDaily {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long menuItemId;
+    
+    @Column(nullable = false)
+    private LocalDate ratingDate;
+    
+    @Column(nullable = false)
+    private Long ratingCount = 0L;
+    
+    @Column(nullable = false)
+    private Long ratingSum = 0L;
+    
+    @Column(nullable = false)
+    private Long ratingSumSquares = 0L;
+}
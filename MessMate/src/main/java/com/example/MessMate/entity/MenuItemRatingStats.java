@@ -0,0 +1,34 @@
+package com.example.MessMate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * All-time rating aggregates of a menu item, plus its most recent ratings.
+ * Maintained incrementally by {@code MenuItemRatingService}.
+ */
+@Entity
+@Table(name = "menu_item_rating_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemRatingStats {
+    
+    @Id
+    private Long menuItemId;
+    
+    @Column(nullable = false)
+    private Long ratingCount = 0L;
+    
+    @Column(nullable = false)
+    private Long ratingSum = 0L;
+    
+    @Column(nullable = false)
+    private Long ratingSumSquares = 0L;
+    
+    // Last N ratings as digits '1'..'5', oldest first
+    @Column(nullable = false, length = 255)
+    private String recentRatings = "";
+}
@@ -7,7 +7,6 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -40,11 +39,15 @@ public class MessPass {
     private LocalDate validUntil;
     
     @Column(nullable = false)
-    private BigDecimal balance = BigDecimal.ZERO;
+    private Money balance = Money.ZERO;
     
     @Column(nullable = false)
     private Boolean isActive = true;
     
+    // Why an inactive pass is inactive; the semester rollover only revives EXPIRED ones
+    @Enumerated(EnumType.STRING)
+    private DeactivationReason deactivationReason;
+    
     @CreationTimestamp
     private LocalDateTime createdAt;
     
@@ -54,4 +57,8 @@ public class MessPass {
     public enum PassType {
         MONTHLY, SEMESTER, ANNUAL, DAILY
     }
+    
+    public enum DeactivationReason {
+        EXPIRED, ADMIN
+    }
 }
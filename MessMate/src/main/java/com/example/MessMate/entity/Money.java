@@ -0,0 +1,128 @@
+package com.example.MessMate.entity;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Rupee amount stored as a whole number of paise.
+ *
+ * Stored in bigint columns through {@link MoneyConverter} and written to JSON as a plain
+ * decimal number (see {@code JacksonConfig}), so API payloads look the same as before.
+ * Hot paths should work on {@link #paise()} directly and wrap the result once.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    public static final Money ZERO = new Money(0L);
+
+    private static final int SCALE = 2;
+    private static final long PAISE_PER_RUPEE = 100L;
+
+    private final long paise;
+
+    private Money(long paise) {
+        this.paise = paise;
+    }
+
+    public static Money ofPaise(long paise) {
+        return paise == 0L ? ZERO : new Money(paise);
+    }
+
+    public static Money ofRupees(long rupees) {
+        return ofPaise(Math.multiplyExact(rupees, PAISE_PER_RUPEE));
+    }
+
+    public static Money of(BigDecimal rupees) {
+        try {
+            return ofPaise(rupees.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid amount: " + rupees.toPlainString());
+        }
+    }
+
+    // Also used by Spring to bind @RequestParam values
+    public static Money valueOf(String rupees) {
+        if (rupees == null || rupees.trim().isEmpty()) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        try {
+            return of(new BigDecimal(rupees.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + rupees);
+        }
+    }
+
+    public long paise() {
+        return paise;
+    }
+
+    public Money plus(Money other) {
+        return ofPaise(Math.addExact(paise, other.paise));
+    }
+
+    public Money minus(Money other) {
+        return ofPaise(Math.subtractExact(paise, other.paise));
+    }
+
+    public Money times(long quantity) {
+        return ofPaise(Math.multiplyExact(paise, quantity));
+    }
+
+    public boolean isPositive() {
+        return paise > 0L;
+    }
+
+    public boolean isNegative() {
+        return paise < 0L;
+    }
+
+    public boolean isZero() {
+        return paise == 0L;
+    }
+
+    public boolean isLessThan(Money other) {
+        return paise < other.paise;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(paise, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(paise, other.paise);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money other && paise == other.paise);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(paise);
+    }
+
+    /**
+     * Plain decimal with two fraction digits, e.g. {@code 75.00} or {@code -0.50}.
+     */
+    @Override
+    public String toString() {
+        return format(paise);
+    }
+
+    public static String format(long paise) {
+        long abs = Math.abs(paise);
+        long rupees = abs / PAISE_PER_RUPEE;
+        long fraction = abs % PAISE_PER_RUPEE;
+        StringBuilder text = new StringBuilder(24);
+        if (paise < 0L) {
+            text.append('-');
+        }
+        text.append(rupees).append('.');
+        if (fraction < 10L) {
+            text.append('0');
+        }
+        return text.append(fraction).toString();
+    }
+}
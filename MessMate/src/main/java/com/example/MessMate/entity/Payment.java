@@ -6,11 +6,17 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+    // Range scans for reports
+    @Index(name = "idx_payments_type_created_at", columnList = "payment_type, created_at"),
+    // Per-pass payment sums for wallet reconciliation
+    @Index(name = "idx_payments_mess_pass", columnList = "mess_pass_id, status"),
+    // Finds the charge for an order when it is cancelled
+    @Index(name = "idx_payments_order", columnList = "order_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,8 +34,12 @@ public class Payment {
     @JoinColumn(name = "mess_pass_id")
     private MessPass messPass;
     
+    // The meal order a MEAL_PAYMENT paid for; null for counter charges and recharges
+    @Column(name = "order_id")
+    private Long orderId;
+    
     @Column(nullable = false)
-    private BigDecimal amount;
+    private Money amount;
     
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -42,6 +52,14 @@ public class Payment {
     @Column(unique = true)
     private String transactionId;
     
+    // Client-supplied key; a retried recharge with the same key returns the original payment
+    @Column(unique = true)
+    private String idempotencyKey;
+    
+    // Order reference issued by the payment gateway for PENDING recharges
+    @Column(unique = true)
+    private String gatewayReference;
+    
     @Column(columnDefinition = "TEXT")
     private String description;
     
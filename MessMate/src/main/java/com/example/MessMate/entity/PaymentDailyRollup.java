@@ -0,0 +1,43 @@
+package com.example.MessMate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Count and total of payments created on a day, per type and current status.
+ * Maintained incrementally by {@code PaymentRollupService}.
+ */
+@Entity
+@Table(name = "payment_daily_rollup", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_payment_rollup_day_type_status", columnNames = {"rollup_date", "payment_type", "status"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentDailyRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private LocalDate rollupDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Payment.PaymentType paymentType;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Payment.PaymentStatus status;
+    
+    @Column(nullable = false)
+    private Long paymentCount = 0L;
+    
+    @Column(nullable = false)
+    private Money amount = Money.ZERO;
+}
@@ -0,0 +1,41 @@
+package com.example.MessMate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One id range of a wallet reconciliation run. A run is resumed by processing the
+ * partitions that have no completedAt yet.
+ */
+@Entity
+@Table(name = "reconciliation_partitions", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_reconciliation_run_partition", columnNames = {"run_id", "first_pass_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationPartition {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String runId;
+    
+    @Column(nullable = false)
+    private Long firstPassId;
+    
+    @Column(nullable = false)
+    private Long lastPassId;
+    
+    private Long passesChecked;
+    
+    private Long mismatches;
+    
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,52 @@
+package com.example.MessMate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A queued refund for a cancelled order. Written in the cancelling transaction and turned
+ * into a REFUND payment and a pass credit by {@code OrderRefundService}.
+ */
+@Entity
+@Table(name = "refund_queue", indexes = {
+    @Index(name = "idx_refund_queue_status", columnList = "status, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefundRequest {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // One refund per order, however often it is cancelled
+    @Column(nullable = false, unique = true)
+    private Long orderId;
+    
+    @Column(nullable = false)
+    private Long userId;
+    
+    // Null when the user has no mess pass to credit
+    private Long messPassId;
+    
+    @Column(nullable = false)
+    private Money amount;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RefundStatus status = RefundStatus.PENDING;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime processedAt;
+    
+    public enum RefundStatus {
+        PENDING, REFUNDED, SKIPPED
+    }
+}
@@ -9,6 +9,10 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
+/**
+ * Legacy student accounts. Students now live in users (type STUDENT); this table is only read
+ * by {@link com.example.MessMate.service.IdentityBackfillService} to migrate older rows.
+ */
 @Entity
 @Table(name = "students")
 @Data
@@ -1,5 +1,6 @@
 package com.example.MessMate.entity;
 
+import com.example.MessMate.service.UserChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -41,6 +43,14 @@ public class User {
     private String room;
     private String phone;
     
+    // Deactivated students cannot log in; rows from before this column are set active by the identity backfill
+    @Column(name = "is_active")
+    private Boolean active = true;
+    
+    // The legacy students row this account was migrated from, if any
+    @Column(unique = true)
+    private Long studentId;
+    
     @CreationTimestamp
     private LocalDateTime createdAt;
     
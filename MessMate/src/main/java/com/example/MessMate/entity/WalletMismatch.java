@@ -0,0 +1,44 @@
+package com.example.MessMate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A mess pass whose balance differs from its completed payments, found by a reconciliation run.
+ */
+@Entity
+@Table(name = "wallet_mismatches", indexes = {
+    @Index(name = "idx_wallet_mismatches_run", columnList = "run_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletMismatch {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String runId;
+    
+    @Column(nullable = false)
+    private Long messPassId;
+    
+    @Column(nullable = false)
+    private Money recordedBalance;
+    
+    @Column(nullable = false)
+    private Money expectedBalance;
+    
+    // recordedBalance - expectedBalance
+    @Column(nullable = false)
+    private Money difference;
+    
+    @Column(nullable = false)
+    private LocalDateTime detectedAt;
+}
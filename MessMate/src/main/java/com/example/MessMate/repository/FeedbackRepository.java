@@ -1,18 +1,40 @@
 package com.example.MessMate.repository;
 
+import com.example.MessMate.dto.FeedbackResponseDTO;
 import com.example.MessMate.entity.Feedback;
 import com.example.MessMate.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
     
+    // Joined constructor projection: student and replier names come from the same row, no lazy loads
+    String RESPONSE_SELECT =
+            "SELECT new com.example.MessMate.dto.FeedbackResponseDTO(f.id, s.name, s.email, f.feedbackType, f.rating, " +
+            "f.message, f.status, f.staffReply, r.name, f.repliedAt, f.createdAt, f.updatedAt) " +
+            "FROM Feedback f JOIN f.student s LEFT JOIN f.repliedBy r ";
+    
+    // Every filter is optional; pass null to skip it
+    String RESPONSE_FILTERS =
+            "WHERE (:status IS NULL OR f.status = :status) " +
+            "AND (:type IS NULL OR f.feedbackType = :type) " +
+            "AND (:rating IS NULL OR f.rating = :rating) " +
+            "AND (:email IS NULL OR s.email = :email) " +
+            "AND (:since IS NULL OR f.createdAt >= :since) ";
+    
+    String NEWEST_FIRST = "ORDER BY f.createdAt DESC, f.id DESC";
+    
     List<Feedback> findByStudentOrderByCreatedAtDesc(User student);
     
     List<Feedback> findByStatusOrderByCreatedAtDesc(Feedback.FeedbackStatus status);
@@ -34,4 +56,83 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
     List<Feedback> findByStudentEmailOrderByCreatedAtDesc(@Param("email") String email);
     
     List<Feedback> findAllByOrderByCreatedAtDesc();
-}
\ No newline at end of file
+    
+    /**
+     * Feedback counts grouped by (type, status, rating, day) for createdAt in [from, to). Every
+     * dashboard figure (histograms, status counts, averages, daily trend) is derived from these rows.
+     */
+    @Query("SELECT f.feedbackType, f.status, f.rating, CAST(f.createdAt AS LocalDate), COUNT(f) FROM Feedback f " +
+           "WHERE f.createdAt >= :from AND f.createdAt < :to " +
+           "GROUP BY f.feedbackType, f.status, f.rating, CAST(f.createdAt AS LocalDate)")
+    List<Object[]> countByTypeStatusRatingAndDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Columns the search index and analytics cache need to follow a bulk change
+    String MODERATION_SELECT = "SELECT f.id, f.feedbackType, f.status, f.rating, f.message, f.staffReply, f.createdAt FROM Feedback f ";
+    
+    @Query(MODERATION_SELECT + "WHERE f.id IN :ids ORDER BY f.id")
+    List<Object[]> findModerationRowsByIds(@Param("ids") Collection<Long> ids);
+    
+    @Query(MODERATION_SELECT +
+           "WHERE (:type IS NULL OR f.feedbackType = :type) " +
+           "AND (:status IS NULL OR f.status = :status) " +
+           "AND (:minRating IS NULL OR f.rating >= :minRating) " +
+           "AND (:maxRating IS NULL OR f.rating <= :maxRating) " +
+           "AND (:before IS NULL OR f.createdAt < :before) " +
+           "ORDER BY f.createdAt, f.id")
+    List<Object[]> findModerationRows(@Param("type") Feedback.FeedbackType type,
+                                      @Param("status") Feedback.FeedbackStatus status,
+                                      @Param("minRating") Integer minRating,
+                                      @Param("maxRating") Integer maxRating,
+                                      @Param("before") LocalDateTime before,
+                                      Pageable pageable);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Feedback f SET f.status = :status, f.updatedAt = :now WHERE f.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("status") Feedback.FeedbackStatus status,
+                     @Param("now") LocalDateTime now);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Feedback f SET f.staffReply = :reply, f.repliedBy = :staff, f.repliedAt = :now, " +
+           "f.status = com.example.MessMate.entity.Feedback.FeedbackStatus.REVIEWED, f.updatedAt = :now WHERE f.id IN :ids")
+    int updateReply(@Param("ids") Collection<Long> ids,
+                    @Param("reply") String reply,
+                    @Param("staff") User staff,
+                    @Param("now") LocalDateTime now);
+    
+    @Query(RESPONSE_SELECT + "WHERE f.id = :id")
+    Optional<FeedbackResponseDTO> findResponseById(@Param("id") Long id);
+    
+    @Query(RESPONSE_SELECT + "WHERE f.submissionKey = :submissionKey")
+    Optional<FeedbackResponseDTO> findResponseBySubmissionKey(@Param("submissionKey") String submissionKey);
+    
+    @Query(RESPONSE_SELECT + "WHERE f.id IN :ids")
+    List<FeedbackResponseDTO> findResponsesByIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Newest first. A Slice fetches one extra row to know whether there is a next page,
+     * so a page is a single query with no count.
+     */
+    @Query(RESPONSE_SELECT + RESPONSE_FILTERS + NEWEST_FIRST)
+    Slice<FeedbackResponseDTO> findResponses(@Param("status") Feedback.FeedbackStatus status,
+                                             @Param("type") Feedback.FeedbackType type,
+                                             @Param("rating") Integer rating,
+                                             @Param("email") String email,
+                                             @Param("since") LocalDateTime since,
+                                             Pageable pageable);
+    
+    /**
+     * Keyset page: the rows after the cursor (createdAt, id) in newest-first order.
+     */
+    @Query(RESPONSE_SELECT + RESPONSE_FILTERS +
+           "AND (f.createdAt < :beforeCreatedAt OR (f.createdAt = :beforeCreatedAt AND f.id < :beforeId)) " +
+           NEWEST_FIRST)
+    List<FeedbackResponseDTO> findResponsesBefore(@Param("status") Feedback.FeedbackStatus status,
+                                                  @Param("type") Feedback.FeedbackType type,
+                                                  @Param("rating") Integer rating,
+                                                  @Param("email") String email,
+                                                  @Param("since") LocalDateTime since,
+                                                  @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                                  @Param("beforeId") Long beforeId,
+                                                  Pageable pageable);
+}
@@ -0,0 +1,25 @@
+package com.example.MessMate.repository;
+
+import com.example.MessMate.entity.GatewayEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface GatewayEventRepository extends JpaRepository<GatewayEvent, String> {
+    
+    List<GatewayEvent> findTop500ByProcessedAtIsNullAndReceivedAtBeforeOrderByReceivedAt(LocalDateTime receivedBefore);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE GatewayEvent e SET e.processedAt = :processedAt, e.outcome = :outcome WHERE e.eventId = :eventId")
+    int markProcessed(@Param("eventId") String eventId,
+                      @Param("processedAt") LocalDateTime processedAt,
+                      @Param("outcome") String outcome);
+}
@@ -0,0 +1,9 @@
+package com.example.MessMate.repository;
+
+import com.example.MessMate.entity.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+}
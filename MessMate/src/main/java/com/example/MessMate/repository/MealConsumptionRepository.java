@@ -0,0 +1,15 @@
+package com.example.MessMate.repository;
+
+import com.example.MessMate.entity.MealConsumption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MealConsumptionRepository extends JpaRepository<MealConsumption, Long> {
+    
+    List<MealConsumption> findByDailyMenuId(Long dailyMenuId);
+    
+    long countByDailyMenuId(Long dailyMenuId);
+}
@@ -3,6 +3,9 @@ package com.example.MessMate.repository;
 import com.example.MessMate.entity.MessPass;
 import com.example.MessMate.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -21,4 +24,17 @@ public interface MessPassRepository extends JpaRepository<MessPass, Long> {
     List<MessPass> findByValidUntilBeforeAndIsActiveTrue(LocalDate date);
     
     boolean existsByUserAndIsActiveTrue(User user);
+    
+    // Atomic credit in paise; no read-modify-write window between concurrent recharges
+    @Modifying
+    @Query(value = "UPDATE mess_passes SET balance = balance + :amount, updated_at = CURRENT_TIMESTAMP WHERE id = :id",
+           nativeQuery = true)
+    int creditBalance(@Param("id") Long id, @Param("amount") long amountPaise);
+    
+    // Atomic debit; matches no row when the balance would go negative
+    @Modifying
+    @Query(value = "UPDATE mess_passes SET balance = balance - :amount, updated_at = CURRENT_TIMESTAMP " +
+                   "WHERE id = :id AND balance >= :amount",
+           nativeQuery = true)
+    int debitBalance(@Param("id") Long id, @Param("amount") long amountPaise);
 }
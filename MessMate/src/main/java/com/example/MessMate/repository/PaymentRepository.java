@@ -3,6 +3,9 @@ package com.example.MessMate.repository;
 import com.example.MessMate.entity.Payment;
 import com.example.MessMate.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -18,6 +21,15 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     Optional<Payment> findByTransactionId(String transactionId);
     
+    Optional<Payment> findByIdempotencyKey(String idempotencyKey);
+    
+    // Conditional transition so a payment is only ever completed (and credited) once
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = :to WHERE p.transactionId = :transactionId AND p.status = :from")
+    int transitionStatus(@Param("transactionId") String transactionId,
+                         @Param("from") Payment.PaymentStatus from,
+                         @Param("to") Payment.PaymentStatus to);
+    
     List<Payment> findByPaymentTypeAndCreatedAtBetween(Payment.PaymentType paymentType, LocalDateTime start, LocalDateTime end);
     
     List<Payment> findByUserAndPaymentType(User user, Payment.PaymentType paymentType);
@@ -0,0 +1,18 @@
+package com.example.MessMate.repository;
+
+import com.example.MessMate.entity.ReconciliationPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReconciliationPartitionRepository extends JpaRepository<ReconciliationPartition, Long> {
+    
+    List<ReconciliationPartition> findByRunIdAndCompletedAtIsNullOrderByFirstPassId(String runId);
+    
+    List<ReconciliationPartition> findByRunIdOrderByFirstPassId(String runId);
+    
+    Optional<ReconciliationPartition> findTopByCompletedAtIsNullOrderByIdDesc();
+}
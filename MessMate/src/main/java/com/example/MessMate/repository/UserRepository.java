@@ -1,7 +1,10 @@
 package com.example.MessMate.repository;
 
+import com.example.MessMate.dto.UserPrincipal;
 import com.example.MessMate.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,6 +15,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByEmail(String email);
     
+    @Query("SELECT new com.example.MessMate.dto.UserPrincipal(u.id, u.email, u.userType, u.hostel) FROM User u WHERE u.email = :email")
+    Optional<UserPrincipal> findPrincipalByEmail(@Param("email") String email);
+    
     Optional<User> findByRollNumber(String rollNumber);
     
     boolean existsByEmail(String email);
@@ -24,4 +30,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     long countByUserType(User.UserType userType);
     
     List<User> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(String name, String email);
+    
+    // Students (user type STUDENT)
+    Optional<User> findByEmailAndUserType(String email, User.UserType userType);
+    
+    Optional<User> findByRollNumberAndUserType(String rollNumber, User.UserType userType);
+    
+    List<User> findByUserTypeAndActiveTrue(User.UserType userType);
+    
+    long countByUserTypeAndActiveTrue(User.UserType userType);
 }
\ No newline at end of file
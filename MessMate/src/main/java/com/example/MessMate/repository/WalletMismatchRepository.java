@@ -0,0 +1,13 @@
+package com.example.MessMate.repository;
+
+import com.example.MessMate.entity.WalletMismatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WalletMismatchRepository extends JpaRepository<WalletMismatch, Long> {
+    
+    List<WalletMismatch> findByRunIdOrderByMessPassId(String runId);
+}
@@ -0,0 +1,30 @@
+package com.example.MessMate.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers updates to in-memory state (caches, the search index, dashboard counters) until the
+ * surrounding transaction commits, so a rollback never leaves them ahead of the database.
+ *
+ * Without an active transaction the caller's writes have already been committed one statement
+ * at a time, so the action runs immediately.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
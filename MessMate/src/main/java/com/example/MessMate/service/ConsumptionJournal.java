@@ -0,0 +1,458 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.ConsumptionEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only journal for meal bookings and swipes.
+ *
+ * Events are written into fixed-size memory-mapped segment files. A flusher thread forces
+ * the active segment to disk every few milliseconds, so concurrent appends share a single
+ * fsync instead of paying for one each. {@link ConsumptionJournalDrainer} reads everything
+ * up to the durable position and bulk-inserts it into PostgreSQL.
+ *
+ * Record layout: [int payload length][int crc32 of payload][payload]. A zero length marks
+ * the end of the written part of a segment.
+ */
+@Component
+public class ConsumptionJournal {
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalMs;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Object durableMonitor = new Object();
+
+    // Guarded by writeLock
+    private FileChannel currentChannel;
+    private MappedByteBuffer currentBuffer;
+    private long currentSegment;
+    private int writeOffset;
+
+    private volatile Position writtenPosition;
+    private volatile Position durablePosition;
+
+    // Only touched by the drainer thread
+    private long readerSegment = -1;
+    private MappedByteBuffer readerBuffer;
+
+    private ScheduledExecutorService flusher;
+
+    public ConsumptionJournal(@Value("${app.journal.enabled:true}") boolean enabled,
+                              @Value("${app.journal.directory:./data/journal}") String directory,
+                              @Value("${app.journal.segment-size-bytes:16777216}") int segmentSize,
+                              @Value("${app.journal.flush-interval-ms:5}") long flushIntervalMs) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        List<Long> segments = listSegments();
+        if (segments.isEmpty()) {
+            mapSegment(0L);
+            writeOffset = 0;
+        } else {
+            mapSegment(segments.get(segments.size() - 1));
+            writeOffset = recoverTail(currentBuffer);
+        }
+
+        writtenPosition = new Position(currentSegment, writeOffset);
+        durablePosition = writtenPosition;
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+
+        System.out.println("Consumption journal opened at " + directory.toAbsolutePath() + " (" + writtenPosition + ")");
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(1, TimeUnit.SECONDS);
+        flush();
+        writeLock.lock();
+        try {
+            currentChannel.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends an event to the page cache. The event is not crash-safe until the next flush;
+     * use {@link #appendDurably} when the caller must not acknowledge before that.
+     */
+    public Position append(ConsumptionEvent event) {
+        if (!enabled) {
+            throw new IllegalStateException("Consumption journal is disabled");
+        }
+
+        byte[] payload = encode(event);
+        int recordSize = HEADER_BYTES + payload.length;
+        if (recordSize > segmentSize - Integer.BYTES) {
+            throw new IllegalArgumentException("Journal event too large: " + recordSize + " bytes");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        writeLock.lock();
+        try {
+            // Keep room for a zero length so readers can always detect the end of a segment
+            if (writeOffset + recordSize > segmentSize - Integer.BYTES) {
+                roll();
+            }
+            currentBuffer.putInt(writeOffset + Integer.BYTES, (int) crc.getValue());
+            currentBuffer.put(writeOffset + HEADER_BYTES, payload);
+            currentBuffer.putInt(writeOffset, payload.length);
+            writeOffset += recordSize;
+
+            Position position = new Position(currentSegment, writeOffset);
+            writtenPosition = position;
+            return position;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Appends an event and waits for the group flush that makes it durable.
+     */
+    public Position appendDurably(ConsumptionEvent event) {
+        Position position = append(event);
+        try {
+            if (!awaitDurable(position, 1000)) {
+                throw new IllegalStateException("Timed out waiting for journal flush");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for journal flush");
+        }
+        return position;
+    }
+
+    public boolean awaitDurable(Position position, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (durableMonitor) {
+            while (durablePosition.compareTo(position) < 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(durableMonitor, remaining);
+            }
+        }
+        return true;
+    }
+
+    public Position getDurablePosition() {
+        return durablePosition;
+    }
+
+    public Position getWrittenPosition() {
+        return writtenPosition;
+    }
+
+    /**
+     * Where draining should resume: the stored checkpoint, unless its segment is already gone
+     * or it points past the end of the journal.
+     */
+    public Position startPosition(Position checkpoint) throws IOException {
+        List<Long> segments = listSegments();
+        long oldest = segments.isEmpty() ? currentSegment : segments.get(0);
+        if (checkpoint == null || checkpoint.segment() < oldest) {
+            return new Position(oldest, 0);
+        }
+        if (checkpoint.compareTo(writtenPosition) > 0) {
+            // The checkpoint outlived the files it refers to, e.g. the journal directory was lost or
+            // replaced. Waiting for that position would stall draining forever.
+            System.err.println("Journal checkpoint " + checkpoint + " is past the end of the journal at "
+                    + directory.toAbsolutePath() + " (" + writtenPosition + "); resetting it to the first segment");
+            return new Position(oldest, 0);
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Reads up to {@code maxEvents} durable events starting at {@code from}.
+     * Single reader only; it is called from the drainer thread.
+     *
+     * Records that fail their checksum or cannot be decoded are skipped and returned as dead letters,
+     * so one bad record does not block everything written after it. When a record length itself is
+     * unreadable the rest of the segment cannot be framed, and reading moves on to the next segment.
+     */
+    public ReadResult read(Position from, int maxEvents) throws IOException {
+        Position limit = durablePosition;
+        List<ConsumptionEvent> events = new ArrayList<>(Math.min(maxEvents, 1024));
+        List<DeadLetter> deadLetters = new ArrayList<>();
+        long segment = from.segment();
+        int offset = from.offset();
+
+        while (events.size() < maxEvents && new Position(segment, offset).compareTo(limit) < 0) {
+            MappedByteBuffer buffer = readerBuffer(segment);
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                if (segment >= limit.segment()) {
+                    break;
+                }
+                segment++;
+                offset = 0;
+                continue;
+            }
+            if (length < 0 || offset + HEADER_BYTES + length > segmentSize) {
+                deadLetters.add(new DeadLetter(new Position(segment, offset), null,
+                        "Unreadable record length " + length));
+                if (segment >= limit.segment()) {
+                    offset = limit.offset();
+                } else {
+                    segment++;
+                    offset = 0;
+                }
+                continue;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(offset + HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+                deadLetters.add(new DeadLetter(new Position(segment, offset), payload, "Checksum mismatch"));
+            } else {
+                try {
+                    events.add(decode(payload));
+                } catch (RuntimeException e) {
+                    deadLetters.add(new DeadLetter(new Position(segment, offset), payload,
+                            "Undecodable record: " + e));
+                }
+            }
+            offset += HEADER_BYTES + length;
+        }
+
+        return new ReadResult(events, deadLetters, new Position(segment, offset));
+    }
+
+    /**
+     * Deletes segment files that lie entirely before {@code segment}; their events are in the database.
+     */
+    public void releaseBefore(long segment) throws IOException {
+        for (Long id : listSegments()) {
+            if (id < segment && id < currentSegment) {
+                Files.deleteIfExists(segmentPath(id));
+            }
+        }
+    }
+
+    /**
+     * Bytes written but not yet drained. Segment tails are counted as full, which is close enough for a metric.
+     */
+    public long lagBytes(Position drained) {
+        Position written = writtenPosition;
+        if (written == null || drained == null) {
+            return 0;
+        }
+        return (written.segment() - drained.segment()) * (long) segmentSize + (written.offset() - drained.offset());
+    }
+
+    void flush() {
+        try {
+            MappedByteBuffer buffer;
+            Position target;
+            writeLock.lock();
+            try {
+                target = writtenPosition;
+                buffer = currentBuffer;
+            } finally {
+                writeLock.unlock();
+            }
+
+            if (target.equals(durablePosition)) {
+                return;
+            }
+            buffer.force();
+
+            synchronized (durableMonitor) {
+                durablePosition = target;
+                durableMonitor.notifyAll();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Journal flush failed: " + e.getMessage());
+        }
+    }
+
+    private void roll() {
+        try {
+            // Rolled segments are forced here, so the flusher only ever has to force the active one
+            currentBuffer.force();
+            currentChannel.close();
+            mapSegment(currentSegment + 1);
+            writeOffset = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll journal segment", e);
+        }
+    }
+
+    private void mapSegment(long segment) throws IOException {
+        currentChannel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        currentBuffer = currentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        currentSegment = segment;
+    }
+
+    private MappedByteBuffer readerBuffer(long segment) throws IOException {
+        if (segment != readerSegment) {
+            try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+                readerBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, segmentSize);
+            }
+            readerSegment = segment;
+        }
+        return readerBuffer;
+    }
+
+    /**
+     * Finds the end of the last intact record and wipes any torn write after it.
+     */
+    private int recoverTail(MappedByteBuffer buffer) {
+        int offset = 0;
+        int limit = segmentSize - Integer.BYTES;
+        while (offset + HEADER_BYTES <= limit) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > limit) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(offset + HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+
+        byte[] zeros = new byte[4096];
+        for (int position = offset; position < segmentSize; position += zeros.length) {
+            buffer.put(position, zeros, 0, Math.min(zeros.length, segmentSize - position));
+        }
+        buffer.force();
+        return offset;
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    // The event type is stored by ordinal, so new types must only ever be appended to the enum
+    private static byte[] encode(ConsumptionEvent event) {
+        byte[] instructions = event.getSpecialInstructions() == null
+                ? null
+                : event.getSpecialInstructions().getBytes(StandardCharsets.UTF_8);
+        int size = 1 + Long.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES
+                + (instructions == null ? 0 : instructions.length);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put((byte) event.getType().ordinal());
+        buffer.putLong(event.getDailyMenuId());
+        buffer.putLong(event.getMessPassId() == null ? 0L : event.getMessPassId());
+        buffer.putInt(event.getQuantity());
+        buffer.putLong(event.getOccurredAtMillis());
+        if (instructions == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(instructions.length);
+            buffer.put(instructions);
+        }
+        return buffer.array();
+    }
+
+    private static ConsumptionEvent decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        ConsumptionEvent event = new ConsumptionEvent();
+        event.setType(ConsumptionEvent.EventType.values()[buffer.get()]);
+        event.setDailyMenuId(buffer.getLong());
+        long messPassId = buffer.getLong();
+        event.setMessPassId(messPassId == 0L ? null : messPassId);
+        event.setQuantity(buffer.getInt());
+        event.setOccurredAtMillis(buffer.getLong());
+        int instructionsLength = buffer.getInt();
+        if (instructionsLength >= 0) {
+            byte[] instructions = new byte[instructionsLength];
+            buffer.get(instructions);
+            event.setSpecialInstructions(new String(instructions, StandardCharsets.UTF_8));
+        }
+        return event;
+    }
+
+    public record Position(long segment, int offset) implements Comparable<Position> {
+        @Override
+        public int compareTo(Position other) {
+            int bySegment = Long.compare(segment, other.segment);
+            return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+        }
+    }
+
+    public record ReadResult(List<ConsumptionEvent> events, List<DeadLetter> deadLetters, Position next) {
+    }
+
+    /**
+     * A record that could not be turned into an event. {@code payload} is null when its length was unreadable.
+     */
+    public record DeadLetter(Position position, byte[] payload, String reason) {
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.ConsumptionEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves journaled bookings and swipes into PostgreSQL.
+ *
+ * Each batch is written with JDBC batch statements in one transaction together with the
+ * journal checkpoint, so a crash between commit and segment cleanup replays nothing twice.
+ * On startup draining resumes from the stored checkpoint, which replays un-drained segments.
+ * The checkpoint is kept per node because each node drains its own local journal files.
+ * Records the journal cannot decode are parked in {@code journal_dead_letters} instead of
+ * being retried forever.
+ */
+@Service
+public class ConsumptionJournalDrainer {
+
+    private static final String UPDATE_BOOKING_SQL =
+            "UPDATE meal_bookings SET quantity = quantity + ?, " +
+            "special_instructions = CASE " +
+            "  WHEN CAST(? AS VARCHAR) IS NULL THEN special_instructions " +
+            "  WHEN special_instructions IS NULL OR special_instructions = '' THEN CAST(? AS VARCHAR) " +
+            "  ELSE special_instructions || '; ' || CAST(? AS VARCHAR) END, " +
+            "updated_at = ? " +
+            "WHERE id = (SELECT MIN(id) FROM meal_bookings WHERE daily_menu_id = ?)";
+
+    private static final String INSERT_BOOKING_SQL =
+            "INSERT INTO meal_bookings (daily_menu_id, quantity, special_instructions, status, created_at, updated_at) " +
+            "SELECT ?, ?, ?, 'CONFIRMED', ?, ? WHERE EXISTS (SELECT 1 FROM daily_menus WHERE id = ?)";
+
+    private static final String INSERT_CONSUMPTION_SQL =
+            "INSERT INTO meal_consumptions (mess_pass_id, daily_menu_id, quantity, consumed_at, created_at) " +
+            "SELECT ?, ?, ?, ?, ? " +
+            "WHERE EXISTS (SELECT 1 FROM daily_menus WHERE id = ?) AND EXISTS (SELECT 1 FROM mess_passes WHERE id = ?)";
+
+    private static final String INSERT_DEAD_LETTER_SQL =
+            "INSERT INTO journal_dead_letters (journal, segment_id, segment_offset, payload, reason, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final ConsumptionJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String checkpointName;
+    private final int batchSize;
+
+    private final Counter drainedEvents;
+    private final Counter droppedEvents;
+    private final Counter deadLetters;
+    private final Timer batchTimer;
+
+    private volatile ConsumptionJournal.Position cursor;
+
+    public ConsumptionJournalDrainer(ConsumptionJournal journal,
+                                     JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.journal.name:consumption}") String journalName,
+                                     @Value("${app.journal.node-id:}") String nodeId,
+                                     @Value("${app.journal.drain-batch-size:500}") int batchSize) {
+        this.journal = journal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.checkpointName = journalName + "@" + (nodeId == null || nodeId.isBlank() ? localHostName() : nodeId.trim());
+        this.batchSize = batchSize;
+
+        this.drainedEvents = Counter.builder("messmate.journal.drained.events")
+                .description("Journal events written to the database")
+                .register(meterRegistry);
+        this.droppedEvents = Counter.builder("messmate.journal.dropped.events")
+                .description("Journal events skipped because their menu or pass no longer exists")
+                .register(meterRegistry);
+        this.deadLetters = Counter.builder("messmate.journal.dead.letters")
+                .description("Journal records that could not be decoded and were parked as dead letters")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("messmate.journal.drain.batch")
+                .description("Time to write one journal batch and its checkpoint")
+                .register(meterRegistry);
+        Gauge.builder("messmate.journal.lag.bytes", this, drainer -> drainer.journal.lagBytes(drainer.cursor))
+                .description("Bytes appended to the journal but not yet drained")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.journal.drain-interval-ms:200}")
+    public void drain() {
+        if (!journal.isEnabled()) {
+            return;
+        }
+
+        try {
+            if (cursor == null) {
+                ConsumptionJournal.Position checkpoint = loadCheckpoint();
+                ConsumptionJournal.Position start = journal.startPosition(checkpoint);
+                if (checkpoint != null && !start.equals(checkpoint)) {
+                    transactionTemplate.executeWithoutResult(status -> saveCheckpoint(start));
+                }
+                cursor = start;
+            }
+
+            ConsumptionJournal.Position limit = journal.getDurablePosition();
+            while (cursor.compareTo(limit) < 0) {
+                ConsumptionJournal.ReadResult batch = journal.read(cursor, batchSize);
+                ConsumptionJournal.Position next = batch.next();
+                if (batch.events().isEmpty() && batch.deadLetters().isEmpty()) {
+                    if (next.equals(cursor)) {
+                        break;
+                    }
+                    cursor = next;
+                    continue;
+                }
+
+                long started = System.nanoTime();
+                Integer dropped = transactionTemplate.execute(status -> {
+                    int skipped = applyBatch(batch.events());
+                    saveDeadLetters(batch.deadLetters());
+                    saveCheckpoint(next);
+                    return skipped;
+                });
+                batchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+                drainedEvents.increment(batch.events().size());
+                if (dropped != null && dropped > 0) {
+                    droppedEvents.increment(dropped);
+                }
+                if (!batch.deadLetters().isEmpty()) {
+                    deadLetters.increment(batch.deadLetters().size());
+                    System.err.println("Parked " + batch.deadLetters().size() + " unreadable journal record(s) in "
+                            + "journal_dead_letters, first at " + batch.deadLetters().get(0).position());
+                }
+                cursor = next;
+            }
+
+            journal.releaseBefore(cursor.segment());
+        } catch (Exception e) {
+            System.err.println("Journal drain failed, will retry: " + e.getMessage());
+        }
+    }
+
+    private int applyBatch(List<ConsumptionEvent> events) {
+        Map<Long, BookingDelta> bookings = new LinkedHashMap<>();
+        List<ConsumptionEvent> consumptions = new ArrayList<>();
+
+        for (ConsumptionEvent event : events) {
+            if (event.getType() == ConsumptionEvent.EventType.BOOKING) {
+                bookings.computeIfAbsent(event.getDailyMenuId(), id -> new BookingDelta()).add(event);
+            } else {
+                consumptions.add(event);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int dropped = 0;
+
+        if (!bookings.isEmpty()) {
+            // Same merge rule as MenuService.createMealBooking: one booking row per daily menu
+            List<Long> menuIds = new ArrayList<>(bookings.keySet());
+            List<Object[]> updates = new ArrayList<>(menuIds.size());
+            for (Long menuId : menuIds) {
+                BookingDelta delta = bookings.get(menuId);
+                String instructions = delta.instructions();
+                updates.add(new Object[]{delta.quantity, instructions, instructions, instructions, now, menuId});
+            }
+            int[] updated = jdbcTemplate.batchUpdate(UPDATE_BOOKING_SQL, updates);
+
+            List<Object[]> inserts = new ArrayList<>();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    Long menuId = menuIds.get(i);
+                    BookingDelta delta = bookings.get(menuId);
+                    inserts.add(new Object[]{menuId, delta.quantity, delta.instructions(), now, now, menuId});
+                }
+            }
+            if (!inserts.isEmpty()) {
+                dropped += countSkipped(jdbcTemplate.batchUpdate(INSERT_BOOKING_SQL, inserts));
+            }
+        }
+
+        if (!consumptions.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(consumptions.size());
+            for (ConsumptionEvent event : consumptions) {
+                Timestamp consumedAt = Timestamp.valueOf(
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(event.getOccurredAtMillis()), ZoneId.systemDefault()));
+                rows.add(new Object[]{event.getMessPassId(), event.getDailyMenuId(), event.getQuantity(), consumedAt, now,
+                        event.getDailyMenuId(), event.getMessPassId()});
+            }
+            dropped += countSkipped(jdbcTemplate.batchUpdate(INSERT_CONSUMPTION_SQL, rows));
+        }
+
+        return dropped;
+    }
+
+    private void saveDeadLetters(List<ConsumptionJournal.DeadLetter> letters) {
+        if (letters.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(letters.size());
+        for (ConsumptionJournal.DeadLetter letter : letters) {
+            String payload = letter.payload() == null ? null : Base64.getEncoder().encodeToString(letter.payload());
+            rows.add(new Object[]{checkpointName, letter.position().segment(), letter.position().offset(),
+                    payload, letter.reason(), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_DEAD_LETTER_SQL, rows);
+    }
+
+    private ConsumptionJournal.Position loadCheckpoint() {
+        List<ConsumptionJournal.Position> rows = jdbcTemplate.query(
+                "SELECT segment_id, segment_offset FROM journal_checkpoints WHERE name = ?",
+                (rs, rowNum) -> new ConsumptionJournal.Position(rs.getLong(1), rs.getInt(2)),
+                checkpointName);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private void saveCheckpoint(ConsumptionJournal.Position position) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int updated = jdbcTemplate.update(
+                "UPDATE journal_checkpoints SET segment_id = ?, segment_offset = ?, updated_at = ? WHERE name = ?",
+                position.segment(), position.offset(), now, checkpointName);
+        if (updated == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO journal_checkpoints (name, segment_id, segment_offset, updated_at) VALUES (?, ?, ?, ?)",
+                    checkpointName, position.segment(), position.offset(), now);
+        }
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Cannot resolve the host name for the journal checkpoint; set app.journal.node-id", e);
+        }
+    }
+
+    private static int countSkipped(int[] counts) {
+        int skipped = 0;
+        for (int count : counts) {
+            if (count == 0) {
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
+    private static class BookingDelta {
+        private int quantity;
+        private StringBuilder instructions;
+
+        void add(ConsumptionEvent event) {
+            quantity += event.getQuantity();
+            String text = event.getSpecialInstructions();
+            if (text != null && !text.trim().isEmpty()) {
+                if (instructions == null) {
+                    instructions = new StringBuilder(text);
+                } else {
+                    instructions.append("; ").append(text);
+                }
+            }
+        }
+
+        String instructions() {
+            return instructions == null ? null : instructions.toString();
+        }
+    }
+}
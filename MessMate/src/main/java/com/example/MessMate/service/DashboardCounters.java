@@ -0,0 +1,274 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.DashboardCounts;
+import com.example.MessMate.entity.Feedback;
+import com.example.MessMate.entity.MealOrder;
+import com.example.MessMate.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Live counts behind the dashboard stat tiles: users per type, active users per type, feedback
+ * per status and orders per status.
+ *
+ * The counts are seeded at startup with one grouped query per table and then kept current by
+ * the services that change those rows, which report each change here once their transaction
+ * commits. Reads never touch the database. Writes made with plain SQL elsewhere (bulk import,
+ * the identity backfill) and any missed change are corrected by {@link #reconcile()}, which
+ * reruns the grouped queries on a schedule and records how far the counts had drifted.
+ */
+@Service
+public class DashboardCounters {
+
+    private static final String USER_COUNTS_SQL =
+            "SELECT user_type, COUNT(*), SUM(CASE WHEN is_active = TRUE THEN 1 ELSE 0 END) FROM users GROUP BY user_type";
+    private static final String FEEDBACK_COUNTS_SQL = "SELECT status, COUNT(*) FROM feedback GROUP BY status";
+    private static final String ORDER_COUNTS_SQL = "SELECT status, COUNT(*) FROM meal_orders GROUP BY status";
+
+    // A reload that raced with a committed change is retried; the last attempt is kept regardless
+    private static final int MAX_RECONCILE_ATTEMPTS = 3;
+
+    private static final class Counts {
+        final long[] users = new long[User.UserType.values().length];
+        final long[] activeUsers = new long[User.UserType.values().length];
+        final long[] feedback = new long[Feedback.FeedbackStatus.values().length];
+        final long[] orders = new long[MealOrder.OrderStatus.values().length];
+
+        long distanceTo(Counts other) {
+            return distance(users, other.users) + distance(activeUsers, other.activeUsers)
+                    + distance(feedback, other.feedback) + distance(orders, other.orders);
+        }
+
+        private static long distance(long[] a, long[] b) {
+            long total = 0;
+            for (int i = 0; i < a.length; i++) {
+                total += Math.abs(a[i] - b[i]);
+            }
+            return total;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter drift;
+    private final Object lock = new Object();
+    private Counts counts = new Counts();
+    private LocalDateTime reconciledAt;
+    // Bumped on every applied change, so a reload can tell whether it overlapped one
+    private long writeVersion;
+
+    public DashboardCounters(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.drift = Counter.builder("messmate.counters.drift")
+                .description("Units by which the in-memory dashboard counts differed from the database at reconciliation")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${app.counters.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        for (int attempt = 1; ; attempt++) {
+            long version;
+            synchronized (lock) {
+                version = writeVersion;
+            }
+            Counts loaded = load();
+            synchronized (lock) {
+                if (writeVersion != version && attempt < MAX_RECONCILE_ATTEMPTS) {
+                    continue;
+                }
+                long difference = counts.distanceTo(loaded);
+                if (reconciledAt != null && difference > 0) {
+                    drift.increment(difference);
+                    System.out.println("Dashboard counters were off by " + difference + "; reloaded from the database");
+                }
+                counts = loaded;
+                reconciledAt = LocalDateTime.now();
+                return;
+            }
+        }
+    }
+
+    public void userAddedAfterCommit(User.UserType type, boolean active) {
+        afterCommit(counts -> {
+            counts.users[type.ordinal()]++;
+            if (active) {
+                counts.activeUsers[type.ordinal()]++;
+            }
+        });
+    }
+
+    public void userActivationChangedAfterCommit(User.UserType type, boolean wasActive, boolean active) {
+        if (wasActive == active) {
+            return;
+        }
+        afterCommit(counts -> counts.activeUsers[type.ordinal()] += active ? 1 : -1);
+    }
+
+    /**
+     * Pass a null {@code before} for new feedback and a null {@code after} for deleted feedback.
+     */
+    public void feedbackChangedAfterCommit(Feedback.FeedbackStatus before, Feedback.FeedbackStatus after) {
+        if (before == after) {
+            return;
+        }
+        afterCommit(counts -> move(counts.feedback, before, after));
+    }
+
+    /**
+     * Pass a null {@code before} for a new order.
+     */
+    public void orderChangedAfterCommit(MealOrder.OrderStatus before, MealOrder.OrderStatus after) {
+        if (before == after) {
+            return;
+        }
+        afterCommit(counts -> move(counts.orders, before, after));
+    }
+
+    /**
+     * Bulk form of {@link #orderChangedAfterCommit}: {@code moved} holds how many orders left each
+     * status for {@code after}. Registers a single commit callback however many orders moved.
+     */
+    public void ordersChangedAfterCommit(Map<MealOrder.OrderStatus, Long> moved, MealOrder.OrderStatus after) {
+        if (moved.isEmpty()) {
+            return;
+        }
+        Map<MealOrder.OrderStatus, Long> copy = new EnumMap<>(moved);
+        afterCommit(counts -> {
+            for (Map.Entry<MealOrder.OrderStatus, Long> entry : copy.entrySet()) {
+                if (entry.getKey() != after) {
+                    counts.orders[entry.getKey().ordinal()] -= entry.getValue();
+                    counts.orders[after.ordinal()] += entry.getValue();
+                }
+            }
+        });
+    }
+
+    public long userCount(User.UserType type) {
+        synchronized (lock) {
+            ensureSeeded();
+            return counts.users[type.ordinal()];
+        }
+    }
+
+    public long totalUsers() {
+        synchronized (lock) {
+            ensureSeeded();
+            long total = 0;
+            for (long count : counts.users) {
+                total += count;
+            }
+            return total;
+        }
+    }
+
+    public long activeUserCount(User.UserType type) {
+        synchronized (lock) {
+            ensureSeeded();
+            return counts.activeUsers[type.ordinal()];
+        }
+    }
+
+    public long feedbackCount(Feedback.FeedbackStatus status) {
+        synchronized (lock) {
+            ensureSeeded();
+            return counts.feedback[status.ordinal()];
+        }
+    }
+
+    public long orderCount(MealOrder.OrderStatus status) {
+        synchronized (lock) {
+            ensureSeeded();
+            return counts.orders[status.ordinal()];
+        }
+    }
+
+    public DashboardCounts snapshot() {
+        synchronized (lock) {
+            ensureSeeded();
+            Map<User.UserType, Long> usersByType = new EnumMap<>(User.UserType.class);
+            long totalUsers = 0;
+            for (User.UserType type : User.UserType.values()) {
+                usersByType.put(type, counts.users[type.ordinal()]);
+                totalUsers += counts.users[type.ordinal()];
+            }
+            Map<Feedback.FeedbackStatus, Long> feedbackByStatus = new EnumMap<>(Feedback.FeedbackStatus.class);
+            for (Feedback.FeedbackStatus status : Feedback.FeedbackStatus.values()) {
+                feedbackByStatus.put(status, counts.feedback[status.ordinal()]);
+            }
+            Map<MealOrder.OrderStatus, Long> ordersByStatus = new EnumMap<>(MealOrder.OrderStatus.class);
+            for (MealOrder.OrderStatus status : MealOrder.OrderStatus.values()) {
+                ordersByStatus.put(status, counts.orders[status.ordinal()]);
+            }
+            return new DashboardCounts(totalUsers, usersByType, counts.activeUsers[User.UserType.STUDENT.ordinal()],
+                    feedbackByStatus, ordersByStatus, reconciledAt);
+        }
+    }
+
+    // Reads before the startup seed (e.g. in tests, which have no ready event) load synchronously
+    private void ensureSeeded() {
+        if (reconciledAt == null) {
+            counts = load();
+            reconciledAt = LocalDateTime.now();
+        }
+    }
+
+    private Counts load() {
+        Counts loaded = new Counts();
+        jdbcTemplate.query(USER_COUNTS_SQL, rs -> {
+            String type = rs.getString(1);
+            if (type != null) {
+                int index = User.UserType.valueOf(type).ordinal();
+                loaded.users[index] = rs.getLong(2);
+                loaded.activeUsers[index] = rs.getLong(3);
+            }
+        });
+        jdbcTemplate.query(FEEDBACK_COUNTS_SQL, rs -> {
+            String status = rs.getString(1);
+            if (status != null) {
+                loaded.feedback[Feedback.FeedbackStatus.valueOf(status).ordinal()] = rs.getLong(2);
+            }
+        });
+        jdbcTemplate.query(ORDER_COUNTS_SQL, rs -> {
+            String status = rs.getString(1);
+            if (status != null) {
+                loaded.orders[MealOrder.OrderStatus.valueOf(status).ordinal()] = rs.getLong(2);
+            }
+        });
+        return loaded;
+    }
+
+    private void apply(Consumer<Counts> change) {
+        synchronized (lock) {
+            writeVersion++;
+            change.accept(counts);
+        }
+    }
+
+    private void afterCommit(Consumer<Counts> change) {
+        AfterCommit.run(() -> apply(change));
+    }
+
+    private static <E extends Enum<E>> void move(long[] counts, E before, E after) {
+        if (before != null) {
+            counts[before.ordinal()]--;
+        }
+        if (after != null) {
+            counts[after.ordinal()]++;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.MessMate.service;
 
 import com.example.MessMate.entity.Feedback;
 import com.example.MessMate.entity.MenuItem;
+import com.example.MessMate.entity.Money;
 import com.example.MessMate.entity.User;
 import com.example.MessMate.repository.FeedbackRepository;
 import com.example.MessMate.repository.MenuItemRepository;
@@ -12,7 +13,6 @@ import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -103,53 +103,53 @@ public class DataInitializationService implements CommandLineRunner {
         if (menuItemRepository.count() == 0) {
             List<MenuItem> menuItems = Arrays.asList(
                 // Breakfast Items
-                createMenuItem("Idli Sambar", "Steamed rice cakes with lentil curry", new BigDecimal("25.00"), 
+                createMenuItem("Idli Sambar", "Steamed rice cakes with lentil curry", Money.valueOf("25.00"), 
                     MenuItem.MealType.BREAKFAST, MenuItem.FoodCategory.MAIN_COURSE, true, true),
-                createMenuItem("Dosa", "Crispy rice pancake", new BigDecimal("30.00"), 
+                createMenuItem("Dosa", "Crispy rice pancake", Money.valueOf("30.00"), 
                     MenuItem.MealType.BREAKFAST, MenuItem.FoodCategory.MAIN_COURSE, true, true),
-                createMenuItem("Upma", "Semolina breakfast dish", new BigDecimal("20.00"), 
+                createMenuItem("Upma", "Semolina breakfast dish", Money.valueOf("20.00"), 
                     MenuItem.MealType.BREAKFAST, MenuItem.FoodCategory.MAIN_COURSE, true, true),
-                createMenuItem("Poha", "Flattened rice with vegetables", new BigDecimal("22.00"), 
+                createMenuItem("Poha", "Flattened rice with vegetables", Money.valueOf("22.00"), 
                     MenuItem.MealType.BREAKFAST, MenuItem.FoodCategory.MAIN_COURSE, true, true),
-                createMenuItem("Tea", "Hot milk tea", new BigDecimal("10.00"), 
+                createMenuItem("Tea", "Hot milk tea", Money.valueOf("10.00"), 
                     MenuItem.MealType.BREAKFAST, MenuItem.FoodCategory.BEVERAGE, true, true),
                 
                 // Lunch Items
-                createMenuItem("Rice", "Steamed white rice", new BigDecimal("15.00"), 
+                createMenuItem("Rice", "Steamed white rice", Money.valueOf("15.00"), 
                     MenuItem.MealType.LUNCH, MenuItem.FoodCategory.RICE, true, true),
-                createMenuItem("Dal Tadka", "Tempered lentil curry", new BigDecimal("25.00"), 
+                createMenuItem("Dal Tadka", "Tempered lentil curry", Money.valueOf("25.00"), 
                     MenuItem.MealType.LUNCH, MenuItem.FoodCategory.CURRY, true, true),
-                createMenuItem("Vegetable Curry", "Mixed vegetable curry", new BigDecimal("30.00"), 
+                createMenuItem("Vegetable Curry", "Mixed vegetable curry", Money.valueOf("30.00"), 
                     MenuItem.MealType.LUNCH, MenuItem.FoodCategory.CURRY, true, true),
-                createMenuItem("Chicken Curry", "Spicy chicken curry", new BigDecimal("45.00"), 
+                createMenuItem("Chicken Curry", "Spicy chicken curry", Money.valueOf("45.00"), 
                     MenuItem.MealType.LUNCH, MenuItem.FoodCategory.CURRY, true, false),
-                createMenuItem("Roti", "Indian flatbread", new BigDecimal("8.00"), 
+                createMenuItem("Roti", "Indian flatbread", Money.valueOf("8.00"), 
                     MenuItem.MealType.LUNCH, MenuItem.FoodCategory.BREAD, true, true),
-                createMenuItem("Salad", "Fresh vegetable salad", new BigDecimal("15.00"), 
+                createMenuItem("Salad", "Fresh vegetable salad", Money.valueOf("15.00"), 
                     MenuItem.MealType.LUNCH, MenuItem.FoodCategory.SALAD, true, true),
-                createMenuItem("Curd Rice", "Rice with yogurt", new BigDecimal("20.00"), 
+                createMenuItem("Curd Rice", "Rice with yogurt", Money.valueOf("20.00"), 
                     MenuItem.MealType.LUNCH, MenuItem.FoodCategory.RICE, true, true),
                 
                 // Snacks
-                createMenuItem("Samosa", "Fried pastry with filling", new BigDecimal("12.00"), 
+                createMenuItem("Samosa", "Fried pastry with filling", Money.valueOf("12.00"), 
                     MenuItem.MealType.SNACKS, MenuItem.FoodCategory.SNACK, true, true),
-                createMenuItem("Pakora", "Vegetable fritters", new BigDecimal("15.00"), 
+                createMenuItem("Pakora", "Vegetable fritters", Money.valueOf("15.00"), 
                     MenuItem.MealType.SNACKS, MenuItem.FoodCategory.SNACK, true, true),
-                createMenuItem("Sandwich", "Vegetable sandwich", new BigDecimal("25.00"), 
+                createMenuItem("Sandwich", "Vegetable sandwich", Money.valueOf("25.00"), 
                     MenuItem.MealType.SNACKS, MenuItem.FoodCategory.SNACK, true, true),
-                createMenuItem("Coffee", "Hot coffee", new BigDecimal("12.00"), 
+                createMenuItem("Coffee", "Hot coffee", Money.valueOf("12.00"), 
                     MenuItem.MealType.SNACKS, MenuItem.FoodCategory.BEVERAGE, true, true),
                 
                 // Dinner Items
-                createMenuItem("Chapati", "Whole wheat flatbread", new BigDecimal("8.00"), 
+                createMenuItem("Chapati", "Whole wheat flatbread", Money.valueOf("8.00"), 
                     MenuItem.MealType.DINNER, MenuItem.FoodCategory.BREAD, true, true),
-                createMenuItem("Paneer Curry", "Cottage cheese curry", new BigDecimal("40.00"), 
+                createMenuItem("Paneer Curry", "Cottage cheese curry", Money.valueOf("40.00"), 
                     MenuItem.MealType.DINNER, MenuItem.FoodCategory.CURRY, true, true),
-                createMenuItem("Fish Curry", "Spicy fish curry", new BigDecimal("50.00"), 
+                createMenuItem("Fish Curry", "Spicy fish curry", Money.valueOf("50.00"), 
                     MenuItem.MealType.DINNER, MenuItem.FoodCategory.CURRY, true, false),
-                createMenuItem("Jeera Rice", "Cumin flavored rice", new BigDecimal("18.00"), 
+                createMenuItem("Jeera Rice", "Cumin flavored rice", Money.valueOf("18.00"), 
                     MenuItem.MealType.DINNER, MenuItem.FoodCategory.RICE, true, true),
-                createMenuItem("Ice Cream", "Vanilla ice cream", new BigDecimal("25.00"), 
+                createMenuItem("Ice Cream", "Vanilla ice cream", Money.valueOf("25.00"), 
                     MenuItem.MealType.DINNER, MenuItem.FoodCategory.DESSERT, true, true)
             );
             
@@ -158,7 +158,7 @@ public class DataInitializationService implements CommandLineRunner {
         }
     }
     
-    private MenuItem createMenuItem(String name, String description, BigDecimal price, 
+    private MenuItem createMenuItem(String name, String description, Money price, 
                                   MenuItem.MealType mealType, MenuItem.FoodCategory category, 
                                   boolean isAvailable, boolean isVegetarian) {
         MenuItem item = new MenuItem();
@@ -0,0 +1,190 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.FeedbackAnalytics;
+import com.example.MessMate.entity.Feedback;
+import com.example.MessMate.repository.FeedbackRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feedback dashboard figures for a date range, from one grouped query.
+ *
+ * The query returns counts per (type, status, rating, day) cell and every figure is derived
+ * from those cells. Cells are cached per range; a committed feedback write moves one count
+ * between cells in every cached range that covers the feedback's day, so the cache stays
+ * correct without being dropped or re-queried.
+ */
+@Service
+public class FeedbackAnalyticsService {
+
+    public record Cell(Feedback.FeedbackType type, Feedback.FeedbackStatus status, int rating, LocalDate day) {
+
+        public static Cell of(Feedback feedback) {
+            return new Cell(feedback.getFeedbackType(), feedback.getStatus(),
+                    feedback.getRating() == null ? 0 : feedback.getRating(), feedback.getCreatedAt().toLocalDate());
+        }
+    }
+
+    private record Range(LocalDate from, LocalDate to) {
+
+        boolean covers(LocalDate day) {
+            return !day.isBefore(from) && !day.isAfter(to);
+        }
+    }
+
+    private final FeedbackRepository feedbackRepository;
+    private final int maxRangeDays;
+    private final Map<Range, Map<Cell, Long>> cache;
+    // Bumped on every applied write; a load that overlapped a write is not cached
+    private final AtomicLong writeVersion = new AtomicLong();
+
+    public FeedbackAnalyticsService(FeedbackRepository feedbackRepository,
+                                    @Value("${app.feedback.analytics.cache-size:64}") int cacheSize,
+                                    @Value("${app.feedback.analytics.max-range-days:366}") int maxRangeDays) {
+        this.feedbackRepository = feedbackRepository;
+        this.maxRangeDays = maxRangeDays;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Range, Map<Cell, Long>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Transactional(readOnly = true)
+    public FeedbackAnalytics getAnalytics(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Both from and to dates are required");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        if (from.plusDays(maxRangeDays).isBefore(to)) {
+            throw new IllegalArgumentException("Date range cannot exceed " + maxRangeDays + " days");
+        }
+
+        Range range = new Range(from, to);
+        synchronized (cache) {
+            Map<Cell, Long> cells = cache.get(range);
+            if (cells != null) {
+                return summarize(range, cells);
+            }
+        }
+
+        long version = writeVersion.get();
+        Map<Cell, Long> cells = new HashMap<>();
+        for (Object[] row : feedbackRepository.countByTypeStatusRatingAndDay(from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+            Cell cell = new Cell((Feedback.FeedbackType) row[0], (Feedback.FeedbackStatus) row[1],
+                    row[2] == null ? 0 : ((Number) row[2]).intValue(), toLocalDate(row[3]));
+            cells.merge(cell, ((Number) row[4]).longValue(), Long::sum);
+        }
+
+        synchronized (cache) {
+            if (writeVersion.get() == version) {
+                cache.put(range, cells);
+            }
+            return summarize(range, cells);
+        }
+    }
+
+    /**
+     * Moves one feedback between cells once the current transaction commits. Pass a null
+     * {@code before} for a new feedback and a null {@code after} for a deleted one.
+     */
+    public void recordChangeAfterCommit(Cell before, Cell after) {
+        if (before != null && before.equals(after)) {
+            return;
+        }
+        AfterCommit.run(() -> applyChange(before, after));
+    }
+
+    void applyChange(Cell before, Cell after) {
+        synchronized (cache) {
+            writeVersion.incrementAndGet();
+            for (Map.Entry<Range, Map<Cell, Long>> entry : cache.entrySet()) {
+                Range range = entry.getKey();
+                Map<Cell, Long> cells = entry.getValue();
+                if (before != null && range.covers(before.day())) {
+                    cells.computeIfPresent(before, (cell, count) -> count > 1 ? count - 1 : null);
+                }
+                if (after != null && range.covers(after.day())) {
+                    cells.merge(after, 1L, Long::sum);
+                }
+            }
+        }
+    }
+
+    private static FeedbackAnalytics summarize(Range range, Map<Cell, Long> cells) {
+        Map<Feedback.FeedbackType, long[]> histograms = new EnumMap<>(Feedback.FeedbackType.class);
+        Map<Feedback.FeedbackStatus, Long> statusCounts = new EnumMap<>(Feedback.FeedbackStatus.class);
+        for (Feedback.FeedbackStatus status : Feedback.FeedbackStatus.values()) {
+            statusCounts.put(status, 0L);
+        }
+        // Per day: {count, rating sum}
+        Map<LocalDate, long[]> days = new TreeMap<>();
+        long total = 0;
+        long ratingSum = 0;
+
+        for (Map.Entry<Cell, Long> entry : cells.entrySet()) {
+            Cell cell = entry.getKey();
+            long count = entry.getValue();
+            long[] histogram = histograms.computeIfAbsent(cell.type(), type -> new long[5]);
+            if (cell.rating() >= 1 && cell.rating() <= 5) {
+                histogram[cell.rating() - 1] += count;
+            }
+            statusCounts.merge(cell.status(), count, Long::sum);
+            long[] day = days.computeIfAbsent(cell.day(), d -> new long[2]);
+            day[0] += count;
+            day[1] += count * cell.rating();
+            total += count;
+            ratingSum += count * cell.rating();
+        }
+
+        Map<Feedback.FeedbackType, FeedbackAnalytics.TypeStats> byType = new EnumMap<>(Feedback.FeedbackType.class);
+        for (Map.Entry<Feedback.FeedbackType, long[]> entry : histograms.entrySet()) {
+            long[] histogram = entry.getValue();
+            long count = 0;
+            long sum = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                count += histogram[i];
+                sum += histogram[i] * (i + 1);
+            }
+            byType.put(entry.getKey(), new FeedbackAnalytics.TypeStats(count, average(sum, count), histogram.clone()));
+        }
+
+        List<FeedbackAnalytics.DailyTrend> daily = new ArrayList<>(days.size());
+        for (Map.Entry<LocalDate, long[]> entry : days.entrySet()) {
+            long[] day = entry.getValue();
+            daily.add(new FeedbackAnalytics.DailyTrend(entry.getKey(), day[0], average(day[1], day[0])));
+        }
+
+        return new FeedbackAnalytics(range.from(), range.to(), total, average(ratingSum, total), byType, statusCounts, daily);
+    }
+
+    private static Double average(long sum, long count) {
+        return count == 0 ? null : Math.round(sum * 100.0 / count) / 100.0;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        return ((LocalDateTime) value).toLocalDate();
+    }
+}
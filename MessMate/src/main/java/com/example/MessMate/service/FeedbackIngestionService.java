@@ -0,0 +1,326 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.UserPrincipal;
+import com.example.MessMate.entity.Feedback;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffered feedback submission for post-meal bursts.
+ *
+ * {@link #submit} validates the request and resolves the student through {@link UserPrincipalCache}
+ * on the caller's thread, then parks the feedback in a bounded in-memory buffer and answers with
+ * a submission key. A single
+ * flusher thread writes the buffer out with one multi-row INSERT per batch. Feedback about specific
+ * dishes is checked against the daily menu up front, and its dish links and rating aggregates are
+ * written in the same transaction as the batch, just like {@link FeedbackService#submitFeedback}. When the buffer is
+ * full the submission is refused, so callers get backpressure instead of unbounded memory growth.
+ * On shutdown new submissions are refused and whatever is buffered is written before the
+ * datasource closes.
+ */
+@Service
+public class FeedbackIngestionService {
+
+    // ratingDay is the menu's date for feedback about a daily menu, otherwise the submission date
+    record PendingFeedback(String submissionKey, long studentId, Feedback.FeedbackType type, int rating,
+                                   String message, LocalDateTime createdAt, Long dailyMenuId, LocalDate ratingDay,
+                                   List<Long> menuItemIds) {
+    }
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO feedback (student_id, feedback_type, rating, message, status, created_at, submission_key, " +
+            "daily_menu_id) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int ROW_COLUMNS = 8;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FeedbackSearchIndex feedbackSearchIndex;
+    private final FeedbackAnalyticsService feedbackAnalyticsService;
+    private final DashboardCounters dashboardCounters;
+    private final IdGenerator idGenerator;
+    private final UserPrincipalCache userPrincipalCache;
+    private final MenuItemRatingService menuItemRatingService;
+    private final BlockingQueue<PendingFeedback> buffer;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long shutdownTimeoutMs;
+    private final Thread flusher;
+    private volatile boolean accepting = true;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter written;
+    private final Counter failed;
+    private final Timer flushTimer;
+
+    public FeedbackIngestionService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    FeedbackSearchIndex feedbackSearchIndex,
+                                    FeedbackAnalyticsService feedbackAnalyticsService,
+                                    DashboardCounters dashboardCounters,
+                                    IdGenerator idGenerator,
+                                    UserPrincipalCache userPrincipalCache,
+                                    MenuItemRatingService menuItemRatingService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.feedback.ingest.buffer-capacity:5000}") int bufferCapacity,
+                                    @Value("${app.feedback.ingest.batch-size:200}") int batchSize,
+                                    @Value("${app.feedback.ingest.flush-interval-ms:200}") long flushIntervalMs,
+                                    @Value("${app.feedback.ingest.shutdown-timeout-ms:30000}") long shutdownTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.feedbackSearchIndex = feedbackSearchIndex;
+        this.feedbackAnalyticsService = feedbackAnalyticsService;
+        this.dashboardCounters = dashboardCounters;
+        this.idGenerator = idGenerator;
+        this.userPrincipalCache = userPrincipalCache;
+        this.menuItemRatingService = menuItemRatingService;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.flusher = new Thread(this::runFlusher, "feedback-ingest");
+        this.flusher.setDaemon(true);
+
+        this.accepted = Counter.builder("messmate.feedback.ingest.accepted")
+                .description("Feedback submissions accepted into the ingestion buffer")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("messmate.feedback.ingest.rejected")
+                .description("Feedback submissions refused because the buffer was full")
+                .register(meterRegistry);
+        this.written = Counter.builder("messmate.feedback.ingest.written")
+                .description("Buffered feedback rows written to the database")
+                .register(meterRegistry);
+        this.failed = Counter.builder("messmate.feedback.ingest.failed")
+                .description("Buffered feedback rows that could not be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("messmate.feedback.ingest.flush")
+                .description("Time to write one batch from the ingestion buffer")
+                .register(meterRegistry);
+        Gauge.builder("messmate.feedback.ingest.buffered", buffer, BlockingQueue::size)
+                .description("Feedback submissions waiting in the ingestion buffer")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.start();
+    }
+
+    public String submit(String studentEmail, Feedback.FeedbackType feedbackType, int rating, String message) {
+        return submit(studentEmail, feedbackType, rating, message, null, null);
+    }
+
+    /**
+     * Accepts a feedback for asynchronous storage and returns its submission key, or null if
+     * the buffer is full and the caller should retry later. Unknown students, menus and dishes,
+     * and dishes that were not on the given menu, are rejected.
+     */
+    public String submit(String studentEmail, Feedback.FeedbackType feedbackType, int rating, String message,
+                         Long dailyMenuId, List<Long> menuItemIds) {
+        if (!accepting) {
+            return null;
+        }
+        UserPrincipal student = userPrincipalCache.resolve(studentEmail)
+                .orElseThrow(() -> new RuntimeException("Student not found with email: " + studentEmail));
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate ratingDay = now.toLocalDate();
+        if (dailyMenuId != null) {
+            List<Date> menuDates = jdbcTemplate.queryForList(
+                    "SELECT menu_date FROM daily_menus WHERE id = ?", Date.class, dailyMenuId);
+            if (menuDates.isEmpty()) {
+                throw new RuntimeException("Daily menu not found with id: " + dailyMenuId);
+            }
+            ratingDay = menuDates.get(0).toLocalDate();
+        }
+        List<Long> dishes = checkMenuItems(dailyMenuId, menuItemIds);
+
+        PendingFeedback pending = new PendingFeedback(idGenerator.nextKey("FB"), student.id(), feedbackType, rating,
+                message, now, dailyMenuId, ratingDay, dishes);
+        if (!buffer.offer(pending)) {
+            rejected.increment();
+            return null;
+        }
+        accepted.increment();
+        return pending.submissionKey();
+    }
+
+    public int buffered() {
+        return buffer.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // No interrupt: the flusher notices within one poll interval, and an interrupt could abort a JDBC write
+        accepting = false;
+        flusher.join(shutdownTimeoutMs);
+        if (!buffer.isEmpty()) {
+            System.err.println("Feedback ingestion stopped with " + buffer.size() + " submissions unwritten");
+        }
+    }
+
+    private void runFlusher() {
+        List<PendingFeedback> batch = new ArrayList<>(batchSize);
+        while (accepting || !buffer.isEmpty()) {
+            try {
+                PendingFeedback first = accepting ? buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS) : buffer.poll();
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Feedback ingestion flush failed: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void flush(List<PendingFeedback> batch) {
+        long started = System.nanoTime();
+        try {
+            insert(batch);
+        } catch (DataAccessException e) {
+            // One bad row (e.g. a student deleted meanwhile) should not cost the whole batch
+            System.err.println("Feedback batch of " + batch.size() + " failed, retrying row by row: " + e.getMessage());
+            List<PendingFeedback> stored = new ArrayList<>(batch.size());
+            for (PendingFeedback pending : batch) {
+                try {
+                    insert(List.of(pending));
+                    stored.add(pending);
+                } catch (DataAccessException rowError) {
+                    failed.increment();
+                    System.err.println("Dropped feedback " + pending.submissionKey() + ": " + rowError.getMessage());
+                }
+            }
+            batch = stored;
+        }
+        written.increment(batch.size());
+        flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        publish(batch);
+    }
+
+    private void insert(List<PendingFeedback> rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows.size() * (ROW_PLACEHOLDERS.length() + 2));
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[rows.size() * ROW_COLUMNS];
+        int arg = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            PendingFeedback pending = rows.get(i);
+            sql.append(i == 0 ? "" : ", ").append(ROW_PLACEHOLDERS);
+            args[arg++] = pending.studentId();
+            args[arg++] = pending.type().name();
+            args[arg++] = pending.rating();
+            args[arg++] = pending.message();
+            args[arg++] = Feedback.FeedbackStatus.PENDING.name();
+            args[arg++] = Timestamp.valueOf(pending.createdAt());
+            args[arg++] = pending.submissionKey();
+            args[arg++] = pending.dailyMenuId();
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(sql.toString(), args);
+            linkMenuItems(rows);
+        });
+    }
+
+    // Same checks as FeedbackService, as plain counts since nothing here needs the entities
+    private List<Long> checkMenuItems(Long dailyMenuId, List<Long> menuItemIds) {
+        if (menuItemIds == null || menuItemIds.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> requested = new LinkedHashSet<>(menuItemIds);
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", requested).addValue("menu", dailyMenuId);
+        Integer known = namedJdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM menu_items WHERE id IN (:ids)", params, Integer.class);
+        if (known == null || known != requested.size()) {
+            throw new RuntimeException("Unknown menu item in: " + requested);
+        }
+        if (dailyMenuId != null) {
+            Integer served = namedJdbcTemplate.queryForObject(
+                    "SELECT COUNT(DISTINCT menu_item_id) FROM daily_menu_items WHERE daily_menu_id = :menu AND menu_item_id IN (:ids)",
+                    params, Integer.class);
+            if (served == null || served != requested.size()) {
+                throw new RuntimeException("Menu items must be on daily menu " + dailyMenuId);
+            }
+        }
+        return List.copyOf(requested);
+    }
+
+    // Runs inside the batch transaction, so the links and rating aggregates commit with the rows
+    private void linkMenuItems(List<PendingFeedback> rows) {
+        Map<String, PendingFeedback> byKey = new HashMap<>();
+        for (PendingFeedback pending : rows) {
+            if (!pending.menuItemIds().isEmpty()) {
+                byKey.put(pending.submissionKey(), pending);
+            }
+        }
+        if (byKey.isEmpty()) {
+            return;
+        }
+        List<Object[]> links = new ArrayList<>();
+        namedJdbcTemplate.query("SELECT id, submission_key FROM feedback WHERE submission_key IN (:keys)",
+                new MapSqlParameterSource("keys", byKey.keySet()), rs -> {
+                    for (Long menuItemId : byKey.get(rs.getString(2)).menuItemIds()) {
+                        links.add(new Object[]{rs.getLong(1), menuItemId});
+                    }
+                });
+        jdbcTemplate.batchUpdate("INSERT INTO feedback_menu_items (feedback_id, menu_item_id) VALUES (?, ?)", links);
+        for (PendingFeedback pending : byKey.values()) {
+            menuItemRatingService.recordRating(pending.menuItemIds(), pending.ratingDay(), pending.rating());
+        }
+    }
+
+    // Feeds the written rows to the search index and analytics cache, which need their ids
+    private void publish(List<PendingFeedback> stored) {
+        if (stored.isEmpty()) {
+            return;
+        }
+        Map<String, PendingFeedback> byKey = new HashMap<>();
+        for (PendingFeedback pending : stored) {
+            byKey.put(pending.submissionKey(), pending);
+        }
+        namedJdbcTemplate.query("SELECT id, submission_key FROM feedback WHERE submission_key IN (:keys)",
+                new MapSqlParameterSource("keys", byKey.keySet()), rs -> {
+                    PendingFeedback pending = byKey.get(rs.getString(2));
+                    feedbackSearchIndex.indexAfterCommit(new FeedbackSearchIndex.Document(rs.getLong(1), pending.type(),
+                            Feedback.FeedbackStatus.PENDING, pending.rating(), pending.message(), null, pending.createdAt()));
+                    feedbackAnalyticsService.recordChangeAfterCommit(null, new FeedbackAnalyticsService.Cell(pending.type(),
+                            Feedback.FeedbackStatus.PENDING, pending.rating(), pending.createdAt().toLocalDate()));
+                    dashboardCounters.feedbackChangedAfterCommit(null, Feedback.FeedbackStatus.PENDING);
+                });
+    }
+}
@@ -0,0 +1,416 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.Feedback;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index over feedback message and staff reply.
+ *
+ * Each indexed version of a feedback gets a dense doc number. Terms (lower-cased, stop words
+ * dropped, lightly stemmed) map to int posting lists in doc order; type, status and rating map
+ * to bitsets. A query intersects the postings of its terms, checks the combined filter bitset
+ * and keeps the k newest hits in a heap. An edited feedback is re-added under a new doc number
+ * and the old one is cleared from the live set; {@link #compactIfNeeded()} rebuilds once dead
+ * docs dominate.
+ *
+ * Changes from {@link FeedbackService} are applied after their transaction commits, so the
+ * index never shows feedback that was rolled back.
+ */
+@Component
+public class FeedbackSearchIndex {
+
+    public record Document(long feedbackId, Feedback.FeedbackType type, Feedback.FeedbackStatus status,
+                           int rating, String message, String staffReply, LocalDateTime createdAt) {
+
+        public static Document of(Feedback feedback) {
+            return new Document(feedback.getId(), feedback.getFeedbackType(), feedback.getStatus(),
+                    feedback.getRating() == null ? 0 : feedback.getRating(), feedback.getMessage(),
+                    feedback.getStaffReply(), feedback.getCreatedAt());
+        }
+    }
+
+    public record SearchHits(int total, List<Long> feedbackIds) {
+    }
+
+    private static final String STREAM_SQL =
+            "SELECT id, feedback_type, status, rating, message, staff_reply, created_at FROM feedback ORDER BY created_at, id";
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have", "i", "in", "is",
+            "it", "its", "me", "my", "of", "on", "or", "so", "that", "the", "this", "to", "was", "we", "were",
+            "will", "with", "you", "your");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+    // Changes that arrive while a rebuild is streaming; replayed onto the new segment
+    private List<Object> pendingDuringRebuild;
+
+    public FeedbackSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void indexAfterCommit(Feedback feedback) {
+        indexAfterCommit(Document.of(feedback));
+    }
+
+    public void indexAfterCommit(Document document) {
+        AfterCommit.run(() -> apply(document));
+    }
+
+    public void removeAfterCommit(Long feedbackId) {
+        AfterCommit.run(() -> apply(feedbackId));
+    }
+
+    public SearchHits search(String query, Feedback.FeedbackType type, Feedback.FeedbackStatus status,
+                             Integer rating, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        lock.readLock().lock();
+        try {
+            return segment.search(terms, type, status, rating, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Streams every feedback row into a fresh segment and swaps it in. Searches keep using the
+     * old segment meanwhile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment fresh = new Segment();
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        STREAM_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(1000);
+                return statement;
+            }, rs -> {
+                Timestamp createdAt = rs.getTimestamp(7);
+                fresh.put(new Document(rs.getLong(1),
+                        Feedback.FeedbackType.valueOf(rs.getString(2)),
+                        Feedback.FeedbackStatus.valueOf(rs.getString(3)),
+                        rs.getInt(4), rs.getString(5), rs.getString(6),
+                        createdAt == null ? null : createdAt.toLocalDateTime()));
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Object change : pendingDuringRebuild) {
+                fresh.applyChange(change);
+            }
+            pendingDuringRebuild = null;
+            segment = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Feedback search index built: " + fresh.live.cardinality() + " documents");
+    }
+
+    @Scheduled(fixedDelayString = "${app.feedback.search.compaction-check-ms:600000}")
+    public void compactIfNeeded() {
+        boolean compact;
+        lock.readLock().lock();
+        try {
+            int live = segment.live.cardinality();
+            compact = segment.docCount - live > Math.max(10_000, live);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (compact) {
+            rebuild();
+        }
+    }
+
+    // Package-private for tests: applies a change as if its transaction had just committed
+    void apply(Object change) {
+        lock.writeLock().lock();
+        try {
+            segment.applyChange(change);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = text.substring(start, i).toLowerCase();
+                if (!STOP_WORDS.contains(word)) {
+                    terms.add(stem(word));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Light suffix stripping so "served", "serving" and "serves" share a term. Deliberately
+     * conservative: it only needs to be consistent between indexing and querying.
+     */
+    static String stem(String word) {
+        if (word.length() <= 3) {
+            return word;
+        }
+        String stem = word;
+        if (stem.endsWith("ies") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("sses")) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        if (stem.endsWith("ing") && stem.length() > 5) {
+            stem = undouble(stem.substring(0, stem.length() - 3));
+        } else if (stem.endsWith("ed") && stem.length() > 4) {
+            stem = undouble(stem.substring(0, stem.length() - 2));
+        } else if (stem.endsWith("ly") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 2);
+        }
+        if (stem.endsWith("e") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static String undouble(String stem) {
+        int n = stem.length();
+        if (n > 2 && stem.charAt(n - 1) == stem.charAt(n - 2) && "lsz".indexOf(stem.charAt(n - 1)) < 0) {
+            return stem.substring(0, n - 1);
+        }
+        return stem;
+    }
+
+    private static final class Segment {
+
+        private final Map<String, IntList> postings = new HashMap<>();
+        private final Map<Long, Integer> docByFeedbackId = new HashMap<>();
+        private final BitSet live = new BitSet();
+        private final BitSet[] byType = newBitSets(Feedback.FeedbackType.values().length);
+        private final BitSet[] byStatus = newBitSets(Feedback.FeedbackStatus.values().length);
+        private final BitSet[] byRating = newBitSets(6);
+        private long[] feedbackIds = new long[1024];
+        private long[] createdAtMillis = new long[1024];
+        private int docCount;
+
+        void applyChange(Object change) {
+            if (change instanceof Document document) {
+                put(document);
+            } else if (change instanceof Long feedbackId) {
+                remove(feedbackId);
+            }
+        }
+
+        void put(Document document) {
+            remove(document.feedbackId());
+            int doc = docCount++;
+            if (doc == feedbackIds.length) {
+                feedbackIds = Arrays.copyOf(feedbackIds, doc * 2);
+                createdAtMillis = Arrays.copyOf(createdAtMillis, doc * 2);
+            }
+            feedbackIds[doc] = document.feedbackId();
+            createdAtMillis[doc] = document.createdAt() == null
+                    ? Long.MAX_VALUE : document.createdAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+            docByFeedbackId.put(document.feedbackId(), doc);
+            live.set(doc);
+            if (document.type() != null) {
+                byType[document.type().ordinal()].set(doc);
+            }
+            if (document.status() != null) {
+                byStatus[document.status().ordinal()].set(doc);
+            }
+            if (document.rating() >= 1 && document.rating() <= 5) {
+                byRating[document.rating()].set(doc);
+            }
+
+            Set<String> terms = new LinkedHashSet<>(tokenize(document.message()));
+            terms.addAll(tokenize(document.staffReply()));
+            for (String term : terms) {
+                postings.computeIfAbsent(term, t -> new IntList()).add(doc);
+            }
+        }
+
+        void remove(long feedbackId) {
+            Integer doc = docByFeedbackId.remove(feedbackId);
+            if (doc != null) {
+                live.clear(doc);
+            }
+        }
+
+        SearchHits search(List<String> terms, Feedback.FeedbackType type, Feedback.FeedbackStatus status,
+                          Integer rating, int limit) {
+            BitSet filter = (BitSet) live.clone();
+            if (type != null) {
+                filter.and(byType[type.ordinal()]);
+            }
+            if (status != null) {
+                filter.and(byStatus[status.ordinal()]);
+            }
+            if (rating != null) {
+                if (rating < 1 || rating > 5) {
+                    return new SearchHits(0, List.of());
+                }
+                filter.and(byRating[rating]);
+            }
+
+            // Min-heap on recency holding the newest `limit` hits
+            PriorityQueue<Integer> newest = new PriorityQueue<>(Math.max(1, limit),
+                    Comparator.<Integer>comparingLong(doc -> createdAtMillis[doc]).thenComparingLong(doc -> feedbackIds[doc]));
+            int total = 0;
+
+            if (terms.isEmpty()) {
+                for (int doc = filter.nextSetBit(0); doc >= 0; doc = filter.nextSetBit(doc + 1)) {
+                    total++;
+                    offer(newest, doc, limit);
+                }
+            } else {
+                int[] candidates = intersect(terms);
+                for (int doc : candidates) {
+                    if (filter.get(doc)) {
+                        total++;
+                        offer(newest, doc, limit);
+                    }
+                }
+            }
+
+            Long[] ids = new Long[newest.size()];
+            for (int i = ids.length - 1; i >= 0; i--) {
+                ids[i] = feedbackIds[newest.poll()];
+            }
+            return new SearchHits(total, Arrays.asList(ids));
+        }
+
+        private void offer(PriorityQueue<Integer> newest, int doc, int limit) {
+            if (limit <= 0) {
+                return;
+            }
+            if (newest.size() < limit) {
+                newest.add(doc);
+            } else {
+                int oldest = newest.peek();
+                if (createdAtMillis[doc] > createdAtMillis[oldest]
+                        || (createdAtMillis[doc] == createdAtMillis[oldest] && feedbackIds[doc] > feedbackIds[oldest])) {
+                    newest.poll();
+                    newest.add(doc);
+                }
+            }
+        }
+
+        // Starts from the rarest term so the working set only shrinks
+        private int[] intersect(List<String> terms) {
+            List<IntList> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                IntList list = postings.get(term);
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            int[] result = Arrays.copyOf(lists.get(0).values, lists.get(0).size);
+            int resultSize = result.length;
+            for (int l = 1; l < lists.size() && resultSize > 0; l++) {
+                IntList other = lists.get(l);
+                int kept = 0;
+                int j = 0;
+                for (int i = 0; i < resultSize && j < other.size; i++) {
+                    int doc = result[i];
+                    while (j < other.size && other.values[j] < doc) {
+                        j++;
+                    }
+                    if (j < other.size && other.values[j] == doc) {
+                        result[kept++] = doc;
+                    }
+                }
+                resultSize = kept;
+            }
+            return Arrays.copyOf(result, resultSize);
+        }
+
+        private static BitSet[] newBitSets(int count) {
+            BitSet[] sets = new BitSet[count];
+            for (int i = 0; i < count; i++) {
+                sets[i] = new BitSet();
+            }
+            return sets;
+        }
+    }
+
+    // Growable int array; postings are appended in increasing doc order
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
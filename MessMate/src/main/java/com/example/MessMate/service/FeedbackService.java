@@ -1,18 +1,35 @@
 package com.example.MessMate.service;
 
+import com.example.MessMate.dto.BulkFeedbackRequest;
+import com.example.MessMate.dto.BulkFeedbackResult;
+import com.example.MessMate.dto.FeedbackAnalytics;
+import com.example.MessMate.dto.FeedbackPage;
+import com.example.MessMate.dto.FeedbackResponseDTO;
+import com.example.MessMate.dto.FeedbackSearchResult;
+import com.example.MessMate.entity.DailyMenu;
 import com.example.MessMate.entity.Feedback;
+import com.example.MessMate.entity.MenuItem;
 import com.example.MessMate.entity.User;
-import com.example.MessMate.entity.Student;
+import com.example.MessMate.repository.DailyMenuRepository;
 import com.example.MessMate.repository.FeedbackRepository;
+import com.example.MessMate.repository.MenuItemRepository;
 import com.example.MessMate.repository.UserRepository;
-import com.example.MessMate.repository.StudentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -21,48 +38,45 @@ public class FeedbackService {
     
     private final FeedbackRepository feedbackRepository;
     private final UserRepository userRepository;
-    private final StudentRepository studentRepository;
+    private final FeedbackSearchIndex feedbackSearchIndex;
+    private final FeedbackAnalyticsService feedbackAnalyticsService;
+    private final DashboardCounters dashboardCounters;
+    private final MenuItemRatingService menuItemRatingService;
+    private final DailyMenuRepository dailyMenuRepository;
+    private final MenuItemRepository menuItemRepository;
+    
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_BULK_ROWS = 5000;
     
     public Feedback submitFeedback(String studentEmail, Feedback.FeedbackType feedbackType, 
                                  Integer rating, String message) {
-        System.out.println("Submitting feedback for email: " + studentEmail);
-        
-        // First try to find user in users table
-        Optional<User> userOpt = userRepository.findByEmail(studentEmail);
-        User student = null;
-        
-        if (userOpt.isPresent()) {
-            System.out.println("Found user in users table: " + userOpt.get().getName());
-            student = userOpt.get();
-        } else {
-            System.out.println("User not found in users table, checking students table...");
-            // If not found in users table, check students table and create user record
-            Optional<Student> studentOpt = studentRepository.findByEmail(studentEmail);
-            if (studentOpt.isEmpty()) {
-                System.out.println("Student not found in students table either!");
-                throw new RuntimeException("Student not found with email: " + studentEmail);
-            }
-            
-            System.out.println("Found student in students table: " + studentOpt.get().getName());
-            
-            // Create a User record from Student data
-            Student studentEntity = studentOpt.get();
-            System.out.println("Creating user record for student: " + studentEntity.getName());
-            
-            student = new User();
-            student.setName(studentEntity.getName());
-            student.setEmail(studentEntity.getEmail());
-            student.setPassword(studentEntity.getPassword());
-            student.setUserType(User.UserType.STUDENT);
-            student.setRollNumber(studentEntity.getRollNumber());
-            student.setHostel(studentEntity.getHostel());
-            student.setRoom(studentEntity.getRoom());
-            student.setPhone(studentEntity.getPhone());
-            
-            // Save the user record for future use
-            student = userRepository.save(student);
-            System.out.println("Created user record with ID: " + student.getId());
+        return submitFeedback(studentEmail, feedbackType, rating, message, null);
+    }
+    
+    public Feedback submitFeedback(String studentEmail, Feedback.FeedbackType feedbackType, 
+                                 Integer rating, String message, String submissionKey) {
+        return submitFeedback(studentEmail, feedbackType, rating, message, submissionKey, null, null);
+    }
+    
+    /**
+     * Stores a feedback, optionally linked to the daily menu and the dishes it is about. Linked
+     * dishes must be on that menu; their rating aggregates are updated in the same transaction.
+     */
+    public Feedback submitFeedback(String studentEmail, Feedback.FeedbackType feedbackType, 
+                                 Integer rating, String message, String submissionKey,
+                                 Long dailyMenuId, List<Long> menuItemIds) {
+        DailyMenu dailyMenu = null;
+        if (dailyMenuId != null) {
+            dailyMenu = dailyMenuRepository.findById(dailyMenuId)
+                    .orElseThrow(() -> new RuntimeException("Daily menu not found with id: " + dailyMenuId));
         }
+        List<MenuItem> menuItems = resolveMenuItems(dailyMenu, menuItemIds);
+        
+        // Students are users of type STUDENT, so this is the only lookup
+        User student = userRepository.findByEmail(studentEmail)
+                .orElseThrow(() -> new RuntimeException("Student not found with email: " + studentEmail));
         
         Feedback feedback = new Feedback();
         feedback.setStudent(student);
@@ -71,8 +85,18 @@ public class FeedbackService {
         feedback.setMessage(message);
         feedback.setStatus(Feedback.FeedbackStatus.PENDING);
         feedback.setCreatedAt(LocalDateTime.now());
+        feedback.setSubmissionKey(submissionKey);
+        feedback.setDailyMenu(dailyMenu);
+        feedback.setMenuItems(menuItems);
         
-        return feedbackRepository.save(feedback);
+        Feedback savedFeedback = feedbackRepository.save(feedback);
+        if (!menuItems.isEmpty()) {
+            menuItemRatingService.recordRating(menuItemIds(menuItems), ratingDay(savedFeedback), rating);
+        }
+        feedbackSearchIndex.indexAfterCommit(savedFeedback);
+        feedbackAnalyticsService.recordChangeAfterCommit(null, FeedbackAnalyticsService.Cell.of(savedFeedback));
+        dashboardCounters.feedbackChangedAfterCommit(null, savedFeedback.getStatus());
+        return savedFeedback;
     }
     
     public List<Feedback> getAllFeedback() {
@@ -95,6 +119,80 @@ public class FeedbackService {
         return feedbackRepository.findByRatingOrderByCreatedAtDesc(rating);
     }
     
+    /**
+     * Feedback rows as DTOs, newest first, in a single joined query. With no paging arguments
+     * everything matching is returned; otherwise one page by offset (page/size) or by keyset
+     * (beforeCreatedAt/beforeId, taken from the previous page).
+     */
+    @Transactional(readOnly = true)
+    public FeedbackPage findFeedback(Feedback.FeedbackStatus status, Feedback.FeedbackType type, Integer rating,
+                                     String studentEmail, LocalDateTime since,
+                                     Integer page, Integer size, LocalDateTime beforeCreatedAt, Long beforeId) {
+        if (page == null && size == null && beforeCreatedAt == null) {
+            List<FeedbackResponseDTO> all = feedbackRepository
+                    .findResponses(status, type, rating, studentEmail, since, Pageable.unpaged())
+                    .getContent();
+            return new FeedbackPage(all, false, null, null);
+        }
+        
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<FeedbackResponseDTO> items;
+        boolean hasNext;
+        if (beforeCreatedAt != null) {
+            List<FeedbackResponseDTO> rows = feedbackRepository.findResponsesBefore(status, type, rating, studentEmail, since,
+                    beforeCreatedAt, beforeId == null ? Long.MAX_VALUE : beforeId, PageRequest.of(0, pageSize + 1));
+            hasNext = rows.size() > pageSize;
+            items = hasNext ? rows.subList(0, pageSize) : rows;
+        } else {
+            Slice<FeedbackResponseDTO> slice = feedbackRepository.findResponses(status, type, rating, studentEmail, since,
+                    PageRequest.of(Math.max(page == null ? 0 : page, 0), pageSize));
+            hasNext = slice.hasNext();
+            items = slice.getContent();
+        }
+        
+        FeedbackResponseDTO last = items.isEmpty() ? null : items.get(items.size() - 1);
+        return new FeedbackPage(new ArrayList<>(items), hasNext,
+                hasNext ? last.getCreatedAt() : null, hasNext ? last.getId() : null);
+    }
+    
+    /**
+     * Full-text search over message and staff reply through the in-memory index. Every query
+     * word must match; hits come back newest first, at most {@code limit} of them.
+     */
+    @Transactional(readOnly = true)
+    public FeedbackSearchResult searchFeedback(String query, Feedback.FeedbackType type, Feedback.FeedbackStatus status,
+                                               Integer rating, Integer limit) {
+        int max = limit == null ? DEFAULT_SEARCH_LIMIT : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        FeedbackSearchIndex.SearchHits hits = feedbackSearchIndex.search(query, type, status, rating, max);
+        if (hits.feedbackIds().isEmpty()) {
+            return new FeedbackSearchResult(hits.total(), List.of());
+        }
+        
+        Map<Long, FeedbackResponseDTO> byId = new HashMap<>();
+        for (FeedbackResponseDTO dto : feedbackRepository.findResponsesByIds(hits.feedbackIds())) {
+            byId.put(dto.getId(), dto);
+        }
+        List<FeedbackResponseDTO> items = new ArrayList<>(hits.feedbackIds().size());
+        for (Long id : hits.feedbackIds()) {
+            FeedbackResponseDTO dto = byId.get(id);
+            // Null only if the row was deleted after the search ran
+            if (dto != null) {
+                items.add(dto);
+            }
+        }
+        return new FeedbackSearchResult(hits.total(), items);
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<FeedbackResponseDTO> getFeedbackResponseById(Long id) {
+        return feedbackRepository.findResponseById(id);
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<FeedbackResponseDTO> getFeedbackResponseBySubmissionKey(String submissionKey) {
+        return feedbackRepository.findResponseBySubmissionKey(submissionKey);
+    }
+    
     public Optional<Feedback> getFeedbackById(Long id) {
         return feedbackRepository.findById(id);
     }
@@ -112,6 +210,7 @@ public class FeedbackService {
         
         Feedback feedback = feedbackOpt.get();
         User staff = staffOpt.get();
+        FeedbackAnalyticsService.Cell before = FeedbackAnalyticsService.Cell.of(feedback);
         
         feedback.setStaffReply(reply);
         feedback.setRepliedBy(staff);
@@ -119,7 +218,11 @@ public class FeedbackService {
         feedback.setStatus(Feedback.FeedbackStatus.REVIEWED);
         feedback.setUpdatedAt(LocalDateTime.now());
         
-        return feedbackRepository.save(feedback);
+        Feedback savedFeedback = feedbackRepository.save(feedback);
+        feedbackSearchIndex.indexAfterCommit(savedFeedback);
+        feedbackAnalyticsService.recordChangeAfterCommit(before, FeedbackAnalyticsService.Cell.of(savedFeedback));
+        dashboardCounters.feedbackChangedAfterCommit(before.status(), savedFeedback.getStatus());
+        return savedFeedback;
     }
     
     public Feedback updateFeedbackStatus(Long feedbackId, Feedback.FeedbackStatus status) {
@@ -129,29 +232,168 @@ public class FeedbackService {
         }
         
         Feedback feedback = feedbackOpt.get();
+        FeedbackAnalyticsService.Cell before = FeedbackAnalyticsService.Cell.of(feedback);
         feedback.setStatus(status);
         feedback.setUpdatedAt(LocalDateTime.now());
         
-        return feedbackRepository.save(feedback);
+        Feedback savedFeedback = feedbackRepository.save(feedback);
+        // The index filters on status, so it has to follow status changes too
+        feedbackSearchIndex.indexAfterCommit(savedFeedback);
+        feedbackAnalyticsService.recordChangeAfterCommit(before, FeedbackAnalyticsService.Cell.of(savedFeedback));
+        dashboardCounters.feedbackChangedAfterCommit(before.status(), savedFeedback.getStatus());
+        return savedFeedback;
+    }
+    
+    /**
+     * Sets the status of every targeted feedback with one UPDATE and returns the ids that
+     * changed. Items already in that status are left alone.
+     */
+    public BulkFeedbackResult bulkUpdateStatus(BulkFeedbackRequest request) {
+        if (request.getStatus() == null) {
+            throw new RuntimeException("Missing required field: status");
+        }
+        List<Object[]> rows = selectForBulk(request);
+        boolean hasMore = rows.size() > MAX_BULK_ROWS;
+        List<Object[]> changing = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (Object[] row : rows.subList(0, Math.min(rows.size(), MAX_BULK_ROWS))) {
+            if (row[2] != request.getStatus()) {
+                changing.add(row);
+                ids.add((Long) row[0]);
+            }
+        }
+        if (ids.isEmpty()) {
+            return new BulkFeedbackResult(0, ids, hasMore);
+        }
+        
+        int updated = feedbackRepository.updateStatus(ids, request.getStatus(), LocalDateTime.now());
+        for (Object[] row : changing) {
+            followBulkChange(row, request.getStatus(), (String) row[5]);
+        }
+        return new BulkFeedbackResult(updated, ids, hasMore);
+    }
+    
+    /**
+     * Replies to every targeted feedback with the same text in one UPDATE, marking them REVIEWED.
+     */
+    public BulkFeedbackResult bulkReply(BulkFeedbackRequest request) {
+        if (request.getStaffEmail() == null || request.getReply() == null) {
+            throw new RuntimeException("Missing required fields: staffEmail, reply");
+        }
+        User staff = userRepository.findByEmail(request.getStaffEmail())
+                .orElseThrow(() -> new RuntimeException("Staff not found with email: " + request.getStaffEmail()));
+        
+        List<Object[]> rows = selectForBulk(request);
+        boolean hasMore = rows.size() > MAX_BULK_ROWS;
+        rows = rows.subList(0, Math.min(rows.size(), MAX_BULK_ROWS));
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+        }
+        if (ids.isEmpty()) {
+            return new BulkFeedbackResult(0, ids, hasMore);
+        }
+        
+        int updated = feedbackRepository.updateReply(ids, request.getReply(), staff, LocalDateTime.now());
+        for (Object[] row : rows) {
+            followBulkChange(row, Feedback.FeedbackStatus.REVIEWED, request.getReply());
+        }
+        return new BulkFeedbackResult(updated, ids, hasMore);
+    }
+    
+    // Explicit ids, or one batch (plus one row to detect more) of the filter's matches, oldest first
+    private List<Object[]> selectForBulk(BulkFeedbackRequest request) {
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            if (request.getIds().size() > MAX_BULK_ROWS) {
+                throw new RuntimeException("At most " + MAX_BULK_ROWS + " ids can be changed in one request");
+            }
+            return feedbackRepository.findModerationRowsByIds(new LinkedHashSet<>(request.getIds()));
+        }
+        if (request.getFeedbackType() == null && request.getCurrentStatus() == null && request.getMinRating() == null
+                && request.getMaxRating() == null && request.getOlderThanDays() == null) {
+            throw new RuntimeException("Either ids or at least one filter field is required");
+        }
+        LocalDateTime before = request.getOlderThanDays() == null ? null
+                : LocalDateTime.now().minusDays(request.getOlderThanDays());
+        return feedbackRepository.findModerationRows(request.getFeedbackType(), request.getCurrentStatus(),
+                request.getMinRating(), request.getMaxRating(), before, PageRequest.of(0, MAX_BULK_ROWS + 1));
+    }
+    
+    // Row layout follows FeedbackRepository.MODERATION_SELECT
+    private void followBulkChange(Object[] row, Feedback.FeedbackStatus status, String staffReply) {
+        long id = (Long) row[0];
+        Feedback.FeedbackType type = (Feedback.FeedbackType) row[1];
+        int rating = row[3] == null ? 0 : (Integer) row[3];
+        LocalDateTime createdAt = (LocalDateTime) row[6];
+        feedbackSearchIndex.indexAfterCommit(new FeedbackSearchIndex.Document(id, type, status, rating,
+                (String) row[4], staffReply, createdAt));
+        feedbackAnalyticsService.recordChangeAfterCommit(
+                new FeedbackAnalyticsService.Cell(type, (Feedback.FeedbackStatus) row[2], rating, createdAt.toLocalDate()),
+                new FeedbackAnalyticsService.Cell(type, status, rating, createdAt.toLocalDate()));
+        dashboardCounters.feedbackChangedAfterCommit((Feedback.FeedbackStatus) row[2], status);
     }
     
     public Long getPendingFeedbackCount() {
-        return feedbackRepository.countByStatus(Feedback.FeedbackStatus.PENDING);
+        return dashboardCounters.feedbackCount(Feedback.FeedbackStatus.PENDING);
     }
     
     public Double getAverageRatingByType(Feedback.FeedbackType type) {
         return feedbackRepository.getAverageRatingByType(type);
     }
     
+    public FeedbackAnalytics getAnalytics(LocalDate from, LocalDate to) {
+        return feedbackAnalyticsService.getAnalytics(from, to);
+    }
+    
     public List<Feedback> getRecentFeedback(int days) {
         LocalDateTime startDate = LocalDateTime.now().minusDays(days);
         return feedbackRepository.findRecentFeedback(startDate);
     }
     
     public void deleteFeedback(Long feedbackId) {
-        if (!feedbackRepository.existsById(feedbackId)) {
+        Optional<Feedback> feedbackOpt = feedbackRepository.findById(feedbackId);
+        if (feedbackOpt.isEmpty()) {
             throw new RuntimeException("Feedback not found with id: " + feedbackId);
         }
-        feedbackRepository.deleteById(feedbackId);
+        Feedback feedback = feedbackOpt.get();
+        FeedbackAnalyticsService.Cell before = FeedbackAnalyticsService.Cell.of(feedback);
+        if (feedback.getMenuItems() != null && !feedback.getMenuItems().isEmpty()) {
+            menuItemRatingService.removeRating(menuItemIds(feedback.getMenuItems()), ratingDay(feedback), feedback.getRating());
+        }
+        feedbackRepository.delete(feedback);
+        feedbackSearchIndex.removeAfterCommit(feedbackId);
+        feedbackAnalyticsService.recordChangeAfterCommit(before, null);
+        dashboardCounters.feedbackChangedAfterCommit(before.status(), null);
+    }
+    
+    private List<MenuItem> resolveMenuItems(DailyMenu dailyMenu, List<Long> menuItemIds) {
+        if (menuItemIds == null || menuItemIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Long> requested = new LinkedHashSet<>(menuItemIds);
+        List<MenuItem> menuItems = menuItemRepository.findAllById(requested);
+        if (menuItems.size() != requested.size()) {
+            throw new RuntimeException("Unknown menu item in: " + requested);
+        }
+        if (dailyMenu != null) {
+            Set<Long> served = menuItemIds(dailyMenu.getMenuItems() == null ? List.of() : dailyMenu.getMenuItems());
+            if (!served.containsAll(requested)) {
+                throw new RuntimeException("Menu items must be on daily menu " + dailyMenu.getId());
+            }
+        }
+        return new ArrayList<>(menuItems);
+    }
+    
+    private static Set<Long> menuItemIds(List<MenuItem> menuItems) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (MenuItem menuItem : menuItems) {
+            ids.add(menuItem.getId());
+        }
+        return ids;
+    }
+    
+    // Ratings count towards the day the meal was served, falling back to the day they were given
+    private static LocalDate ratingDay(Feedback feedback) {
+        return feedback.getDailyMenu() != null ? feedback.getDailyMenu().getMenuDate() : feedback.getCreatedAt().toLocalDate();
     }
-}
\ No newline at end of file
+}
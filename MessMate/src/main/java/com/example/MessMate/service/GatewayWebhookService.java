@@ -0,0 +1,129 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.GatewayWebhook;
+import com.example.MessMate.entity.GatewayEvent;
+import com.example.MessMate.entity.Money;
+import com.example.MessMate.repository.GatewayEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingests payment gateway callbacks.
+ *
+ * A callback is verified and recorded in gateway_events on the request thread (the primary key
+ * drops gateway retries), then applied to its payment on a virtual thread so the gateway gets
+ * its acknowledgement without waiting on the payment transaction. Events that were recorded but
+ * never applied, e.g. because the node went down, are picked up again by {@link #retryUnprocessed()}.
+ */
+@Service
+public class GatewayWebhookService {
+
+    public enum IngestResult { ACCEPTED, DUPLICATE }
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO gateway_events (event_id, transaction_id, status, amount, received_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final GatewayEventRepository gatewayEventRepository;
+    private final PaymentService paymentService;
+    private final PaymentGateway paymentGateway;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Virtual threads are cheap, database connections are not
+    private final Semaphore permits;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public GatewayWebhookService(GatewayEventRepository gatewayEventRepository,
+                                 PaymentService paymentService,
+                                 PaymentGateway paymentGateway,
+                                 JdbcTemplate jdbcTemplate,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.payment.webhook.max-concurrency:16}") int maxConcurrency) {
+        this.gatewayEventRepository = gatewayEventRepository;
+        this.paymentService = paymentService;
+        this.paymentGateway = paymentGateway;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    public IngestResult ingest(String payload, String signature) {
+        if (!paymentGateway.verifySignature(payload, signature)) {
+            throw new SecurityException("Invalid webhook signature");
+        }
+
+        GatewayWebhook webhook;
+        try {
+            webhook = objectMapper.readValue(payload, GatewayWebhook.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed webhook payload");
+        }
+        if (webhook.getEventId() == null || webhook.getTransactionId() == null || webhook.getStatus() == null) {
+            throw new IllegalArgumentException("Missing required fields: eventId, transactionId, status");
+        }
+
+        try {
+            jdbcTemplate.update(INSERT_EVENT_SQL, webhook.getEventId(), webhook.getTransactionId(),
+                    webhook.getStatus(), webhook.getAmount() == null ? null : webhook.getAmount().paise(),
+                    Timestamp.valueOf(LocalDateTime.now()));
+        } catch (DuplicateKeyException e) {
+            return IngestResult.DUPLICATE;
+        }
+
+        dispatch(webhook.getEventId(), webhook.getTransactionId(), webhook.getStatus(), webhook.getAmount());
+        return IngestResult.ACCEPTED;
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.webhook.retry-interval-ms:60000}")
+    public void retryUnprocessed() {
+        for (GatewayEvent event : gatewayEventRepository
+                .findTop500ByProcessedAtIsNullAndReceivedAtBeforeOrderByReceivedAt(LocalDateTime.now().minusMinutes(1))) {
+            dispatch(event.getEventId(), event.getTransactionId(), event.getStatus(), event.getAmount());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void dispatch(String eventId, String transactionId, String status, Money amount) {
+        if (!inFlight.add(eventId)) {
+            return;
+        }
+        executor.submit(() -> {
+            try {
+                permits.acquire();
+                try {
+                    String outcome = paymentService.applyGatewayResult(transactionId, "SUCCESS".equalsIgnoreCase(status), amount);
+                    gatewayEventRepository.markProcessed(eventId, LocalDateTime.now(), outcome);
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Left unprocessed; the retry sweep will try it again
+                System.err.println("Failed to apply gateway event " + eventId + ": " + e.getMessage());
+            } finally {
+                inFlight.remove(eventId);
+            }
+        });
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.HostelSummary;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory hostel occupancy: for each hostel, the ids of its active students by room, plus
+ * total and active counts.
+ *
+ * Built at startup by one scan over the student rows of users and kept current by
+ * {@link StudentService} and {@link UserService}, which report a student's placement (hostel,
+ * room, active) after the change commits. A placement replaces whatever the index held for that
+ * student, so applying one twice is harmless; changes that arrive during a rebuild are simply
+ * replayed onto the new index. Bulk writes made with plain SQL rebuild the index, and it is also
+ * rebuilt on a schedule as a safety net.
+ */
+@Component
+public class HostelRosterIndex {
+
+    public record Placement(long studentId, String hostel, String room, boolean active) {
+    }
+
+    public record RosterPage(List<Long> studentIds, boolean hasNext) {
+    }
+
+    private static final String SCAN_SQL =
+            "SELECT id, hostel, room, is_active FROM users WHERE user_type = 'STUDENT'";
+
+    private static final class Hostel {
+        // Rooms in order; a null room is kept under ""
+        final TreeMap<String, TreeSet<Long>> activeByRoom = new TreeMap<>();
+        long total;
+        long active;
+    }
+
+    private static final class Snapshot {
+        final Map<String, Hostel> hostels = new TreeMap<>();
+        final Map<Long, Placement> placements = new HashMap<>();
+
+        void apply(Placement placement) {
+            Placement previous = placements.put(placement.studentId(), placement);
+            if (previous != null) {
+                remove(previous);
+            }
+            if (placement.hostel() == null) {
+                return;
+            }
+            Hostel hostel = hostels.computeIfAbsent(placement.hostel(), name -> new Hostel());
+            hostel.total++;
+            if (placement.active()) {
+                hostel.active++;
+                hostel.activeByRoom.computeIfAbsent(roomKey(placement.room()), room -> new TreeSet<>())
+                        .add(placement.studentId());
+            }
+        }
+
+        private void remove(Placement placement) {
+            Hostel hostel = placement.hostel() == null ? null : hostels.get(placement.hostel());
+            if (hostel == null) {
+                return;
+            }
+            hostel.total--;
+            if (placement.active()) {
+                hostel.active--;
+                String room = roomKey(placement.room());
+                NavigableSet<Long> ids = hostel.activeByRoom.get(room);
+                if (ids != null) {
+                    ids.remove(placement.studentId());
+                    if (ids.isEmpty()) {
+                        hostel.activeByRoom.remove(room);
+                    }
+                }
+            }
+            if (hostel.total == 0) {
+                hostels.remove(placement.hostel());
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Snapshot snapshot = new Snapshot();
+    private boolean built;
+    // Placements that arrive while a rebuild is scanning; replayed onto the new snapshot
+    private List<Placement> pendingDuringRebuild;
+
+    public HostelRosterIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void placeAfterCommit(long studentId, String hostel, String room, boolean active) {
+        Placement placement = new Placement(studentId, hostel, room, active);
+        AfterCommit.run(() -> apply(placement));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.hostels.rebuild-interval-ms:3600000}",
+            initialDelayString = "${app.hostels.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Snapshot fresh = new Snapshot();
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        SCAN_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(1000);
+                return statement;
+            }, rs -> {
+                boolean active = rs.getBoolean(4);
+                fresh.apply(new Placement(rs.getLong(1), rs.getString(2), rs.getString(3), active && !rs.wasNull()));
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Placement placement : pendingDuringRebuild) {
+                fresh.apply(placement);
+            }
+            pendingDuringRebuild = null;
+            snapshot = fresh;
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Hostel roster index built: " + fresh.placements.size() + " students in "
+                + fresh.hostels.size() + " hostels");
+    }
+
+    public List<HostelSummary> summaries() {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            List<HostelSummary> summaries = new ArrayList<>(snapshot.hostels.size());
+            for (Map.Entry<String, Hostel> entry : snapshot.hostels.entrySet()) {
+                Hostel hostel = entry.getValue();
+                summaries.add(new HostelSummary(entry.getKey(), hostel.total, hostel.active,
+                        hostel.activeByRoom.size(), null));
+            }
+            return summaries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * One hostel with its per-room occupancy, or null if no student lives there.
+     */
+    public HostelSummary summary(String hostelName) {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            Hostel hostel = snapshot.hostels.get(hostelName);
+            if (hostel == null) {
+                return null;
+            }
+            Map<String, Integer> rooms = new LinkedHashMap<>();
+            for (Map.Entry<String, TreeSet<Long>> room : hostel.activeByRoom.entrySet()) {
+                rooms.put(room.getKey(), room.getValue().size());
+            }
+            return new HostelSummary(hostelName, hostel.total, hostel.active, rooms.size(), rooms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long totalStudents(String hostelName) {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            Hostel hostel = snapshot.hostels.get(hostelName);
+            return hostel == null ? 0 : hostel.total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Active students of a hostel ordered by room, then id. Pages are zero-based.
+     */
+    public RosterPage roster(String hostelName, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("page must be >= 0 and size >= 1");
+        }
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            Hostel hostel = snapshot.hostels.get(hostelName);
+            if (hostel == null) {
+                return new RosterPage(List.of(), false);
+            }
+            long skip = (long) page * size;
+            List<Long> ids = new ArrayList<>((int) Math.min(size, hostel.active));
+            for (TreeSet<Long> room : hostel.activeByRoom.values()) {
+                if (skip >= room.size()) {
+                    skip -= room.size();
+                    continue;
+                }
+                for (Long id : room) {
+                    if (skip > 0) {
+                        skip--;
+                    } else if (ids.size() < size) {
+                        ids.add(id);
+                    } else {
+                        return new RosterPage(ids, true);
+                    }
+                }
+            }
+            return new RosterPage(ids, false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Package-private for tests: applies a placement as if its transaction had just committed
+    void apply(Placement placement) {
+        lock.writeLock().lock();
+        try {
+            snapshot.apply(placement);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(placement);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Reads before the startup build (e.g. in tests, which have no ready event) build synchronously
+    private void ensureBuilt() {
+        lock.readLock().lock();
+        try {
+            if (built) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        rebuild();
+    }
+
+    private static String roomKey(String room) {
+        return room == null ? "" : room;
+    }
+}
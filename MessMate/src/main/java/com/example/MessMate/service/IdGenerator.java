@@ -0,0 +1,98 @@
+package com.example.MessMate.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered, node-aware 63-bit IDs for business keys (transaction ids, pass numbers).
+ *
+ * Layout: 41 bits of milliseconds since 2024-01-01, 10 bits of node id, 12 bits of sequence.
+ * The millisecond and sequence live together in one {@link AtomicLong}, so generation is a
+ * single CAS. When a millisecond runs out of sequence numbers, or the wall clock steps back,
+ * the counter simply carries into the next millisecond instead of blocking, so IDs from one
+ * node are strictly increasing.
+ *
+ * {@link #nextKey(String)} renders the ID as 13 Crockford base32 characters, which sort in
+ * the same order as the numbers, so inserts land at the right edge of the unique index.
+ *
+ * The node id must be configured ({@code app.ids.node-id}) and distinct per node; it is never
+ * derived, since two nodes landing on the same value would issue colliding keys.
+ */
+@Component
+public class IdGenerator {
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int KEY_LENGTH = 13;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    // (milliseconds since EPOCH_MILLIS << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong state = new AtomicLong();
+
+    @Autowired
+    public IdGenerator(@Value("${app.ids.node-id:-1}") long nodeId) {
+        this(requireConfigured(nodeId), System::currentTimeMillis);
+    }
+
+    IdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    public long nextId() {
+        while (true) {
+            long last = state.get();
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+            long next = now > (last >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : last + 1;
+            if (state.compareAndSet(last, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                        | (nodeId << SEQUENCE_BITS)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Next ID as {@code prefix} followed by 13 sortable base32 characters, e.g. {@code TXN01HZX4P8B2K0S1}.
+     */
+    public String nextKey(String prefix) {
+        return encode(prefix, nextId());
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    static String encode(String prefix, long id) {
+        char[] key = new char[prefix.length() + KEY_LENGTH];
+        prefix.getChars(0, prefix.length(), key, 0);
+        long value = id;
+        for (int i = key.length - 1; i >= prefix.length(); i--) {
+            key[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(key);
+    }
+
+    private static long requireConfigured(long nodeId) {
+        if (nodeId < 0) {
+            throw new IllegalStateException("app.ids.node-id is not set; give every node a distinct id between 0 and "
+                    + MAX_NODE_ID + " (NODE_ID)");
+        }
+        return nodeId;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.MessMate.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Moves legacy rows from students into users, so users is the only identity table.
+ *
+ * The job walks students by id in chunks. Each chunk is one transaction that links users who
+ * already have the student's email (accounts copied earlier by feedback submission) and inserts
+ * the rest with a single INSERT ... SELECT, so rows never travel through the application. Every
+ * migrated or linked account records its student_id, which makes the job resumable without any
+ * saved state: a new run starts after the highest student_id already in users. Students whose
+ * roll number belongs to a different account are skipped and counted.
+ */
+@Service
+public class IdentityBackfillService {
+
+    public static final String BACKFILL_JOB = "identity-backfill";
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    private static final String LINK_SQL =
+            "UPDATE users SET student_id = (SELECT s.id FROM students s WHERE s.email = users.email) " +
+            "WHERE student_id IS NULL AND email IN (SELECT email FROM students WHERE id > ? AND id <= ?)";
+
+    private static final String MIGRATE_SQL =
+            "INSERT INTO users (name, email, password, user_type, roll_number, hostel, room, phone, is_active, " +
+            "student_id, created_at, updated_at) " +
+            "SELECT s.name, s.email, s.password, 'STUDENT', s.roll_number, s.hostel, s.room, s.phone, s.is_active, " +
+            "s.id, s.created_at, s.updated_at FROM students s " +
+            "WHERE s.id > ? AND s.id <= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.email = s.email) " +
+            "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.roll_number = s.roll_number)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLeaseService jobLeaseService;
+    private final DashboardCounters dashboardCounters;
+    private final HostelRosterIndex hostelRosterIndex;
+    private final int chunkSize;
+    private final boolean runOnStartup;
+    private final ExecutorService jobRunner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "identity-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IdentityBackfillService(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   JobLeaseService jobLeaseService,
+                                   DashboardCounters dashboardCounters,
+                                   HostelRosterIndex hostelRosterIndex,
+                                   @Value("${app.identity.backfill.chunk-size:1000}") int chunkSize,
+                                   @Value("${app.identity.backfill.on-startup:true}") boolean runOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobLeaseService = jobLeaseService;
+        this.dashboardCounters = dashboardCounters;
+        this.hostelRosterIndex = hostelRosterIndex;
+        this.chunkSize = chunkSize;
+        this.runOnStartup = runOnStartup;
+    }
+
+    // Cheap when there is nothing left to migrate: one MAX and one COUNT
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (runOnStartup) {
+            start();
+        }
+    }
+
+    /**
+     * Starts (or resumes) the backfill in the background. Returns false if another node is already running it.
+     */
+    public boolean start() {
+        if (!jobLeaseService.tryAcquire(BACKFILL_JOB, LEASE)) {
+            return false;
+        }
+        jobRunner.submit(this::run);
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdownNow();
+    }
+
+    void run() {
+        long processed = 0;
+        long migrated = 0;
+        long linked = 0;
+        try {
+            // Accounts from before users had is_active
+            jdbcTemplate.update("UPDATE users SET is_active = TRUE WHERE is_active IS NULL");
+
+            long cursor = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(student_id), 0) FROM users", Long.class);
+            Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM students WHERE id > ?", Long.class, cursor);
+
+            while (true) {
+                List<Long> ids = jdbcTemplate.queryForList(
+                        "SELECT id FROM students WHERE id > ? ORDER BY id LIMIT ?", Long.class, cursor, chunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                long from = cursor;
+                long to = ids.get(ids.size() - 1);
+                int[] counts = transactionTemplate.execute(status -> new int[]{
+                        jdbcTemplate.update(LINK_SQL, from, to),
+                        jdbcTemplate.update(MIGRATE_SQL, from, to)});
+                linked += counts[0];
+                migrated += counts[1];
+                processed += ids.size();
+                cursor = to;
+                if (!jobLeaseService.reportProgress(BACKFILL_JOB, processed, total == null ? processed : total, LEASE)) {
+                    System.err.println("Identity backfill lost its lease after " + processed + " students");
+                    return;
+                }
+            }
+
+            long skipped = processed - migrated - linked;
+            String message = "Migrated " + migrated + " students, linked " + linked + " existing accounts" +
+                    (skipped > 0 ? ", skipped " + skipped + " with a roll number owned by another account" : "");
+            jobLeaseService.complete(BACKFILL_JOB, processed, message);
+            if (migrated > 0) {
+                dashboardCounters.reconcile();
+                hostelRosterIndex.rebuild();
+            }
+            System.out.println("Identity backfill finished: " + message);
+        } catch (Exception e) {
+            jobLeaseService.fail(BACKFILL_JOB, processed, e.getMessage());
+            System.err.println("Identity backfill failed: " + e.getMessage());
+        }
+    }
+}
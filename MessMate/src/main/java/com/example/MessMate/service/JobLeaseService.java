@@ -0,0 +1,93 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.JobLease;
+import com.example.MessMate.repository.JobLeaseRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Database leases that keep a background job to one node at a time, plus its progress.
+ *
+ * Acquiring is a single conditional UPDATE (or INSERT for a job that has never run), so two
+ * nodes racing for the same job cannot both win. A job can be acquired once it has finished or
+ * its lease has expired; a node that dies simply lets the lease expire.
+ */
+@Service
+public class JobLeaseService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobLeaseRepository jobLeaseRepository;
+    private final String owner;
+
+    public JobLeaseService(JdbcTemplate jdbcTemplate, JobLeaseRepository jobLeaseRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public boolean tryAcquire(String jobName, Duration leaseDuration) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp nowTs = Timestamp.valueOf(now);
+        Timestamp until = Timestamp.valueOf(now.plus(leaseDuration));
+
+        // A running job is never taken over before its lease expires, not even by the node running it
+        int updated = jdbcTemplate.update(
+                "UPDATE job_leases SET owner = ?, lease_until = ?, status = ?, processed = 0, total = 0, " +
+                "started_at = ?, finished_at = NULL, message = NULL " +
+                "WHERE name = ? AND (status <> ? OR lease_until IS NULL OR lease_until < ?)",
+                owner, until, JobLease.JobStatus.RUNNING.name(), nowTs, jobName, JobLease.JobStatus.RUNNING.name(), nowTs);
+        if (updated == 1) {
+            return true;
+        }
+
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO job_leases (name, owner, lease_until, status, processed, total, started_at) " +
+                    "VALUES (?, ?, ?, ?, 0, 0, ?)",
+                    jobName, owner, until, JobLease.JobStatus.RUNNING.name(), nowTs);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Another node holds a live lease
+            return false;
+        }
+    }
+
+    /**
+     * Records progress and extends the lease. Returns false if the lease was lost to another node.
+     */
+    public boolean reportProgress(String jobName, long processed, long total, Duration leaseDuration) {
+        Timestamp until = Timestamp.valueOf(LocalDateTime.now().plus(leaseDuration));
+        return jdbcTemplate.update(
+                "UPDATE job_leases SET processed = ?, total = ?, lease_until = ? WHERE name = ? AND owner = ?",
+                processed, total, until, jobName, owner) == 1;
+    }
+
+    public void complete(String jobName, long processed, String message) {
+        finish(jobName, JobLease.JobStatus.COMPLETED, processed, message);
+    }
+
+    public void fail(String jobName, long processed, String message) {
+        finish(jobName, JobLease.JobStatus.FAILED, processed, message);
+    }
+
+    public Optional<JobLease> getJob(String jobName) {
+        return jobLeaseRepository.findById(jobName);
+    }
+
+    private void finish(String jobName, JobLease.JobStatus status, long processed, String message) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // Releasing the lease (lease_until = now) lets the next scheduled run start on any node
+        jdbcTemplate.update(
+                "UPDATE job_leases SET status = ?, processed = ?, finished_at = ?, lease_until = ?, message = ? " +
+                "WHERE name = ? AND owner = ?",
+                status.name(), processed, now, now, message, jobName, owner);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * In-process gateway used for development and tests. Orders are accepted immediately and
+ * callbacks are signed with HMAC-SHA256 over the raw body, the same scheme a real gateway uses.
+ * Anyone holding the secret can forge a callback that credits a pass, so the stub only exists
+ * in the dev and test profiles and the secret has no built-in default.
+ */
+@Component
+@Profile({"dev", "test"})
+@ConditionalOnProperty(name = "app.payment.gateway.provider", havingValue = "local", matchIfMissing = true)
+public class LocalPaymentGateway implements PaymentGateway {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final byte[] secret;
+
+    public LocalPaymentGateway(@Value("${app.payment.gateway.webhook-secret}") String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("app.payment.gateway.webhook-secret must be set (PAYMENT_WEBHOOK_SECRET)");
+        }
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public GatewayOrder createOrder(String transactionId, Money amount) {
+        String reference = "LOCAL-" + transactionId;
+        return new GatewayOrder(reference, "local://checkout/" + reference);
+    }
+
+    @Override
+    public boolean verifySignature(String payload, String signature) {
+        if (payload == null || signature == null) {
+            return false;
+        }
+        byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.trim().toLowerCase().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret, ALGORITHM));
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    /**
+     * Builds the callback body the gateway would post for a finished order.
+     */
+    public String callbackBody(String eventId, String transactionId, boolean success, Money amount) {
+        return "{\"eventId\":\"" + eventId + "\",\"transactionId\":\"" + transactionId + "\"," +
+                "\"gatewayReference\":\"LOCAL-" + transactionId + "\"," +
+                "\"status\":\"" + (success ? "SUCCESS" : "FAILED") + "\",\"amount\":" + amount + "}";
+    }
+}
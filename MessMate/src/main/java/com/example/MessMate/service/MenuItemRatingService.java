@@ -0,0 +1,195 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.MenuItemRatingSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Running rating aggregates per menu item, kept in menu_item_rating_daily (per menu day) and
+ * menu_item_rating_stats (all time, plus the last N ratings).
+ *
+ * {@link FeedbackService} calls {@link #recordRating} and {@link #removeRating} inside the
+ * transaction that writes the feedback, so the aggregates commit or roll back with it. Rankings
+ * read these tables only, never the feedback table: one row per item for all-time and recent
+ * rankings, one row per item and day for a date range.
+ */
+@Service
+public class MenuItemRatingService {
+
+    public enum Order { BEST, WORST }
+
+    private static final String INCREMENT_DAILY_SQL =
+            "UPDATE menu_item_rating_daily SET rating_count = rating_count + ?, rating_sum = rating_sum + ?, " +
+            "rating_sum_squares = rating_sum_squares + ? WHERE menu_item_id = ? AND rating_date = ?";
+
+    private static final String INSERT_EMPTY_DAILY_SQL =
+            "INSERT INTO menu_item_rating_daily (menu_item_id, rating_date, rating_count, rating_sum, rating_sum_squares) " +
+            "VALUES (?, ?, 0, 0, 0)";
+
+    // Appending and trimming in the statement keeps the recent window correct under concurrent submits
+    private static final String ADD_TO_STATS_SQL =
+            "UPDATE menu_item_rating_stats SET rating_count = rating_count + 1, rating_sum = rating_sum + ?, " +
+            "rating_sum_squares = rating_sum_squares + ?, recent_ratings = RIGHT(CONCAT(recent_ratings, ?), ?) " +
+            "WHERE menu_item_id = ?";
+
+    // The recent window cannot forget one specific rating, so removal only corrects the totals
+    private static final String REMOVE_FROM_STATS_SQL =
+            "UPDATE menu_item_rating_stats SET rating_count = rating_count - 1, rating_sum = rating_sum - ?, " +
+            "rating_sum_squares = rating_sum_squares - ? WHERE menu_item_id = ?";
+
+    private static final String INSERT_EMPTY_STATS_SQL =
+            "INSERT INTO menu_item_rating_stats (menu_item_id, rating_count, rating_sum, rating_sum_squares, recent_ratings) " +
+            "VALUES (?, 0, 0, 0, '')";
+
+    private static final String RANK_ALL_TIME_SQL =
+            "SELECT s.menu_item_id, m.name, s.rating_count, s.rating_sum, s.rating_sum_squares " +
+            "FROM menu_item_rating_stats s JOIN menu_items m ON m.id = s.menu_item_id " +
+            "WHERE s.rating_count >= ? " +
+            "ORDER BY CAST(s.rating_sum AS DOUBLE PRECISION) / s.rating_count %s, s.rating_count DESC, s.menu_item_id " +
+            "LIMIT ?";
+
+    private static final String RANK_RANGE_SQL =
+            "SELECT d.menu_item_id, m.name, SUM(d.rating_count), SUM(d.rating_sum), SUM(d.rating_sum_squares) " +
+            "FROM menu_item_rating_daily d JOIN menu_items m ON m.id = d.menu_item_id " +
+            "WHERE d.rating_date BETWEEN ? AND ? " +
+            "GROUP BY d.menu_item_id, m.name HAVING SUM(d.rating_count) >= ? " +
+            "ORDER BY CAST(SUM(d.rating_sum) AS DOUBLE PRECISION) / SUM(d.rating_count) %s, SUM(d.rating_count) DESC, d.menu_item_id " +
+            "LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate separateTransaction;
+    private final int recentWindow;
+    // Aggregate rows known to exist, so the hot path is a single UPDATE per table
+    private final Set<String> knownRows = ConcurrentHashMap.newKeySet();
+
+    public MenuItemRatingService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.menu.ratings.recent-window:50}") int recentWindow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.separateTransaction = new TransactionTemplate(transactionManager);
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.recentWindow = Math.max(1, Math.min(recentWindow, 255));
+    }
+
+    public void recordRating(Collection<Long> menuItemIds, LocalDate day, int rating) {
+        String digit = Integer.toString(rating);
+        // Sorted so concurrent feedback on the same dishes locks rows in the same order
+        for (Long menuItemId : new TreeSet<>(menuItemIds)) {
+            applyDaily(menuItemId, day, 1, rating);
+            ensureStatsRow(menuItemId);
+            jdbcTemplate.update(ADD_TO_STATS_SQL, rating, rating * rating, digit, recentWindow, menuItemId);
+        }
+    }
+
+    public void removeRating(Collection<Long> menuItemIds, LocalDate day, int rating) {
+        for (Long menuItemId : new TreeSet<>(menuItemIds)) {
+            applyDaily(menuItemId, day, -1, rating);
+            jdbcTemplate.update(REMOVE_FROM_STATS_SQL, rating, rating * rating, menuItemId);
+        }
+    }
+
+    /**
+     * Best or worst rated dishes. With a date range the ranking covers ratings for menus served
+     * in that range; without one it covers all time. Items with fewer than {@code minCount}
+     * ratings are left out so a single vote cannot top the list.
+     */
+    public List<MenuItemRatingSummary> rank(LocalDate from, LocalDate to, Order order, int minCount, int limit) {
+        String direction = order == Order.WORST ? "ASC" : "DESC";
+        if (from == null && to == null) {
+            return jdbcTemplate.query(String.format(RANK_ALL_TIME_SQL, direction),
+                    (rs, rowNum) -> summary(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)),
+                    minCount, limit);
+        }
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("A valid date range is required");
+        }
+        return jdbcTemplate.query(String.format(RANK_RANGE_SQL, direction),
+                (rs, rowNum) -> summary(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)),
+                Date.valueOf(from), Date.valueOf(to), minCount, limit);
+    }
+
+    /**
+     * Best or worst dishes over each item's last N ratings, so a dish that recently got better
+     * or worse shows up without waiting for its all-time average to move.
+     */
+    public List<MenuItemRatingSummary> rankRecent(Order order, int minCount, int limit) {
+        List<MenuItemRatingSummary> summaries = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT s.menu_item_id, m.name, s.recent_ratings FROM menu_item_rating_stats s " +
+                "JOIN menu_items m ON m.id = s.menu_item_id",
+                rs -> {
+                    String recent = rs.getString(3);
+                    if (recent == null || recent.length() < Math.max(1, minCount)) {
+                        return;
+                    }
+                    long sum = 0;
+                    long sumSquares = 0;
+                    for (int i = 0; i < recent.length(); i++) {
+                        int rating = recent.charAt(i) - '0';
+                        sum += rating;
+                        sumSquares += (long) rating * rating;
+                    }
+                    summaries.add(summary(rs.getLong(1), rs.getString(2), recent.length(), sum, sumSquares));
+                });
+
+        Comparator<MenuItemRatingSummary> byAverage = Comparator.comparingDouble(MenuItemRatingSummary::getAverageRating);
+        summaries.sort((order == Order.WORST ? byAverage : byAverage.reversed())
+                .thenComparing(Comparator.comparingLong(MenuItemRatingSummary::getRatingCount).reversed())
+                .thenComparing(MenuItemRatingSummary::getMenuItemId));
+        return summaries.size() > limit ? new ArrayList<>(summaries.subList(0, limit)) : summaries;
+    }
+
+    private void applyDaily(Long menuItemId, LocalDate day, int count, int rating) {
+        String key = "d|" + menuItemId + "|" + day;
+        ensureRow(key, INSERT_EMPTY_DAILY_SQL, menuItemId, Date.valueOf(day));
+        jdbcTemplate.update(INCREMENT_DAILY_SQL, count, count * rating, count * rating * rating, menuItemId, Date.valueOf(day));
+    }
+
+    private void ensureStatsRow(Long menuItemId) {
+        ensureRow("s|" + menuItemId, INSERT_EMPTY_STATS_SQL, menuItemId);
+    }
+
+    /**
+     * Creates the empty row in its own short transaction, so two feedbacks racing to create it
+     * do not abort each other's transaction.
+     */
+    private void ensureRow(String key, String insertSql, Object... args) {
+        if (knownRows.contains(key)) {
+            return;
+        }
+        try {
+            separateTransaction.executeWithoutResult(tx -> jdbcTemplate.update(insertSql, args));
+        } catch (DuplicateKeyException e) {
+            // Already there
+        }
+        knownRows.add(key);
+    }
+
+    private static MenuItemRatingSummary summary(long menuItemId, String name, long count, long sum, long sumSquares) {
+        if (count <= 0) {
+            return new MenuItemRatingSummary(menuItemId, name, 0, null, null);
+        }
+        double mean = (double) sum / count;
+        double variance = Math.max(0.0, (double) sumSquares / count - mean * mean);
+        return new MenuItemRatingSummary(menuItemId, name, count, round(mean), round(Math.sqrt(variance)));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
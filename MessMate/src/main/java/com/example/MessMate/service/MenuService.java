@@ -1,16 +1,22 @@
 package com.example.MessMate.service;
 
+import com.example.MessMate.dto.ConsumptionEvent;
 import com.example.MessMate.entity.DailyMenu;
 import com.example.MessMate.entity.MealBooking;
+import com.example.MessMate.entity.MealConsumption;
 import com.example.MessMate.entity.MenuItem;
+import com.example.MessMate.entity.MessPass;
 import com.example.MessMate.repository.DailyMenuRepository;
 import com.example.MessMate.repository.MealBookingRepository;
+import com.example.MessMate.repository.MealConsumptionRepository;
 import com.example.MessMate.repository.MenuItemRepository;
+import com.example.MessMate.repository.MessPassRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @Service
@@ -20,6 +26,9 @@ public class MenuService {
     private final MenuItemRepository menuItemRepository;
     private final DailyMenuRepository dailyMenuRepository;
     private final MealBookingRepository mealBookingRepository;
+    private final MealConsumptionRepository mealConsumptionRepository;
+    private final MessPassRepository messPassRepository;
+    private final ConsumptionJournal consumptionJournal;
     
     // MenuItem operations
     public MenuItem createMenuItem(MenuItem menuItem) {
@@ -136,6 +145,60 @@ public class MenuService {
         }
     }
     
+    // Journaled booking: durably appended locally, written to the database by ConsumptionJournalDrainer
+    public boolean isJournalEnabled() {
+        return consumptionJournal.isEnabled();
+    }
+    
+    // The drainer skips events whose menu or pass is gone, so anything that does not exist yet is rejected here
+    public ConsumptionJournal.Position journalMealBooking(com.example.MessMate.controller.MenuController.BookMealRequest request) {
+        if (!dailyMenuRepository.existsById(request.getDailyMenuId())) {
+            throw new IllegalArgumentException("Daily menu not found with ID: " + request.getDailyMenuId());
+        }
+        ConsumptionEvent event = new ConsumptionEvent(
+                ConsumptionEvent.EventType.BOOKING,
+                request.getDailyMenuId(),
+                null,
+                request.getQuantity(),
+                request.getSpecialInstructions(),
+                System.currentTimeMillis());
+        return consumptionJournal.appendDurably(event);
+    }
+    
+    // Meal swipe at the counter
+    public ConsumptionJournal.Position journalMealConsumption(Long messPassId, Long dailyMenuId, Integer quantity) {
+        if (!messPassRepository.existsById(messPassId)) {
+            throw new IllegalArgumentException("Mess pass not found with ID: " + messPassId);
+        }
+        if (!dailyMenuRepository.existsById(dailyMenuId)) {
+            throw new IllegalArgumentException("Daily menu not found with ID: " + dailyMenuId);
+        }
+        ConsumptionEvent event = new ConsumptionEvent(
+                ConsumptionEvent.EventType.CONSUMPTION,
+                dailyMenuId,
+                messPassId,
+                quantity,
+                null,
+                System.currentTimeMillis());
+        return consumptionJournal.appendDurably(event);
+    }
+    
+    // Synchronous fallback used when the journal is disabled
+    @Transactional
+    public MealConsumption recordMealConsumption(Long messPassId, Long dailyMenuId, Integer quantity) {
+        MessPass messPass = messPassRepository.findById(messPassId)
+                .orElseThrow(() -> new IllegalArgumentException("Mess pass not found with ID: " + messPassId));
+        DailyMenu dailyMenu = dailyMenuRepository.findById(dailyMenuId)
+                .orElseThrow(() -> new IllegalArgumentException("Daily menu not found with ID: " + dailyMenuId));
+        
+        MealConsumption consumption = new MealConsumption();
+        consumption.setMessPass(messPass);
+        consumption.setDailyMenu(dailyMenu);
+        consumption.setQuantity(quantity);
+        consumption.setConsumedAt(LocalDateTime.now());
+        return mealConsumptionRepository.save(consumption);
+    }
+    
     // Clear all meal bookings (for testing/cleanup)
     public void clearAllBookings() {
         mealBookingRepository.deleteAll();
@@ -0,0 +1,241 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.PassRenewalRequest;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Set-based mess pass maintenance: nightly expiry and semester rollover.
+ *
+ * Both jobs run under a {@link JobLeaseService} lease so they can be scheduled on every node,
+ * and both are idempotent, so a run that loses its lease halfway can simply be started again.
+ * The rollover only picks up passes that expired within the term being rolled over and were
+ * still active when they expired; passes an admin deactivated stay deactivated.
+ */
+@Service
+public class MessPassJobService {
+
+    public static final String EXPIRY_JOB = "mess-pass-expiry";
+    public static final String RENEWAL_JOB = "mess-pass-renewal";
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    private static final String EXPIRE_CHUNK_SQL =
+            "UPDATE mess_passes SET is_active = false, deactivation_reason = 'EXPIRED', updated_at = ? " +
+            "WHERE id IN (SELECT id FROM mess_passes WHERE is_active = true AND valid_until < ? ORDER BY id LIMIT ?)";
+
+    // Active, or deactivated by the expiry job rather than by an admin
+    private static final String RENEWABLE = "(is_active = true OR deactivation_reason = 'EXPIRED')";
+
+    private static final String SELECT_RENEWABLE_SQL =
+            "SELECT id FROM mess_passes WHERE pass_type = ? AND valid_until BETWEEN ? AND ? AND " + RENEWABLE +
+            " ORDER BY id";
+
+    // The valid_until guard makes a rerun skip passes that were already rolled over, and RENEWABLE
+    // skips passes an admin deactivated after the select
+    private static final String RENEW_SQL =
+            "UPDATE mess_passes SET valid_from = ?, valid_until = ?, is_active = true, deactivation_reason = NULL, " +
+            "updated_at = ? WHERE id = ? AND valid_until <= ? AND " + RENEWABLE;
+
+    // Records what the cap takes off each pass; runs before RENEW_WITH_CAP_SQL in the same transaction
+    private static final String RECORD_CAP_SQL =
+            "INSERT INTO balance_adjustments (mess_pass_id, amount, reason, created_at) " +
+            "SELECT id, ? - balance, 'CARRY_OVER_CAP', ? FROM mess_passes " +
+            "WHERE id = ? AND valid_until <= ? AND balance > ? AND " + RENEWABLE;
+
+    private static final String RENEW_WITH_CAP_SQL =
+            "UPDATE mess_passes SET valid_from = ?, valid_until = ?, is_active = true, deactivation_reason = NULL, " +
+            "updated_at = ?, balance = CASE WHEN balance > ? THEN ? ELSE balance END " +
+            "WHERE id = ? AND valid_until <= ? AND " + RENEWABLE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLeaseService jobLeaseService;
+    private final int chunkSize;
+    private final int renewalParallelism;
+    private final ExecutorService jobRunner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mess-pass-jobs");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MessPassJobService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              JobLeaseService jobLeaseService,
+                              @Value("${app.jobs.chunk-size:1000}") int chunkSize,
+                              @Value("${app.jobs.renewal-parallelism:4}") int renewalParallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobLeaseService = jobLeaseService;
+        this.chunkSize = chunkSize;
+        this.renewalParallelism = renewalParallelism;
+    }
+
+    @Scheduled(cron = "${app.jobs.pass-expiry.cron:0 5 0 * * *}")
+    public void scheduledExpiry() {
+        if (jobLeaseService.tryAcquire(EXPIRY_JOB, LEASE)) {
+            runExpiry();
+        }
+    }
+
+    /**
+     * Starts the expiry job in the background. Returns false if another node is already running it.
+     */
+    public boolean startExpiry() {
+        if (!jobLeaseService.tryAcquire(EXPIRY_JOB, LEASE)) {
+            return false;
+        }
+        jobRunner.submit(this::runExpiry);
+        return true;
+    }
+
+    /**
+     * Starts a semester rollover in the background. Returns false if another node is already running one.
+     */
+    public boolean startRenewal(PassRenewalRequest request) {
+        validate(request);
+        if (!jobLeaseService.tryAcquire(RENEWAL_JOB, LEASE)) {
+            return false;
+        }
+        jobRunner.submit(() -> runRenewal(request));
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdownNow();
+    }
+
+    void runExpiry() {
+        long processed = 0;
+        try {
+            Date today = Date.valueOf(LocalDate.now());
+            Long total = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM mess_passes WHERE is_active = true AND valid_until < ?", Long.class, today);
+
+            while (true) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                Integer expired = transactionTemplate.execute(status ->
+                        jdbcTemplate.update(EXPIRE_CHUNK_SQL, now, today, chunkSize));
+                if (expired == null || expired == 0) {
+                    break;
+                }
+                processed += expired;
+                if (!jobLeaseService.reportProgress(EXPIRY_JOB, processed, total == null ? processed : total, LEASE)) {
+                    System.err.println("Mess pass expiry lost its lease after " + processed + " passes");
+                    return;
+                }
+            }
+
+            jobLeaseService.complete(EXPIRY_JOB, processed, "Deactivated " + processed + " expired passes");
+            System.out.println("Mess pass expiry finished: " + processed + " passes deactivated");
+        } catch (Exception e) {
+            jobLeaseService.fail(EXPIRY_JOB, processed, e.getMessage());
+            System.err.println("Mess pass expiry failed: " + e.getMessage());
+        }
+    }
+
+    void runRenewal(PassRenewalRequest request) {
+        long processed = 0;
+        ExecutorService workers = Executors.newFixedThreadPool(renewalParallelism);
+        try {
+            Date cutoff = Date.valueOf(request.getExpiringOnOrBefore());
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_RENEWABLE_SQL, Long.class,
+                    request.getPassType().name(), Date.valueOf(request.getExpiringOnOrAfter()), cutoff);
+
+            ExecutorCompletionService<Integer> completions = new ExecutorCompletionService<>(workers);
+            int chunks = 0;
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                completions.submit(() -> renewChunk(chunk, request, cutoff));
+                chunks++;
+            }
+
+            for (int i = 0; i < chunks; i++) {
+                processed += completions.take().get();
+                if (!jobLeaseService.reportProgress(RENEWAL_JOB, processed, ids.size(), LEASE)) {
+                    System.err.println("Mess pass renewal lost its lease after " + processed + " passes");
+                    return;
+                }
+            }
+
+            jobLeaseService.complete(RENEWAL_JOB, processed, "Renewed " + processed + " " + request.getPassType() + " passes");
+            System.out.println("Mess pass renewal finished: " + processed + " passes renewed");
+        } catch (Exception e) {
+            jobLeaseService.fail(RENEWAL_JOB, processed, e.getMessage());
+            System.err.println("Mess pass renewal failed: " + e.getMessage());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private int renewChunk(List<Long> ids, PassRenewalRequest request, Date cutoff) {
+        Date validFrom = Date.valueOf(request.getNewValidFrom());
+        Date validUntil = Date.valueOf(request.getNewValidUntil());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        List<Object[]> caps = new ArrayList<>();
+        for (Long id : ids) {
+            if (request.getMaxCarryOverBalance() == null) {
+                rows.add(new Object[]{validFrom, validUntil, now, id, cutoff});
+            } else {
+                long cap = request.getMaxCarryOverBalance().paise();
+                rows.add(new Object[]{validFrom, validUntil, now, cap, cap, id, cutoff});
+                caps.add(new Object[]{cap, now, id, cutoff, cap});
+            }
+        }
+
+        String sql = request.getMaxCarryOverBalance() == null ? RENEW_SQL : RENEW_WITH_CAP_SQL;
+        int[] counts = transactionTemplate.execute(status -> {
+            if (!caps.isEmpty()) {
+                jdbcTemplate.batchUpdate(RECORD_CAP_SQL, caps);
+            }
+            return jdbcTemplate.batchUpdate(sql, rows);
+        });
+
+        int renewed = 0;
+        if (counts != null) {
+            for (int count : counts) {
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    renewed++;
+                }
+            }
+        }
+        return renewed;
+    }
+
+    private void validate(PassRenewalRequest request) {
+        if (request.getPassType() == null || request.getExpiringOnOrAfter() == null || request.getExpiringOnOrBefore() == null
+                || request.getNewValidFrom() == null || request.getNewValidUntil() == null) {
+            throw new IllegalArgumentException(
+                    "Missing required fields: passType, expiringOnOrAfter, expiringOnOrBefore, newValidFrom, newValidUntil");
+        }
+        if (request.getExpiringOnOrAfter().isAfter(request.getExpiringOnOrBefore())) {
+            throw new IllegalArgumentException("expiringOnOrAfter must not be after expiringOnOrBefore");
+        }
+        if (!request.getNewValidUntil().isAfter(request.getNewValidFrom())) {
+            throw new IllegalArgumentException("newValidUntil must be after newValidFrom");
+        }
+        if (!request.getNewValidUntil().isAfter(request.getExpiringOnOrBefore())) {
+            throw new IllegalArgumentException("newValidUntil must be after expiringOnOrBefore");
+        }
+    }
+}
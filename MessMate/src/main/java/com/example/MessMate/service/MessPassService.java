@@ -1,22 +1,23 @@
 package com.example.MessMate.service;
 
 import com.example.MessMate.entity.MessPass;
+import com.example.MessMate.entity.Money;
 import com.example.MessMate.entity.User;
 import com.example.MessMate.repository.MessPassRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class MessPassService {
     
     private final MessPassRepository messPassRepository;
+    private final IdGenerator idGenerator;
     
     public MessPass createMessPass(User user, MessPass.PassType passType, LocalDate validFrom, LocalDate validUntil) {
         // Check if user already has an active pass
@@ -30,7 +31,7 @@ public class MessPassService {
         messPass.setPassType(passType);
         messPass.setValidFrom(validFrom);
         messPass.setValidUntil(validUntil);
-        messPass.setBalance(BigDecimal.ZERO);
+        messPass.setBalance(Money.ZERO);
         messPass.setIsActive(true);
         
         return messPassRepository.save(messPass);
@@ -44,28 +45,29 @@ public class MessPassService {
         return messPassRepository.findByPassNumber(passNumber);
     }
     
-    public MessPass rechargePass(Long passId, BigDecimal amount) {
-        Optional<MessPass> passOptional = messPassRepository.findById(passId);
-        if (passOptional.isPresent()) {
-            MessPass messPass = passOptional.get();
-            messPass.setBalance(messPass.getBalance().add(amount));
-            return messPassRepository.save(messPass);
+    public Optional<MessPass> getMessPassById(Long passId) {
+        return messPassRepository.findById(passId);
+    }
+    
+    /**
+     * Adds to the balance with a single UPDATE; joins the caller's transaction if there is one.
+     */
+    @Transactional
+    public void creditBalance(Long passId, Money amount) {
+        if (messPassRepository.creditBalance(passId, amount.paise()) == 0) {
+            throw new RuntimeException("Mess pass not found");
         }
-        throw new RuntimeException("Mess pass not found");
     }
     
-    public MessPass deductBalance(Long passId, BigDecimal amount) {
-        Optional<MessPass> passOptional = messPassRepository.findById(passId);
-        if (passOptional.isPresent()) {
-            MessPass messPass = passOptional.get();
-            if (messPass.getBalance().compareTo(amount) >= 0) {
-                messPass.setBalance(messPass.getBalance().subtract(amount));
-                return messPassRepository.save(messPass);
-            } else {
-                throw new RuntimeException("Insufficient balance");
-            }
+    /**
+     * Takes from the balance with a single conditional UPDATE; joins the caller's transaction if
+     * there is one. Callers record the matching payment so reconciliation can account for it.
+     */
+    @Transactional
+    public void debitBalance(Long passId, Money amount) {
+        if (messPassRepository.debitBalance(passId, amount.paise()) == 0) {
+            throw new RuntimeException(messPassRepository.existsById(passId) ? "Insufficient balance" : "Mess pass not found");
         }
-        throw new RuntimeException("Mess pass not found");
     }
     
     public List<MessPass> getExpiredPasses() {
@@ -77,11 +79,12 @@ public class MessPassService {
         if (passOptional.isPresent()) {
             MessPass messPass = passOptional.get();
             messPass.setIsActive(false);
+            messPass.setDeactivationReason(MessPass.DeactivationReason.ADMIN);
             messPassRepository.save(messPass);
         }
     }
     
     private String generatePassNumber() {
-        return "MP" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return idGenerator.nextKey("MP");
     }
 }
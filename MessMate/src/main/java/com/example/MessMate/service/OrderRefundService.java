@@ -0,0 +1,229 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.Payment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Refunds for cancelled orders, through a durable queue table (refund_queue).
+ *
+ * Cancellations {@link #enqueue} in their own transaction, so an order is never cancelled
+ * without its refund being queued. Only orders paid from a pass (a COMPLETED MEAL_PAYMENT
+ * carrying the order id) are refunded, once each.
+ *
+ * A small worker pool claims PENDING rows in batches with {@code FOR UPDATE SKIP LOCKED}, so
+ * workers on every node can share the queue. Each batch is one transaction: one REFUND payment
+ * per order (batched insert), one balance update per pass however many of its orders are in the
+ * batch, and the queue rows marked done.
+ */
+@Service
+public class OrderRefundService {
+
+    // Refunds what the order's pass payment took, to that pass; unpaid orders queue nothing, and an
+    // order cancelled again after a status change is not queued twice
+    private static final String ENQUEUE_SQL =
+            "INSERT INTO refund_queue (order_id, user_id, mess_pass_id, amount, status, created_at) " +
+            "SELECT p.order_id, p.user_id, p.mess_pass_id, p.amount, 'PENDING', ? FROM payments p " +
+            "WHERE p.order_id = ? AND p.payment_type = 'MEAL_PAYMENT' AND p.status = 'COMPLETED' " +
+            "AND NOT EXISTS (SELECT 1 FROM refund_queue r WHERE r.order_id = p.order_id)";
+
+    private static final String CLAIM_SQL =
+            "SELECT id, order_id, user_id, mess_pass_id, amount FROM refund_queue " +
+            "WHERE status = 'PENDING' ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String INSERT_PAYMENT_SQL =
+            "INSERT INTO payments (user_id, mess_pass_id, amount, payment_type, status, transaction_id, " +
+            "idempotency_key, description, created_at) VALUES (?, ?, ?, 'REFUND', 'COMPLETED', ?, ?, ?, ?)";
+
+    private static final String CREDIT_SQL =
+            "UPDATE mess_passes SET balance = balance + ?, updated_at = ? WHERE id = ?";
+
+    private static final String MARK_SQL =
+            "UPDATE refund_queue SET status = ?, processed_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdGenerator idGenerator;
+    private final PaymentRollupService paymentRollupService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int workers;
+    private final ExecutorService workerPool;
+
+    private final Counter refundedOrders;
+    private final Counter skippedOrders;
+    private final Counter creditedPasses;
+    private final Timer batchTimer;
+
+    public OrderRefundService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              IdGenerator idGenerator,
+                              PaymentRollupService paymentRollupService,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.refunds.enabled:true}") boolean enabled,
+                              @Value("${app.refunds.batch-size:200}") int batchSize,
+                              @Value("${app.refunds.workers:2}") int workers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idGenerator = idGenerator;
+        this.paymentRollupService = paymentRollupService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.workers = workers;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "refund-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.refundedOrders = Counter.builder("messmate.refunds.orders")
+                .description("Cancelled orders refunded to a mess pass")
+                .register(meterRegistry);
+        this.skippedOrders = Counter.builder("messmate.refunds.skipped")
+                .description("Cancelled orders with no mess pass to refund to")
+                .register(meterRegistry);
+        this.creditedPasses = Counter.builder("messmate.refunds.pass.credits")
+                .description("Balance updates issued for refunds, after grouping by pass")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("messmate.refunds.batch")
+                .description("Time to process one claimed batch of refunds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues refunds for the given orders. Must run in the transaction that cancels them.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            rows.add(new Object[]{now, orderId});
+        }
+        jdbcTemplate.batchUpdate(ENQUEUE_SQL, rows);
+    }
+
+    @Scheduled(fixedDelayString = "${app.refunds.poll-interval-ms:500}")
+    public void poll() {
+        if (enabled) {
+            drain();
+        }
+    }
+
+    /**
+     * Runs the workers until the queue is empty and returns the number of rows processed.
+     */
+    public long drain() {
+        List<Callable<Long>> tasks = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            tasks.add(() -> {
+                long processed = 0;
+                int claimed;
+                while ((claimed = processBatch()) > 0) {
+                    processed += claimed;
+                }
+                return processed;
+            });
+        }
+        long processed = 0;
+        try {
+            for (var result : workerPool.invokeAll(tasks)) {
+                processed += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Rows of a failed batch stay PENDING and are claimed again on the next poll
+            System.err.println("Refund worker failed: " + e.getMessage());
+        }
+        return processed;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workerPool.shutdown();
+        workerPool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    int processBatch() {
+        long started = System.nanoTime();
+        Integer claimed = transactionTemplate.execute(status -> {
+            List<long[]> claims = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> {
+                long messPassId = rs.getLong(4);
+                boolean noPass = rs.wasNull();
+                return new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3), noPass ? -1L : messPassId, rs.getLong(5)};
+            }, batchSize);
+            if (claims.isEmpty()) {
+                return 0;
+            }
+
+            LocalDateTime nowTime = LocalDateTime.now();
+            Timestamp now = Timestamp.valueOf(nowTime);
+            List<Object[]> payments = new ArrayList<>(claims.size());
+            List<Object[]> marks = new ArrayList<>(claims.size());
+            // Sorted so concurrent workers lock passes in the same order
+            Map<Long, Long> creditByPass = new TreeMap<>();
+            long refundedPaise = 0;
+            for (long[] claim : claims) {
+                long queueId = claim[0];
+                long orderId = claim[1];
+                long messPassId = claim[3];
+                long amount = claim[4];
+                if (messPassId < 0) {
+                    marks.add(new Object[]{"SKIPPED", now, queueId});
+                    continue;
+                }
+                payments.add(new Object[]{claim[2], messPassId, amount, idGenerator.nextKey("TXN"),
+                        "REFUND-ORDER-" + orderId, "Refund for cancelled order #" + orderId, now});
+                creditByPass.merge(messPassId, amount, Long::sum);
+                refundedPaise += amount;
+                marks.add(new Object[]{"REFUNDED", now, queueId});
+            }
+
+            if (!payments.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_PAYMENT_SQL, payments);
+                List<Object[]> credits = new ArrayList<>(creditByPass.size());
+                creditByPass.forEach((passId, paise) -> credits.add(new Object[]{paise, now, passId}));
+                jdbcTemplate.batchUpdate(CREDIT_SQL, credits);
+                paymentRollupService.recordBulk(nowTime.toLocalDate(), Payment.PaymentType.REFUND,
+                        Payment.PaymentStatus.COMPLETED, payments.size(), refundedPaise);
+            }
+            jdbcTemplate.batchUpdate(MARK_SQL, marks);
+
+            refundedOrders.increment(payments.size());
+            skippedOrders.increment(claims.size() - payments.size());
+            creditedPasses.increment(creditByPass.size());
+            return claims.size();
+        });
+        if (claimed != null && claimed > 0) {
+            batchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        return claimed == null ? 0 : claimed;
+    }
+}
@@ -3,18 +3,24 @@ package com.example.MessMate.service;
 import com.example.MessMate.dto.OrderRequest;
 import com.example.MessMate.entity.MealOrder;
 import com.example.MessMate.entity.MenuItem;
+import com.example.MessMate.entity.Money;
 import com.example.MessMate.entity.User;
 import com.example.MessMate.repository.MealOrderRepository;
 import com.example.MessMate.repository.MenuItemRepository;
 import com.example.MessMate.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +29,9 @@ public class OrderService {
     private final MealOrderRepository mealOrderRepository;
     private final UserRepository userRepository;
     private final MenuItemRepository menuItemRepository;
+    private final OrderRefundService orderRefundService;
+    private final JdbcTemplate jdbcTemplate;
+    private final DashboardCounters dashboardCounters;
     
     public MealOrder createOrder(MealOrder order) {
         // Validate order and menu items
@@ -34,17 +43,12 @@ public class OrderService {
             throw new IllegalArgumentException("Order must contain at least one menu item");
         }
         
-        // Calculate total amount with null safety
-        BigDecimal totalAmount = order.getMenuItems().stream()
-                .filter(item -> item != null) // Filter out null items
-                .map(MenuItem::getPrice)
-                .filter(price -> price != null) // Filter out null prices
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        order.setTotalAmount(totalAmount);
+        order.setTotalAmount(totalOf(order.getMenuItems()));
         order.setStatus(MealOrder.OrderStatus.PENDING);
         
-        return mealOrderRepository.save(order);
+        MealOrder savedOrder = mealOrderRepository.save(order);
+        dashboardCounters.orderChangedAfterCommit(null, MealOrder.OrderStatus.PENDING);
+        return savedOrder;
     }
     
     public List<MealOrder> getUserOrders(User user) {
@@ -65,12 +69,21 @@ public class OrderService {
         return mealOrderRepository.findById(id);
     }
     
+    @Transactional
     public MealOrder updateOrderStatus(Long orderId, MealOrder.OrderStatus status) {
+        if (status == MealOrder.OrderStatus.CANCELLED) {
+            // Goes through cancelOrder so the refund is queued
+            cancelOrder(orderId);
+            return mealOrderRepository.findById(orderId).orElseThrow(() -> new RuntimeException("Order not found"));
+        }
         Optional<MealOrder> orderOptional = mealOrderRepository.findById(orderId);
         if (orderOptional.isPresent()) {
             MealOrder order = orderOptional.get();
+            MealOrder.OrderStatus previous = order.getStatus();
             order.setStatus(status);
-            return mealOrderRepository.save(order);
+            MealOrder savedOrder = mealOrderRepository.save(order);
+            dashboardCounters.orderChangedAfterCommit(previous, status);
+            return savedOrder;
         }
         throw new RuntimeException("Order not found");
     }
@@ -79,8 +92,52 @@ public class OrderService {
         return mealOrderRepository.countByUserAndCreatedAtBetween(user, start, end);
     }
     
+    /**
+     * Cancels the order and, if it was paid from a mess pass, queues the refund in the same
+     * transaction. Orders that were already cancelled or delivered are not refunded again.
+     */
+    @Transactional
     public void cancelOrder(Long orderId) {
-        updateOrderStatus(orderId, MealOrder.OrderStatus.CANCELLED);
+        MealOrder order = mealOrderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        MealOrder.OrderStatus previous = order.getStatus();
+        order.setStatus(MealOrder.OrderStatus.CANCELLED);
+        mealOrderRepository.saveAndFlush(order);
+        dashboardCounters.orderChangedAfterCommit(previous, MealOrder.OrderStatus.CANCELLED);
+        
+        if (previous != MealOrder.OrderStatus.CANCELLED && previous != MealOrder.OrderStatus.DELIVERED) {
+            orderRefundService.enqueue(List.of(orderId));
+        }
+    }
+    
+    /**
+     * Cancels every open order for one meal on one day (e.g. when the mess closes) and queues
+     * refunds for those paid from a mess pass. Returns the number of orders cancelled.
+     */
+    @Transactional
+    public int cancelMealOrders(MenuItem.MealType mealType, LocalDate date) {
+        List<Long> orderIds = new ArrayList<>();
+        Map<MealOrder.OrderStatus, Long> cancelledFrom = new EnumMap<>(MealOrder.OrderStatus.class);
+        jdbcTemplate.query(
+                "SELECT id, status FROM meal_orders WHERE meal_type = ? AND created_at >= ? AND created_at < ? " +
+                "AND status NOT IN ('CANCELLED', 'DELIVERED') ORDER BY id FOR UPDATE",
+                rs -> {
+                    orderIds.add(rs.getLong(1));
+                    cancelledFrom.merge(MealOrder.OrderStatus.valueOf(rs.getString(2)), 1L, Long::sum);
+                },
+                mealType.name(),
+                Timestamp.valueOf(date.atStartOfDay()), Timestamp.valueOf(date.plusDays(1).atStartOfDay()));
+        
+        orderRefundService.enqueue(orderIds);
+        
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            rows.add(new Object[]{now, orderId});
+        }
+        jdbcTemplate.batchUpdate("UPDATE meal_orders SET status = 'CANCELLED', updated_at = ? WHERE id = ?", rows);
+        dashboardCounters.ordersChangedAfterCommit(cancelledFrom, MealOrder.OrderStatus.CANCELLED);
+        return orderIds.size();
     }
     
     public MealOrder createOrderFromRequest(OrderRequest orderRequest) {
@@ -107,21 +164,28 @@ public class OrderService {
             throw new IllegalArgumentException("One or more menu items not found");
         }
         
-        // Calculate total amount from actual menu items
-        BigDecimal totalAmount = menuItems.stream()
-                .map(MenuItem::getPrice)
-                .filter(price -> price != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
         // Create MealOrder
         MealOrder order = new MealOrder();
         order.setUser(user);
         order.setMenuItems(menuItems);
-        order.setTotalAmount(totalAmount);
+        order.setTotalAmount(totalOf(menuItems));
         order.setMealType(orderRequest.getMealType());
         order.setSpecialInstructions(orderRequest.getSpecialInstructions());
         order.setStatus(MealOrder.OrderStatus.PENDING);
         
-        return mealOrderRepository.save(order);
+        MealOrder savedOrder = mealOrderRepository.save(order);
+        dashboardCounters.orderChangedAfterCommit(null, MealOrder.OrderStatus.PENDING);
+        return savedOrder;
+    }
+    
+    // Sums prices in paise without intermediate objects; null items and prices are skipped
+    static Money totalOf(List<MenuItem> menuItems) {
+        long totalPaise = 0L;
+        for (MenuItem item : menuItems) {
+            if (item != null && item.getPrice() != null) {
+                totalPaise = Math.addExact(totalPaise, item.getPrice().paise());
+            }
+        }
+        return Money.ofPaise(totalPaise);
     }
-}
+}
\ No newline at end of file
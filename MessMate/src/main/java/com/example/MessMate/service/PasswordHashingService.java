@@ -0,0 +1,179 @@
+package com.example.MessMate.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The application's {@link PasswordEncoder}: BCrypt run on a small dedicated pool instead of on
+ * request threads, so a burst of signups and logins can use at most {@code threads} cores.
+ *
+ * Work beyond the pool waits in a bounded queue; when that is full, or a hash waits longer than
+ * {@code waitTimeoutMs}, the caller gets a {@link BusyException} straight away rather than
+ * tying up a request thread. The BCrypt cost is calibrated at startup to the largest one whose
+ * hash takes at most {@code targetMillis}, unless a fixed cost is configured. Hashes made with a
+ * lower cost report {@link #upgradeEncoding} so login can re-hash them.
+ */
+public class PasswordHashingService implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final int CALIBRATION_COST = 8;
+
+    private final ThreadPoolExecutor executor;
+    private final BCryptPasswordEncoder encoder;
+    private final int cost;
+    private final long waitTimeoutMs;
+
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Counter rejected;
+
+    /**
+     * Thrown when password work cannot be accepted now. Callers should answer 429.
+     */
+    public static class BusyException extends RuntimeException {
+        public BusyException(String message) {
+            super(message);
+        }
+    }
+
+    public PasswordHashingService(MeterRegistry meterRegistry, int threads, int queueCapacity, int fixedCost,
+                                  long targetMillis, int minCost, int maxCost, long waitTimeoutMs) {
+        this.cost = fixedCost > 0 ? fixedCost : calibrate(targetMillis, minCost, maxCost);
+        this.encoder = new BCryptPasswordEncoder(cost);
+        this.waitTimeoutMs = waitTimeoutMs;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("messmate.passwords.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("messmate.passwords.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes running now")
+                .register(meterRegistry);
+        Gauge.builder("messmate.passwords.cost", this, PasswordHashingService::getCost)
+                .description("BCrypt cost used for new hashes")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("messmate.passwords.hash")
+                .tag("operation", "encode")
+                .description("Time spent computing a password hash, excluding queueing")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("messmate.passwords.hash")
+                .tag("operation", "match")
+                .description("Time spent computing a password hash, excluding queueing")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("messmate.passwords.rejected")
+                .description("Password operations refused because the hashing pool was saturated")
+                .register(meterRegistry);
+
+        System.out.println("Password hashing: BCrypt cost " + cost + ", " + threads + " threads, queue " + queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        return run(matchTimer, () -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * True when the stored hash is weaker than the current cost. Hashes are never downgraded
+     * when calibration picks a lower cost.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        Integer storedCost = costOf(encodedPassword);
+        return storedCost != null && storedCost < cost;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    static Integer costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return null;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : null;
+    }
+
+    private <T> T run(Timer timer, Callable<T> work) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                try {
+                    return work.call();
+                } finally {
+                    timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusyException("Too many sign-ins right now, please retry shortly");
+        }
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            rejected.increment();
+            throw new BusyException("Too many sign-ins right now, please retry shortly");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new BusyException("Password check was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Each step of the cost doubles BCrypt's work, so one measurement at a low cost predicts the rest
+    private static int calibrate(long targetMillis, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(CALIBRATION_COST);
+        probe.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long started = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        double targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        int calibrated = CALIBRATION_COST + (int) Math.floor(Math.log(targetNanos / Math.max(best, 1L)) / Math.log(2));
+        return Math.max(minCost, Math.min(maxCost, calibrated));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.Money;
+
+/**
+ * The external payment gateway a PENDING recharge is sent to. The gateway reports the
+ * outcome later through a signed webhook (see {@link GatewayWebhookService}).
+ */
+public interface PaymentGateway {
+
+    GatewayOrder createOrder(String transactionId, Money amount);
+
+    boolean verifySignature(String payload, String signature);
+
+    record GatewayOrder(String gatewayReference, String checkoutUrl) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.Money;
+import com.example.MessMate.entity.Payment;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Streams payment reports straight from a forward-only JDBC cursor to the response.
+ *
+ * Only the reported columns are selected, and rows are written as they are fetched, so memory
+ * stays at one fetch batch however wide the date range is. PostgreSQL only honours the fetch
+ * size inside a transaction, hence the read-only transaction around the query.
+ */
+@Service
+public class PaymentReportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String REPORT_SQL =
+            "SELECT p.transaction_id, p.created_at, p.payment_type, p.status, p.amount, " +
+            "p.user_id, u.email, p.mess_pass_id " +
+            "FROM payments p JOIN users u ON u.id = p.user_id " +
+            "WHERE p.payment_type = ? AND p.created_at BETWEEN ? AND ? " +
+            "ORDER BY p.created_at, p.id";
+
+    private static final String CSV_HEADER =
+            "transactionId,createdAt,paymentType,status,amount,userId,userEmail,messPassId\n";
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final int fetchSize;
+
+    public PaymentReportService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.reports.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    public void writeReport(Payment.PaymentType paymentType, LocalDateTime start, LocalDateTime end,
+                            Format format, OutputStream out) throws IOException {
+        try {
+            if (format == Format.CSV) {
+                writeCsv(paymentType, start, end, out);
+            } else {
+                writeNdjson(paymentType, start, end, out);
+            }
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor and transaction are already closed
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(Payment.PaymentType paymentType, LocalDateTime start, LocalDateTime end,
+                             OutputStream out) throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            // One object per line; the newline is written explicitly after each row
+            json.setRootValueSeparator(null);
+            stream(paymentType, start, end, (rs, row) -> {
+                json.writeStartObject();
+                json.writeStringField("transactionId", rs.getString(1));
+                json.writeStringField("createdAt", toIso(rs.getTimestamp(2)));
+                json.writeStringField("paymentType", rs.getString(3));
+                json.writeStringField("status", rs.getString(4));
+                json.writeFieldName("amount");
+                json.writeNumber(Money.format(rs.getLong(5)));
+                json.writeNumberField("userId", rs.getLong(6));
+                json.writeStringField("userEmail", rs.getString(7));
+                long messPassId = rs.getLong(8);
+                if (rs.wasNull()) {
+                    json.writeNullField("messPassId");
+                } else {
+                    json.writeNumberField("messPassId", messPassId);
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+                if (row == 1 || row % FLUSH_EVERY_ROWS == 0) {
+                    json.flush();
+                }
+            });
+        }
+    }
+
+    private void writeCsv(Payment.PaymentType paymentType, LocalDateTime start, LocalDateTime end,
+                          OutputStream out) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024)) {
+            writer.write(CSV_HEADER);
+            writer.flush();
+            stream(paymentType, start, end, (rs, row) -> {
+                writer.write(csv(rs.getString(1)));
+                writer.write(',');
+                writer.write(toIso(rs.getTimestamp(2)));
+                writer.write(',');
+                writer.write(rs.getString(3));
+                writer.write(',');
+                writer.write(rs.getString(4));
+                writer.write(',');
+                writer.write(Money.format(rs.getLong(5)));
+                writer.write(',');
+                writer.write(Long.toString(rs.getLong(6)));
+                writer.write(',');
+                writer.write(csv(rs.getString(7)));
+                writer.write(',');
+                long messPassId = rs.getLong(8);
+                if (!rs.wasNull()) {
+                    writer.write(Long.toString(messPassId));
+                }
+                writer.write('\n');
+                if (row % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            });
+        }
+    }
+
+    private void stream(Payment.PaymentType paymentType, LocalDateTime start, LocalDateTime end, RowWriter rowWriter) {
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    REPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setString(1, paymentType.name());
+            statement.setTimestamp(2, Timestamp.valueOf(start));
+            statement.setTimestamp(3, Timestamp.valueOf(end));
+            return statement;
+        }, new RowCallbackHandler() {
+            private long row;
+
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                try {
+                    rowWriter.write(rs, ++row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }));
+    }
+
+    private static String toIso(Timestamp timestamp) {
+        return timestamp == null ? "" : timestamp.toLocalDateTime().toString();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs, long row) throws SQLException, IOException;
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.PaymentRollupEntry;
+import com.example.MessMate.entity.Money;
+import com.example.MessMate.entity.Payment;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Daily payment totals per type and status, kept in payment_daily_rollup.
+ *
+ * {@link PaymentService} calls {@link #recordCreated} and {@link #recordStatusChange} inside the
+ * transaction that writes the payment, so the rollup commits or rolls back with it. Payments are
+ * bucketed by the day they were created; a status change moves the amount between status buckets
+ * of that day. Range summaries read at most one row per day, type and status.
+ */
+@Service
+public class PaymentRollupService {
+
+    public static final String BACKFILL_JOB = "payment-rollup-backfill";
+
+    public enum Granularity { DAY, WEEK, MONTH }
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    private static final String INCREMENT_SQL =
+            "UPDATE payment_daily_rollup SET payment_count = payment_count + ?, amount = amount + ? " +
+            "WHERE rollup_date = ? AND payment_type = ? AND status = ?";
+
+    private static final String INSERT_EMPTY_SQL =
+            "INSERT INTO payment_daily_rollup (rollup_date, payment_type, status, payment_count, amount) VALUES (?, ?, ?, 0, 0)";
+
+    private static final String DELETE_RANGE_SQL =
+            "DELETE FROM payment_daily_rollup WHERE rollup_date BETWEEN ? AND ?";
+
+    private static final String REBUILD_RANGE_SQL =
+            "INSERT INTO payment_daily_rollup (rollup_date, payment_type, status, payment_count, amount) " +
+            "SELECT CAST(created_at AS DATE), payment_type, status, COUNT(*), SUM(amount) FROM payments " +
+            "WHERE created_at >= ? AND created_at < ? " +
+            "GROUP BY CAST(created_at AS DATE), payment_type, status";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate separateTransaction;
+    private final JobLeaseService jobLeaseService;
+    private final int chunkDays;
+    private final int parallelism;
+    // Rollup rows known to exist, so the hot path is a single UPDATE
+    private final Set<String> knownRows = ConcurrentHashMap.newKeySet();
+    private final ExecutorService jobRunner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payment-rollup-jobs");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PaymentRollupService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                JobLeaseService jobLeaseService,
+                                @Value("${app.jobs.rollup-backfill.chunk-days:31}") int chunkDays,
+                                @Value("${app.jobs.rollup-backfill.parallelism:4}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.separateTransaction = new TransactionTemplate(transactionManager);
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.jobLeaseService = jobLeaseService;
+        this.chunkDays = chunkDays;
+        this.parallelism = parallelism;
+    }
+
+    public void recordCreated(Payment payment) {
+        apply(dayOf(payment), payment.getPaymentType(), payment.getStatus(), 1, payment.getAmount().paise());
+    }
+
+    public void recordStatusChange(Payment payment, Payment.PaymentStatus from, Payment.PaymentStatus to) {
+        if (from == to) {
+            return;
+        }
+        LocalDate day = dayOf(payment);
+        long amount = payment.getAmount().paise();
+        apply(day, payment.getPaymentType(), from, -1, -amount);
+        apply(day, payment.getPaymentType(), to, 1, amount);
+    }
+
+    /**
+     * Adds {@code count} payments totalling {@code amountPaise} to one bucket, for writers that
+     * insert payments in bulk without going through {@link PaymentService}.
+     */
+    public void recordBulk(LocalDate day, Payment.PaymentType type, Payment.PaymentStatus status, long count, long amountPaise) {
+        if (count != 0 || amountPaise != 0) {
+            apply(day, type, status, count, amountPaise);
+        }
+    }
+
+    /**
+     * Totals for {@code from..to} (inclusive) per period, type and status. Weeks start on Monday.
+     */
+    public List<PaymentRollupEntry> summarize(LocalDate from, LocalDate to, Granularity granularity,
+                                              Payment.PaymentType paymentType) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("A valid date range is required");
+        }
+        String sql = "SELECT rollup_date, payment_type, status, payment_count, amount FROM payment_daily_rollup " +
+                "WHERE rollup_date BETWEEN ? AND ?" + (paymentType == null ? "" : " AND payment_type = ?") +
+                " ORDER BY rollup_date";
+        Object[] args = paymentType == null
+                ? new Object[]{Date.valueOf(from), Date.valueOf(to)}
+                : new Object[]{Date.valueOf(from), Date.valueOf(to), paymentType.name()};
+
+        Map<String, PaymentRollupEntry> buckets = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            long count = rs.getLong(4);
+            long amount = rs.getLong(5);
+            if (count == 0 && amount == 0) {
+                return;
+            }
+            LocalDate periodStart = periodStart(rs.getDate(1).toLocalDate(), granularity);
+            Payment.PaymentType type = Payment.PaymentType.valueOf(rs.getString(2));
+            Payment.PaymentStatus status = Payment.PaymentStatus.valueOf(rs.getString(3));
+            buckets.merge(periodStart + "|" + type + "|" + status,
+                    new PaymentRollupEntry(periodStart, type, status, count, Money.ofPaise(amount)),
+                    (a, b) -> {
+                        a.setCount(a.getCount() + b.getCount());
+                        a.setAmount(a.getAmount().plus(b.getAmount()));
+                        return a;
+                    });
+        }, args);
+        return new ArrayList<>(buckets.values());
+    }
+
+    /**
+     * Rebuilds the rollup for a date range (whole payment history when null) in the background.
+     * Returns false if a backfill is already running on some node.
+     */
+    public boolean startBackfill(LocalDate from, LocalDate to) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        if (!jobLeaseService.tryAcquire(BACKFILL_JOB, LEASE)) {
+            return false;
+        }
+        jobRunner.submit(() -> runBackfill(from, to));
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdownNow();
+    }
+
+    void runBackfill(LocalDate requestedFrom, LocalDate requestedTo) {
+        long processed = 0;
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        try {
+            LocalDate from = requestedFrom != null ? requestedFrom
+                    : jdbcTemplate.queryForObject("SELECT CAST(MIN(created_at) AS DATE) FROM payments", LocalDate.class);
+            LocalDate to = requestedTo != null ? requestedTo
+                    : jdbcTemplate.queryForObject("SELECT CAST(MAX(created_at) AS DATE) FROM payments", LocalDate.class);
+            if (from == null || to == null) {
+                jobLeaseService.complete(BACKFILL_JOB, 0, "No payments to roll up");
+                return;
+            }
+
+            ExecutorCompletionService<Long> completions = new ExecutorCompletionService<>(workers);
+            int chunks = 0;
+            for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(chunkDays)) {
+                LocalDate chunkStart = start;
+                LocalDate chunkEnd = start.plusDays(chunkDays - 1L).isAfter(to) ? to : start.plusDays(chunkDays - 1L);
+                completions.submit(() -> rebuildChunk(chunkStart, chunkEnd));
+                chunks++;
+            }
+
+            long totalDays = to.toEpochDay() - from.toEpochDay() + 1;
+            for (int i = 0; i < chunks; i++) {
+                processed += completions.take().get();
+                if (!jobLeaseService.reportProgress(BACKFILL_JOB, processed, totalDays, LEASE)) {
+                    System.err.println("Payment rollup backfill lost its lease after " + processed + " days");
+                    return;
+                }
+            }
+
+            jobLeaseService.complete(BACKFILL_JOB, processed, "Rebuilt " + processed + " days from " + from + " to " + to);
+            System.out.println("Payment rollup backfill finished: " + processed + " days rebuilt");
+        } catch (Exception e) {
+            jobLeaseService.fail(BACKFILL_JOB, processed, e.getMessage());
+            System.err.println("Payment rollup backfill failed: " + e.getMessage());
+        } finally {
+            knownRows.clear();
+            workers.shutdownNow();
+        }
+    }
+
+    // Delete and re-aggregate in one transaction, so a chunk can be rebuilt any number of times
+    private long rebuildChunk(LocalDate start, LocalDate end) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_RANGE_SQL, Date.valueOf(start), Date.valueOf(end));
+            jdbcTemplate.update(REBUILD_RANGE_SQL,
+                    Timestamp.valueOf(start.atStartOfDay()), Timestamp.valueOf(end.plusDays(1).atStartOfDay()));
+        });
+        return end.toEpochDay() - start.toEpochDay() + 1;
+    }
+
+    private void apply(LocalDate day, Payment.PaymentType type, Payment.PaymentStatus status, long count, long amount) {
+        String key = day + "|" + type + "|" + status;
+        ensureRow(key, day, type, status);
+        if (jdbcTemplate.update(INCREMENT_SQL, count, amount, Date.valueOf(day), type.name(), status.name()) == 0) {
+            // The row was removed by a backfill after we cached it
+            knownRows.remove(key);
+            ensureRow(key, day, type, status);
+            jdbcTemplate.update(INCREMENT_SQL, count, amount, Date.valueOf(day), type.name(), status.name());
+        }
+    }
+
+    /**
+     * Creates the empty row in its own short transaction. Concurrent payments racing to create
+     * the same row then just lose the insert, without aborting the payment transaction.
+     */
+    private void ensureRow(String key, LocalDate day, Payment.PaymentType type, Payment.PaymentStatus status) {
+        if (knownRows.contains(key)) {
+            return;
+        }
+        try {
+            separateTransaction.executeWithoutResult(tx ->
+                    jdbcTemplate.update(INSERT_EMPTY_SQL, Date.valueOf(day), type.name(), status.name()));
+        } catch (DuplicateKeyException e) {
+            // Already there
+        }
+        knownRows.add(key);
+    }
+
+    private static LocalDate dayOf(Payment payment) {
+        return payment.getCreatedAt() == null ? LocalDate.now() : payment.getCreatedAt().toLocalDate();
+    }
+
+    private static LocalDate periodStart(LocalDate day, Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+}
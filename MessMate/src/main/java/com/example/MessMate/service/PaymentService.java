@@ -1,26 +1,33 @@
 package com.example.MessMate.service;
 
 import com.example.MessMate.entity.MessPass;
+import com.example.MessMate.entity.Money;
 import com.example.MessMate.entity.Payment;
 import com.example.MessMate.entity.User;
 import com.example.MessMate.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
     
     private final PaymentRepository paymentRepository;
+    private final IdGenerator idGenerator;
     private final MessPassService messPassService;
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentRollupService paymentRollupService;
     
-    public Payment createPayment(User user, BigDecimal amount, Payment.PaymentType paymentType, String description) {
+    @Transactional
+    public Payment createPayment(User user, Money amount, Payment.PaymentType paymentType, String description) {
         Payment payment = new Payment();
         payment.setUser(user);
         payment.setAmount(amount);
@@ -29,25 +36,142 @@ public class PaymentService {
         payment.setTransactionId(generateTransactionId());
         payment.setDescription(description);
         
-        return paymentRepository.save(payment);
+        Payment savedPayment = paymentRepository.save(payment);
+        paymentRollupService.recordCreated(savedPayment);
+        return savedPayment;
     }
     
-    public Payment processMessPassRecharge(User user, MessPass messPass, BigDecimal amount) {
-        Payment payment = new Payment();
-        payment.setUser(user);
-        payment.setMessPass(messPass);
-        payment.setAmount(amount);
-        payment.setPaymentType(Payment.PaymentType.MESS_PASS_RECHARGE);
-        payment.setStatus(Payment.PaymentStatus.COMPLETED);
-        payment.setTransactionId(generateTransactionId());
-        payment.setDescription("Mess pass recharge");
+    /**
+     * Records a completed recharge and credits the pass in one transaction.
+     *
+     * A non-null idempotency key makes the call safe to retry: a repeated key returns the
+     * payment created by the first call instead of crediting the pass again.
+     */
+    public Payment processMessPassRecharge(User user, MessPass messPass, Money amount, String idempotencyKey) {
+        validateRechargeAmount(amount);
+        Optional<Payment> existing = findReplay(idempotencyKey, messPass, amount);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
         
-        Payment savedPayment = paymentRepository.save(payment);
+        try {
+            return transactionTemplate.execute(status -> {
+                Payment payment = newRecharge(user, messPass, amount, idempotencyKey, Payment.PaymentStatus.COMPLETED);
+                // Flush first so a concurrent duplicate key fails before the pass is credited
+                Payment savedPayment = paymentRepository.saveAndFlush(payment);
+                messPassService.creditBalance(messPass.getId(), amount);
+                paymentRollupService.recordCreated(savedPayment);
+                return savedPayment;
+            });
+        } catch (DataIntegrityViolationException e) {
+            return replayAfterConflict(idempotencyKey, e);
+        }
+    }
+    
+    /**
+     * Counter recharge of a pass by id, recorded as a COMPLETED recharge payment in the same
+     * transaction. The pass is read after the credit, so the returned payment carries the new balance.
+     */
+    public Payment rechargeMessPass(Long passId, Money amount) {
+        validateRechargeAmount(amount);
+        return transactionTemplate.execute(status -> {
+            messPassService.creditBalance(passId, amount);
+            MessPass messPass = messPassService.getMessPassById(passId).orElseThrow();
+            Payment savedPayment = paymentRepository.save(
+                    newRecharge(messPass.getUser(), messPass, amount, null, Payment.PaymentStatus.COMPLETED));
+            paymentRollupService.recordCreated(savedPayment);
+            return savedPayment;
+        });
+    }
+    
+    /**
+     * Debits the pass and records the COMPLETED meal payment in one transaction, so every
+     * balance deduction has a ledger row for wallet reconciliation to match. Joins the caller's
+     * transaction if there is one.
+     */
+    public Payment processMealPayment(Long passId, Money amount, String description) {
+        return processMealPayment(passId, amount, description, null);
+    }
+    
+    /**
+     * Charges a meal order to the pass. The payment carries the order id, which is what a
+     * cancellation refunds against.
+     */
+    public Payment processMealPayment(Long passId, Money amount, String description, Long orderId) {
+        if (amount == null || !amount.isPositive()) {
+            throw new IllegalArgumentException("Payment amount must be positive");
+        }
+        return transactionTemplate.execute(status -> {
+            messPassService.debitBalance(passId, amount);
+            MessPass messPass = messPassService.getMessPassById(passId).orElseThrow();
+            Payment payment = new Payment();
+            payment.setUser(messPass.getUser());
+            payment.setMessPass(messPass);
+            payment.setOrderId(orderId);
+            payment.setAmount(amount);
+            payment.setPaymentType(Payment.PaymentType.MEAL_PAYMENT);
+            payment.setStatus(Payment.PaymentStatus.COMPLETED);
+            payment.setTransactionId(generateTransactionId());
+            payment.setDescription(description);
+            Payment savedPayment = paymentRepository.save(payment);
+            paymentRollupService.recordCreated(savedPayment);
+            return savedPayment;
+        });
+    }
+    
+    /**
+     * Opens a PENDING recharge with the payment gateway. The pass is credited only when the
+     * gateway confirms it through {@link #applyGatewayResult}.
+     */
+    public Payment initiateMessPassRecharge(User user, MessPass messPass, Money amount, String idempotencyKey) {
+        validateRechargeAmount(amount);
+        Optional<Payment> existing = findReplay(idempotencyKey, messPass, amount);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
         
-        // Update mess pass balance
-        messPassService.rechargePass(messPass.getId(), amount);
+        Payment payment = newRecharge(user, messPass, amount, idempotencyKey, Payment.PaymentStatus.PENDING);
+        PaymentGateway.GatewayOrder order = paymentGateway.createOrder(payment.getTransactionId(), amount);
+        payment.setGatewayReference(order.gatewayReference());
+        try {
+            return transactionTemplate.execute(status -> {
+                Payment savedPayment = paymentRepository.saveAndFlush(payment);
+                paymentRollupService.recordCreated(savedPayment);
+                return savedPayment;
+            });
+        } catch (DataIntegrityViolationException e) {
+            return replayAfterConflict(idempotencyKey, e);
+        }
+    }
+    
+    /**
+     * Applies a gateway outcome to a PENDING payment. The status transition is conditional,
+     * so however often the same outcome arrives the pass is credited at most once.
+     */
+    @Transactional
+    public String applyGatewayResult(String transactionId, boolean success, Money amount) {
+        Optional<Payment> paymentOptional = paymentRepository.findByTransactionId(transactionId);
+        if (paymentOptional.isEmpty()) {
+            return "UNKNOWN_TRANSACTION";
+        }
+        Payment payment = paymentOptional.get();
         
-        return savedPayment;
+        if (success && amount != null && !amount.equals(payment.getAmount())) {
+            if (paymentRepository.transitionStatus(transactionId, Payment.PaymentStatus.PENDING, Payment.PaymentStatus.FAILED) == 1) {
+                paymentRollupService.recordStatusChange(payment, Payment.PaymentStatus.PENDING, Payment.PaymentStatus.FAILED);
+            }
+            return "AMOUNT_MISMATCH";
+        }
+        
+        Payment.PaymentStatus target = success ? Payment.PaymentStatus.COMPLETED : Payment.PaymentStatus.FAILED;
+        if (paymentRepository.transitionStatus(transactionId, Payment.PaymentStatus.PENDING, target) == 0) {
+            return "ALREADY_" + payment.getStatus();
+        }
+        paymentRollupService.recordStatusChange(payment, Payment.PaymentStatus.PENDING, target);
+        if (success && payment.getMessPass() != null) {
+            messPassService.creditBalance(payment.getMessPass().getId(), payment.getAmount());
+        }
+        return target.name();
     }
     
     public List<Payment> getUserPayments(User user) {
@@ -62,12 +186,39 @@ public class PaymentService {
         return paymentRepository.findByTransactionId(transactionId);
     }
     
+    /**
+     * Manual status change. Settling a PENDING payment goes through {@link #applyGatewayResult},
+     * so a recharge completed by hand credits the pass exactly like a gateway confirmation would.
+     */
+    @Transactional
     public Payment updatePaymentStatus(Long paymentId, Payment.PaymentStatus status) {
         Optional<Payment> paymentOptional = paymentRepository.findById(paymentId);
         if (paymentOptional.isPresent()) {
             Payment payment = paymentOptional.get();
+            Payment.PaymentStatus previous = payment.getStatus();
+            if (previous == status) {
+                return payment;
+            }
+            if (previous == Payment.PaymentStatus.PENDING
+                    && (status == Payment.PaymentStatus.COMPLETED || status == Payment.PaymentStatus.FAILED)) {
+                String outcome = applyGatewayResult(payment.getTransactionId(), status == Payment.PaymentStatus.COMPLETED, null);
+                if (!outcome.equals(status.name())) {
+                    throw new RuntimeException("Payment status was changed concurrently, please retry");
+                }
+                payment.setStatus(status);
+                return payment;
+            }
+            if (status == Payment.PaymentStatus.COMPLETED && payment.getPaymentType() == Payment.PaymentType.MESS_PASS_RECHARGE) {
+                // Only the PENDING path above credits the pass
+                throw new IllegalArgumentException("A recharge can only be completed from PENDING");
+            }
+            // Conditional so the rollup moves the amount out of the status the row really had
+            if (paymentRepository.transitionStatus(payment.getTransactionId(), previous, status) == 0) {
+                throw new RuntimeException("Payment status was changed concurrently, please retry");
+            }
+            paymentRollupService.recordStatusChange(payment, previous, status);
             payment.setStatus(status);
-            return paymentRepository.save(payment);
+            return payment;
         }
         throw new RuntimeException("Payment not found");
     }
@@ -76,7 +227,52 @@ public class PaymentService {
         return paymentRepository.findByPaymentTypeAndCreatedAtBetween(paymentType, start, end);
     }
     
+    private Payment newRecharge(User user, MessPass messPass, Money amount, String idempotencyKey,
+                                Payment.PaymentStatus status) {
+        Payment payment = new Payment();
+        payment.setUser(user);
+        payment.setMessPass(messPass);
+        payment.setAmount(amount);
+        payment.setPaymentType(Payment.PaymentType.MESS_PASS_RECHARGE);
+        payment.setStatus(status);
+        payment.setTransactionId(generateTransactionId());
+        payment.setIdempotencyKey(idempotencyKey);
+        payment.setDescription("Mess pass recharge");
+        return payment;
+    }
+    
+    private Optional<Payment> findReplay(String idempotencyKey, MessPass messPass, Money amount) {
+        if (idempotencyKey == null) {
+            return Optional.empty();
+        }
+        Optional<Payment> existing = paymentRepository.findByIdempotencyKey(idempotencyKey);
+        existing.ifPresent(payment -> {
+            if (payment.getMessPass() == null || !payment.getMessPass().getId().equals(messPass.getId())
+                    || !payment.getAmount().equals(amount)) {
+                throw new IllegalArgumentException("Idempotency key was already used for a different recharge");
+            }
+        });
+        return existing;
+    }
+    
+    private Payment replayAfterConflict(String idempotencyKey, DataIntegrityViolationException e) {
+        // Lost a race with a concurrent request carrying the same key; its transaction won
+        if (idempotencyKey != null) {
+            Optional<Payment> winner = paymentRepository.findByIdempotencyKey(idempotencyKey);
+            if (winner.isPresent()) {
+                return winner.get();
+            }
+        }
+        throw e;
+    }
+    
+    private void validateRechargeAmount(Money amount) {
+        if (amount == null || !amount.isPositive()) {
+            throw new IllegalArgumentException("Recharge amount must be positive");
+        }
+    }
+    
     private String generateTransactionId() {
-        return "TXN" + UUID.randomUUID().toString().substring(0, 10).toUpperCase();
+        return idGenerator.nextKey("TXN");
     }
 }
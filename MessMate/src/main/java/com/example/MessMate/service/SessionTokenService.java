@@ -0,0 +1,208 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.SessionPrincipal;
+import com.example.MessMate.entity.RevokedToken;
+import com.example.MessMate.repository.RevokedTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies stateless session tokens.
+ *
+ * A token is {@code base64url(payload).base64url(HMAC-SHA256(payload))}, where the payload is
+ * {@code version|kind|id|role|issuedAt|expiresAt|tokenId|email}. Verifying one is a MAC over a
+ * few dozen bytes plus a lookup in the in-memory revocation list, so it needs neither the
+ * database nor BCrypt. Revocations are written to revoked_tokens and every node reloads the
+ * unexpired ones on a schedule.
+ *
+ * All nodes must share the secret. Outside the dev and test profiles startup fails unless it is
+ * at least {@value #MIN_SECRET_BYTES} bytes; only there does a missing secret fall back to a random key.
+ */
+@Service
+public class SessionTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String VERSION = "1";
+    static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final IdGenerator idGenerator;
+    private final long ttlSeconds;
+    private final SecretKeySpec key;
+    // Mac instances are not thread-safe; one initialised instance per thread avoids re-keying per call
+    private final ThreadLocal<Mac> macs;
+    // tokenId -> expiry (epoch seconds)
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SessionTokenService(RevokedTokenRepository revokedTokenRepository,
+                               IdGenerator idGenerator,
+                               Environment environment,
+                               @Value("${app.auth.token-secret:}") String secret,
+                               @Value("${app.auth.token-ttl-minutes:720}") long ttlMinutes) {
+        this(revokedTokenRepository, idGenerator, secret, ttlMinutes, environment.acceptsProfiles(Profiles.of("dev", "test")));
+    }
+
+    SessionTokenService(RevokedTokenRepository revokedTokenRepository, IdGenerator idGenerator, String secret,
+                        long ttlMinutes, boolean developmentProfile) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.idGenerator = idGenerator;
+        this.ttlSeconds = ttlMinutes * 60;
+        boolean blank = secret == null || secret.isBlank();
+        if (!developmentProfile && (blank || secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES)) {
+            throw new IllegalStateException("app.auth.token-secret (AUTH_TOKEN_SECRET) must be set to at least "
+                    + MIN_SECRET_BYTES + " bytes, shared by all nodes");
+        }
+        byte[] keyBytes;
+        if (blank) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            System.err.println("app.auth.token-secret is not set; using a random key, so sessions end on restart " +
+                    "and are not accepted by other nodes");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String issue(SessionPrincipal.SubjectType subjectType, Long id, String email, String role) {
+        return issue(subjectType, id, email, role, Instant.now().getEpochSecond());
+    }
+
+    String issue(SessionPrincipal.SubjectType subjectType, Long id, String email, String role, long issuedAt) {
+        if (id == null || email == null || role == null) {
+            throw new IllegalArgumentException("A session needs an id, email and role");
+        }
+        String payload = VERSION + "|" + (subjectType == SessionPrincipal.SubjectType.USER ? "U" : "S") + "|" + id +
+                "|" + role + "|" + issuedAt + "|" + (issuedAt + ttlSeconds) + "|" + idGenerator.nextKey("TK") +
+                "|" + email;
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * The principal of a genuine, unexpired and unrevoked token; empty for anything else.
+     */
+    public Optional<SessionPrincipal> verify(String token) {
+        return verify(token, Instant.now().getEpochSecond());
+    }
+
+    Optional<SessionPrincipal> verify(String token, long now) {
+        SessionPrincipal principal = decode(token);
+        if (principal == null || principal.expiresAt() <= now || revoked.containsKey(principal.tokenId())) {
+            return Optional.empty();
+        }
+        return Optional.of(principal);
+    }
+
+    /**
+     * Revokes a token until it would have expired. Returns false if the token is not one of ours
+     * or has already expired.
+     */
+    public boolean revoke(String token) {
+        SessionPrincipal principal = decode(token);
+        if (principal == null || principal.expiresAt() <= Instant.now().getEpochSecond()) {
+            return false;
+        }
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(Instant.ofEpochSecond(principal.expiresAt()), ZoneId.systemDefault());
+        revokedTokenRepository.save(new RevokedToken(principal.tokenId(), expiresAt, LocalDateTime.now()));
+        markRevoked(principal.tokenId(), principal.expiresAt());
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.auth.revocation-refresh-ms:30000}", initialDelayString = "${app.auth.revocation-refresh-ms:30000}")
+    public void refreshRevocations() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            revokedTokenRepository.deleteExpired(now);
+            for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(now)) {
+                markRevoked(token.getTokenId(), token.getExpiresAt().atZone(ZoneId.systemDefault()).toEpochSecond());
+            }
+        } catch (Exception e) {
+            // Keep the current list; the next refresh tries again
+            System.err.println("Could not refresh revoked session tokens: " + e.getMessage());
+        }
+        long nowSeconds = Instant.now().getEpochSecond();
+        revoked.values().removeIf(expiresAt -> expiresAt <= nowSeconds);
+    }
+
+    public int revokedCount() {
+        return revoked.size();
+    }
+
+    void markRevoked(String tokenId, long expiresAt) {
+        revoked.put(tokenId, expiresAt);
+    }
+
+    private SessionPrincipal decode(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        try {
+            byte[] payloadBytes = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+                return null;
+            }
+            String[] fields = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|", 8);
+            if (fields.length != 8 || !VERSION.equals(fields[0])) {
+                return null;
+            }
+            SessionPrincipal.SubjectType subjectType = switch (fields[1]) {
+                case "U" -> SessionPrincipal.SubjectType.USER;
+                case "S" -> SessionPrincipal.SubjectType.STUDENT;
+                default -> null;
+            };
+            if (subjectType == null) {
+                return null;
+            }
+            return new SessionPrincipal(subjectType, Long.parseLong(fields[2]), fields[7], fields[3], fields[6],
+                    Long.parseLong(fields[4]), Long.parseLong(fields[5]));
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or number
+            return null;
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
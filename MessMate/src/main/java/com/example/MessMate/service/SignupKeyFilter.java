@@ -0,0 +1,251 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filters over every email and roll number in users, so signup only asks the database
+ * "does this already exist?" for keys that might.
+ *
+ * A key the filter has never seen is definitely new to this node: signup skips the exists query
+ * and inserts straight away, relying on the unique constraints for the rare collision (a key
+ * added by another node, a bulk import or the backfill). {@link #translate} turns that
+ * constraint violation into the same error the pre-check would have given. A key the filter
+ * has seen may be a false positive (about 1% at the sized capacity), so it still gets the exact
+ * query. The filters are built at startup with one scan and sized for twice the current users;
+ * they are rebuilt larger once inserts pass that capacity.
+ */
+@Component
+public class SignupKeyFilter {
+
+    private static final String SCAN_SQL = "SELECT email, roll_number FROM users";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final int minCapacity;
+    private final double falsePositiveRate;
+
+    private volatile Filters current;
+    // Set while a rebuild scans, so keys added meanwhile reach the new filters too
+    private volatile Filters building;
+
+    private final Counter skipped;
+    private final Counter queried;
+    private final Counter conflicts;
+
+    private static final class Filters {
+        final BloomFilter emails;
+        final BloomFilter rollNumbers;
+        final long capacity;
+
+        Filters(long capacity, double falsePositiveRate) {
+            this.emails = new BloomFilter(capacity, falsePositiveRate);
+            this.rollNumbers = new BloomFilter(capacity, falsePositiveRate);
+            this.capacity = capacity;
+        }
+
+        void add(String email, String rollNumber) {
+            if (email != null) {
+                emails.add(email);
+            }
+            if (rollNumber != null) {
+                rollNumbers.add(rollNumber);
+            }
+        }
+    }
+
+    public SignupKeyFilter(JdbcTemplate jdbcTemplate,
+                           UserRepository userRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.signup.filter.min-capacity:10000}") int minCapacity,
+                           @Value("${app.signup.filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.minCapacity = minCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+
+        this.skipped = Counter.builder("messmate.signup.precheck")
+                .tag("result", "skipped")
+                .description("Signup uniqueness pre-checks answered by the in-memory filter or sent to the database")
+                .register(meterRegistry);
+        this.queried = Counter.builder("messmate.signup.precheck")
+                .tag("result", "queried")
+                .description("Signup uniqueness pre-checks answered by the in-memory filter or sent to the database")
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("messmate.signup.conflicts")
+                .description("Signups rejected by a unique constraint after the filter let them through")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            if (building != null) {
+                return;
+            }
+            Long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+            building = new Filters(Math.max(minCapacity, 2 * (users == null ? 0 : users)), falsePositiveRate);
+        }
+        Filters fresh = building;
+        long[] added = {0};
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        SCAN_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(1000);
+                return statement;
+            }, rs -> {
+                fresh.add(rs.getString(1), rs.getString(2));
+                added[0]++;
+            });
+            current = fresh;
+            System.out.println("Signup key filter built: " + added[0] + " users, capacity " + fresh.capacity);
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * False only when this node has never seen the email, so the exists query can be skipped.
+     */
+    public boolean mightContainEmail(String email) {
+        Filters filters = current;
+        return record(filters == null || email == null || filters.emails.mightContain(email));
+    }
+
+    public boolean mightContainRollNumber(String rollNumber) {
+        if (rollNumber == null) {
+            return false;
+        }
+        Filters filters = current;
+        return record(filters == null || filters.rollNumbers.mightContain(rollNumber));
+    }
+
+    /**
+     * Records the keys of a user that has just been inserted.
+     */
+    public void add(String email, String rollNumber) {
+        Filters filters = current;
+        if (filters != null) {
+            filters.add(email, rollNumber);
+        }
+        Filters next = building;
+        if (next != null) {
+            next.add(email, rollNumber);
+        }
+    }
+
+    // Past capacity the false-positive rate climbs, so the filters are rebuilt at twice the new size
+    @Scheduled(fixedDelayString = "${app.signup.filter.capacity-check-ms:60000}")
+    public void rebuildIfFull() {
+        Filters filters = current;
+        if (filters != null && filters.emails.insertions() > filters.capacity) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Turns a unique-constraint failure on insert into the error the pre-check would have
+     * given. Anything else is rethrown as it was.
+     */
+    public RuntimeException translate(DataIntegrityViolationException e, String email, String rollNumber) {
+        if (email != null && userRepository.existsByEmail(email)) {
+            conflicts.increment();
+            add(email, null);
+            return new RuntimeException("Email already exists");
+        }
+        if (rollNumber != null && userRepository.existsByRollNumber(rollNumber)) {
+            conflicts.increment();
+            add(null, rollNumber);
+            return new RuntimeException("Roll number already exists");
+        }
+        return e;
+    }
+
+    private boolean record(boolean mightContain) {
+        (mightContain ? queried : skipped).increment();
+        return mightContain;
+    }
+
+    /**
+     * Standard Bloom filter with k probes derived from one 64-bit hash (Kirsch-Mitzenmacher).
+     * Bits are set with CAS, so adds and lookups need no lock.
+     */
+    static final class BloomFilter {
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLong insertions = new AtomicLong();
+
+        BloomFilter(long expectedInsertions, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.max(1, (bits + 63) / 64));
+            this.bitCount = words.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        void add(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value;
+                do {
+                    value = words.get(word);
+                    if ((value & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, value, value | mask));
+            }
+            insertions.incrementAndGet();
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long insertions() {
+            return insertions.get();
+        }
+
+        // FNV-1a over the chars, finished with a 64-bit mix so both halves are usable
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.ImportResult;
+import com.example.MessMate.dto.SignupRequest;
+import com.example.MessMate.entity.User;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Bulk onboarding from a CSV or JSON upload into users. {@link Target#STUDENTS} requires the
+ * student fields and always creates STUDENT accounts; {@link Target#USERS} takes the user type
+ * from each row.
+ *
+ * The upload is read as a stream and handled in chunks. Within a chunk, rows are validated and
+ * deduplicated against everything earlier in the file, then checked against the table with one
+ * query for all their emails and roll numbers. The surviving passwords are hashed in parallel on
+ * a dedicated fork-join pool and the rows go in as one JDBC batch. A failing row never aborts
+ * the file: it is reported with its row number and the rest carry on.
+ */
+@Service
+public class StudentImportService {
+
+    public enum Target { STUDENTS, USERS }
+
+    public enum Format { CSV, JSON }
+
+    private record PendingRow(long row, SignupRequest request, User.UserType userType) {
+    }
+
+    private static final int MAX_REPORTED_ERRORS = 500;
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (name, email, password, user_type, roll_number, hostel, room, phone, is_active, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, TRUE, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DashboardCounters dashboardCounters;
+    private final HostelRosterIndex hostelRosterIndex;
+    private final PasswordHashingService passwordHashingService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    // Kept apart from the request-path hashing pool so an import cannot starve logins
+    private final ForkJoinPool hashPool;
+
+    private final Counter importedRows;
+    private final Counter failedRows;
+
+    public StudentImportService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                PasswordHashingService passwordHashingService,
+                                DashboardCounters dashboardCounters,
+                                HostelRosterIndex hostelRosterIndex,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.import.chunk-size:500}") int chunkSize,
+                                @Value("${app.import.hash-parallelism:2}") int hashParallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordHashingService = passwordHashingService;
+        this.dashboardCounters = dashboardCounters;
+        this.hostelRosterIndex = hostelRosterIndex;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.hashPool = new ForkJoinPool(hashParallelism);
+
+        this.importedRows = Counter.builder("messmate.import.rows")
+                .tag("outcome", "imported")
+                .description("Rows processed by bulk student imports")
+                .register(meterRegistry);
+        this.failedRows = Counter.builder("messmate.import.rows")
+                .tag("outcome", "failed")
+                .description("Rows processed by bulk student imports")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdown();
+    }
+
+    public ImportResult importStudents(InputStream input, Format format, Target target) throws IOException {
+        Chunker chunker = new Chunker(target);
+        if (format == Format.JSON) {
+            readJson(input, chunker);
+        } else {
+            readCsv(input, chunker);
+        }
+        chunker.flush();
+        if (chunker.result.getImported() > 0) {
+            // Rows went in with plain SQL, so the live counts and hostel index are reloaded rather than adjusted
+            dashboardCounters.reconcile();
+            hostelRosterIndex.rebuild();
+        }
+        return chunker.result;
+    }
+
+    /**
+     * Collects rows from the reader into chunks and remembers every email and roll number seen
+     * so far, so duplicates inside the file are caught without asking the database.
+     */
+    private class Chunker {
+        private final Target target;
+        private final ImportResult result = new ImportResult();
+        private final Set<String> seenEmails = new HashSet<>();
+        private final Set<String> seenRollNumbers = new HashSet<>();
+        private List<PendingRow> chunk = new ArrayList<>();
+
+        Chunker(Target target) {
+            this.target = target;
+        }
+
+        void accept(long row, SignupRequest request) {
+            result.setTotal(result.getTotal() + 1);
+            trim(request);
+            String problem = validate(request, target);
+            if (problem != null) {
+                fail(row, request.getEmail(), problem);
+                return;
+            }
+            User.UserType userType = request.getUserType() == null || target == Target.STUDENTS
+                    ? User.UserType.STUDENT : User.UserType.valueOf(request.getUserType().toUpperCase(Locale.ROOT));
+            if (!seenEmails.add(request.getEmail())) {
+                fail(row, request.getEmail(), "Duplicate email in file");
+                return;
+            }
+            if (request.getRollNumber() != null && !seenRollNumbers.add(request.getRollNumber())) {
+                fail(row, request.getEmail(), "Duplicate roll number in file");
+                return;
+            }
+            chunk.add(new PendingRow(row, request, userType));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void fail(long row, String email, String message) {
+            result.setFailed(result.getFailed() + 1);
+            failedRows.increment();
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.getErrors().add(new ImportResult.RowError(row, email, message));
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<PendingRow> rows = chunk;
+            chunk = new ArrayList<>();
+            int imported = importChunk(rows, this);
+            result.setImported(result.getImported() + imported);
+            importedRows.increment(imported);
+        }
+    }
+
+    private int importChunk(List<PendingRow> rows, Chunker chunker) {
+        List<PendingRow> fresh = withoutExisting(rows, chunker);
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+
+        List<String> hashes = hash(fresh);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(fresh.size());
+        for (int i = 0; i < fresh.size(); i++) {
+            args.add(insertArgs(fresh.get(i), hashes.get(i), now));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_USER_SQL, args));
+            return fresh.size();
+        } catch (DataAccessException e) {
+            // Someone signed up with one of these emails since the check; find which row it was
+            int imported = 0;
+            for (int i = 0; i < fresh.size(); i++) {
+                try {
+                    jdbcTemplate.update(INSERT_USER_SQL, args.get(i));
+                    imported++;
+                } catch (DataIntegrityViolationException rowError) {
+                    chunker.fail(fresh.get(i).row(), fresh.get(i).request().getEmail(), "Email or roll number already exists");
+                } catch (DataAccessException rowError) {
+                    chunker.fail(fresh.get(i).row(), fresh.get(i).request().getEmail(), rowError.getMostSpecificCause().getMessage());
+                }
+            }
+            return imported;
+        }
+    }
+
+    // One query for the whole chunk instead of two exists-checks per row
+    private List<PendingRow> withoutExisting(List<PendingRow> rows, Chunker chunker) {
+        List<String> emails = new ArrayList<>(rows.size());
+        List<String> rollNumbers = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            emails.add(row.request().getEmail());
+            if (row.request().getRollNumber() != null) {
+                rollNumbers.add(row.request().getRollNumber());
+            }
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("emails", emails);
+        String sql = "SELECT email, roll_number FROM users WHERE email IN (:emails)";
+        if (!rollNumbers.isEmpty()) {
+            sql += " OR roll_number IN (:rollNumbers)";
+            params.addValue("rollNumbers", rollNumbers);
+        }
+        Set<String> takenEmails = new HashSet<>();
+        Set<String> takenRollNumbers = new HashSet<>();
+        namedJdbcTemplate.query(sql, params, rs -> {
+            takenEmails.add(rs.getString(1));
+            if (rs.getString(2) != null) {
+                takenRollNumbers.add(rs.getString(2));
+            }
+        });
+
+        if (takenEmails.isEmpty() && takenRollNumbers.isEmpty()) {
+            return rows;
+        }
+        List<PendingRow> fresh = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            if (takenEmails.contains(row.request().getEmail())) {
+                chunker.fail(row.row(), row.request().getEmail(), "Email already exists");
+            } else if (row.request().getRollNumber() != null && takenRollNumbers.contains(row.request().getRollNumber())) {
+                chunker.fail(row.row(), row.request().getEmail(), "Roll number already exists");
+            } else {
+                fresh.add(row);
+            }
+        }
+        return fresh;
+    }
+
+    private List<String> hash(List<PendingRow> rows) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(passwordHashingService.getCost());
+        try {
+            return hashPool.submit(() -> rows.parallelStream()
+                    .map(row -> encoder.encode(row.request().getPassword()))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted while hashing passwords");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static Object[] insertArgs(PendingRow row, String hash, Timestamp now) {
+        SignupRequest request = row.request();
+        return new Object[]{request.getName(), request.getEmail(), hash, row.userType().name(), request.getRollNumber(),
+                request.getHostel(), request.getRoom(), request.getPhone(), now, now};
+    }
+
+    private static String validate(SignupRequest request, Target target) {
+        if (request.getName() == null || request.getEmail() == null || request.getPassword() == null) {
+            return "Name, email and password are required";
+        }
+        if (request.getEmail().indexOf('@') <= 0) {
+            return "Invalid email";
+        }
+        if (target == Target.STUDENTS && (request.getRollNumber() == null || request.getHostel() == null
+                || request.getRoom() == null || request.getPhone() == null)) {
+            return "Roll number, hostel, room and phone are required";
+        }
+        if (request.getUserType() != null) {
+            try {
+                User.UserType.valueOf(request.getUserType().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return "Invalid user type: " + request.getUserType();
+            }
+        }
+        return null;
+    }
+
+    private static void trim(SignupRequest request) {
+        request.setName(blankToNull(request.getName()));
+        request.setEmail(blankToNull(request.getEmail()));
+        request.setRollNumber(blankToNull(request.getRollNumber()));
+        request.setHostel(blankToNull(request.getHostel()));
+        request.setRoom(blankToNull(request.getRoom()));
+        request.setPhone(blankToNull(request.getPhone()));
+        request.setUserType(blankToNull(request.getUserType()));
+        if (request.getPassword() != null && request.getPassword().isEmpty()) {
+            request.setPassword(null);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    // Expects an array of objects with the same fields as a signup request
+    private void readJson(InputStream input, Chunker chunker) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("JSON import must be an array of objects");
+            }
+            long row = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                row++;
+                JsonNode node = parser.readValueAsTree();
+                SignupRequest request;
+                try {
+                    request = objectMapper.treeToValue(node, SignupRequest.class);
+                } catch (JsonProcessingException e) {
+                    chunker.result.setTotal(chunker.result.getTotal() + 1);
+                    chunker.fail(row, node.path("email").asText(null), "Unreadable row: " + e.getOriginalMessage());
+                    continue;
+                }
+                chunker.accept(row, request);
+            }
+        }
+    }
+
+    // Header row names the columns (any order, case-insensitive); quoted fields may contain commas and newlines
+    private void readCsv(InputStream input, Chunker chunker) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = readRecord(reader);
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+        }
+        if (!columns.containsKey("email")) {
+            throw new IllegalArgumentException("CSV header must include an email column");
+        }
+
+        long row = 0;
+        List<String> record;
+        while ((record = readRecord(reader)) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            row++;
+            SignupRequest request = new SignupRequest();
+            request.setName(column(record, columns, "name"));
+            request.setEmail(column(record, columns, "email"));
+            request.setPassword(column(record, columns, "password"));
+            request.setRollNumber(column(record, columns, "rollnumber"));
+            request.setHostel(column(record, columns, "hostel"));
+            request.setRoom(column(record, columns, "room"));
+            request.setPhone(column(record, columns, "phone"));
+            request.setUserType(column(record, columns, "usertype"));
+            chunker.accept(row, request);
+        }
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= record.size() ? null : record.get(index);
+    }
+
+    static List<String> readRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -1,62 +1,89 @@
 package com.example.MessMate.service;
 
+import com.example.MessMate.dto.HostelSummary;
 import com.example.MessMate.dto.StudentLoginRequest;
 import com.example.MessMate.dto.StudentSignupRequest;
+import com.example.MessMate.dto.SearchPage;
 import com.example.MessMate.dto.StudentResponse;
-import com.example.MessMate.entity.Student;
-import com.example.MessMate.repository.StudentRepository;
+import com.example.MessMate.entity.User;
+import com.example.MessMate.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+/**
+ * Student accounts. Students are users of type STUDENT, so every lookup here is a single
+ * query on users; the legacy students table is only read by {@link IdentityBackfillService}.
+ */
 @Service
 @RequiredArgsConstructor
 public class StudentService {
     
-    private final StudentRepository studentRepository;
+    private final UserRepository userRepository;
+    private final UserSearchService userSearchService;
     private final PasswordEncoder passwordEncoder;
+    private final DashboardCounters dashboardCounters;
+    private final SignupKeyFilter signupKeyFilter;
+    private final HostelRosterIndex hostelRosterIndex;
+    
+    private static final int MAX_ROSTER_PAGE_SIZE = 200;
     
     public StudentResponse signup(StudentSignupRequest request) {
         // Check if student already exists by email
-        if (studentRepository.existsByEmail(request.getEmail())) {
+        if (signupKeyFilter.mightContainEmail(request.getEmail()) && userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
         
         // Check if roll number already exists
-        if (studentRepository.existsByRollNumber(request.getRollNumber())) {
+        if (signupKeyFilter.mightContainRollNumber(request.getRollNumber())
+                && userRepository.existsByRollNumber(request.getRollNumber())) {
             throw new RuntimeException("Roll number already exists");
         }
         
         // Create new student
-        Student student = new Student();
+        User student = new User();
         student.setName(request.getName());
         student.setEmail(request.getEmail());
         student.setPassword(passwordEncoder.encode(request.getPassword()));
+        student.setUserType(User.UserType.STUDENT);
         student.setRollNumber(request.getRollNumber());
         student.setHostel(request.getHostel());
         student.setRoom(request.getRoom());
         student.setPhone(request.getPhone());
-        student.setIsActive(true);
+        student.setActive(true);
         
-        Student savedStudent = studentRepository.save(student);
-        return StudentResponse.fromStudent(savedStudent);
+        User savedStudent;
+        try {
+            savedStudent = userRepository.save(student);
+        } catch (DataIntegrityViolationException e) {
+            // A key this node had not seen (another node, an import, or a racing signup); the unique constraint caught it
+            throw signupKeyFilter.translate(e, request.getEmail(), request.getRollNumber());
+        }
+        signupKeyFilter.add(savedStudent.getEmail(), savedStudent.getRollNumber());
+        dashboardCounters.userAddedAfterCommit(User.UserType.STUDENT, true);
+        hostelRosterIndex.placeAfterCommit(savedStudent.getId(), savedStudent.getHostel(), savedStudent.getRoom(), true);
+        return StudentResponse.fromUser(savedStudent);
     }
     
     public StudentResponse login(StudentLoginRequest request) {
-        Optional<Student> studentOptional = studentRepository.findByEmail(request.getEmail());
+        Optional<User> studentOptional = userRepository.findByEmailAndUserType(request.getEmail(), User.UserType.STUDENT);
         
         if (studentOptional.isEmpty()) {
             throw new RuntimeException("Student not found with this email");
         }
         
-        Student student = studentOptional.get();
+        User student = studentOptional.get();
         
         // Check if student is active
-        if (!student.getIsActive()) {
+        if (Boolean.FALSE.equals(student.getActive())) {
             throw new RuntimeException("Student account is deactivated");
         }
         
@@ -65,67 +92,118 @@ public class StudentService {
             throw new RuntimeException("Invalid password");
         }
         
-        return StudentResponse.fromStudent(student);
+        // Re-hash passwords stored with a weaker BCrypt cost while we have the plain text
+        if (passwordEncoder.upgradeEncoding(student.getPassword())) {
+            try {
+                student.setPassword(passwordEncoder.encode(request.getPassword()));
+                student = userRepository.save(student);
+            } catch (PasswordHashingService.BusyException e) {
+                // Try again on a later login
+            }
+        }
+        
+        return StudentResponse.fromUser(student);
     }
     
     public Optional<StudentResponse> getStudentByEmail(String email) {
-        return studentRepository.findByEmail(email)
-                .map(StudentResponse::fromStudent);
+        return userRepository.findByEmailAndUserType(email, User.UserType.STUDENT)
+                .map(StudentResponse::fromUser);
     }
     
     public Optional<StudentResponse> getStudentByRollNumber(String rollNumber) {
-        return studentRepository.findByRollNumber(rollNumber)
-                .map(StudentResponse::fromStudent);
+        return userRepository.findByRollNumberAndUserType(rollNumber, User.UserType.STUDENT)
+                .map(StudentResponse::fromUser);
     }
     
     public List<StudentResponse> getAllActiveStudents() {
-        return studentRepository.findByIsActiveTrue()
+        return userRepository.findByUserTypeAndActiveTrue(User.UserType.STUDENT)
                 .stream()
-                .map(StudentResponse::fromStudent)
+                .map(StudentResponse::fromUser)
                 .collect(Collectors.toList());
     }
     
     public List<StudentResponse> getStudentsByHostel(String hostel) {
-        return studentRepository.findByHostelAndIsActiveTrue(hostel)
-                .stream()
-                .map(StudentResponse::fromStudent)
-                .collect(Collectors.toList());
+        return loadInOrder(hostelRosterIndex.roster(hostel, 0, Integer.MAX_VALUE).studentIds());
     }
     
-    public List<StudentResponse> searchStudentsByName(String name) {
-        return studentRepository.findByNameContainingIgnoreCase(name)
-                .stream()
-                .map(StudentResponse::fromStudent)
-                .collect(Collectors.toList());
+    public List<HostelSummary> getHostelSummaries() {
+        return hostelRosterIndex.summaries();
+    }
+    
+    public Optional<HostelSummary> getHostelSummary(String hostel) {
+        return Optional.ofNullable(hostelRosterIndex.summary(hostel));
+    }
+    
+    /**
+     * Active students of one hostel by room, a page at a time. The index picks the page; only
+     * that page's rows are read, by primary key.
+     */
+    public SearchPage<StudentResponse> getHostelRoster(String hostel, int page, int size) {
+        if (size > MAX_ROSTER_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be at most " + MAX_ROSTER_PAGE_SIZE);
+        }
+        HostelRosterIndex.RosterPage roster = hostelRosterIndex.roster(hostel, page, size);
+        return new SearchPage<>(loadInOrder(roster.studentIds()), page, size, roster.hasNext());
+    }
+    
+    public SearchPage<StudentResponse> searchStudents(String query, int page, int size) {
+        SearchPage<User> users = userSearchService.search(query, User.UserType.STUDENT, page, size);
+        return new SearchPage<>(users.getItems().stream().map(StudentResponse::fromUser).collect(Collectors.toList()),
+                users.getPage(), users.getSize(), users.isHasNext());
     }
     
     public long getTotalActiveStudents() {
-        return studentRepository.countByIsActiveTrue();
+        return dashboardCounters.activeUserCount(User.UserType.STUDENT);
     }
     
     public long getStudentCountByHostel(String hostel) {
-        return studentRepository.countByHostel(hostel);
+        return hostelRosterIndex.totalStudents(hostel);
     }
     
     public void deactivateStudent(String email) {
-        Optional<Student> studentOptional = studentRepository.findByEmail(email);
+        Optional<User> studentOptional = userRepository.findByEmailAndUserType(email, User.UserType.STUDENT);
         if (studentOptional.isPresent()) {
-            Student student = studentOptional.get();
-            student.setIsActive(false);
-            studentRepository.save(student);
+            User student = studentOptional.get();
+            boolean wasActive = !Boolean.FALSE.equals(student.getActive());
+            student.setActive(false);
+            userRepository.save(student);
+            dashboardCounters.userActivationChangedAfterCommit(User.UserType.STUDENT, wasActive, false);
+            hostelRosterIndex.placeAfterCommit(student.getId(), student.getHostel(), student.getRoom(), false);
         } else {
             throw new RuntimeException("Student not found");
         }
     }
     
     public void activateStudent(String email) {
-        Optional<Student> studentOptional = studentRepository.findByEmail(email);
+        Optional<User> studentOptional = userRepository.findByEmailAndUserType(email, User.UserType.STUDENT);
         if (studentOptional.isPresent()) {
-            Student student = studentOptional.get();
-            student.setIsActive(true);
-            studentRepository.save(student);
+            User student = studentOptional.get();
+            boolean wasActive = !Boolean.FALSE.equals(student.getActive());
+            student.setActive(true);
+            userRepository.save(student);
+            dashboardCounters.userActivationChangedAfterCommit(User.UserType.STUDENT, wasActive, true);
+            hostelRosterIndex.placeAfterCommit(student.getId(), student.getHostel(), student.getRoom(), true);
         } else {
             throw new RuntimeException("Student not found");
         }
     }
+    
+    private List<StudentResponse> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, User> byId = new HashMap<>();
+        for (User user : userRepository.findAllById(ids)) {
+            byId.put(user.getId(), user);
+        }
+        List<StudentResponse> students = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            User user = byId.get(id);
+            // Null only if the row was deleted after the index was read
+            if (user != null) {
+                students.add(StudentResponse.fromUser(user));
+            }
+        }
+        return students;
+    }
 }
@@ -0,0 +1,26 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA listener on {@link User} that keeps {@link UserPrincipalCache} from serving stale
+ * principals. Hibernate creates it through the Spring bean container; the provider stays
+ * empty in slices that do not load the cache, such as repository tests.
+ */
+public class UserChangeListener {
+
+    private final ObjectProvider<UserPrincipalCache> principalCache;
+
+    public UserChangeListener(ObjectProvider<UserPrincipalCache> principalCache) {
+        this.principalCache = principalCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+        principalCache.ifAvailable(cache -> cache.evict(user.getId(), user.getEmail()));
+    }
+}
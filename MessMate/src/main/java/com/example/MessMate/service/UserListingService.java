@@ -0,0 +1,144 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.User;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the admin user listings straight from a column projection to the response.
+ *
+ * The body keeps the usual {@code {"success":..,"message":..,"data":[..]}} envelope, but each row
+ * is written with a {@link JsonGenerator} as it comes off a forward-only cursor, so no entities
+ * or per-user maps are built and memory stays at one fetch batch. Passwords are never selected.
+ * Listings can optionally be paged by id: pass {@code limit}, then the returned
+ * {@code nextAfterId} as {@code afterId} for the next page.
+ */
+@Service
+public class UserListingService {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String COLUMNS =
+            "SELECT id, name, email, user_type, roll_number, hostel, room, phone, created_at, updated_at FROM users";
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final int fetchSize;
+
+    public UserListingService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.reports.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Checked before the response is committed, so bad paging arguments can still get a 400.
+     */
+    public static void validatePage(Long afterId, Integer limit) {
+        if (afterId != null && afterId < 0) {
+            throw new IllegalArgumentException("afterId must be >= 0");
+        }
+        if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Users of {@code userType} (all users when null) in id order, after {@code afterId} and at
+     * most {@code limit} of them when given.
+     */
+    public void writeUsers(User.UserType userType, Long afterId, Integer limit, OutputStream out) throws IOException {
+        validatePage(afterId, limit);
+
+        StringBuilder sql = new StringBuilder(COLUMNS).append(" WHERE id > ?");
+        List<Object> args = new ArrayList<>();
+        args.add(afterId == null ? 0L : afterId);
+        if (userType != null) {
+            sql.append(" AND user_type = ?");
+            args.add(userType.name());
+        }
+        sql.append(" ORDER BY id");
+        if (limit != null) {
+            sql.append(" LIMIT ?");
+            args.add(limit);
+        }
+
+        try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeBooleanField("success", true);
+            json.writeStringField("message", "Users retrieved successfully");
+            json.writeArrayFieldStart("data");
+            long[] last = {0L, -1L};
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(limit == null ? fetchSize : Math.min(fetchSize, limit));
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                return statement;
+            }, rs -> {
+                try {
+                    long id = rs.getLong(1);
+                    json.writeStartObject();
+                    json.writeNumberField("id", id);
+                    json.writeStringField("name", rs.getString(2));
+                    json.writeStringField("email", rs.getString(3));
+                    json.writeStringField("userType", rs.getString(4));
+                    json.writeStringField("rollNumber", rs.getString(5));
+                    json.writeStringField("hostel", rs.getString(6));
+                    json.writeStringField("room", rs.getString(7));
+                    json.writeStringField("phone", rs.getString(8));
+                    json.writeStringField("createdAt", toIso(rs.getTimestamp(9)));
+                    json.writeStringField("updatedAt", toIso(rs.getTimestamp(10)));
+                    json.writeEndObject();
+                    last[0]++;
+                    last[1] = id;
+                    if (last[0] % FLUSH_EVERY_ROWS == 0) {
+                        json.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            json.writeEndArray();
+            if (limit != null) {
+                // Only a full page can have more rows after it
+                if (last[0] == limit) {
+                    json.writeNumberField("nextAfterId", last[1]);
+                } else {
+                    json.writeNullField("nextAfterId");
+                }
+            }
+            json.writeEndObject();
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor and transaction are already closed
+            throw e.getCause();
+        }
+    }
+
+    private static String toIso(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime().toString();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.UserPrincipal;
+import com.example.MessMate.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, time-limited cache from email to {@link UserPrincipal}, used wherever a request names
+ * a user by email.
+ *
+ * A miss loads the principal with a four-column query. Unknown emails are not cached, so a user
+ * created after a failed lookup is found immediately. {@link UserChangeListener} evicts a user
+ * whenever the entity is updated or deleted; code that changes users with plain SQL must call
+ * {@link #evict} itself.
+ */
+@Service
+public class UserPrincipalCache {
+
+    private record Entry(UserPrincipal principal, long expiresAtNanos) {
+    }
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer loadTimer;
+
+    public UserPrincipalCache(UserRepository userRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.identity-cache.ttl-seconds:300}") long ttlSeconds,
+                              @Value("${app.identity-cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxSize = maxSize;
+
+        this.hits = Counter.builder("messmate.identity.cache.requests")
+                .tag("result", "hit")
+                .description("Email lookups answered by the identity cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("messmate.identity.cache.requests")
+                .tag("result", "miss")
+                .description("Email lookups answered by the identity cache")
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("messmate.identity.cache.load")
+                .description("Time to load a principal from the database on a cache miss")
+                .register(meterRegistry);
+        Gauge.builder("messmate.identity.cache.size", entries, Map::size)
+                .description("Principals currently held by the identity cache")
+                .register(meterRegistry);
+    }
+
+    public Optional<UserPrincipal> resolve(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        Entry entry = entries.get(email);
+        long now = System.nanoTime();
+        if (entry != null && now - entry.expiresAtNanos() < 0) {
+            hits.increment();
+            return Optional.of(entry.principal());
+        }
+
+        misses.increment();
+        long started = System.nanoTime();
+        Optional<UserPrincipal> principal = userRepository.findPrincipalByEmail(email);
+        loadTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (principal.isPresent()) {
+            if (entries.size() >= maxSize) {
+                shrink(now);
+            }
+            entries.put(email, new Entry(principal.get(), System.nanoTime() + ttlNanos));
+        } else {
+            entries.remove(email);
+        }
+        return principal;
+    }
+
+    /**
+     * Drops a user now and again once the current transaction commits, so a lookup racing
+     * with the change cannot put the old values back.
+     */
+    public void evict(Long userId, String email) {
+        evictNow(userId, email);
+        AfterCommit.run(() -> evictNow(userId, email));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private void evictNow(Long userId, String email) {
+        if (email != null) {
+            entries.remove(email);
+        }
+        // Covers an email change, where the cached key is the old address
+        if (userId != null) {
+            entries.values().removeIf(entry -> userId.equals(entry.principal().id()));
+        }
+    }
+
+    // Expired entries first; if that is not enough, drop an arbitrary tenth of the cache
+    private void shrink(long now) {
+        entries.values().removeIf(entry -> now - entry.expiresAtNanos() >= 0);
+        int excess = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (excess-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.SearchPage;
+import com.example.MessMate.entity.User;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Paged substring search over user name, email and roll number, for the admin search boxes.
+ *
+ * Matching is {@code LOWER(column) LIKE '%query%'}. On PostgreSQL with pg_trgm installed
+ * (db/migration/V3) those predicates are answered from trigram GIN indexes and results are
+ * ordered by trigram similarity. Other databases, including H2 in tests, match the same rows
+ * and order exact, then prefix, then other matches by name.
+ */
+@Service
+public class UserSearchService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String COLUMNS =
+            "SELECT id, name, email, user_type, roll_number, hostel, room, phone, is_active, created_at, updated_at FROM users ";
+
+    private static final String MATCH =
+            "WHERE (LOWER(name) LIKE :pattern ESCAPE '\\' OR LOWER(email) LIKE :pattern ESCAPE '\\' " +
+            "OR LOWER(roll_number) LIKE :pattern ESCAPE '\\')";
+
+    private static final String TRIGRAM_ORDER =
+            " ORDER BY GREATEST(similarity(LOWER(name), :query), similarity(LOWER(email), :query), " +
+            "COALESCE(similarity(LOWER(roll_number), :query), 0)) DESC, id";
+
+    private static final String PORTABLE_ORDER =
+            " ORDER BY CASE WHEN LOWER(name) = :query OR LOWER(email) = :query OR LOWER(roll_number) = :query THEN 0 " +
+            "WHEN LOWER(name) LIKE :prefix ESCAPE '\\' OR LOWER(email) LIKE :prefix ESCAPE '\\' " +
+            "OR LOWER(roll_number) LIKE :prefix ESCAPE '\\' THEN 1 ELSE 2 END, LOWER(name), id";
+
+    private static final RowMapper<User> USER_ROW = (rs, rowNum) -> {
+        User user = new User();
+        user.setId(rs.getLong("id"));
+        user.setName(rs.getString("name"));
+        user.setEmail(rs.getString("email"));
+        user.setUserType(User.UserType.valueOf(rs.getString("user_type")));
+        user.setRollNumber(rs.getString("roll_number"));
+        user.setHostel(rs.getString("hostel"));
+        user.setRoom(rs.getString("room"));
+        user.setPhone(rs.getString("phone"));
+        boolean active = rs.getBoolean("is_active");
+        user.setActive(rs.wasNull() || active);
+        user.setCreatedAt(rs.getTimestamp("created_at") == null ? null : rs.getTimestamp("created_at").toLocalDateTime());
+        user.setUpdatedAt(rs.getTimestamp("updated_at") == null ? null : rs.getTimestamp("updated_at").toLocalDateTime());
+        return user;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    // Resolved on first search so startup does not depend on the database
+    private volatile Boolean trigramAvailable;
+
+    public UserSearchService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Users whose name, email or roll number contains {@code query} (case-insensitive), optionally
+     * of one type. The password is never read. Pages are zero-based.
+     */
+    public SearchPage<User> search(String query, User.UserType userType, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        String normalized = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return new SearchPage<>(List.of(), page, size, false);
+        }
+
+        String escaped = escapeLike(normalized);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", normalized)
+                .addValue("pattern", "%" + escaped + "%")
+                .addValue("prefix", escaped + "%")
+                .addValue("limit", size + 1)
+                .addValue("offset", (long) page * size);
+        StringBuilder sql = new StringBuilder(COLUMNS).append(MATCH);
+        if (userType != null) {
+            sql.append(" AND user_type = :userType");
+            params.addValue("userType", userType.name());
+        }
+        sql.append(isTrigramAvailable() ? TRIGRAM_ORDER : PORTABLE_ORDER);
+        sql.append(" LIMIT :limit OFFSET :offset");
+
+        List<User> rows = new ArrayList<>(namedJdbcTemplate.query(sql.toString(), params, USER_ROW));
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows.remove(rows.size() - 1);
+        }
+        return new SearchPage<>(rows, page, size, hasNext);
+    }
+
+    boolean isTrigramAvailable() {
+        Boolean available = trigramAvailable;
+        if (available == null) {
+            available = detectTrigram();
+            trigramAvailable = available;
+        }
+        return available;
+    }
+
+    private boolean detectTrigram() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(product)) {
+            return false;
+        }
+        Integer installed = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_extension WHERE extname = 'pg_trgm'", Integer.class);
+        if (installed == null || installed == 0) {
+            System.err.println("pg_trgm is not installed; user search falls back to unindexed LIKE (see db/migration/V3)");
+            return false;
+        }
+        return true;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -6,6 +6,7 @@ import com.example.MessMate.dto.UserResponse;
 import com.example.MessMate.entity.User;
 import com.example.MessMate.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -17,14 +18,18 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final DashboardCounters dashboardCounters;
+    private final SignupKeyFilter signupKeyFilter;
+    private final HostelRosterIndex hostelRosterIndex;
     
     public UserResponse signup(SignupRequest request) {
         // Check if user already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (signupKeyFilter.mightContainEmail(request.getEmail()) && userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
         
-        if (userRepository.existsByRollNumber(request.getRollNumber())) {
+        if (signupKeyFilter.mightContainRollNumber(request.getRollNumber())
+                && userRepository.existsByRollNumber(request.getRollNumber())) {
             throw new RuntimeException("Roll number already exists");
         }
         
@@ -46,7 +51,19 @@ public class UserService {
         user.setRoom(request.getRoom());
         user.setPhone(request.getPhone());
         
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // A key this node had not seen (another node, an import, or a racing signup); the unique constraint caught it
+            throw signupKeyFilter.translate(e, request.getEmail(), request.getRollNumber());
+        }
+        signupKeyFilter.add(savedUser.getEmail(), savedUser.getRollNumber());
+        dashboardCounters.userAddedAfterCommit(savedUser.getUserType(), !Boolean.FALSE.equals(savedUser.getActive()));
+        if (savedUser.getUserType() == User.UserType.STUDENT) {
+            hostelRosterIndex.placeAfterCommit(savedUser.getId(), savedUser.getHostel(), savedUser.getRoom(),
+                    !Boolean.FALSE.equals(savedUser.getActive()));
+        }
         return UserResponse.fromUser(savedUser);
     }
     
@@ -64,11 +81,25 @@ public class UserService {
             throw new RuntimeException("Invalid password");
         }
         
+        if (Boolean.FALSE.equals(user.getActive())) {
+            throw new RuntimeException("Account is deactivated");
+        }
+        
         // Check user type
         if (!user.getUserType().name().equalsIgnoreCase(request.getUserType())) {
             throw new RuntimeException("Invalid user type");
         }
         
+        // Re-hash passwords stored with a weaker BCrypt cost while we have the plain text
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            try {
+                user.setPassword(passwordEncoder.encode(request.getPassword()));
+                user = userRepository.save(user);
+            } catch (PasswordHashingService.BusyException e) {
+                // Try again on a later login
+            }
+        }
+        
         return UserResponse.fromUser(user);
     }
     
@@ -91,6 +122,7 @@ public class UserService {
             admin.setPhone("9999999999");
             
             userRepository.save(admin);
+            dashboardCounters.userAddedAfterCommit(User.UserType.ADMIN, true);
             System.out.println("Default admin user created:");
             System.out.println("Email: admin@messmate.com");
             System.out.println("Password: admin123");
@@ -109,6 +141,7 @@ public class UserService {
             staff.setPhone("8888888888");
             
             userRepository.save(staff);
+            dashboardCounters.userAddedAfterCommit(User.UserType.STAFF, true);
             System.out.println("Default staff user created:");
             System.out.println("Email: staff@messmate.com");
             System.out.println("Password: staff123");
@@ -0,0 +1,252 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.ReconciliationPartition;
+import com.example.MessMate.entity.WalletMismatch;
+import com.example.MessMate.repository.ReconciliationPartitionRepository;
+import com.example.MessMate.repository.WalletMismatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks every mess pass balance against its COMPLETED payments:
+ * recharges and refunds credit the pass, meal payments debit it, and balance adjustments
+ * (such as a capped carry-over at renewal) apply as recorded.
+ *
+ * A run splits the pass id space into fixed ranges that are recorded up front in
+ * reconciliation_partitions and checked concurrently on a bounded pool. Each partition is one
+ * grouped, cursor-read query; its mismatches and its completion mark are written in the same
+ * transaction, so a run that dies can be resumed from the partitions still open.
+ */
+@Service
+public class WalletReconciliationService {
+
+    public static final String RECONCILIATION_JOB = "wallet-reconciliation";
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    private static final String RECONCILE_SQL =
+            "SELECT m.id, m.balance, COALESCE(SUM(CASE " +
+            "WHEN p.payment_type IN ('MESS_PASS_RECHARGE', 'REFUND') THEN p.amount " +
+            "WHEN p.payment_type = 'MEAL_PAYMENT' THEN -p.amount ELSE 0 END), 0) + COALESCE(a.total, 0) " +
+            "FROM mess_passes m LEFT JOIN payments p ON p.mess_pass_id = m.id AND p.status = 'COMPLETED' " +
+            "LEFT JOIN (SELECT mess_pass_id, SUM(amount) AS total FROM balance_adjustments " +
+            "WHERE mess_pass_id BETWEEN ? AND ? GROUP BY mess_pass_id) a ON a.mess_pass_id = m.id " +
+            "WHERE m.id BETWEEN ? AND ? " +
+            "GROUP BY m.id, m.balance, a.total";
+
+    private static final String INSERT_PARTITION_SQL =
+            "INSERT INTO reconciliation_partitions (run_id, first_pass_id, last_pass_id) VALUES (?, ?, ?)";
+
+    private static final String INSERT_MISMATCH_SQL =
+            "INSERT INTO wallet_mismatches (run_id, mess_pass_id, recorded_balance, expected_balance, difference, detected_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String COMPLETE_PARTITION_SQL =
+            "UPDATE reconciliation_partitions SET passes_checked = ?, mismatches = ?, completed_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLeaseService jobLeaseService;
+    private final IdGenerator idGenerator;
+    private final ReconciliationPartitionRepository partitionRepository;
+    private final WalletMismatchRepository mismatchRepository;
+    private final int partitionSize;
+    private final int parallelism;
+    private final int fetchSize;
+
+    private final Counter passesChecked;
+    private final Counter mismatchesFound;
+    private final Timer partitionTimer;
+    private final Timer runTimer;
+    private volatile double lastRunPassesPerSecond;
+
+    private final ExecutorService jobRunner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wallet-reconciliation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WalletReconciliationService(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       JobLeaseService jobLeaseService,
+                                       IdGenerator idGenerator,
+                                       ReconciliationPartitionRepository partitionRepository,
+                                       WalletMismatchRepository mismatchRepository,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${app.jobs.reconciliation.partition-size:5000}") int partitionSize,
+                                       @Value("${app.jobs.reconciliation.parallelism:4}") int parallelism,
+                                       @Value("${app.jobs.reconciliation.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobLeaseService = jobLeaseService;
+        this.idGenerator = idGenerator;
+        this.partitionRepository = partitionRepository;
+        this.mismatchRepository = mismatchRepository;
+        this.partitionSize = partitionSize;
+        this.parallelism = parallelism;
+        this.fetchSize = fetchSize;
+
+        this.passesChecked = Counter.builder("messmate.reconciliation.passes")
+                .description("Mess passes checked by wallet reconciliation")
+                .register(meterRegistry);
+        this.mismatchesFound = Counter.builder("messmate.reconciliation.mismatches")
+                .description("Mess passes whose balance did not match their payments")
+                .register(meterRegistry);
+        this.partitionTimer = Timer.builder("messmate.reconciliation.partition")
+                .description("Time to reconcile one pass id range")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("messmate.reconciliation.run")
+                .description("Time for a whole reconciliation run")
+                .register(meterRegistry);
+        Gauge.builder("messmate.reconciliation.last.run.throughput", this, service -> service.lastRunPassesPerSecond)
+                .description("Passes per second in the last finished run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a run in the background and returns its id, or empty if a run is already in
+     * progress on some node. With {@code resume}, the latest unfinished run is continued
+     * when there is one.
+     */
+    public Optional<String> start(boolean resume) {
+        if (!jobLeaseService.tryAcquire(RECONCILIATION_JOB, LEASE)) {
+            return Optional.empty();
+        }
+        Optional<String> unfinished = resume
+                ? partitionRepository.findTopByCompletedAtIsNullOrderByIdDesc().map(ReconciliationPartition::getRunId)
+                : Optional.empty();
+        String runId = unfinished.orElseGet(() -> idGenerator.nextKey("REC"));
+        boolean plan = unfinished.isEmpty();
+        jobRunner.submit(() -> run(runId, plan));
+        return Optional.of(runId);
+    }
+
+    public List<WalletMismatch> getMismatches(String runId) {
+        return mismatchRepository.findByRunIdOrderByMessPassId(runId);
+    }
+
+    public List<ReconciliationPartition> getPartitions(String runId) {
+        return partitionRepository.findByRunIdOrderByFirstPassId(runId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdownNow();
+    }
+
+    void run(String runId, boolean plan) {
+        long started = System.nanoTime();
+        long checked = 0;
+        long mismatches = 0;
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        try {
+            if (plan) {
+                planPartitions(runId);
+            }
+            List<ReconciliationPartition> all = partitionRepository.findByRunIdOrderByFirstPassId(runId);
+            List<ReconciliationPartition> pending = partitionRepository.findByRunIdAndCompletedAtIsNullOrderByFirstPassId(runId);
+            long done = all.size() - pending.size();
+
+            ExecutorCompletionService<long[]> completions = new ExecutorCompletionService<>(workers);
+            for (ReconciliationPartition partition : pending) {
+                completions.submit(() -> reconcilePartition(runId, partition));
+            }
+            for (int i = 0; i < pending.size(); i++) {
+                long[] result = completions.take().get();
+                checked += result[0];
+                mismatches += result[1];
+                done++;
+                if (!jobLeaseService.reportProgress(RECONCILIATION_JOB, done, all.size(), LEASE)) {
+                    System.err.println("Wallet reconciliation " + runId + " lost its lease after " + done + " partitions");
+                    return;
+                }
+            }
+
+            long elapsed = System.nanoTime() - started;
+            runTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            lastRunPassesPerSecond = elapsed == 0 ? 0 : checked * 1_000_000_000.0 / elapsed;
+            jobLeaseService.complete(RECONCILIATION_JOB, done,
+                    "Run " + runId + ": checked " + checked + " passes, found " + mismatches + " mismatches");
+            System.out.println("Wallet reconciliation " + runId + " finished: " + checked + " passes, " + mismatches + " mismatches");
+        } catch (Exception e) {
+            jobLeaseService.fail(RECONCILIATION_JOB, checked, "Run " + runId + ": " + e.getMessage());
+            System.err.println("Wallet reconciliation " + runId + " failed: " + e.getMessage());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void planPartitions(String runId) {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS first_id, MAX(id) AS last_id FROM mess_passes");
+        if (bounds.get("first_id") == null) {
+            return;
+        }
+        long first = ((Number) bounds.get("first_id")).longValue();
+        long last = ((Number) bounds.get("last_id")).longValue();
+
+        List<Object[]> rows = new ArrayList<>();
+        for (long from = first; from <= last; from += partitionSize) {
+            rows.add(new Object[]{runId, from, Math.min(from + partitionSize - 1, last)});
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_PARTITION_SQL, rows));
+    }
+
+    private long[] reconcilePartition(String runId, ReconciliationPartition partition) {
+        long started = System.nanoTime();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long[] checked = new long[1];
+        List<Object[]> mismatches = new ArrayList<>();
+
+        // A transaction is what lets PostgreSQL honour the fetch size and stream the partition
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        RECONCILE_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setLong(1, partition.getFirstPassId());
+                statement.setLong(2, partition.getLastPassId());
+                statement.setLong(3, partition.getFirstPassId());
+                statement.setLong(4, partition.getLastPassId());
+                return statement;
+            }, rs -> {
+                checked[0]++;
+                long recorded = rs.getLong(2);
+                long expected = rs.getLong(3);
+                if (recorded != expected) {
+                    mismatches.add(new Object[]{runId, rs.getLong(1), recorded, expected, recorded - expected, now});
+                }
+            });
+            if (!mismatches.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_MISMATCH_SQL, mismatches);
+            }
+            jdbcTemplate.update(COMPLETE_PARTITION_SQL, checked[0], (long) mismatches.size(), now, partition.getId());
+        });
+
+        partitionTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        passesChecked.increment(checked[0]);
+        mismatchesFound.increment(mismatches.size());
+        return new long[]{checked[0], mismatches.size()};
+    }
+}
@@ -0,0 +1,9 @@
+-- Store money as bigint paise instead of unscaled numeric rupees
+
+ALTER TABLE menu_items ALTER COLUMN price TYPE BIGINT USING ROUND(price * 100);
+
+ALTER TABLE meal_orders ALTER COLUMN total_amount TYPE BIGINT USING ROUND(total_amount * 100);
+
+ALTER TABLE mess_passes ALTER COLUMN balance TYPE BIGINT USING ROUND(balance * 100);
+
+ALTER TABLE payments ALTER COLUMN amount TYPE BIGINT USING ROUND(amount * 100);
@@ -0,0 +1,11 @@
+-- Trigram indexes for the admin user/student search (UserSearchService)
+-- The search matches LOWER(column) LIKE '%query%' and orders by similarity(), both served by these indexes.
+-- CREATE INDEX CONCURRENTLY cannot run inside a transaction block; run this file with autocommit on.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_name_trgm ON users USING gin (LOWER(name) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_trgm ON users USING gin (LOWER(email) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_roll_number_trgm ON users USING gin (LOWER(roll_number) gin_trgm_ops);
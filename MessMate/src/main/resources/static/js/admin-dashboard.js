@@ -237,8 +237,10 @@ function switchSection(sectionName, activeNavItem, sections, sectionTitle) {
 }
 
 function updateStats() {
+    // User tiles come from the server's live counts
+    loadUserStats();
+    
     // Update overview stats
-    document.getElementById('total-users').textContent = users.length;
     document.getElementById('pending-complaints').textContent = complaints.filter(c => c.status === 'pending').length;
     
     // Get real booking quantity data for today
@@ -249,11 +251,6 @@ function updateStats() {
         (feedback.reduce((sum, f) => sum + f.foodRating, 0) / feedback.length).toFixed(1) : '0.0';
     document.getElementById('avg-rating').textContent = avgRating;
     
-    // Update user stats
-    document.getElementById('student-count').textContent = users.filter(u => u.userType === 'STUDENT').length;
-    document.getElementById('staff-count').textContent = users.filter(u => u.userType === 'STAFF').length;
-    document.getElementById('admin-count').textContent = users.filter(u => u.userType === 'ADMIN').length;
-    
     // Update complaint stats
     document.getElementById('pending-count').textContent = complaints.filter(c => c.status === 'pending').length;
     document.getElementById('inprogress-count').textContent = complaints.filter(c => c.status === 'in-progress').length;
@@ -495,7 +492,7 @@ async function loadUserStats() {
     try {
         console.log('📊 Loading user statistics...');
         
-        const response = await fetch('/api/users/stats', {
+        const response = await fetch('/api/admin/dashboard/counts', {
             method: 'GET',
             headers: {
                 'Accept': 'application/json'
@@ -507,18 +504,21 @@ async function loadUserStats() {
             console.log('📊 User stats received:', result);
             
             if (result.success && result.data) {
-                const stats = result.data;
+                const counts = result.data;
+                const byType = counts.usersByType || {};
                 
                 // Update stat counters
+                const totalUsersEl = document.getElementById('total-users');
                 const studentCountEl = document.getElementById('student-count');
                 const staffCountEl = document.getElementById('staff-count');
                 const adminCountEl = document.getElementById('admin-count');
                 
-                if (studentCountEl) studentCountEl.textContent = stats.students || 0;
-                if (staffCountEl) staffCountEl.textContent = stats.staff || 0;
-                if (adminCountEl) adminCountEl.textContent = stats.admins || 0;
+                if (totalUsersEl) totalUsersEl.textContent = counts.totalUsers || 0;
+                if (studentCountEl) studentCountEl.textContent = byType.STUDENT || 0;
+                if (staffCountEl) staffCountEl.textContent = byType.STAFF || 0;
+                if (adminCountEl) adminCountEl.textContent = byType.ADMIN || 0;
                 
-                console.log(`📊 Stats updated - Students: ${stats.students}, Staff: ${stats.staff}, Admins: ${stats.admins}`);
+                console.log(`📊 Stats updated - Students: ${byType.STUDENT}, Staff: ${byType.STAFF}, Admins: ${byType.ADMIN}`);
             }
         } else {
             console.warn('⚠️ Failed to load user statistics');
@@ -645,8 +645,8 @@ async function searchUsers() {
             const result = await response.json();
             console.log('🔍 Search results:', result);
             
-            if (result.success && result.data && result.data.length > 0) {
-                displayUsersInTable(result.data);
+            if (result.success && result.data && result.data.items.length > 0) {
+                displayUsersInTable(result.data.items);
             } else {
                 tbody.innerHTML = `
                     <tr>
@@ -1931,6 +1931,15 @@ window.addEventListener('click', function(event) {
 
 function logout() {
     if (confirm('Are you sure you want to logout?')) {
+        const session = JSON.parse(localStorage.getItem('loggedInUser') || '{}');
+        if (session.sessionToken) {
+            // Revoke the token server-side; keepalive lets the request finish after navigation
+            fetch('/api/auth/logout', {
+                method: 'POST',
+                headers: { 'Authorization': 'Bearer ' + session.sessionToken },
+                keepalive: true
+            }).catch(() => {});
+        }
         localStorage.removeItem('loggedInUser');
         window.location.href = 'login.html';
     }
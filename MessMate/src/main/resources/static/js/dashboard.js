@@ -568,6 +568,15 @@ function updateProfile(e) {
 // Logout function
 function logout() {
     if (confirm('Are you sure you want to logout?')) {
+        const session = JSON.parse(localStorage.getItem('loggedInUser') || '{}');
+        if (session.sessionToken) {
+            // Revoke the token server-side; keepalive lets the request finish after navigation
+            fetch('/api/auth/logout', {
+                method: 'POST',
+                headers: { 'Authorization': 'Bearer ' + session.sessionToken },
+                keepalive: true
+            }).catch(() => {});
+        }
         localStorage.removeItem('loggedInUser');
         localStorage.removeItem('rememberMe');
         window.location.href = 'login.html';
@@ -1107,6 +1107,15 @@ function showNotification(message, type = 'info') {
 
 function logout() {
     if (confirm('Are you sure you want to logout?')) {
+        const session = JSON.parse(localStorage.getItem('loggedInUser') || '{}');
+        if (session.sessionToken) {
+            // Revoke the token server-side; keepalive lets the request finish after navigation
+            fetch('/api/auth/logout', {
+                method: 'POST',
+                headers: { 'Authorization': 'Bearer ' + session.sessionToken },
+                keepalive: true
+            }).catch(() => {});
+        }
         localStorage.removeItem('loggedInUser');
         window.location.href = 'login.html';
     }
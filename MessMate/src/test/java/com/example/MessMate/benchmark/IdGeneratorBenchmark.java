@@ -0,0 +1,61 @@
+package com.example.MessMate.benchmark;
+
+import com.example.MessMate.service.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Key generation throughput under contention: the old truncated random UUID against the
+ * shared time-ordered generator. Run the same way as {@link MoneyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class IdGeneratorBenchmark {
+
+    private IdGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new IdGenerator(1L);
+    }
+
+    @Benchmark
+    public String randomUuidKey() {
+        return "TXN" + UUID.randomUUID().toString().substring(0, 10).toUpperCase();
+    }
+
+    @Benchmark
+    public String sortableKey() {
+        return generator.nextKey("TXN");
+    }
+
+    @Benchmark
+    public long sortableId() {
+        return generator.nextId();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(IdGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.MessMate.benchmark;
+
+import com.example.MessMate.entity.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old BigDecimal arithmetic with paise-backed Money on the order-total
+ * and wallet-debit paths. Run with {@code -prof gc} to see the allocation difference:
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main MoneyBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"5", "50"})
+    int itemsPerOrder;
+
+    private List<BigDecimal> decimalPrices;
+    private Money[] moneyPrices;
+    private BigDecimal decimalBalance;
+    private Money moneyBalance;
+    private BigDecimal decimalDebit;
+    private Money moneyDebit;
+
+    @Setup
+    public void setUp() {
+        BigDecimal[] decimals = new BigDecimal[itemsPerOrder];
+        moneyPrices = new Money[itemsPerOrder];
+        for (int i = 0; i < itemsPerOrder; i++) {
+            String price = (8 + i % 40) + ".50";
+            decimals[i] = new BigDecimal(price);
+            moneyPrices[i] = Money.valueOf(price);
+        }
+        decimalPrices = Arrays.asList(decimals);
+
+        decimalBalance = new BigDecimal("1500.00");
+        moneyBalance = Money.valueOf("1500.00");
+        decimalDebit = new BigDecimal("45.50");
+        moneyDebit = Money.valueOf("45.50");
+    }
+
+    @Benchmark
+    public BigDecimal orderTotalBigDecimal() {
+        return decimalPrices.stream()
+                .filter(price -> price != null)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public long orderTotalPaise() {
+        long total = 0L;
+        for (Money price : moneyPrices) {
+            if (price != null) {
+                total += price.paise();
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal debitBigDecimal() {
+        if (decimalBalance.compareTo(decimalDebit) >= 0) {
+            return decimalBalance.subtract(decimalDebit);
+        }
+        return decimalBalance;
+    }
+
+    @Benchmark
+    public long debitPaise() {
+        long balance = moneyBalance.paise();
+        long debit = moneyDebit.paise();
+        return balance >= debit ? balance - debit : balance;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(MoneyBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.MessMate.benchmark;
+
+import com.example.MessMate.service.IdGenerator;
+import com.example.MessMate.service.OrderRefundService;
+import com.example.MessMate.service.PaymentRollupService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refunds for a whole meal's worth of cancelled orders (3,000 orders over 1,000 passes by
+ * default), against in-memory H2. Compares the old one-refund-per-call
+ * approach, a payment insert plus a balance update per order, with the queued pipeline that
+ * batches inserts and collapses credits per pass. Run the same way as {@link MoneyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RefundPipelineBenchmark {
+
+    @Param({"3000"})
+    int orders;
+
+    @Param({"1000"})
+    int passes;
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private IdGenerator idGenerator;
+    private OrderRefundService refundService;
+    private int database;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        idGenerator = new IdGenerator(1L);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:refunds" + (database++) + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        jdbcTemplate.execute("CREATE TABLE mess_passes (id BIGINT PRIMARY KEY, user_id BIGINT, balance BIGINT, updated_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE meal_orders (id BIGINT PRIMARY KEY, user_id BIGINT, total_amount BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE payments (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT, mess_pass_id BIGINT, order_id BIGINT, " +
+                "amount BIGINT, payment_type VARCHAR(32), status VARCHAR(32), transaction_id VARCHAR(64) UNIQUE, " +
+                "idempotency_key VARCHAR(64) UNIQUE, description VARCHAR(255), created_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE refund_queue (id BIGINT AUTO_INCREMENT PRIMARY KEY, order_id BIGINT UNIQUE, " +
+                "user_id BIGINT, mess_pass_id BIGINT, amount BIGINT, status VARCHAR(16), created_at TIMESTAMP, processed_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE payment_daily_rollup (id BIGINT AUTO_INCREMENT PRIMARY KEY, rollup_date DATE, " +
+                "payment_type VARCHAR(32), status VARCHAR(32), payment_count BIGINT, amount BIGINT, " +
+                "UNIQUE (rollup_date, payment_type, status))");
+
+        List<Object[]> passRows = new ArrayList<>();
+        for (long id = 1; id <= passes; id++) {
+            passRows.add(new Object[]{id, id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO mess_passes (id, user_id, balance) VALUES (?, ?, 0)", passRows);
+        List<Object[]> orderRows = new ArrayList<>();
+        for (long id = 1; id <= orders; id++) {
+            orderRows.add(new Object[]{id, (id % passes) + 1, 4550L});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO meal_orders (id, user_id, total_amount) VALUES (?, ?, ?)", orderRows);
+        // Each order was charged to its user's pass, which is what the queue refunds
+        List<Object[]> chargeRows = new ArrayList<>();
+        for (Object[] order : orderRows) {
+            chargeRows.add(new Object[]{order[1], order[1], order[0], order[2], "TXN-ORDER-" + order[0]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO payments (user_id, mess_pass_id, order_id, amount, payment_type, status, transaction_id) " +
+                "VALUES (?, ?, ?, ?, 'MEAL_PAYMENT', 'COMPLETED', ?)", chargeRows);
+        jdbcTemplate.execute("CREATE INDEX idx_payments_order ON payments (order_id)");
+
+        PaymentRollupService rollupService = new PaymentRollupService(jdbcTemplate, transactionManager, null, 31, 1);
+        refundService = new OrderRefundService(jdbcTemplate, transactionManager, idGenerator, rollupService,
+                new SimpleMeterRegistry(), false, 200, 2);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws Exception {
+        jdbcTemplate.execute("SHUTDOWN");
+        refundService.shutdown();
+    }
+
+    @Benchmark
+    public long refundOneByOne() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long refunded = 0;
+        for (long orderId = 1; orderId <= orders; orderId++) {
+            long id = orderId;
+            transactionTemplate.executeWithoutResult(status -> {
+                Long userId = jdbcTemplate.queryForObject("SELECT user_id FROM meal_orders WHERE id = ?", Long.class, id);
+                Long passId = jdbcTemplate.queryForObject("SELECT id FROM mess_passes WHERE user_id = ?", Long.class, userId);
+                jdbcTemplate.update("INSERT INTO payments (user_id, mess_pass_id, amount, payment_type, status, transaction_id, created_at) " +
+                        "VALUES (?, ?, 4550, 'REFUND', 'COMPLETED', ?, ?)", userId, passId, idGenerator.nextKey("TXN"), now);
+                jdbcTemplate.update("UPDATE mess_passes SET balance = balance + 4550 WHERE id = ?", passId);
+            });
+            refunded++;
+        }
+        return refunded;
+    }
+
+    @Benchmark
+    public long refundThroughQueue() {
+        List<Long> orderIds = new ArrayList<>(orders);
+        for (long orderId = 1; orderId <= orders; orderId++) {
+            orderIds.add(orderId);
+        }
+        transactionTemplate.executeWithoutResult(status -> refundService.enqueue(orderIds));
+        return refundService.drain();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(RefundPipelineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.MessMate.benchmark;
+
+import com.example.MessMate.dto.SearchPage;
+import com.example.MessMate.entity.User;
+import com.example.MessMate.service.UserSearchService;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search-box latency over 50,000 users: the old unpaged
+ * {@code LIKE '%q%'} query that returns every match, against one page from
+ * {@link UserSearchService}. Uses in-memory H2 (the portable fallback) unless
+ * {@code -Dbench.pg.url=jdbc:postgresql://...} (plus {@code bench.pg.user}/{@code bench.pg.password})
+ * points at a scratch PostgreSQL database, where the V3 trigram indexes are created. The users
+ * table there is dropped and recreated. Run the same way as {@link MoneyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {"Aarav", "Vivaan", "Aditya", "Ishaan", "Ananya", "Diya", "Saanvi",
+            "Meera", "Rohan", "Kabir", "Riya", "Arjun", "Nisha", "Kavya", "Rahul", "Priya"};
+    private static final String[] LAST_NAMES = {"Sharma", "Verma", "Iyer", "Nair", "Reddy", "Gupta", "Singh",
+            "Das", "Menon", "Patel", "Rao", "Joshi"};
+
+    @Param({"50000"})
+    int users;
+
+    // A common fragment (many matches) and a nearly unique roll number
+    @Param({"sharma", "cs21004"})
+    String query;
+
+    private JdbcTemplate jdbcTemplate;
+    private UserSearchService searchService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String pgUrl = System.getProperty("bench.pg.url");
+        DataSource dataSource;
+        if (pgUrl == null) {
+            JdbcDataSource h2 = new JdbcDataSource();
+            h2.setURL("jdbc:h2:mem:usersearch;DB_CLOSE_DELAY=-1");
+            dataSource = h2;
+        } else {
+            dataSource = new DriverManagerDataSource(pgUrl,
+                    System.getProperty("bench.pg.user", "postgres"), System.getProperty("bench.pg.password", ""));
+        }
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("DROP TABLE IF EXISTS users");
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, name VARCHAR(255), email VARCHAR(255) UNIQUE, " +
+                "password VARCHAR(255), user_type VARCHAR(16), roll_number VARCHAR(32) UNIQUE, hostel VARCHAR(64), " +
+                "room VARCHAR(16), phone VARCHAR(16), is_active BOOLEAN, student_id BIGINT, " +
+                "created_at TIMESTAMP, updated_at TIMESTAMP)");
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(users);
+        for (int i = 1; i <= users; i++) {
+            String name = FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length];
+            rows.add(new Object[]{(long) i, name, "student" + i + "@college.edu", "STUDENT",
+                    String.format("CS%05d", 20000 + i), "Hostel " + (char) ('A' + i % 6), String.valueOf(100 + i % 300), now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email, password, user_type, roll_number, hostel, room, " +
+                "is_active, created_at) VALUES (?, ?, ?, 'x', ?, ?, ?, ?, TRUE, ?)", rows);
+
+        if (pgUrl != null) {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX idx_users_name_trgm ON users USING gin (LOWER(name) gin_trgm_ops)");
+            jdbcTemplate.execute("CREATE INDEX idx_users_email_trgm ON users USING gin (LOWER(email) gin_trgm_ops)");
+            jdbcTemplate.execute("CREATE INDEX idx_users_roll_number_trgm ON users USING gin (LOWER(roll_number) gin_trgm_ops)");
+            jdbcTemplate.execute("ANALYZE users");
+        }
+        searchService = new UserSearchService(jdbcTemplate);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.execute("DROP TABLE users");
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> unpagedLike() {
+        return jdbcTemplate.queryForList("SELECT * FROM users WHERE LOWER(name) LIKE LOWER(CONCAT('%', ?, '%')) " +
+                "OR LOWER(email) LIKE LOWER(CONCAT('%', ?, '%'))", query, query);
+    }
+
+    @Benchmark
+    public SearchPage<User> pagedSearch() {
+        return searchService.search(query, null, 0, 20);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(UserSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.MessMate.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void testValueOf_ShouldStoreWholePaise() {
+        assertThat(Money.valueOf("75").paise()).isEqualTo(7500L);
+        assertThat(Money.valueOf("12.5").paise()).isEqualTo(1250L);
+        assertThat(Money.valueOf("0.05").paise()).isEqualTo(5L);
+        assertThat(Money.of(new BigDecimal("-3.20")).paise()).isEqualTo(-320L);
+    }
+
+    @Test
+    void testValueOf_ShouldRejectFractionsOfAPaisa() {
+        assertThatThrownBy(() -> Money.valueOf("10.005")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.valueOf("ten")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testToString_ShouldMatchTwoDecimalBigDecimal() {
+        assertThat(Money.ofPaise(7500L).toString()).isEqualTo("75.00");
+        assertThat(Money.ofPaise(5L).toString()).isEqualTo("0.05");
+        assertThat(Money.ofPaise(-50L).toString()).isEqualTo("-0.50");
+        assertThat(Money.ofPaise(123456L).toBigDecimal()).isEqualByComparingTo("1234.56");
+    }
+
+    @Test
+    void testArithmetic_ShouldWorkOnPaise() {
+        Money balance = Money.valueOf("100.00");
+
+        assertThat(balance.plus(Money.valueOf("0.50"))).isEqualTo(Money.ofPaise(10050L));
+        assertThat(balance.minus(Money.valueOf("100.00"))).isSameAs(Money.ZERO);
+        assertThat(Money.valueOf("8.25").times(3)).isEqualTo(Money.valueOf("24.75"));
+        assertThat(Money.valueOf("5.00").isLessThan(balance)).isTrue();
+    }
+}
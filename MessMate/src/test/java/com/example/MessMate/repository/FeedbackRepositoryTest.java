@@ -1,5 +1,6 @@
 package com.example.MessMate.repository;
 
+import com.example.MessMate.dto.FeedbackResponseDTO;
 import com.example.MessMate.entity.Feedback;
 import com.example.MessMate.entity.User;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,7 +8,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -151,4 +155,78 @@ class FeedbackRepositoryTest {
         assertThat(allFeedbacks).extracting(Feedback::getMessage)
                 .containsExactlyInAnyOrder("The food quality is excellent", "Service could be faster");
     }
+
+    @Test
+    void testFindResponses_ShouldProjectJoinedNamesAndPage() {
+        // When
+        Slice<FeedbackResponseDTO> firstPage = feedbackRepository.findResponses(null, null, null, null, null, PageRequest.of(0, 1));
+        Slice<FeedbackResponseDTO> resolved = feedbackRepository.findResponses(
+                Feedback.FeedbackStatus.RESOLVED, null, null, "student@test.com", null, PageRequest.of(0, 10));
+
+        // Then
+        assertThat(firstPage.getContent()).hasSize(1);
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(firstPage.getContent().get(0).getStudentName()).isEqualTo("Test Student");
+        assertThat(firstPage.getContent().get(0).getRepliedBy()).isNull();
+
+        assertThat(resolved.getContent()).extracting(FeedbackResponseDTO::getMessage)
+                .containsExactly("Service could be faster");
+        assertThat(resolved.hasNext()).isFalse();
+    }
+
+    @Test
+    void testFindResponsesBefore_ShouldContinueAfterKeysetCursor() {
+        // Given
+        FeedbackResponseDTO newest = feedbackRepository.findResponses(null, null, null, null, null, PageRequest.of(0, 1))
+                .getContent().get(0);
+
+        // When
+        List<FeedbackResponseDTO> next = feedbackRepository.findResponsesBefore(null, null, null, null, null,
+                newest.getCreatedAt(), newest.getId(), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(next).hasSize(1);
+        assertThat(next.get(0).getId()).isNotEqualTo(newest.getId());
+    }
+
+    @Test
+    void testCountByTypeStatusRatingAndDay_ShouldGroupIntoCells() {
+        // Given
+        LocalDate today = LocalDate.now();
+
+        // When
+        List<Object[]> rows = feedbackRepository.countByTypeStatusRatingAndDay(
+                today.minusDays(1).atStartOfDay(), today.plusDays(1).atStartOfDay());
+
+        // Then
+        assertThat(rows).hasSize(2);
+        assertThat(rows).anySatisfy(row -> {
+            assertThat(row[0]).isEqualTo(Feedback.FeedbackType.FOOD_QUALITY);
+            assertThat(row[1]).isEqualTo(Feedback.FeedbackStatus.PENDING);
+            assertThat(((Number) row[2]).intValue()).isEqualTo(5);
+            assertThat(row[3]).isEqualTo(today);
+            assertThat(((Number) row[4]).longValue()).isEqualTo(1L);
+        });
+        assertThat(feedbackRepository.countByTypeStatusRatingAndDay(
+                today.plusDays(1).atStartOfDay(), today.plusDays(2).atStartOfDay())).isEmpty();
+    }
+
+    @Test
+    void testUpdateStatus_ShouldChangeFilteredRowsInOneStatement() {
+        // Given
+        List<Object[]> lowRated = feedbackRepository.findModerationRows(null, Feedback.FeedbackStatus.RESOLVED, null, 3,
+                LocalDateTime.now().plusMinutes(1), PageRequest.of(0, 10));
+        List<Long> ids = lowRated.stream().map(row -> (Long) row[0]).toList();
+
+        // When
+        int updated = feedbackRepository.updateStatus(ids, Feedback.FeedbackStatus.DISMISSED, LocalDateTime.now());
+
+        // Then
+        assertThat(ids).containsExactly(testFeedback2.getId());
+        assertThat(updated).isEqualTo(1);
+        assertThat(feedbackRepository.findById(testFeedback2.getId()))
+                .hasValueSatisfying(feedback -> assertThat(feedback.getStatus()).isEqualTo(Feedback.FeedbackStatus.DISMISSED));
+        assertThat(feedbackRepository.findById(testFeedback1.getId()))
+                .hasValueSatisfying(feedback -> assertThat(feedback.getStatus()).isEqualTo(Feedback.FeedbackStatus.PENDING));
+    }
 }
@@ -1,13 +1,13 @@
 package com.example.MessMate.repository;
 
 import com.example.MessMate.entity.MenuItem;
+import com.example.MessMate.entity.Money;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,7 +32,7 @@ class MenuItemRepositoryTest {
         breakfastItem = new MenuItem();
         breakfastItem.setName("Breakfast Special");
         breakfastItem.setDescription("Delicious breakfast");
-        breakfastItem.setPrice(new BigDecimal("50.00"));
+        breakfastItem.setPrice(Money.valueOf("50.00"));
         breakfastItem.setMealType(MenuItem.MealType.BREAKFAST);
         breakfastItem.setCategory(MenuItem.FoodCategory.MAIN_COURSE);
         breakfastItem.setIsVegetarian(true);
@@ -42,7 +42,7 @@ class MenuItemRepositoryTest {
         lunchItem = new MenuItem();
         lunchItem.setName("Lunch Combo");
         lunchItem.setDescription("Complete lunch meal");
-        lunchItem.setPrice(new BigDecimal("80.00"));
+        lunchItem.setPrice(Money.valueOf("80.00"));
         lunchItem.setMealType(MenuItem.MealType.LUNCH);
         lunchItem.setCategory(MenuItem.FoodCategory.MAIN_COURSE);
         lunchItem.setIsVegetarian(false);
@@ -52,7 +52,7 @@ class MenuItemRepositoryTest {
         vegItem = new MenuItem();
         vegItem.setName("Veg Curry");
         vegItem.setDescription("Spicy vegetarian curry");
-        vegItem.setPrice(new BigDecimal("60.00"));
+        vegItem.setPrice(Money.valueOf("60.00"));
         vegItem.setMealType(MenuItem.MealType.DINNER);
         vegItem.setCategory(MenuItem.FoodCategory.CURRY);
         vegItem.setIsVegetarian(true);
@@ -62,7 +62,7 @@ class MenuItemRepositoryTest {
         nonVegItem = new MenuItem();
         nonVegItem.setName("Chicken Curry");
         nonVegItem.setDescription("Delicious chicken curry");
-        nonVegItem.setPrice(new BigDecimal("90.00"));
+        nonVegItem.setPrice(Money.valueOf("90.00"));
         nonVegItem.setMealType(MenuItem.MealType.DINNER);
         nonVegItem.setCategory(MenuItem.FoodCategory.CURRY);
         nonVegItem.setIsVegetarian(false);
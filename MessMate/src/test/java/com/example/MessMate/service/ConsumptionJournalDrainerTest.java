@@ -0,0 +1,121 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.ConsumptionEvent;
+import com.example.MessMate.entity.DailyMenu;
+import com.example.MessMate.entity.MenuItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ConsumptionJournalDrainerTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ConsumptionJournal journal;
+    private SimpleMeterRegistry meterRegistry;
+    private ConsumptionJournalDrainer drainer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        journal = new ConsumptionJournal(true, journalDir.toString(), 64 * 1024, 1);
+        journal.open();
+        meterRegistry = new SimpleMeterRegistry();
+        drainer = new ConsumptionJournalDrainer(journal, jdbcTemplate, transactionManager, meterRegistry,
+                "consumption", "node-a", 500);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journal.close();
+    }
+
+    @Test
+    void testDrain_ShouldParkCorruptRecordAndKeepDraining() throws Exception {
+        DailyMenu menu = persistMenu();
+        ConsumptionJournal.Position corrupt = journal.appendDurably(booking(menu.getId(), 2));
+        journal.appendDurably(booking(menu.getId(), 5));
+        journal.appendDurably(booking(menu.getId(), 3));
+        try (FileChannel channel = FileChannel.open(journalDir.resolve(String.format("segment-%020d.log", 0)),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 0xBAD), corrupt.offset() + Integer.BYTES);
+        }
+
+        drainer.drain();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(quantity) FROM meal_bookings WHERE daily_menu_id = ?", Integer.class, menu.getId()))
+                .isEqualTo(5);
+        Map<String, Object> letter = jdbcTemplate.queryForMap(
+                "SELECT journal, segment_id, segment_offset, reason FROM journal_dead_letters");
+        assertThat(letter.get("JOURNAL")).isEqualTo("consumption@node-a");
+        assertThat(((Number) letter.get("SEGMENT_OFFSET")).intValue()).isEqualTo(corrupt.offset());
+        assertThat(letter.get("REASON")).isEqualTo("Checksum mismatch");
+        assertThat(meterRegistry.counter("messmate.journal.dead.letters").count()).isEqualTo(1.0);
+        assertThat(checkpointOffset("consumption@node-a")).isEqualTo(journal.getDurablePosition().offset());
+    }
+
+    @Test
+    void testDrain_ShouldResetCheckpointLeftByLostJournalDirectory() throws Exception {
+        DailyMenu menu = persistMenu();
+        jdbcTemplate.update("INSERT INTO journal_checkpoints (name, segment_id, segment_offset, updated_at) "
+                + "VALUES ('consumption@node-a', 7, 4096, CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO journal_checkpoints (name, segment_id, segment_offset, updated_at) "
+                + "VALUES ('consumption@node-b', 0, 0, CURRENT_TIMESTAMP)");
+        journal.appendDurably(booking(menu.getId(), 4));
+
+        drainer.drain();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(quantity) FROM meal_bookings WHERE daily_menu_id = ?", Integer.class, menu.getId()))
+                .isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT segment_id FROM journal_checkpoints WHERE name = 'consumption@node-a'", Long.class))
+                .isZero();
+        assertThat(checkpointOffset("consumption@node-a")).isEqualTo(journal.getDurablePosition().offset());
+        assertThat(checkpointOffset("consumption@node-b")).isZero();
+    }
+
+    private DailyMenu persistMenu() {
+        DailyMenu menu = new DailyMenu();
+        menu.setMenuDate(LocalDate.of(2026, 10, 19));
+        menu.setMealType(MenuItem.MealType.LUNCH);
+        return entityManager.persistAndFlush(menu);
+    }
+
+    private Integer checkpointOffset(String name) {
+        return jdbcTemplate.queryForObject(
+                "SELECT segment_offset FROM journal_checkpoints WHERE name = ?", Integer.class, name);
+    }
+
+    private static ConsumptionEvent booking(Long dailyMenuId, int quantity) {
+        return new ConsumptionEvent(ConsumptionEvent.EventType.BOOKING, dailyMenuId, null, quantity, null,
+                System.currentTimeMillis());
+    }
+}
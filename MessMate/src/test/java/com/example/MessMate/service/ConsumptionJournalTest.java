@@ -0,0 +1,178 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.ConsumptionEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsumptionJournalTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void testAppendDurably_ShouldBeReadableInOrder() throws Exception {
+        ConsumptionJournal journal = open(64 * 1024);
+        try {
+            journal.appendDurably(booking(1L, 2, "No onions"));
+            journal.appendDurably(consumption(5L, 1L));
+
+            ConsumptionJournal.ReadResult result = journal.read(journal.startPosition(null), 10);
+
+            assertThat(result.events()).hasSize(2);
+            assertThat(result.events().get(0).getType()).isEqualTo(ConsumptionEvent.EventType.BOOKING);
+            assertThat(result.events().get(0).getSpecialInstructions()).isEqualTo("No onions");
+            assertThat(result.events().get(1).getMessPassId()).isEqualTo(5L);
+            assertThat(result.next()).isEqualTo(journal.getDurablePosition());
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    void testRead_ShouldFollowEventsAcrossSegments() throws Exception {
+        ConsumptionJournal journal = open(256);
+        try {
+            for (int i = 0; i < 20; i++) {
+                journal.appendDurably(booking((long) i, 1, null));
+            }
+
+            List<ConsumptionEvent> drained = drainAll(journal, journal.startPosition(null));
+
+            assertThat(journal.getDurablePosition().segment()).isGreaterThan(0);
+            assertThat(drained).extracting(ConsumptionEvent::getDailyMenuId)
+                    .containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L);
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    void testReopen_ShouldReplayUndrainedEventsAndAppendAfterThem() throws Exception {
+        ConsumptionJournal journal = open(64 * 1024);
+        journal.appendDurably(booking(1L, 1, null));
+        ConsumptionJournal.Position checkpoint = journal.appendDurably(booking(2L, 1, null));
+        journal.appendDurably(booking(3L, 1, null));
+        journal.close();
+
+        ConsumptionJournal reopened = open(64 * 1024);
+        try {
+            reopened.appendDurably(booking(4L, 1, null));
+
+            List<ConsumptionEvent> replayed = drainAll(reopened, reopened.startPosition(checkpoint));
+
+            assertThat(replayed).extracting(ConsumptionEvent::getDailyMenuId).containsExactly(3L, 4L);
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void testStartPosition_ShouldResetCheckpointPastTheEndOfTheJournal() throws Exception {
+        ConsumptionJournal journal = open(64 * 1024);
+        try {
+            journal.appendDurably(booking(1L, 1, null));
+
+            // A checkpoint left over from a journal directory that no longer exists
+            ConsumptionJournal.Position start = journal.startPosition(new ConsumptionJournal.Position(7, 4096));
+
+            assertThat(start).isEqualTo(new ConsumptionJournal.Position(0, 0));
+            assertThat(drainAll(journal, start)).extracting(ConsumptionEvent::getDailyMenuId).containsExactly(1L);
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    void testRead_ShouldSkipCorruptRecordAsDeadLetter() throws Exception {
+        ConsumptionJournal journal = open(64 * 1024);
+        try {
+            ConsumptionJournal.Position second = journal.appendDurably(booking(1L, 1, null));
+            journal.appendDurably(booking(2L, 1, null));
+            journal.appendDurably(booking(3L, 1, null));
+            overwriteInt(second, Integer.BYTES, 0xBAD);
+
+            ConsumptionJournal.ReadResult result = journal.read(journal.startPosition(null), 10);
+
+            assertThat(result.events()).extracting(ConsumptionEvent::getDailyMenuId).containsExactly(1L, 3L);
+            assertThat(result.deadLetters()).singleElement().satisfies(letter -> {
+                assertThat(letter.position()).isEqualTo(second);
+                assertThat(letter.payload()).isNotEmpty();
+                assertThat(letter.reason()).isEqualTo("Checksum mismatch");
+            });
+            assertThat(result.next()).isEqualTo(journal.getDurablePosition());
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    void testRead_ShouldSkipToDurableEndWhenRecordLengthIsUnreadable() throws Exception {
+        ConsumptionJournal journal = open(64 * 1024);
+        try {
+            ConsumptionJournal.Position second = journal.appendDurably(booking(1L, 1, null));
+            journal.appendDurably(booking(2L, 1, null));
+            overwriteInt(second, 0, -5);
+
+            ConsumptionJournal.ReadResult result = journal.read(journal.startPosition(null), 10);
+
+            assertThat(result.events()).extracting(ConsumptionEvent::getDailyMenuId).containsExactly(1L);
+            assertThat(result.deadLetters()).singleElement().satisfies(letter -> {
+                assertThat(letter.position()).isEqualTo(second);
+                assertThat(letter.payload()).isNull();
+            });
+            assertThat(result.next()).isEqualTo(journal.getDurablePosition());
+        } finally {
+            journal.close();
+        }
+    }
+
+    private ConsumptionJournal open(int segmentSize) throws Exception {
+        ConsumptionJournal journal = new ConsumptionJournal(true, journalDir.toString(), segmentSize, 1);
+        journal.open();
+        return journal;
+    }
+
+    // Writes straight into the segment file, behind the journal's back, like disk corruption would
+    private void overwriteInt(ConsumptionJournal.Position record, int fieldOffset, int value) throws Exception {
+        Path segment;
+        try (var files = Files.list(journalDir)) {
+            segment = files.filter(path -> path.getFileName().toString().endsWith(String.format("%020d.log", record.segment())))
+                    .findFirst()
+                    .orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, value), record.offset() + fieldOffset);
+        }
+    }
+
+    private static List<ConsumptionEvent> drainAll(ConsumptionJournal journal, ConsumptionJournal.Position from) throws Exception {
+        List<ConsumptionEvent> events = new ArrayList<>();
+        ConsumptionJournal.Position cursor = from;
+        while (cursor.compareTo(journal.getDurablePosition()) < 0) {
+            ConsumptionJournal.ReadResult result = journal.read(cursor, 3);
+            events.addAll(result.events());
+            cursor = result.next();
+        }
+        return events;
+    }
+
+    private static ConsumptionEvent booking(Long dailyMenuId, int quantity, String instructions) {
+        return new ConsumptionEvent(ConsumptionEvent.EventType.BOOKING, dailyMenuId, null, quantity, instructions,
+                System.currentTimeMillis());
+    }
+
+    private static ConsumptionEvent consumption(Long messPassId, Long dailyMenuId) {
+        return new ConsumptionEvent(ConsumptionEvent.EventType.CONSUMPTION, dailyMenuId, messPassId, 1, null,
+                System.currentTimeMillis());
+    }
+}
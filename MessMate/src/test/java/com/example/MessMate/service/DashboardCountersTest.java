@@ -0,0 +1,141 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.DashboardCounts;
+import com.example.MessMate.entity.Feedback;
+import com.example.MessMate.entity.MealOrder;
+import com.example.MessMate.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class DashboardCountersTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DashboardCounters counters;
+    private User student;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        counters = new DashboardCounters(jdbcTemplate, meterRegistry);
+
+        student = user("student@test.com", User.UserType.STUDENT, true);
+        entityManager.persist(student);
+        entityManager.persist(user("inactive@test.com", User.UserType.STUDENT, false));
+        entityManager.persist(user("staff@test.com", User.UserType.STAFF, true));
+        entityManager.persist(feedback(Feedback.FeedbackStatus.PENDING));
+        entityManager.persist(feedback(Feedback.FeedbackStatus.PENDING));
+        entityManager.persist(feedback(Feedback.FeedbackStatus.RESOLVED));
+        entityManager.flush();
+    }
+
+    @Test
+    void testSnapshot_ShouldSeedFromGroupedQueries() {
+        DashboardCounts counts = counters.snapshot();
+
+        assertThat(counts.getTotalUsers()).isEqualTo(3);
+        assertThat(counts.getUsersByType()).containsEntry(User.UserType.STUDENT, 2L)
+                .containsEntry(User.UserType.STAFF, 1L).containsEntry(User.UserType.ADMIN, 0L);
+        assertThat(counts.getActiveStudents()).isEqualTo(1);
+        assertThat(counts.getFeedbackByStatus()).containsEntry(Feedback.FeedbackStatus.PENDING, 2L)
+                .containsEntry(Feedback.FeedbackStatus.RESOLVED, 1L);
+        assertThat(counts.getOrdersByStatus()).containsEntry(MealOrder.OrderStatus.PENDING, 0L);
+        assertThat(counts.getReconciledAt()).isNotNull();
+    }
+
+    @Test
+    void testChanges_ShouldMoveCountsWithoutQuerying() {
+        counters.reconcile();
+
+        counters.userAddedAfterCommit(User.UserType.STUDENT, true);
+        counters.userActivationChangedAfterCommit(User.UserType.STUDENT, true, false);
+        counters.userActivationChangedAfterCommit(User.UserType.STUDENT, true, true);
+        counters.feedbackChangedAfterCommit(Feedback.FeedbackStatus.PENDING, Feedback.FeedbackStatus.REVIEWED);
+        counters.feedbackChangedAfterCommit(Feedback.FeedbackStatus.RESOLVED, null);
+        counters.orderChangedAfterCommit(null, MealOrder.OrderStatus.PENDING);
+        counters.orderChangedAfterCommit(MealOrder.OrderStatus.PENDING, MealOrder.OrderStatus.CANCELLED);
+
+        // Nothing moves until the surrounding (test) transaction commits
+        assertThat(counters.userCount(User.UserType.STUDENT)).isEqualTo(2);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(counters.userCount(User.UserType.STUDENT)).isEqualTo(3);
+        assertThat(counters.activeUserCount(User.UserType.STUDENT)).isEqualTo(1);
+        assertThat(counters.feedbackCount(Feedback.FeedbackStatus.PENDING)).isEqualTo(1);
+        assertThat(counters.feedbackCount(Feedback.FeedbackStatus.REVIEWED)).isEqualTo(1);
+        assertThat(counters.feedbackCount(Feedback.FeedbackStatus.RESOLVED)).isZero();
+        assertThat(counters.orderCount(MealOrder.OrderStatus.PENDING)).isZero();
+        assertThat(counters.orderCount(MealOrder.OrderStatus.CANCELLED)).isEqualTo(1);
+    }
+
+    @Test
+    void testOrdersChanged_ShouldMoveABulkCancellationWithOneCommitCallback() {
+        counters.reconcile();
+        long pending = counters.orderCount(MealOrder.OrderStatus.PENDING);
+        long confirmed = counters.orderCount(MealOrder.OrderStatus.CONFIRMED);
+        long cancelled = counters.orderCount(MealOrder.OrderStatus.CANCELLED);
+        int registered = TransactionSynchronizationManager.getSynchronizations().size();
+
+        counters.ordersChangedAfterCommit(Map.of(MealOrder.OrderStatus.PENDING, 1L, MealOrder.OrderStatus.CONFIRMED, 2L),
+                MealOrder.OrderStatus.CANCELLED);
+
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(registered + 1);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(counters.orderCount(MealOrder.OrderStatus.PENDING)).isEqualTo(pending - 1);
+        assertThat(counters.orderCount(MealOrder.OrderStatus.CONFIRMED)).isEqualTo(confirmed - 2);
+        assertThat(counters.orderCount(MealOrder.OrderStatus.CANCELLED)).isEqualTo(cancelled + 3);
+    }
+
+    @Test
+    void testReconcile_ShouldCorrectDriftFromPlainSqlWrites() {
+        counters.reconcile();
+        jdbcTemplate.update("UPDATE feedback SET status = 'DISMISSED' WHERE status = 'PENDING'");
+
+        assertThat(counters.feedbackCount(Feedback.FeedbackStatus.PENDING)).isEqualTo(2);
+
+        counters.reconcile();
+
+        assertThat(counters.feedbackCount(Feedback.FeedbackStatus.PENDING)).isZero();
+        assertThat(counters.feedbackCount(Feedback.FeedbackStatus.DISMISSED)).isEqualTo(2);
+        assertThat(meterRegistry.get("messmate.counters.drift").counter().count()).isEqualTo(4.0);
+    }
+
+    private static User user(String email, User.UserType type, boolean active) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setPassword("password123");
+        user.setUserType(type);
+        user.setActive(active);
+        return user;
+    }
+
+    private Feedback feedback(Feedback.FeedbackStatus status) {
+        Feedback feedback = new Feedback();
+        feedback.setStudent(student);
+        feedback.setFeedbackType(Feedback.FeedbackType.FOOD_QUALITY);
+        feedback.setRating(4);
+        feedback.setMessage("Fine");
+        feedback.setStatus(status);
+        feedback.setCreatedAt(LocalDateTime.now());
+        return feedback;
+    }
+}
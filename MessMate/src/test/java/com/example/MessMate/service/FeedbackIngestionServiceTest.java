@@ -0,0 +1,191 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.DailyMenu;
+import com.example.MessMate.entity.Feedback;
+import com.example.MessMate.entity.MenuItem;
+import com.example.MessMate.entity.Money;
+import com.example.MessMate.entity.User;
+import com.example.MessMate.repository.FeedbackRepository;
+import com.example.MessMate.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Batches are written in their own transactions, on the flusher thread or here, so fixtures are committed
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FeedbackIngestionServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    private MeterRegistry meterRegistry;
+    private FeedbackSearchIndex searchIndex;
+    private FeedbackIngestionService ingestionService;
+    private long studentId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        searchIndex = new FeedbackSearchIndex(null);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User student = new User();
+            student.setName("Burst Student");
+            student.setEmail("burst@test.com");
+            student.setPassword("x");
+            student.setUserType(User.UserType.STUDENT);
+            entityManager.persist(student);
+            studentId = student.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ingestionService.shutdown();
+        jdbcTemplate.update("DELETE FROM feedback_menu_items");
+        jdbcTemplate.update("DELETE FROM feedback");
+        jdbcTemplate.update("DELETE FROM menu_item_rating_daily");
+        jdbcTemplate.update("DELETE FROM menu_item_rating_stats");
+        jdbcTemplate.update("DELETE FROM daily_menu_items");
+        jdbcTemplate.update("DELETE FROM daily_menus");
+        jdbcTemplate.update("DELETE FROM menu_items");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void testFlush_ShouldRetryFailedBatchRowByRowAndKeepTheGoodRows() {
+        ingestionService = service(10, 10);
+        LocalDateTime now = LocalDateTime.now();
+        List<FeedbackIngestionService.PendingFeedback> batch = new ArrayList<>(List.of(
+                pending("FB-1", studentId, now),
+                // The student was deleted after the submission was accepted
+                pending("FB-2", studentId + 1000, now),
+                pending("FB-3", studentId, now)));
+
+        ingestionService.flush(batch);
+
+        assertThat(jdbcTemplate.queryForList("SELECT submission_key FROM feedback ORDER BY submission_key", String.class))
+                .containsExactly("FB-1", "FB-3");
+        assertThat(meterRegistry.get("messmate.feedback.ingest.written").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("messmate.feedback.ingest.failed").counter().count()).isEqualTo(1);
+        // Only the stored rows reach the search index
+        assertThat(searchIndex.search("cold dal", null, null, null, 10).total()).isEqualTo(2);
+    }
+
+    @Test
+    void testSubmit_ShouldRefuseWhenBufferIsFullAndRejectUnknownStudents() {
+        // Never started, so nothing drains the buffer
+        ingestionService = service(2, 10);
+
+        assertThat(ingestionService.submit("burst@test.com", Feedback.FeedbackType.FOOD_QUALITY, 2, "cold dal")).isNotNull();
+        assertThat(ingestionService.submit("burst@test.com", Feedback.FeedbackType.FOOD_QUALITY, 2, "cold dal")).isNotNull();
+        assertThat(ingestionService.submit("burst@test.com", Feedback.FeedbackType.FOOD_QUALITY, 2, "cold dal")).isNull();
+
+        assertThat(ingestionService.buffered()).isEqualTo(2);
+        assertThat(meterRegistry.get("messmate.feedback.ingest.rejected").counter().count()).isEqualTo(1);
+        assertThatThrownBy(() -> ingestionService.submit("ghost@test.com", Feedback.FeedbackType.FOOD_QUALITY, 2, "cold dal"))
+                .hasMessage("Student not found with email: ghost@test.com");
+    }
+
+    @Test
+    void testShutdown_ShouldWriteEverythingStillBuffered() throws Exception {
+        ingestionService = service(10, 2);
+        for (int i = 0; i < 5; i++) {
+            ingestionService.submit("burst@test.com", Feedback.FeedbackType.FOOD_QUALITY, 2, "cold dal " + i);
+        }
+
+        ingestionService.start();
+        ingestionService.shutdown();
+
+        assertThat(ingestionService.buffered()).isZero();
+        assertThat(feedbackRepository.count()).isEqualTo(5);
+        assertThat(ingestionService.submit("burst@test.com", Feedback.FeedbackType.FOOD_QUALITY, 2, "late")).isNull();
+    }
+
+    @Test
+    void testSubmit_ShouldCarryDishesThroughToLinksAndRatingAggregates() throws Exception {
+        ingestionService = service(10, 10);
+        long[] ids = new TransactionTemplate(transactionManager).execute(status -> {
+            MenuItem dal = menuItem("Dal Makhani");
+            MenuItem kheer = menuItem("Kheer");
+            DailyMenu menu = new DailyMenu();
+            menu.setMenuDate(LocalDate.of(2032, 3, 5));
+            menu.setMealType(MenuItem.MealType.LUNCH);
+            menu.setMenuItems(new ArrayList<>(List.of(dal)));
+            entityManager.persist(menu);
+            return new long[]{menu.getId(), dal.getId(), kheer.getId()};
+        });
+
+        assertThatThrownBy(() -> ingestionService.submit("burst@test.com", Feedback.FeedbackType.FOOD_QUALITY, 2,
+                "cold dal", ids[0], List.of(ids[2])))
+                .hasMessage("Menu items must be on daily menu " + ids[0]);
+        String key = ingestionService.submit("burst@test.com", Feedback.FeedbackType.FOOD_QUALITY, 2, "cold dal",
+                ids[0], List.of(ids[1]));
+        ingestionService.start();
+        ingestionService.shutdown();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT daily_menu_id FROM feedback WHERE submission_key = ?",
+                Long.class, key)).isEqualTo(ids[0]);
+        assertThat(jdbcTemplate.queryForList("SELECT l.menu_item_id FROM feedback_menu_items l " +
+                "JOIN feedback f ON f.id = l.feedback_id WHERE f.submission_key = ?", Long.class, key))
+                .containsExactly(ids[1]);
+        // Rated on the menu's day, like the synchronous path
+        assertThat(jdbcTemplate.queryForObject("SELECT rating_sum FROM menu_item_rating_daily " +
+                "WHERE menu_item_id = ? AND rating_date = ?", Long.class, ids[1], LocalDate.of(2032, 3, 5)))
+                .isEqualTo(2L);
+    }
+
+    private MenuItem menuItem(String name) {
+        MenuItem item = new MenuItem();
+        item.setName(name);
+        item.setPrice(Money.valueOf("60.00"));
+        item.setMealType(MenuItem.MealType.LUNCH);
+        item.setCategory(MenuItem.FoodCategory.CURRY);
+        entityManager.persist(item);
+        return item;
+    }
+
+    private FeedbackIngestionService service(int bufferCapacity, int batchSize) {
+        return new FeedbackIngestionService(jdbcTemplate, transactionManager, searchIndex,
+                new FeedbackAnalyticsService(feedbackRepository, 64, 366),
+                new DashboardCounters(jdbcTemplate, meterRegistry), new IdGenerator(1L),
+                new UserPrincipalCache(userRepository, meterRegistry, 300, 100),
+                new MenuItemRatingService(jdbcTemplate, transactionManager, 50), meterRegistry,
+                bufferCapacity, batchSize, 50, 5000);
+    }
+
+    private static FeedbackIngestionService.PendingFeedback pending(String key, long studentId, LocalDateTime createdAt) {
+        return new FeedbackIngestionService.PendingFeedback(key, studentId, Feedback.FeedbackType.FOOD_QUALITY, 2,
+                "cold dal", createdAt, null, createdAt.toLocalDate(), List.of());
+    }
+}
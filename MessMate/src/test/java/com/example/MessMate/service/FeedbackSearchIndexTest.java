@@ -0,0 +1,65 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.Feedback;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeedbackSearchIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Test
+    void testSearch_ShouldMatchAllTermsAcrossStemmedForms() {
+        FeedbackSearchIndex index = new FeedbackSearchIndex(null);
+        index.apply(doc(1, Feedback.FeedbackType.FOOD_QUALITY, Feedback.FeedbackStatus.PENDING, 2,
+                "The rice was served cold", null, 1));
+        index.apply(doc(2, Feedback.FeedbackType.FOOD_QUALITY, Feedback.FeedbackStatus.PENDING, 4,
+                "Cold drinks are great", null, 2));
+        index.apply(doc(3, Feedback.FeedbackType.SERVICE, Feedback.FeedbackStatus.REVIEWED, 3,
+                "Serving staff were slow", "We are serving rice faster now", 3));
+
+        assertThat(index.search("serve rice", null, null, null, 10).feedbackIds()).containsExactly(3L, 1L);
+        assertThat(index.search("COLD", null, null, null, 10).feedbackIds()).containsExactly(2L, 1L);
+        assertThat(index.search("cold pizza", null, null, null, 10).total()).isZero();
+    }
+
+    @Test
+    void testSearch_ShouldApplyFiltersAndKeepNewestWithinLimit() {
+        FeedbackSearchIndex index = new FeedbackSearchIndex(null);
+        for (int i = 1; i <= 50; i++) {
+            index.apply(doc(i, i % 2 == 0 ? Feedback.FeedbackType.COMPLAINT : Feedback.FeedbackType.GENERAL,
+                    Feedback.FeedbackStatus.PENDING, i % 5 + 1, "noisy mess hall " + i, null, i));
+        }
+
+        FeedbackSearchIndex.SearchHits hits = index.search("noisy", Feedback.FeedbackType.COMPLAINT, null, null, 3);
+        assertThat(hits.total()).isEqualTo(25);
+        assertThat(hits.feedbackIds()).containsExactly(50L, 48L, 46L);
+
+        hits = index.search(null, Feedback.FeedbackType.COMPLAINT, Feedback.FeedbackStatus.PENDING, 1, 100);
+        assertThat(hits.feedbackIds()).containsExactly(50L, 40L, 30L, 20L, 10L);
+    }
+
+    @Test
+    void testApply_ShouldReindexUpdatesAndDropDeletedFeedback() {
+        FeedbackSearchIndex index = new FeedbackSearchIndex(null);
+        index.apply(doc(1, Feedback.FeedbackType.GENERAL, Feedback.FeedbackStatus.PENDING, 3, "Water cooler broken", null, 1));
+        index.apply(doc(2, Feedback.FeedbackType.GENERAL, Feedback.FeedbackStatus.PENDING, 3, "Water is warm", null, 2));
+
+        index.apply(doc(1, Feedback.FeedbackType.GENERAL, Feedback.FeedbackStatus.RESOLVED, 3,
+                "Water cooler broken", "Replaced the cooler", 1));
+        assertThat(index.search("replaced", null, null, null, 10).feedbackIds()).containsExactly(1L);
+        assertThat(index.search("water", null, Feedback.FeedbackStatus.PENDING, null, 10).feedbackIds()).containsExactly(2L);
+
+        index.apply(2L);
+        assertThat(index.search("water", null, null, null, 10).feedbackIds()).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    private static FeedbackSearchIndex.Document doc(long id, Feedback.FeedbackType type, Feedback.FeedbackStatus status,
+                                                    int rating, String message, String reply, int minutes) {
+        return new FeedbackSearchIndex.Document(id, type, status, rating, message, reply, BASE.plusMinutes(minutes));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.HostelSummary;
+import com.example.MessMate.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class HostelRosterIndexTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private HostelRosterIndex index;
+    private User a101;
+    private User a102;
+    private User a101Second;
+    private User inactive;
+
+    @BeforeEach
+    void setUp() {
+        index = new HostelRosterIndex(jdbcTemplate);
+
+        a102 = entityManager.persist(student("a102@test.com", "Hostel A", "102", true));
+        a101 = entityManager.persist(student("a101@test.com", "Hostel A", "101", true));
+        a101Second = entityManager.persist(student("a101b@test.com", "Hostel A", "101", true));
+        inactive = entityManager.persist(student("gone@test.com", "Hostel A", "103", false));
+        entityManager.persist(student("b201@test.com", "Hostel B", "201", true));
+
+        User staff = student("staff@test.com", "Hostel A", "S1", true);
+        staff.setUserType(User.UserType.STAFF);
+        entityManager.persist(staff);
+        entityManager.flush();
+    }
+
+    @Test
+    void testSummaries_ShouldCountStudentsPerHostelFromOneScan() {
+        List<HostelSummary> summaries = index.summaries();
+
+        assertThat(summaries).extracting(HostelSummary::getHostel).containsExactly("Hostel A", "Hostel B");
+        HostelSummary hostelA = summaries.get(0);
+        assertThat(hostelA.getTotalStudents()).isEqualTo(4);
+        assertThat(hostelA.getActiveStudents()).isEqualTo(3);
+        assertThat(hostelA.getOccupiedRooms()).isEqualTo(2);
+
+        assertThat(index.summary("Hostel A").getActiveByRoom()).containsExactly(
+                Map.entry("101", 2), Map.entry("102", 1));
+        assertThat(index.summary("Hostel Z")).isNull();
+        assertThat(index.totalStudents("Hostel B")).isEqualTo(1);
+    }
+
+    @Test
+    void testRoster_ShouldPageActiveStudentsByRoomThenId() {
+        HostelRosterIndex.RosterPage first = index.roster("Hostel A", 0, 2);
+        HostelRosterIndex.RosterPage second = index.roster("Hostel A", 1, 2);
+
+        assertThat(first.studentIds()).containsExactly(a101.getId(), a101Second.getId());
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.studentIds()).containsExactly(a102.getId());
+        assertThat(second.hasNext()).isFalse();
+        assertThat(index.roster("Hostel Z", 0, 10).studentIds()).isEmpty();
+    }
+
+    @Test
+    void testApply_ShouldFollowActivationAndRoomChanges() {
+        index.summaries();
+
+        index.apply(new HostelRosterIndex.Placement(a101.getId(), "Hostel A", "101", false));
+        index.apply(new HostelRosterIndex.Placement(inactive.getId(), "Hostel A", "103", true));
+        index.apply(new HostelRosterIndex.Placement(a102.getId(), "Hostel B", "202", true));
+        // Replayed placements are idempotent
+        index.apply(new HostelRosterIndex.Placement(a102.getId(), "Hostel B", "202", true));
+
+        HostelSummary hostelA = index.summary("Hostel A");
+        assertThat(hostelA.getTotalStudents()).isEqualTo(3);
+        assertThat(hostelA.getActiveStudents()).isEqualTo(2);
+        assertThat(hostelA.getActiveByRoom()).containsOnlyKeys("101", "103");
+        assertThat(index.roster("Hostel A", 0, 10).studentIds()).containsExactly(a101Second.getId(), inactive.getId());
+        assertThat(index.summary("Hostel B").getActiveStudents()).isEqualTo(2);
+    }
+
+    private static User student(String email, String hostel, String room, boolean active) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setPassword("password123");
+        user.setUserType(User.UserType.STUDENT);
+        user.setHostel(hostel);
+        user.setRoom(room);
+        user.setActive(active);
+        return user;
+    }
+}
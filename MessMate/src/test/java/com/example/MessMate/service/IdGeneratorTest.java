@@ -0,0 +1,96 @@
+package com.example.MessMate.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdGeneratorTest {
+
+    @Test
+    void testNextKey_ShouldBeUniqueAndIncreasingAcrossThreads() throws Exception {
+        IdGenerator generator = new IdGenerator(7L, System::currentTimeMillis);
+        int threads = 8;
+        int perThread = 50_000;
+        Set<String> keys = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    String previous = "";
+                    boolean increasing = true;
+                    for (int i = 0; i < perThread; i++) {
+                        String key = generator.nextKey("TXN");
+                        increasing &= key.compareTo(previous) > 0;
+                        keys.add(key);
+                        previous = key;
+                    }
+                    return increasing;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isTrue();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(keys).hasSize(threads * perThread);
+        assertThat(keys).allSatisfy(key -> assertThat(key).hasSize(16).startsWith("TXN"));
+    }
+
+    @Test
+    void testNextId_ShouldStayIncreasingWhenClockStepsBack() {
+        AtomicLong now = new AtomicLong(IdGenerator.EPOCH_MILLIS + 10_000);
+        IdGenerator generator = new IdGenerator(1L, now::get);
+
+        long first = generator.nextId();
+        now.addAndGet(-5_000);
+        long second = generator.nextId();
+
+        assertThat(second).isGreaterThan(first);
+    }
+
+    @Test
+    void testNextId_ShouldCarryIntoNextMillisecondWhenSequenceRunsOut() {
+        IdGenerator generator = new IdGenerator(3L, () -> IdGenerator.EPOCH_MILLIS + 1_000);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < IdGenerator.SEQUENCE_MASK + 10; i++) {
+            long next = generator.nextId();
+            assertThat(next).isGreaterThan(previous);
+            assertThat((next >>> IdGenerator.SEQUENCE_BITS) & IdGenerator.MAX_NODE_ID).isEqualTo(3L);
+            previous = next;
+        }
+    }
+
+    @Test
+    void testConstructor_ShouldRequireConfiguredNodeId() {
+        assertThatThrownBy(() -> new IdGenerator(-1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("app.ids.node-id is not set");
+        assertThat(new IdGenerator(1023L).getNodeId()).isEqualTo(1023L);
+    }
+
+    @Test
+    void testEncode_ShouldPreserveNumericOrder() {
+        assertThat(IdGenerator.encode("MP", 31L)).isEqualTo("MP000000000000Z");
+        assertThat(IdGenerator.encode("MP", 32L).compareTo(IdGenerator.encode("MP", 31L))).isPositive();
+        assertThat(IdGenerator.encode("MP", Long.MAX_VALUE).compareTo(IdGenerator.encode("MP", Long.MAX_VALUE - 1))).isPositive();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.JobLease;
+import com.example.MessMate.entity.Student;
+import com.example.MessMate.entity.User;
+import com.example.MessMate.repository.JobLeaseRepository;
+import com.example.MessMate.repository.StudentRepository;
+import com.example.MessMate.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class IdentityBackfillServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private JobLeaseService jobLeaseService;
+    private IdentityBackfillService backfillService;
+
+    @BeforeEach
+    void setUp() {
+        jobLeaseService = new JobLeaseService(jdbcTemplate, jobLeaseRepository);
+        backfillService = new IdentityBackfillService(jdbcTemplate, transactionManager, jobLeaseService,
+                new DashboardCounters(jdbcTemplate, new SimpleMeterRegistry()), new HostelRosterIndex(jdbcTemplate),
+                2, false);
+    }
+
+    @Test
+    void testRun_ShouldMigrateLinkAndSkipThenResumeAfterLastStudent() {
+        User copied = new User();
+        copied.setName("Copied Earlier");
+        copied.setEmail("copied@example.com");
+        copied.setPassword("x");
+        copied.setUserType(User.UserType.STUDENT);
+        copied.setRollNumber("R002");
+        userRepository.saveAndFlush(copied);
+        User other = new User();
+        other.setName("Other");
+        other.setEmail("other@example.com");
+        other.setPassword("x");
+        other.setUserType(User.UserType.STUDENT);
+        other.setRollNumber("R003");
+        userRepository.saveAndFlush(other);
+
+        Student fresh = student("fresh@example.com", "R001", false);
+        Student linked = student("copied@example.com", "R002", true);
+        student("clash@example.com", "R003", true);
+
+        runBackfill();
+
+        User migrated = userRepository.findByEmail("fresh@example.com").orElseThrow();
+        assertThat(migrated.getUserType()).isEqualTo(User.UserType.STUDENT);
+        assertThat(migrated.getStudentId()).isEqualTo(fresh.getId());
+        assertThat(migrated.getActive()).isFalse();
+        assertThat(userRepository.findByEmail("copied@example.com").orElseThrow().getStudentId()).isEqualTo(linked.getId());
+        assertThat(userRepository.findByEmail("clash@example.com")).isEmpty();
+        JobLease job = jobLeaseService.getJob(IdentityBackfillService.BACKFILL_JOB).orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(JobLease.JobStatus.COMPLETED);
+        assertThat(job.getMessage()).isEqualTo(
+                "Migrated 1 students, linked 1 existing accounts, skipped 1 with a roll number owned by another account");
+
+        student("late@example.com", "R004", true);
+        runBackfill();
+
+        assertThat(userRepository.findByEmail("late@example.com")).isPresent();
+        assertThat(userRepository.findByEmail("clash@example.com")).isEmpty();
+        assertThat(userRepository.count()).isEqualTo(4);
+    }
+
+    private void runBackfill() {
+        assertThat(jobLeaseService.tryAcquire(IdentityBackfillService.BACKFILL_JOB, Duration.ofMinutes(1))).isTrue();
+        backfillService.run();
+        // The job writes with JDBC; drop cached entities so the assertions read fresh rows
+        entityManager.clear();
+    }
+
+    private Student student(String email, String rollNumber, boolean active) {
+        return studentRepository.saveAndFlush(
+                new Student(null, "Student " + rollNumber, email, "hash", rollNumber, "A", "101", "9000000000", active, null, null));
+    }
+}
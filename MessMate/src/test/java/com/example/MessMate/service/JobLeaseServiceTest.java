@@ -0,0 +1,77 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.JobLease;
+import com.example.MessMate.repository.JobLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class JobLeaseServiceTest {
+
+    private static final String JOB = "test-job";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    private JobLeaseService node;
+    private JobLeaseService otherNode;
+
+    @BeforeEach
+    void setUp() {
+        node = new JobLeaseService(jdbcTemplate, jobLeaseRepository);
+        otherNode = new JobLeaseService(jdbcTemplate, jobLeaseRepository);
+    }
+
+    @Test
+    void testTryAcquire_ShouldRejectEveryNodeWhileTheJobIsRunning() {
+        assertThat(node.tryAcquire(JOB, Duration.ofMinutes(5))).isTrue();
+        assertThat(node.reportProgress(JOB, 10, 100, Duration.ofMinutes(5))).isTrue();
+
+        assertThat(otherNode.tryAcquire(JOB, Duration.ofMinutes(5))).isFalse();
+        assertThat(node.tryAcquire(JOB, Duration.ofMinutes(5))).isFalse();
+
+        JobLease job = node.getJob(JOB).orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(JobLease.JobStatus.RUNNING);
+        assertThat(job.getProcessed()).isEqualTo(10);
+    }
+
+    @Test
+    void testTryAcquire_ShouldAllowNextRunOnceFinished() {
+        assertThat(node.tryAcquire(JOB, Duration.ofMinutes(5))).isTrue();
+        node.complete(JOB, 100, "done");
+
+        assertThat(otherNode.tryAcquire(JOB, Duration.ofMinutes(5))).isTrue();
+        JobLease job = otherNode.getJob(JOB).orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(JobLease.JobStatus.RUNNING);
+        assertThat(job.getProcessed()).isZero();
+        assertThat(job.getMessage()).isNull();
+
+        otherNode.fail(JOB, 3, "boom");
+        assertThat(node.tryAcquire(JOB, Duration.ofMinutes(5))).isTrue();
+    }
+
+    @Test
+    void testTryAcquire_ShouldTakeOverExpiredLeaseAndFenceOldOwner() {
+        assertThat(node.tryAcquire(JOB, Duration.ofMinutes(5))).isTrue();
+        jdbcTemplate.update("UPDATE job_leases SET lease_until = ? WHERE name = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), JOB);
+
+        assertThat(otherNode.tryAcquire(JOB, Duration.ofMinutes(5))).isTrue();
+
+        assertThat(node.reportProgress(JOB, 50, 100, Duration.ofMinutes(5))).isFalse();
+        node.complete(JOB, 50, "stale");
+        assertThat(otherNode.getJob(JOB).orElseThrow().getStatus()).isEqualTo(JobLease.JobStatus.RUNNING);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.Money;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalPaymentGatewayTest {
+
+    private final LocalPaymentGateway gateway = new LocalPaymentGateway("test-secret");
+
+    @Test
+    void testVerifySignature_ShouldAcceptOwnSignature() {
+        String body = gateway.callbackBody("evt-1", "TXN123", true, Money.valueOf("150.00"));
+
+        assertThat(gateway.verifySignature(body, gateway.sign(body))).isTrue();
+        assertThat(body).contains("\"amount\":150.00");
+    }
+
+    @Test
+    void testVerifySignature_ShouldRejectTamperedBodyOrForeignSecret() {
+        String body = gateway.callbackBody("evt-1", "TXN123", true, Money.valueOf("150.00"));
+        String signature = gateway.sign(body);
+
+        assertThat(gateway.verifySignature(body.replace("150.00", "1500.00"), signature)).isFalse();
+        assertThat(new LocalPaymentGateway("other-secret").verifySignature(body, signature)).isFalse();
+        assertThat(gateway.verifySignature(body, null)).isFalse();
+    }
+
+    @Test
+    void testConstructor_ShouldRejectBlankSecret() {
+        assertThatThrownBy(() -> new LocalPaymentGateway(" "))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("PAYMENT_WEBHOOK_SECRET");
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.MenuItemRatingSummary;
+import com.example.MessMate.entity.Money;
+import com.example.MessMate.entity.MenuItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class MenuItemRatingServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MenuItemRatingService ratingService;
+    private MenuItem dal;
+    private MenuItem paneer;
+
+    @BeforeEach
+    void setUp() {
+        ratingService = new MenuItemRatingService(jdbcTemplate, transactionManager, 3);
+        dal = menuItem("Dal Makhani");
+        paneer = menuItem("Paneer Butter Masala");
+    }
+
+    @Test
+    void testRank_ShouldOrderByAverageAndSkipItemsWithTooFewRatings() {
+        LocalDate day = LocalDate.of(2032, 1, 10);
+        ratingService.recordRating(List.of(dal.getId(), paneer.getId()), day, 4);
+        ratingService.recordRating(List.of(dal.getId()), day, 2);
+        ratingService.recordRating(List.of(paneer.getId()), day.plusDays(1), 5);
+
+        List<MenuItemRatingSummary> best = ratingService.rank(null, null, MenuItemRatingService.Order.BEST, 2, 10);
+        assertThat(best).extracting(MenuItemRatingSummary::getName)
+                .containsExactly("Paneer Butter Masala", "Dal Makhani");
+        assertThat(best.get(0).getAverageRating()).isEqualTo(4.5);
+        assertThat(best.get(1).getStandardDeviation()).isEqualTo(1.0);
+
+        List<MenuItemRatingSummary> firstDay = ratingService.rank(day, day, MenuItemRatingService.Order.WORST, 1, 1);
+        assertThat(firstDay).singleElement().satisfies(summary -> {
+            assertThat(summary.getName()).isEqualTo("Dal Makhani");
+            assertThat(summary.getRatingCount()).isEqualTo(2);
+            assertThat(summary.getAverageRating()).isEqualTo(3.0);
+        });
+    }
+
+    @Test
+    void testRankRecent_ShouldOnlyCountTheLastRatingsAndRemovalShouldCorrectTotals() {
+        LocalDate day = LocalDate.of(2032, 2, 10);
+        for (int rating : new int[]{1, 1, 5, 5, 5}) {
+            ratingService.recordRating(List.of(dal.getId()), day, rating);
+        }
+        ratingService.recordRating(List.of(paneer.getId()), day, 4);
+        ratingService.recordRating(List.of(paneer.getId()), day, 4);
+        ratingService.recordRating(List.of(paneer.getId()), day, 4);
+
+        assertThat(ratingService.rankRecent(MenuItemRatingService.Order.BEST, 3, 10))
+                .extracting(MenuItemRatingSummary::getName)
+                .containsExactly("Dal Makhani", "Paneer Butter Masala");
+
+        ratingService.removeRating(List.of(dal.getId()), day, 1);
+        MenuItemRatingSummary allTime = ratingService.rank(day, day, MenuItemRatingService.Order.BEST, 1, 10).stream()
+                .filter(summary -> summary.getMenuItemId().equals(dal.getId()))
+                .findFirst().orElseThrow();
+        assertThat(allTime.getRatingCount()).isEqualTo(4);
+        assertThat(allTime.getAverageRating()).isEqualTo(4.0);
+    }
+
+    private MenuItem menuItem(String name) {
+        MenuItem item = new MenuItem();
+        item.setName(name);
+        item.setPrice(Money.valueOf("60.00"));
+        item.setMealType(MenuItem.MealType.LUNCH);
+        item.setCategory(MenuItem.FoodCategory.CURRY);
+        return entityManager.persistAndFlush(item);
+    }
+}
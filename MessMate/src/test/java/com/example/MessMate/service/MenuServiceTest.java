@@ -0,0 +1,97 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.controller.MenuController;
+import com.example.MessMate.dto.ConsumptionEvent;
+import com.example.MessMate.entity.DailyMenu;
+import com.example.MessMate.entity.MenuItem;
+import com.example.MessMate.repository.DailyMenuRepository;
+import com.example.MessMate.repository.MealBookingRepository;
+import com.example.MessMate.repository.MealConsumptionRepository;
+import com.example.MessMate.repository.MenuItemRepository;
+import com.example.MessMate.repository.MessPassRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+class MenuServiceTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private DailyMenuRepository dailyMenuRepository;
+
+    @Autowired
+    private MealBookingRepository mealBookingRepository;
+
+    @Autowired
+    private MealConsumptionRepository mealConsumptionRepository;
+
+    @Autowired
+    private MessPassRepository messPassRepository;
+
+    private ConsumptionJournal journal;
+    private MenuService menuService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        journal = new ConsumptionJournal(true, journalDir.toString(), 64 * 1024, 1);
+        journal.open();
+        menuService = new MenuService(menuItemRepository, dailyMenuRepository, mealBookingRepository,
+                mealConsumptionRepository, messPassRepository, journal);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journal.close();
+    }
+
+    @Test
+    void testJournalMealBooking_ShouldAppendBookingForExistingMenu() throws Exception {
+        DailyMenu menu = new DailyMenu();
+        menu.setMenuDate(LocalDate.of(2026, 10, 19));
+        menu.setMealType(MenuItem.MealType.LUNCH);
+        entityManager.persistAndFlush(menu);
+
+        menuService.journalMealBooking(bookRequest(menu.getId(), 2));
+
+        ConsumptionJournal.ReadResult result = journal.read(journal.startPosition(null), 10);
+        assertThat(result.events()).extracting(ConsumptionEvent::getDailyMenuId).containsExactly(menu.getId());
+    }
+
+    @Test
+    void testJournalMealBooking_ShouldRejectUnknownMenuWithoutAppending() throws Exception {
+        assertThatThrownBy(() -> menuService.journalMealBooking(bookRequest(999L, 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Daily menu not found with ID: 999");
+        assertThatThrownBy(() -> menuService.journalMealConsumption(998L, 999L, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Mess pass not found with ID: 998");
+
+        assertThat(journal.read(journal.startPosition(null), 10).events()).isEmpty();
+    }
+
+    private static MenuController.BookMealRequest bookRequest(Long dailyMenuId, int quantity) {
+        MenuController.BookMealRequest request = new MenuController.BookMealRequest();
+        request.setDailyMenuId(dailyMenuId);
+        request.setQuantity(quantity);
+        return request;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.PassRenewalRequest;
+import com.example.MessMate.entity.JobLease;
+import com.example.MessMate.entity.MessPass;
+import com.example.MessMate.entity.Money;
+import com.example.MessMate.entity.User;
+import com.example.MessMate.repository.JobLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The renewal writes chunks from worker threads in their own transactions, so fixtures are committed
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MessPassJobServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    private JobLeaseService jobLeaseService;
+    private MessPassJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        jobLeaseService = new JobLeaseService(jdbcTemplate, jobLeaseRepository);
+        // Chunks of two, so five passes take three chunks
+        jobService = new MessPassJobService(jdbcTemplate, transactionManager, jobLeaseService, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+        jdbcTemplate.update("DELETE FROM balance_adjustments");
+        jdbcTemplate.update("DELETE FROM mess_passes");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("DELETE FROM job_leases");
+    }
+
+    @Test
+    void testRunExpiry_ShouldDeactivateOverduePassesInChunks() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 5; i++) {
+            pass("expired" + i, MessPass.PassType.MONTHLY, today.minusDays(1 + i), Money.ofRupees(10), true);
+        }
+        pass("current", MessPass.PassType.MONTHLY, today, Money.ofRupees(10), true);
+
+        assertThat(jobLeaseService.tryAcquire(MessPassJobService.EXPIRY_JOB, Duration.ofMinutes(1))).isTrue();
+        jobService.runExpiry();
+
+        assertThat(activePasses()).isEqualTo(1);
+        JobLease job = jobLeaseService.getJob(MessPassJobService.EXPIRY_JOB).orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(JobLease.JobStatus.COMPLETED);
+        assertThat(job.getProcessed()).isEqualTo(5);
+        assertThat(job.getTotal()).isEqualTo(5);
+    }
+
+    @Test
+    void testRunExpiry_ShouldMarkPassesAsExpired() {
+        pass("expired", MessPass.PassType.MONTHLY, LocalDate.now().minusDays(1), Money.ofRupees(10), true);
+
+        assertThat(jobLeaseService.tryAcquire(MessPassJobService.EXPIRY_JOB, Duration.ofMinutes(1))).isTrue();
+        jobService.runExpiry();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT deactivation_reason FROM mess_passes WHERE pass_number = 'expired'", String.class))
+                .isEqualTo("EXPIRED");
+    }
+
+    @Test
+    void testRunRenewal_ShouldRollOverMatchingPassesCapBalanceAndSkipOnRerun() {
+        LocalDate cutoff = LocalDate.of(2026, 6, 30);
+        pass("semester0", MessPass.PassType.SEMESTER, cutoff, Money.ofRupees(0), true, null);
+        pass("semester1", MessPass.PassType.SEMESTER, cutoff.minusDays(1), Money.ofRupees(100), false,
+                MessPass.DeactivationReason.EXPIRED);
+        pass("semester2", MessPass.PassType.SEMESTER, cutoff.minusDays(2), Money.ofRupees(200), true, null);
+        pass("semester3", MessPass.PassType.SEMESTER, cutoff.minusDays(3), Money.ofRupees(300), false,
+                MessPass.DeactivationReason.ADMIN);
+        pass("semester4", MessPass.PassType.SEMESTER, cutoff.minusDays(4), Money.ofRupees(400), true, null);
+        pass("alumnus", MessPass.PassType.SEMESTER, LocalDate.of(2023, 6, 30), Money.ofRupees(500), false,
+                MessPass.DeactivationReason.EXPIRED);
+        pass("later", MessPass.PassType.SEMESTER, cutoff.plusDays(1), Money.ofRupees(500), true);
+        pass("monthly", MessPass.PassType.MONTHLY, cutoff, Money.ofRupees(500), true);
+
+        PassRenewalRequest request = new PassRenewalRequest();
+        request.setPassType(MessPass.PassType.SEMESTER);
+        request.setExpiringOnOrAfter(LocalDate.of(2026, 1, 1));
+        request.setExpiringOnOrBefore(cutoff);
+        request.setNewValidFrom(LocalDate.of(2026, 7, 1));
+        request.setNewValidUntil(LocalDate.of(2026, 12, 31));
+        request.setMaxCarryOverBalance(Money.ofRupees(250));
+
+        assertThat(jobLeaseService.tryAcquire(MessPassJobService.RENEWAL_JOB, Duration.ofMinutes(1))).isTrue();
+        jobService.runRenewal(request);
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM mess_passes WHERE valid_until = ? AND is_active = TRUE",
+                Long.class, request.getNewValidUntil())).isEqualTo(4);
+        // The admin-deactivated pass and the pass from an earlier term are left alone
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT pass_number FROM mess_passes WHERE valid_until <> ? AND pass_type = 'SEMESTER' ORDER BY pass_number",
+                String.class, request.getNewValidUntil()))
+                .containsExactly("alumnus", "later", "semester3");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT is_active FROM mess_passes WHERE pass_number = 'semester3'", Boolean.class)).isFalse();
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT balance FROM mess_passes WHERE pass_number LIKE 'semester%' ORDER BY pass_number", Long.class))
+                .containsExactly(0L, 10000L, 20000L, 30000L, 25000L);
+        // What the cap took off is recorded so reconciliation can account for it
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT a.amount FROM balance_adjustments a JOIN mess_passes m ON m.id = a.mess_pass_id " +
+                "WHERE a.reason = 'CARRY_OVER_CAP' ORDER BY m.pass_number", Long.class))
+                .containsExactly(-15000L);
+        assertThat(jobLeaseService.getJob(MessPassJobService.RENEWAL_JOB).orElseThrow().getProcessed()).isEqualTo(4);
+
+        assertThat(jobLeaseService.tryAcquire(MessPassJobService.RENEWAL_JOB, Duration.ofMinutes(1))).isTrue();
+        jobService.runRenewal(request);
+
+        JobLease rerun = jobLeaseService.getJob(MessPassJobService.RENEWAL_JOB).orElseThrow();
+        assertThat(rerun.getStatus()).isEqualTo(JobLease.JobStatus.COMPLETED);
+        assertThat(rerun.getProcessed()).isZero();
+    }
+
+    @Test
+    void testStartExpiry_ShouldRefuseSecondStartWhileRunning() {
+        assertThat(jobLeaseService.tryAcquire(MessPassJobService.EXPIRY_JOB, Duration.ofMinutes(1))).isTrue();
+
+        assertThat(jobService.startExpiry()).isFalse();
+    }
+
+    private long activePasses() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mess_passes WHERE is_active = TRUE", Long.class);
+    }
+
+    private void pass(String name, MessPass.PassType type, LocalDate validUntil, Money balance, boolean active) {
+        pass(name, type, validUntil, balance, active, null);
+    }
+
+    private void pass(String name, MessPass.PassType type, LocalDate validUntil, Money balance, boolean active,
+                      MessPass.DeactivationReason deactivationReason) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User user = new User();
+            user.setName(name);
+            user.setEmail(name + "@test.com");
+            user.setPassword("x");
+            user.setUserType(User.UserType.STUDENT);
+            entityManager.persist(user);
+
+            MessPass pass = new MessPass();
+            pass.setUser(user);
+            pass.setPassNumber(name);
+            pass.setPassType(type);
+            pass.setValidFrom(validUntil.minusMonths(1));
+            pass.setValidUntil(validUntil);
+            pass.setBalance(balance);
+            pass.setIsActive(active);
+            pass.setDeactivationReason(deactivationReason);
+            entityManager.persist(pass);
+        });
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.OrderRequest;
+import com.example.MessMate.entity.MealOrder;
+import com.example.MessMate.entity.MenuItem;
+import com.example.MessMate.entity.MessPass;
+import com.example.MessMate.entity.Money;
+import com.example.MessMate.entity.User;
+import com.example.MessMate.repository.MealOrderRepository;
+import com.example.MessMate.repository.MenuItemRepository;
+import com.example.MessMate.repository.MessPassRepository;
+import com.example.MessMate.repository.PaymentRepository;
+import com.example.MessMate.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Refunds are drained on worker threads in their own transactions, so fixtures are committed
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderRefundServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MealOrderRepository mealOrderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private MessPassRepository messPassRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private TransactionTemplate transactionTemplate;
+    private OrderRefundService refundService;
+    private PaymentService paymentService;
+    private OrderService orderService;
+    private Long thaliId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        IdGenerator idGenerator = new IdGenerator(1L);
+        PaymentRollupService rollupService = new PaymentRollupService(jdbcTemplate, transactionManager, null, 31, 1);
+        refundService = new OrderRefundService(jdbcTemplate, transactionManager, idGenerator, rollupService,
+                new SimpleMeterRegistry(), false, 2, 2);
+        MessPassService messPassService = new MessPassService(messPassRepository, idGenerator);
+        paymentService = new PaymentService(paymentRepository, idGenerator, messPassService,
+                new LocalPaymentGateway("secret"), transactionTemplate, rollupService);
+        orderService = new OrderService(mealOrderRepository, userRepository, menuItemRepository, refundService,
+                jdbcTemplate, new DashboardCounters(jdbcTemplate, new SimpleMeterRegistry()));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            MenuItem thali = new MenuItem();
+            thali.setName("Veg Thali");
+            thali.setPrice(Money.ofPaise(4550));
+            thali.setMealType(MenuItem.MealType.LUNCH);
+            thali.setCategory(MenuItem.FoodCategory.MAIN_COURSE);
+            entityManager.persist(thali);
+            thaliId = thali.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        refundService.shutdown();
+        jdbcTemplate.update("DELETE FROM refund_queue");
+        jdbcTemplate.update("DELETE FROM payment_daily_rollup");
+        jdbcTemplate.update("DELETE FROM payments");
+        jdbcTemplate.update("DELETE FROM order_menu_items");
+        jdbcTemplate.update("DELETE FROM meal_orders");
+        jdbcTemplate.update("DELETE FROM menu_items");
+        jdbcTemplate.update("DELETE FROM mess_passes");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void testCancelOrder_ShouldRefundThePassPaymentOnceEvenWhenCancelledAgain() {
+        long passId = student("paid", Money.ofRupees(100));
+        MealOrder order = place("paid");
+        pay(passId, order);
+        assertThat(balance(passId)).isEqualTo(5450L);
+
+        transactionTemplate.executeWithoutResult(status -> orderService.cancelOrder(order.getId()));
+        assertThat(refundService.drain()).isEqualTo(1);
+        assertThat(balance(passId)).isEqualTo(10000L);
+        assertThat(jdbcTemplate.queryForList("SELECT amount FROM payments WHERE payment_type = 'REFUND' AND mess_pass_id = ?",
+                Long.class, passId)).containsExactly(4550L);
+
+        // Reopened by staff and cancelled again: no second refund, and no clash on the queue's order_id
+        transactionTemplate.executeWithoutResult(status -> orderService.updateOrderStatus(order.getId(), MealOrder.OrderStatus.PENDING));
+        transactionTemplate.executeWithoutResult(status -> orderService.cancelOrder(order.getId()));
+        assertThat(refundService.drain()).isZero();
+        assertThat(balance(passId)).isEqualTo(10000L);
+        assertThat(count("SELECT COUNT(*) FROM refund_queue")).isEqualTo(1);
+    }
+
+    @Test
+    void testCancelMealOrders_ShouldQueueRefundsOnlyForOrdersPaidFromAPass() {
+        long passId = student("paid", Money.ofRupees(100));
+        student("counter", null);
+        pay(passId, place("paid"));
+        pay(passId, place("paid"));
+        // Placed by a pass holder but never paid for, and placed by a student without a pass
+        place("paid");
+        place("counter");
+        assertThat(balance(passId)).isEqualTo(900L);
+
+        Integer cancelled = transactionTemplate.execute(status -> orderService.cancelMealOrders(MenuItem.MealType.LUNCH, LocalDate.now()));
+
+        assertThat(cancelled).isEqualTo(4);
+        assertThat(refundService.drain()).isEqualTo(2);
+        assertThat(balance(passId)).isEqualTo(10000L);
+        assertThat(jdbcTemplate.queryForList("SELECT status FROM refund_queue", String.class)).containsExactly("REFUNDED", "REFUNDED");
+        assertThat(count("SELECT COUNT(*) FROM payments WHERE payment_type = 'REFUND'")).isEqualTo(2);
+    }
+
+    private MealOrder place(String name) {
+        OrderRequest request = new OrderRequest();
+        request.setUserEmail(name + "@test.com");
+        request.setMenuItemIds(List.of(thaliId));
+        request.setMealType(MenuItem.MealType.LUNCH);
+        return transactionTemplate.execute(status -> orderService.createOrderFromRequest(request));
+    }
+
+    private void pay(long passId, MealOrder order) {
+        paymentService.processMealPayment(passId, order.getTotalAmount(), "Meal order #" + order.getId(), order.getId());
+    }
+
+    // Creates a student, with a mess pass holding the balance unless it is null; returns the pass id
+    private long student(String name, Money balance) {
+        Long passId = transactionTemplate.execute(status -> {
+            User user = new User();
+            user.setName(name);
+            user.setEmail(name + "@test.com");
+            user.setPassword("x");
+            user.setUserType(User.UserType.STUDENT);
+            entityManager.persist(user);
+            if (balance == null) {
+                return -1L;
+            }
+
+            MessPass pass = new MessPass();
+            pass.setUser(user);
+            pass.setPassNumber(name);
+            pass.setPassType(MessPass.PassType.MONTHLY);
+            pass.setValidFrom(LocalDate.now().minusDays(1));
+            pass.setValidUntil(LocalDate.now().plusDays(30));
+            pass.setBalance(balance);
+            entityManager.persist(pass);
+            return pass.getId();
+        });
+        return passId;
+    }
+
+    private long balance(long passId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM mess_passes WHERE id = ?", Long.class, passId);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
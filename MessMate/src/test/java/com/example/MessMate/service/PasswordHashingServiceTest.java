@@ -0,0 +1,38 @@
+package com.example.MessMate.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingService hashing = new PasswordHashingService(meterRegistry, 1, 4, 5, 250, 10, 14, 5000);
+
+    @AfterEach
+    void shutdown() {
+        hashing.shutdown();
+    }
+
+    @Test
+    void testEncodeAndMatch_ShouldRunOnPoolAndRecordTime() {
+        String hash = hashing.encode("secret");
+
+        assertThat(PasswordHashingService.costOf(hash)).isEqualTo(5);
+        assertThat(hashing.matches("secret", hash)).isTrue();
+        assertThat(hashing.matches("wrong", hash)).isFalse();
+        assertThat(hashing.matches("secret", null)).isFalse();
+        assertThat(meterRegistry.get("messmate.passwords.hash").tag("operation", "match").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testUpgradeEncoding_ShouldOnlyFlagWeakerHashes() {
+        assertThat(hashing.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(hashing.upgradeEncoding(hashing.encode("secret"))).isFalse();
+        assertThat(hashing.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"))).isFalse();
+        assertThat(hashing.upgradeEncoding("plain-text")).isFalse();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.Money;
+import com.example.MessMate.entity.Payment;
+import com.example.MessMate.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class PaymentReportServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private PaymentReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        reportService = new PaymentReportService(jdbcTemplate, transactionManager, 2);
+
+        User student = new User();
+        student.setName("Test Student");
+        student.setEmail("student@test.com");
+        student.setPassword("password123");
+        student.setUserType(User.UserType.STUDENT);
+        entityManager.persist(student);
+
+        entityManager.persist(payment(student, "TXN1", "150.00", Payment.PaymentType.MESS_PASS_RECHARGE));
+        entityManager.persist(payment(student, "TXN2", "99.50", Payment.PaymentType.MESS_PASS_RECHARGE));
+        entityManager.persist(payment(student, "TXN3", "40.00", Payment.PaymentType.MEAL_PAYMENT));
+        entityManager.flush();
+    }
+
+    @Test
+    void testWriteReport_ShouldStreamOneJsonObjectPerLine() throws Exception {
+        String report = render(PaymentReportService.Format.NDJSON);
+
+        assertThat(report.split("\n")).hasSize(2);
+        assertThat(report).contains("\"transactionId\":\"TXN1\"", "\"amount\":150.00", "\"amount\":99.50",
+                "\"userEmail\":\"student@test.com\"", "\"messPassId\":null");
+        assertThat(report).doesNotContain("TXN3");
+    }
+
+    @Test
+    void testWriteReport_ShouldStreamCsvWithHeader() throws Exception {
+        String[] lines = render(PaymentReportService.Format.CSV).split("\n");
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("transactionId,createdAt,");
+        assertThat(lines[1]).startsWith("TXN1,").contains(",MESS_PASS_RECHARGE,COMPLETED,150.00,");
+    }
+
+    private String render(PaymentReportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportService.writeReport(Payment.PaymentType.MESS_PASS_RECHARGE,
+                LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Payment payment(User user, String transactionId, String amount, Payment.PaymentType type) {
+        Payment payment = new Payment();
+        payment.setUser(user);
+        payment.setAmount(Money.valueOf(amount));
+        payment.setPaymentType(type);
+        payment.setStatus(Payment.PaymentStatus.COMPLETED);
+        payment.setTransactionId(transactionId);
+        return payment;
+    }
+}
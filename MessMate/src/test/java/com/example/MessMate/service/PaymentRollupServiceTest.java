@@ -0,0 +1,87 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.PaymentRollupEntry;
+import com.example.MessMate.entity.Money;
+import com.example.MessMate.entity.Payment;
+import com.example.MessMate.repository.JobLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class PaymentRollupServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    private PaymentRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new PaymentRollupService(jdbcTemplate, transactionManager,
+                new JobLeaseService(jdbcTemplate, jobLeaseRepository), 31, 2);
+    }
+
+    @Test
+    void testRecordStatusChange_ShouldMoveAmountBetweenStatusBuckets() {
+        Payment first = payment("100.00", LocalDateTime.of(2030, 3, 2, 9, 0));
+        Payment second = payment("50.50", LocalDateTime.of(2030, 3, 2, 13, 0));
+        rollupService.recordCreated(first);
+        rollupService.recordCreated(second);
+
+        rollupService.recordStatusChange(second, Payment.PaymentStatus.PENDING, Payment.PaymentStatus.COMPLETED);
+
+        List<PaymentRollupEntry> summary = rollupService.summarize(LocalDate.of(2030, 3, 1), LocalDate.of(2030, 3, 31),
+                PaymentRollupService.Granularity.DAY, null);
+
+        assertThat(summary).hasSize(2);
+        assertThat(summary).filteredOn(entry -> entry.getStatus() == Payment.PaymentStatus.PENDING)
+                .singleElement()
+                .satisfies(entry -> {
+                    assertThat(entry.getCount()).isEqualTo(1);
+                    assertThat(entry.getAmount()).isEqualTo(Money.valueOf("100.00"));
+                });
+        assertThat(summary).filteredOn(entry -> entry.getStatus() == Payment.PaymentStatus.COMPLETED)
+                .singleElement()
+                .satisfies(entry -> assertThat(entry.getAmount()).isEqualTo(Money.valueOf("50.50")));
+    }
+
+    @Test
+    void testSummarize_ShouldMergeDaysIntoMonths() {
+        rollupService.recordCreated(payment("10.00", LocalDateTime.of(2031, 5, 1, 8, 0)));
+        rollupService.recordCreated(payment("20.00", LocalDateTime.of(2031, 5, 20, 8, 0)));
+        rollupService.recordCreated(payment("30.00", LocalDateTime.of(2031, 6, 3, 8, 0)));
+
+        List<PaymentRollupEntry> summary = rollupService.summarize(LocalDate.of(2031, 5, 1), LocalDate.of(2031, 6, 30),
+                PaymentRollupService.Granularity.MONTH, Payment.PaymentType.MESS_PASS_RECHARGE);
+
+        assertThat(summary).extracting(PaymentRollupEntry::getPeriodStart)
+                .containsExactly(LocalDate.of(2031, 5, 1), LocalDate.of(2031, 6, 1));
+        assertThat(summary.get(0).getCount()).isEqualTo(2);
+        assertThat(summary.get(0).getAmount()).isEqualTo(Money.valueOf("30.00"));
+    }
+
+    private static Payment payment(String amount, LocalDateTime createdAt) {
+        Payment payment = new Payment();
+        payment.setAmount(Money.valueOf(amount));
+        payment.setPaymentType(Payment.PaymentType.MESS_PASS_RECHARGE);
+        payment.setStatus(Payment.PaymentStatus.PENDING);
+        payment.setCreatedAt(createdAt);
+        return payment;
+    }
+}
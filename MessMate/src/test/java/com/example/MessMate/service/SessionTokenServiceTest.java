@@ -0,0 +1,69 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.SessionPrincipal;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionTokenServiceTest {
+
+    private final SessionTokenService tokens = new SessionTokenService(null, new IdGenerator(1L), "test-secret", 60, true);
+
+    @Test
+    void testVerify_ShouldReturnPrincipalOfIssuedToken() {
+        String token = tokens.issue(SessionPrincipal.SubjectType.USER, 42L, "a|b@example.com", "ADMIN");
+
+        SessionPrincipal principal = tokens.verify(token).orElseThrow();
+
+        assertThat(principal.subjectType()).isEqualTo(SessionPrincipal.SubjectType.USER);
+        assertThat(principal.id()).isEqualTo(42L);
+        assertThat(principal.email()).isEqualTo("a|b@example.com");
+        assertThat(principal.role()).isEqualTo("ADMIN");
+        assertThat(principal.expiresAt() - principal.issuedAt()).isEqualTo(3600);
+    }
+
+    @Test
+    void testVerify_ShouldRejectTamperedForeignOrExpiredTokens() {
+        long now = Instant.now().getEpochSecond();
+        String token = tokens.issue(SessionPrincipal.SubjectType.STUDENT, 7L, "s@example.com", "STUDENT", now);
+        String[] parts = token.split("\\.");
+        String otherPayload = tokens.issue(SessionPrincipal.SubjectType.USER, 7L, "s@example.com", "ADMIN", now).split("\\.")[0];
+        SessionTokenService otherKey = new SessionTokenService(null, new IdGenerator(1L), "other-secret", 60, true);
+
+        assertThat(tokens.verify(otherPayload + "." + parts[1], now)).isEmpty();
+        assertThat(otherKey.verify(token, now)).isEmpty();
+        assertThat(tokens.verify(token, now + 3600)).isEmpty();
+        assertThat(tokens.verify("not-a-token", now)).isEmpty();
+        assertThat(tokens.verify(token, now)).isPresent();
+    }
+
+    @Test
+    void testConstructor_ShouldRequireLongSecretOutsideDevelopmentProfiles() {
+        assertThatThrownBy(() -> new SessionTokenService(null, new IdGenerator(1L), "", 60, false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("AUTH_TOKEN_SECRET");
+        assertThatThrownBy(() -> new SessionTokenService(null, new IdGenerator(1L), "test-secret", 60, false))
+                .isInstanceOf(IllegalStateException.class);
+
+        SessionTokenService production = new SessionTokenService(null, new IdGenerator(1L),
+                "0123456789abcdef0123456789abcdef", 60, false);
+        String token = production.issue(SessionPrincipal.SubjectType.USER, 1L, "u@example.com", "STAFF");
+        assertThat(production.verify(token)).isPresent();
+        // Dev and test may run without a secret on a random per-process key
+        assertThat(new SessionTokenService(null, new IdGenerator(1L), "", 60, true).verify(token)).isEmpty();
+    }
+
+    @Test
+    void testVerify_ShouldRejectRevokedToken() {
+        String token = tokens.issue(SessionPrincipal.SubjectType.USER, 1L, "u@example.com", "STAFF");
+        SessionPrincipal principal = tokens.verify(token).orElseThrow();
+
+        tokens.markRevoked(principal.tokenId(), principal.expiresAt());
+
+        assertThat(tokens.verify(token)).isEmpty();
+        assertThat(tokens.verify(tokens.issue(SessionPrincipal.SubjectType.USER, 1L, "u@example.com", "STAFF"))).isPresent();
+    }
+}
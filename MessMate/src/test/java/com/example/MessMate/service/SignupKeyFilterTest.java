@@ -0,0 +1,105 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.User;
+import com.example.MessMate.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+class SignupKeyFilterTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SignupKeyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(user("known@test.com", "CS001"));
+        entityManager.flush();
+
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new SignupKeyFilter(jdbcTemplate, userRepository, meterRegistry, 1000, 0.01);
+    }
+
+    @Test
+    void testMightContain_ShouldAnswerYesUntilBuilt() {
+        assertThat(filter.mightContainEmail("new@test.com")).isTrue();
+    }
+
+    @Test
+    void testMightContain_ShouldLetNewKeysSkipThePreCheck() {
+        filter.rebuild();
+
+        assertThat(filter.mightContainEmail("known@test.com")).isTrue();
+        assertThat(filter.mightContainRollNumber("CS001")).isTrue();
+        assertThat(filter.mightContainEmail("new@test.com")).isFalse();
+        assertThat(filter.mightContainRollNumber("CS999")).isFalse();
+        assertThat(filter.mightContainRollNumber(null)).isFalse();
+
+        filter.add("new@test.com", "CS999");
+
+        assertThat(filter.mightContainEmail("new@test.com")).isTrue();
+        assertThat(filter.mightContainRollNumber("CS999")).isTrue();
+        assertThat(meterRegistry.get("messmate.signup.precheck").tag("result", "skipped").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void testBloomFilter_ShouldStayNearItsFalsePositiveRate() {
+        SignupKeyFilter.BloomFilter bloom = new SignupKeyFilter.BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloom.add("student" + i + "@college.edu");
+        }
+
+        int falsePositives = 0;
+        for (int i = 10_000; i < 20_000; i++) {
+            if (bloom.mightContain("student" + i + "@college.edu")) {
+                falsePositives++;
+            }
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(bloom.mightContain("student" + i + "@college.edu")).isTrue();
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void testTranslate_ShouldReportTheDuplicateKeyAfterAConstraintViolation() {
+        filter.rebuild();
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("duplicate key");
+
+        assertThatThrownBy(() -> { throw filter.translate(violation, "known@test.com", "CS777"); })
+                .hasMessage("Email already exists");
+        assertThatThrownBy(() -> { throw filter.translate(violation, "other@test.com", "CS001"); })
+                .hasMessage("Roll number already exists");
+        assertThat(filter.translate(violation, "other@test.com", "CS777")).isSameAs(violation);
+        assertThat(meterRegistry.get("messmate.signup.conflicts").counter().count()).isEqualTo(2.0);
+    }
+
+    private static User user(String email, String rollNumber) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setPassword("password123");
+        user.setUserType(User.UserType.STUDENT);
+        user.setRollNumber(rollNumber);
+        return user;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.ImportResult;
+import com.example.MessMate.entity.User;
+import com.example.MessMate.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class StudentImportServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private PasswordHashingService passwordHashingService;
+    private StudentImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        passwordHashingService = new PasswordHashingService(meterRegistry, 1, 16, 4, 250, 4, 4, 5000);
+        importService = new StudentImportService(jdbcTemplate, transactionManager, passwordHashingService,
+                new DashboardCounters(jdbcTemplate, meterRegistry), new HostelRosterIndex(jdbcTemplate),
+                new ObjectMapper(), meterRegistry, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void testImportCsv_ShouldInsertValidRowsAndReportTheRest() throws Exception {
+        User existing = new User();
+        existing.setName("Existing");
+        existing.setEmail("taken@example.com");
+        existing.setPassword("x");
+        existing.setUserType(User.UserType.STUDENT);
+        existing.setRollNumber("R000");
+        userRepository.saveAndFlush(existing);
+        String csv = """
+                Email,Name,Password,Roll_Number,Hostel,Room,Phone
+                one@example.com,"Singh, Amar",pw1,R001,A,101,9000000001
+                two@example.com,Two,pw2,R002,B,102,9000000002
+                one@example.com,Again,pw3,R003,B,103,9000000003
+                taken@example.com,Taken,pw4,R004,B,104,9000000004
+                four@example.com,Four,pw5,R001,B,105,9000000005
+                five@example.com,Five,,R005,B,106,9000000006
+                six@example.com,Six,pw6,R006,C,107,9000000007
+                """;
+
+        ImportResult result = importService.importStudents(stream(csv),
+                StudentImportService.Format.CSV, StudentImportService.Target.STUDENTS);
+
+        assertThat(result.getTotal()).isEqualTo(7);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getErrors()).extracting(ImportResult.RowError::getRow).containsExactly(3L, 5L, 6L, 4L);
+        assertThat(result.getErrors()).filteredOn(error -> error.getRow() == 4)
+                .singleElement()
+                .satisfies(error -> assertThat(error.getMessage()).isEqualTo("Email already exists"));
+
+        User imported = userRepository.findByEmail("one@example.com").orElseThrow();
+        assertThat(imported.getName()).isEqualTo("Singh, Amar");
+        assertThat(imported.getUserType()).isEqualTo(User.UserType.STUDENT);
+        assertThat(passwordHashingService.matches("pw1", imported.getPassword())).isTrue();
+        assertThat(userRepository.findByEmail("six@example.com")).isPresent();
+    }
+
+    @Test
+    void testImportJson_ShouldCreateUserAccounts() throws Exception {
+        String json = """
+                [
+                  {"name": "Staff One", "email": "staff1@example.com", "password": "pw", "userType": "staff"},
+                  {"name": "Student", "email": "student1@example.com", "password": "pw", "rollNumber": "U001"},
+                  {"name": "Bad", "email": "bad@example.com", "password": "pw", "userType": "guest"}
+                ]
+                """;
+
+        ImportResult result = importService.importStudents(stream(json),
+                StudentImportService.Format.JSON, StudentImportService.Target.USERS);
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getEmail()).isEqualTo("bad@example.com"));
+        assertThat(userRepository.findByEmail("staff1@example.com").orElseThrow().getUserType()).isEqualTo(User.UserType.STAFF);
+        assertThat(userRepository.findByEmail("student1@example.com").orElseThrow().getRollNumber()).isEqualTo("U001");
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
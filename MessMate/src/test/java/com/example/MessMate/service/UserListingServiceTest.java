@@ -0,0 +1,101 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+class UserListingServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private UserListingService listingService;
+
+    @BeforeEach
+    void setUp() {
+        listingService = new UserListingService(jdbcTemplate, transactionManager, 2);
+
+        entityManager.persist(user("Asha Rao", "asha@test.com", User.UserType.STUDENT, "CS001"));
+        entityManager.persist(user("Bala Nair", "bala@test.com", User.UserType.STAFF, null));
+        entityManager.persist(user("Chitra Das", "chitra@test.com", User.UserType.STUDENT, "CS002"));
+        entityManager.flush();
+    }
+
+    @Test
+    void testWriteUsers_ShouldStreamEnvelopeWithoutPasswords() throws Exception {
+        JsonNode body = render(null, null, null);
+
+        assertThat(body.get("success").asBoolean()).isTrue();
+        assertThat(body.get("data")).hasSize(3);
+        assertThat(body.get("data").get(0).get("email").asText()).isEqualTo("asha@test.com");
+        assertThat(body.get("data").get(0).get("userType").asText()).isEqualTo("STUDENT");
+        assertThat(body.get("data").get(1).get("rollNumber").isNull()).isTrue();
+        assertThat(body.get("data").get(0).has("password")).isFalse();
+        assertThat(body.has("nextAfterId")).isFalse();
+    }
+
+    @Test
+    void testWriteUsers_ShouldFilterByType() throws Exception {
+        JsonNode body = render(User.UserType.STAFF, null, null);
+
+        assertThat(body.get("data")).hasSize(1);
+        assertThat(body.get("data").get(0).get("name").asText()).isEqualTo("Bala Nair");
+    }
+
+    @Test
+    void testWriteUsers_ShouldPageByIdUntilExhausted() throws Exception {
+        JsonNode first = render(User.UserType.STUDENT, null, 1);
+        assertThat(first.get("data")).hasSize(1);
+        assertThat(first.get("data").get(0).get("email").asText()).isEqualTo("asha@test.com");
+
+        JsonNode second = render(User.UserType.STUDENT, first.get("nextAfterId").asLong(), 1);
+        assertThat(second.get("data").get(0).get("email").asText()).isEqualTo("chitra@test.com");
+
+        JsonNode last = render(User.UserType.STUDENT, second.get("nextAfterId").asLong(), 1);
+        assertThat(last.get("data")).isEmpty();
+        assertThat(last.get("nextAfterId").isNull()).isTrue();
+    }
+
+    @Test
+    void testWriteUsers_ShouldRejectOversizedPage() {
+        assertThatThrownBy(() -> render(null, null, UserListingService.MAX_PAGE_SIZE + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private JsonNode render(User.UserType type, Long afterId, Integer limit) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        listingService.writeUsers(type, afterId, limit, out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    private static User user(String name, String email, User.UserType type, String rollNumber) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPassword("secret-hash");
+        user.setUserType(type);
+        user.setRollNumber(rollNumber);
+        return user;
+    }
+}
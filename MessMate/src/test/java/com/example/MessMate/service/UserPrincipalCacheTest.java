@@ -0,0 +1,69 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.UserPrincipal;
+import com.example.MessMate.entity.User;
+import com.example.MessMate.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class UserPrincipalCacheTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private MeterRegistry meterRegistry;
+    private UserPrincipalCache cache;
+    private User student;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UserPrincipalCache(userRepository, meterRegistry, 300, 100);
+
+        student = new User();
+        student.setName("Cache Student");
+        student.setEmail("cache@test.com");
+        student.setPassword("password123");
+        student.setUserType(User.UserType.STUDENT);
+        student.setRollNumber("CACHE001");
+        student.setHostel("H4");
+        entityManager.persistAndFlush(student);
+    }
+
+    @Test
+    void testResolve_ShouldLoadOnceAndServeRepeatsFromCache() {
+        UserPrincipal first = cache.resolve("cache@test.com").orElseThrow();
+        UserPrincipal second = cache.resolve("cache@test.com").orElseThrow();
+
+        assertThat(first).isEqualTo(new UserPrincipal(student.getId(), "cache@test.com", User.UserType.STUDENT, "H4"));
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.get("messmate.identity.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("messmate.identity.cache.requests").tag("result", "miss").counter().count()).isEqualTo(1.0);
+        assertThat(cache.resolve("nobody@test.com")).isEmpty();
+    }
+
+    @Test
+    void testEvict_ShouldDropEntryCachedUnderAnOldEmail() {
+        cache.resolve("cache@test.com");
+
+        student.setEmail("renamed@test.com");
+        student.setHostel("H7");
+        entityManager.persistAndFlush(student);
+        cache.evict(student.getId(), student.getEmail());
+
+        assertThat(cache.resolve("cache@test.com")).isEmpty();
+        assertThat(cache.resolve("renamed@test.com")).hasValueSatisfying(principal ->
+                assertThat(principal.hostel()).isEqualTo("H7"));
+    }
+}
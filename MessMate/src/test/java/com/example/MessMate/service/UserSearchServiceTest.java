@@ -0,0 +1,69 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.dto.SearchPage;
+import com.example.MessMate.entity.User;
+import com.example.MessMate.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class UserSearchServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UserSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        searchService = new UserSearchService(jdbcTemplate);
+        save("Ravi Kumar", "ravi@example.com", User.UserType.STUDENT, "CS2101");
+        save("Aravind Rao", "aravind@example.com", User.UserType.STUDENT, "CS2102");
+        save("Ravi", "staff.ravi@example.com", User.UserType.STAFF, null);
+        save("Meena 100%", "meena@example.com", User.UserType.STUDENT, "EE2101");
+    }
+
+    @Test
+    void testSearch_ShouldRankExactThenPrefixAndPage() {
+        assertThat(searchService.isTrigramAvailable()).isFalse();
+
+        SearchPage<User> first = searchService.search("  RAVI ", null, 0, 2);
+        SearchPage<User> second = searchService.search("ravi", null, 1, 2);
+
+        assertThat(first.getItems()).extracting(User::getName).containsExactly("Ravi", "Ravi Kumar");
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(second.getItems()).extracting(User::getName).containsExactly("Aravind Rao");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(first.getItems().get(0).getPassword()).isNull();
+    }
+
+    @Test
+    void testSearch_ShouldFilterByTypeAndMatchRollNumbersAndLiteralWildcards() {
+        assertThat(searchService.search("ravi", User.UserType.STUDENT, 0, 20).getItems())
+                .extracting(User::getName).containsExactly("Ravi Kumar", "Aravind Rao");
+        assertThat(searchService.search("2101", null, 0, 20).getItems())
+                .extracting(User::getRollNumber).containsExactlyInAnyOrder("CS2101", "EE2101");
+        assertThat(searchService.search("0%", null, 0, 20).getItems())
+                .extracting(User::getName).containsExactly("Meena 100%");
+        assertThat(searchService.search("%", null, 0, 20).getItems()).hasSize(1);
+        assertThat(searchService.search(" ", null, 0, 20).getItems()).isEmpty();
+    }
+
+    private void save(String name, String email, User.UserType userType, String rollNumber) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPassword("hash");
+        user.setUserType(userType);
+        user.setRollNumber(rollNumber);
+        userRepository.saveAndFlush(user);
+    }
+}
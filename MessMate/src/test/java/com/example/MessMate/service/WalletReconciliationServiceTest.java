@@ -0,0 +1,242 @@
+package com.example.MessMate.service;
+
+import com.example.MessMate.entity.BalanceAdjustment;
+import com.example.MessMate.entity.MessPass;
+import com.example.MessMate.entity.Money;
+import com.example.MessMate.entity.Payment;
+import com.example.MessMate.entity.ReconciliationPartition;
+import com.example.MessMate.entity.User;
+import com.example.MessMate.entity.WalletMismatch;
+import com.example.MessMate.repository.JobLeaseRepository;
+import com.example.MessMate.repository.MessPassRepository;
+import com.example.MessMate.repository.PaymentRepository;
+import com.example.MessMate.repository.ReconciliationPartitionRepository;
+import com.example.MessMate.repository.WalletMismatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Partitions are checked on worker threads in their own transactions, so fixtures are committed
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WalletReconciliationServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    @Autowired
+    private ReconciliationPartitionRepository partitionRepository;
+
+    @Autowired
+    private WalletMismatchRepository mismatchRepository;
+
+    @Autowired
+    private MessPassRepository messPassRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private JobLeaseService jobLeaseService;
+    private WalletReconciliationService reconciliationService;
+    private long firstPassId;
+
+    @BeforeEach
+    void setUp() {
+        jobLeaseService = new JobLeaseService(jdbcTemplate, jobLeaseRepository);
+        // Two passes per partition, so the five passes below make three partitions
+        reconciliationService = new WalletReconciliationService(jdbcTemplate, transactionManager, jobLeaseService,
+                new IdGenerator(1L), partitionRepository, mismatchRepository, new SimpleMeterRegistry(), 2, 2, 10);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Recharged 100, spent 30 on a meal
+            MessPass spent = pass("spent", 70);
+            payment(spent, Payment.PaymentType.MESS_PASS_RECHARGE, Payment.PaymentStatus.COMPLETED, 100);
+            payment(spent, Payment.PaymentType.MEAL_PAYMENT, Payment.PaymentStatus.COMPLETED, 30);
+            // The 20 recharge never completed, yet the balance includes it
+            MessPass drifted = pass("drifted", 70);
+            payment(drifted, Payment.PaymentType.MESS_PASS_RECHARGE, Payment.PaymentStatus.COMPLETED, 50);
+            payment(drifted, Payment.PaymentType.MESS_PASS_RECHARGE, Payment.PaymentStatus.PENDING, 20);
+            // Recharged 300, capped to 200 at renewal
+            MessPass capped = pass("capped", 200);
+            payment(capped, Payment.PaymentType.MESS_PASS_RECHARGE, Payment.PaymentStatus.COMPLETED, 300);
+            entityManager.persist(new BalanceAdjustment(null, capped.getId(), Money.ofRupees(-100),
+                    BalanceAdjustment.Reason.CARRY_OVER_CAP, LocalDateTime.now()));
+            MessPass refunded = pass("refunded", 10);
+            payment(refunded, Payment.PaymentType.REFUND, Payment.PaymentStatus.COMPLETED, 10);
+            pass("unused", 0);
+            firstPassId = spent.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        reconciliationService.shutdown();
+        jdbcTemplate.update("DELETE FROM wallet_mismatches");
+        jdbcTemplate.update("DELETE FROM reconciliation_partitions");
+        jdbcTemplate.update("DELETE FROM balance_adjustments");
+        jdbcTemplate.update("DELETE FROM payments");
+        jdbcTemplate.update("DELETE FROM mess_passes");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("DELETE FROM job_leases");
+    }
+
+    @Test
+    void testRun_ShouldPartitionPassesAndReportOnlyUnbackedBalances() {
+        acquire();
+        reconciliationService.run("REC-1", true);
+
+        List<ReconciliationPartition> partitions = reconciliationService.getPartitions("REC-1");
+        assertThat(partitions).hasSize(3);
+        assertThat(partitions).allSatisfy(partition -> assertThat(partition.getCompletedAt()).isNotNull());
+        assertThat(partitions).extracting(ReconciliationPartition::getPassesChecked).containsExactly(2L, 2L, 1L);
+
+        List<WalletMismatch> mismatches = reconciliationService.getMismatches("REC-1");
+        assertThat(mismatches).singleElement().satisfies(mismatch -> {
+            assertThat(mismatch.getMessPassId()).isEqualTo(firstPassId + 1);
+            assertThat(mismatch.getRecordedBalance()).isEqualTo(Money.ofRupees(70));
+            assertThat(mismatch.getExpectedBalance()).isEqualTo(Money.ofRupees(50));
+            assertThat(mismatch.getDifference()).isEqualTo(Money.ofRupees(20));
+        });
+        assertThat(jobLeaseService.getJob(WalletReconciliationService.RECONCILIATION_JOB).orElseThrow().getMessage())
+                .isEqualTo("Run REC-1: checked 5 passes, found 1 mismatches");
+    }
+
+    @Test
+    void testRun_ShouldResumeOnlyPartitionsStillOpen() {
+        // A run that died after finishing its first partition
+        Timestamp earlier = Timestamp.valueOf(LocalDateTime.now().minusMinutes(5));
+        jdbcTemplate.update("INSERT INTO reconciliation_partitions (run_id, first_pass_id, last_pass_id, passes_checked, mismatches, completed_at) " +
+                "VALUES ('REC-2', ?, ?, 2, 1, ?)", firstPassId, firstPassId + 1, earlier);
+        jdbcTemplate.update("INSERT INTO reconciliation_partitions (run_id, first_pass_id, last_pass_id) VALUES ('REC-2', ?, ?)",
+                firstPassId + 2, firstPassId + 3);
+        jdbcTemplate.update("INSERT INTO reconciliation_partitions (run_id, first_pass_id, last_pass_id) VALUES ('REC-2', ?, ?)",
+                firstPassId + 4, firstPassId + 4);
+        assertThat(partitionRepository.findTopByCompletedAtIsNullOrderByIdDesc())
+                .map(ReconciliationPartition::getRunId).contains("REC-2");
+
+        acquire();
+        reconciliationService.run("REC-2", false);
+
+        List<ReconciliationPartition> partitions = reconciliationService.getPartitions("REC-2");
+        assertThat(partitions).allSatisfy(partition -> assertThat(partition.getCompletedAt()).isNotNull());
+        // The finished partition keeps the counts it was closed with
+        assertThat(partitions).extracting(ReconciliationPartition::getMismatches).containsExactly(1L, 0L, 0L);
+        // The drifted pass sits in the finished partition, so the resumed run does not see it again
+        assertThat(reconciliationService.getMismatches("REC-2")).isEmpty();
+        assertThat(jobLeaseService.getJob(WalletReconciliationService.RECONCILIATION_JOB).orElseThrow().getMessage())
+                .isEqualTo("Run REC-2: checked 3 passes, found 0 mismatches");
+        assertThat(partitionRepository.findTopByCompletedAtIsNullOrderByIdDesc()).isEmpty();
+    }
+
+    @Test
+    void testRun_ShouldMatchCounterRechargesAndDeductionsMadeThroughPayments() {
+        IdGenerator idGenerator = new IdGenerator(1L);
+        MessPassService messPassService = new MessPassService(messPassRepository, idGenerator);
+        PaymentService paymentService = new PaymentService(paymentRepository, idGenerator, messPassService,
+                new LocalPaymentGateway("secret"), new TransactionTemplate(transactionManager),
+                new PaymentRollupService(jdbcTemplate, transactionManager, jobLeaseService, 31, 1));
+        long unused = firstPassId + 4;
+
+        paymentService.rechargeMessPass(unused, Money.ofRupees(50));
+        Payment meal = paymentService.processMealPayment(unused, Money.ofRupees(20), "Meal charge at the counter");
+        assertThatThrownBy(() -> paymentService.processMealPayment(unused, Money.ofRupees(31), "Too much"))
+                .hasMessage("Insufficient balance");
+
+        assertThat(meal.getMessPass().getBalance()).isEqualTo(Money.ofRupees(30));
+        acquire();
+        reconciliationService.run("REC-3", true);
+        assertThat(reconciliationService.getMismatches("REC-3")).extracting(WalletMismatch::getMessPassId)
+                .containsExactly(firstPassId + 1);
+    }
+
+    @Test
+    void testUpdatePaymentStatus_ShouldCreditPassWhenAdminCompletesPendingRecharge() {
+        IdGenerator idGenerator = new IdGenerator(1L);
+        MessPassService messPassService = new MessPassService(messPassRepository, idGenerator);
+        PaymentService paymentService = new PaymentService(paymentRepository, idGenerator, messPassService,
+                new LocalPaymentGateway("secret"), new TransactionTemplate(transactionManager),
+                new PaymentRollupService(jdbcTemplate, transactionManager, jobLeaseService, 31, 1));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        MessPass unused = messPassRepository.findById(firstPassId + 4).orElseThrow();
+
+        Payment pending = paymentService.initiateMessPassRecharge(unused.getUser(), unused, Money.ofRupees(40), null);
+        transactionTemplate.execute(status -> paymentService.updatePaymentStatus(pending.getId(), Payment.PaymentStatus.COMPLETED));
+        // The gateway confirmation arriving afterwards must not credit it a second time
+        String replay = transactionTemplate.execute(status ->
+                paymentService.applyGatewayResult(pending.getTransactionId(), true, Money.ofRupees(40)));
+        assertThat(replay).isEqualTo("ALREADY_COMPLETED");
+
+        assertThat(messPassRepository.findById(unused.getId()).orElseThrow().getBalance()).isEqualTo(Money.ofRupees(40));
+        acquire();
+        reconciliationService.run("REC-4", true);
+        assertThat(reconciliationService.getMismatches("REC-4")).extracting(WalletMismatch::getMessPassId)
+                .containsExactly(firstPassId + 1);
+
+        Payment failed = paymentService.initiateMessPassRecharge(unused.getUser(), unused, Money.ofRupees(10), null);
+        transactionTemplate.execute(status -> paymentService.updatePaymentStatus(failed.getId(), Payment.PaymentStatus.FAILED));
+        assertThatThrownBy(() -> transactionTemplate.execute(status ->
+                paymentService.updatePaymentStatus(failed.getId(), Payment.PaymentStatus.COMPLETED)))
+                .hasMessage("A recharge can only be completed from PENDING");
+        assertThat(messPassRepository.findById(unused.getId()).orElseThrow().getBalance()).isEqualTo(Money.ofRupees(40));
+    }
+
+    private void acquire() {
+        assertThat(jobLeaseService.tryAcquire(WalletReconciliationService.RECONCILIATION_JOB, Duration.ofMinutes(1))).isTrue();
+    }
+
+    private MessPass pass(String name, long balanceRupees) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@test.com");
+        user.setPassword("x");
+        user.setUserType(User.UserType.STUDENT);
+        entityManager.persist(user);
+
+        MessPass pass = new MessPass();
+        pass.setUser(user);
+        pass.setPassNumber(name);
+        pass.setPassType(MessPass.PassType.MONTHLY);
+        pass.setValidFrom(LocalDate.of(2026, 10, 1));
+        pass.setValidUntil(LocalDate.of(2026, 10, 31));
+        pass.setBalance(Money.ofRupees(balanceRupees));
+        entityManager.persist(pass);
+        return pass;
+    }
+
+    private void payment(MessPass pass, Payment.PaymentType type, Payment.PaymentStatus status, long rupees) {
+        Payment payment = new Payment();
+        payment.setUser(pass.getUser());
+        payment.setMessPass(pass);
+        payment.setAmount(Money.ofRupees(rupees));
+        payment.setPaymentType(type);
+        payment.setStatus(status);
+        entityManager.persist(payment);
+    }
+}